@@ -38,6 +38,7 @@ import java.io.DataOutputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
@@ -248,33 +249,56 @@ public abstract class BaseModel implements Model {
 
         String fileName = String.format(Locale.ROOT, "%s-%04d.params", newModelName, epoch);
         Path paramFile = modelPath.resolve(fileName);
-        try (DataOutputStream dos =
-                new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(paramFile)))) {
-            dos.writeBytes("DJL@");
-            dos.writeInt(MODEL_VERSION);
-            dos.writeUTF(newModelName);
-            dos.writeUTF(dataType.name());
-            inputData = block.describeInput();
-            dos.writeInt(inputData.size());
-            for (Pair<String, Shape> desc : inputData) {
-                String name = desc.getKey();
-                if (name == null) {
-                    dos.writeUTF("");
-                } else {
-                    dos.writeUTF(name);
-                }
-                dos.write(desc.getValue().getEncoded());
-            }
+        try (OutputStream os = new BufferedOutputStream(Files.newOutputStream(paramFile))) {
+            saveParameters(os, newModelName);
+        }
+        modelDir = modelPath.toAbsolutePath();
+    }
+
+    /**
+     * Writes the model to a stream in the format of the {@code .params} file saved by {@link
+     * #save(Path, String)}.
+     *
+     * <p>This allows to take a snapshot of the parameters in memory and write the file later, for
+     * example on a background thread.
+     *
+     * @param os the stream to write to
+     * @param newModelName the name of the model in the file, the model name if {@code null}
+     * @throws IOException if failed to write to the stream
+     */
+    public void saveParameters(OutputStream os, String newModelName) throws IOException {
+        if (newModelName == null || newModelName.isEmpty()) {
+            newModelName = modelName;
+        }
+        if (block == null || !block.isInitialized()) {
+            throw new IllegalStateException("Model has not be trained or loaded yet.");
+        }
 
-            dos.writeInt(properties.size());
-            for (Map.Entry<String, String> entry : properties.entrySet()) {
-                dos.writeUTF(entry.getKey());
-                dos.writeUTF(entry.getValue());
+        DataOutputStream dos = new DataOutputStream(os);
+        dos.writeBytes("DJL@");
+        dos.writeInt(MODEL_VERSION);
+        dos.writeUTF(newModelName);
+        dos.writeUTF(dataType.name());
+        inputData = block.describeInput();
+        dos.writeInt(inputData.size());
+        for (Pair<String, Shape> desc : inputData) {
+            String name = desc.getKey();
+            if (name == null) {
+                dos.writeUTF("");
+            } else {
+                dos.writeUTF(name);
             }
+            dos.write(desc.getValue().getEncoded());
+        }
 
-            block.saveParameters(dos);
+        dos.writeInt(properties.size());
+        for (Map.Entry<String, String> entry : properties.entrySet()) {
+            dos.writeUTF(entry.getKey());
+            dos.writeUTF(entry.getValue());
         }
-        modelDir = modelPath.toAbsolutePath();
+
+        block.saveParameters(dos);
+        dos.flush();
     }
 
     /** {@inheritDoc} */
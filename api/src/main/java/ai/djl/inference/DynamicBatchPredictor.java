@@ -0,0 +1,388 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.inference;
+
+import ai.djl.metric.Metrics;
+import ai.djl.metric.Unit;
+import ai.djl.translate.TranslateException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@code DynamicBatchPredictor} collects single requests from many threads and runs them as one
+ * batch through a wrapped {@link Predictor}.
+ *
+ * <p>Requests are queued and a single worker thread flushes the queue once {@code maxBatchSize}
+ * requests have arrived or {@code maxBatchDelay} has elapsed since the first request of the batch,
+ * whichever comes first. The batch is passed to {@link Predictor#batchPredict(List)}, so it goes
+ * through the translator's {@link ai.djl.translate.Batchifier}, and each caller is completed
+ * through its own {@link CompletableFuture}.
+ *
+ * <pre>
+ * try (DynamicBatchPredictor&lt;Image, Classifications&gt; predictor =
+ *         DynamicBatchPredictor.builder(model.newPredictor())
+ *                 .optMaxBatchSize(32)
+ *                 .optMaxBatchDelay(5)
+ *                 .build()) {
+ *     // called concurrently from many request threads
+ *     Classifications result = predictor.predict(image);
+ * }
+ * </pre>
+ *
+ * <p>The wrapped {@link Predictor} is only used by the worker thread and is closed together with
+ * the {@code DynamicBatchPredictor}.
+ *
+ * @param <I> the input type
+ * @param <O> the output type
+ */
+public class DynamicBatchPredictor<I, O> implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(DynamicBatchPredictor.class);
+
+    private static final long POLL_INTERVAL = 100;
+
+    private Predictor<I, O> predictor;
+    private int maxBatchSize;
+    private long maxBatchDelay;
+    private long queueTimeout;
+    private long requestTimeout;
+    private Metrics metrics;
+    private BlockingQueue<Request<I, O>> queue;
+    private Thread worker;
+    private volatile boolean running;
+
+    DynamicBatchPredictor(Builder<I, O> builder) {
+        predictor = builder.predictor;
+        maxBatchSize = builder.maxBatchSize;
+        maxBatchDelay = TimeUnit.MILLISECONDS.toNanos(builder.maxBatchDelay);
+        queueTimeout = TimeUnit.MILLISECONDS.toNanos(builder.queueTimeout);
+        requestTimeout = TimeUnit.MILLISECONDS.toNanos(builder.requestTimeout);
+        metrics = builder.metrics;
+        queue = new LinkedBlockingQueue<>(builder.maxQueueSize);
+        running = true;
+        worker = new Thread(this::run, "dynamic-batch-predictor");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Creates a builder to build a {@code DynamicBatchPredictor} around the given {@link
+     * Predictor}.
+     *
+     * @param predictor the predictor that runs the batches
+     * @param <I> the input type
+     * @param <O> the output type
+     * @return a new builder
+     */
+    public static <I, O> Builder<I, O> builder(Predictor<I, O> predictor) {
+        return new Builder<>(predictor);
+    }
+
+    /**
+     * Submits an item for inference and returns immediately.
+     *
+     * <p>The returned future fails with a {@link TranslateException} if the request queue stays
+     * full for longer than the queue timeout, if the request deadline expires before the request is
+     * batched, or if the batch fails.
+     *
+     * @param input the input
+     * @return a future holding the output object defined by the user
+     */
+    public CompletableFuture<O> predictAsync(I input) {
+        Request<I, O> request = new Request<>(input, requestTimeout);
+        if (!running) {
+            request.future.completeExceptionally(
+                    new IllegalStateException("DynamicBatchPredictor is closed."));
+            return request.future;
+        }
+        try {
+            if (!queue.offer(request, queueTimeout, TimeUnit.NANOSECONDS)) {
+                request.future.completeExceptionally(
+                        new TranslateException("Request queue is full, rejecting request."));
+            } else if (!running && queue.remove(request)) {
+                // closed while offering, the queue might already be drained
+                request.future.completeExceptionally(
+                        new IllegalStateException("DynamicBatchPredictor is closed."));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            request.future.completeExceptionally(e);
+        }
+        return request.future;
+    }
+
+    /**
+     * Predicts an item for inference, blocking until its batch has been processed.
+     *
+     * @param input the input
+     * @return the output object defined by the user
+     * @throws TranslateException if an error occurs during prediction
+     */
+    public O predict(I input) throws TranslateException {
+        try {
+            return predictAsync(input).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TranslateException("Interrupted while waiting for prediction.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof TranslateException) {
+                throw (TranslateException) cause;
+            }
+            throw new TranslateException(cause);
+        }
+    }
+
+    /**
+     * Returns the number of requests waiting to be batched.
+     *
+     * @return the number of requests waiting to be batched
+     */
+    public int getQueueLength() {
+        return queue.size();
+    }
+
+    /**
+     * Stops accepting requests, processes the requests already queued and closes the wrapped {@link
+     * Predictor}.
+     */
+    @Override
+    public void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            worker.interrupt();
+        }
+        Request<I, O> request;
+        while ((request = queue.poll()) != null) {
+            request.future.completeExceptionally(
+                    new IllegalStateException("DynamicBatchPredictor is closed."));
+        }
+        predictor.close();
+    }
+
+    private void run() {
+        List<Request<I, O>> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Request<I, O> first = queue.poll(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long flushAt = System.nanoTime() + maxBatchDelay;
+                while (batch.size() < maxBatchSize) {
+                    long wait = flushAt - System.nanoTime();
+                    Request<I, O> next =
+                            wait > 0 ? queue.poll(wait, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                logger.warn("Dynamic batching worker interrupted, stopping.");
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                runBatch(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void runBatch(List<Request<I, O>> batch) {
+        long now = System.nanoTime();
+        List<Request<I, O>> live = new ArrayList<>(batch.size());
+        List<I> inputs = new ArrayList<>(batch.size());
+        for (Request<I, O> request : batch) {
+            if (request.future.isDone()) {
+                // cancelled by the caller
+                continue;
+            }
+            if (request.deadline > 0 && now > request.deadline) {
+                request.future.completeExceptionally(
+                        new TranslateException("Request timed out before inference."));
+                continue;
+            }
+            if (metrics != null) {
+                long queued = (now - request.enqueued) / 1000;
+                metrics.addMetric("QueueTime", queued, Unit.MICROSECONDS);
+            }
+            live.add(request);
+            inputs.add(request.input);
+        }
+        if (live.isEmpty()) {
+            return;
+        }
+        if (metrics != null) {
+            metrics.addMetric("BatchSize", live.size(), Unit.COUNT);
+        }
+
+        try {
+            List<O> outputs = predictor.batchPredict(inputs);
+            if (outputs.size() != live.size()) {
+                throw new TranslateException(
+                        "Expected "
+                                + live.size()
+                                + " outputs from batchPredict, but got "
+                                + outputs.size());
+            }
+            for (int i = 0; i < live.size(); ++i) {
+                live.get(i).future.complete(outputs.get(i));
+            }
+        } catch (Throwable e) {
+            // the worker must keep running, or every later request would never complete
+            if (!(e instanceof TranslateException)) {
+                logger.warn("Batch prediction failed", e);
+            }
+            for (Request<I, O> request : live) {
+                request.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * The Builder to construct a {@link DynamicBatchPredictor}.
+     *
+     * @param <I> the input type
+     * @param <O> the output type
+     */
+    public static final class Builder<I, O> {
+
+        Predictor<I, O> predictor;
+        int maxBatchSize = 32;
+        long maxBatchDelay = 10;
+        int maxQueueSize = 1000;
+        long queueTimeout;
+        long requestTimeout;
+        Metrics metrics;
+
+        Builder(Predictor<I, O> predictor) {
+            this.predictor = predictor;
+        }
+
+        /**
+         * Sets the maximum number of requests in a batch, default is 32.
+         *
+         * @param maxBatchSize the maximum number of requests in a batch
+         * @return this builder
+         */
+        public Builder<I, O> optMaxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        /**
+         * Sets the maximum time in milliseconds to wait for a batch to fill up after its first
+         * request arrived, default is 10.
+         *
+         * @param maxBatchDelay the maximum batching delay in milliseconds
+         * @return this builder
+         */
+        public Builder<I, O> optMaxBatchDelay(long maxBatchDelay) {
+            this.maxBatchDelay = maxBatchDelay;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of requests waiting to be batched, default is 1000.
+         *
+         * @param maxQueueSize the maximum number of queued requests
+         * @return this builder
+         */
+        public Builder<I, O> optMaxQueueSize(int maxQueueSize) {
+            this.maxQueueSize = maxQueueSize;
+            return this;
+        }
+
+        /**
+         * Sets how long in milliseconds a caller waits for space in a full queue before its request
+         * is rejected, default is 0 (reject immediately).
+         *
+         * @param queueTimeout the time to wait for queue space in milliseconds
+         * @return this builder
+         */
+        public Builder<I, O> optQueueTimeout(long queueTimeout) {
+            this.queueTimeout = queueTimeout;
+            return this;
+        }
+
+        /**
+         * Sets the deadline in milliseconds for a request to be picked up for inference, default is
+         * 0 (no deadline).
+         *
+         * @param requestTimeout the request deadline in milliseconds
+         * @return this builder
+         */
+        public Builder<I, O> optRequestTimeout(long requestTimeout) {
+            this.requestTimeout = requestTimeout;
+            return this;
+        }
+
+        /**
+         * Sets the {@link Metrics} to record batch sizes and queueing time.
+         *
+         * @param metrics the {@link Metrics} to record to
+         * @return this builder
+         */
+        public Builder<I, O> optMetrics(Metrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        /**
+         * Builds the {@link DynamicBatchPredictor} and starts its worker thread.
+         *
+         * @return the new {@link DynamicBatchPredictor}
+         */
+        public DynamicBatchPredictor<I, O> build() {
+            if (maxBatchSize < 1) {
+                throw new IllegalArgumentException("maxBatchSize must be positive.");
+            }
+            if (maxQueueSize < 1) {
+                throw new IllegalArgumentException("maxQueueSize must be positive.");
+            }
+            return new DynamicBatchPredictor<>(this);
+        }
+    }
+
+    private static final class Request<I, O> {
+
+        I input;
+        CompletableFuture<O> future;
+        long enqueued;
+        long deadline;
+
+        Request(I input, long timeout) {
+            this.input = input;
+            future = new CompletableFuture<>();
+            enqueued = System.nanoTime();
+            deadline = timeout > 0 ? enqueued + timeout : 0;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.inference;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The executors backing the pipelined mode of a {@link Predictor}.
+ *
+ * <p>Each stage has its own fixed size pool with a bounded hand-off queue. A task submitted to a
+ * full stage blocks the submitting thread, so a slow stage pushes back on the stages in front of it
+ * instead of buffering requests without limit.
+ */
+final class PipelineExecutors {
+
+    private ThreadPoolExecutor preprocess;
+    private ThreadPoolExecutor inference;
+    private ThreadPoolExecutor postprocess;
+
+    PipelineExecutors(int preprocessThreads, int postprocessThreads, int queueCapacity) {
+        preprocess = newStage("preprocess", preprocessThreads, queueCapacity);
+        // the engine stage is single threaded since Predictor.predictInternal is not thread safe
+        inference = newStage("inference", 1, queueCapacity);
+        postprocess = newStage("postprocess", postprocessThreads, queueCapacity);
+    }
+
+    ExecutorService getPreprocess() {
+        return preprocess;
+    }
+
+    ExecutorService getInference() {
+        return inference;
+    }
+
+    ExecutorService getPostprocess() {
+        return postprocess;
+    }
+
+    void shutdown() {
+        preprocess.shutdown();
+        awaitTermination(preprocess);
+        inference.shutdown();
+        awaitTermination(inference);
+        postprocess.shutdown();
+        awaitTermination(postprocess);
+    }
+
+    private static void awaitTermination(ExecutorService executor) {
+        try {
+            if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        }
+    }
+
+    private static ThreadPoolExecutor newStage(String name, int threads, int queueCapacity) {
+        if (threads < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException(
+                    "Pipeline threads and queue capacity must be positive.");
+        }
+        return new ThreadPoolExecutor(
+                threads,
+                threads,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new StageThreadFactory(name),
+                new BlockingPolicy());
+    }
+
+    private static final class StageThreadFactory implements ThreadFactory {
+
+        private String prefix;
+        private AtomicInteger count = new AtomicInteger();
+
+        StageThreadFactory(String stage) {
+            prefix = "predictor-" + stage + '-';
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    private static final class BlockingPolicy implements RejectedExecutionHandler {
+
+        /** {@inheritDoc} */
+        @Override
+        public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+            if (executor.isShutdown()) {
+                throw new RejectedExecutionException("Predictor pipeline is closed.");
+            }
+            try {
+                executor.getQueue().put(r);
+                // the executor may have been shut down while this thread was waiting for space
+                if (executor.isShutdown() && executor.getQueue().remove(r)) {
+                    throw new RejectedExecutionException("Predictor pipeline is closed.");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException("Interrupted while waiting for stage.", e);
+            }
+        }
+    }
+}
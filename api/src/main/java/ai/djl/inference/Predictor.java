@@ -34,7 +34,10 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * The {@code Predictor} interface provides a session for model inference.
@@ -91,6 +94,8 @@ public class Predictor<I, O> implements AutoCloseable {
     protected Metrics metrics;
     protected Block block;
     protected ParameterStore parameterStore;
+    private volatile PipelineExecutors pipeline;
+    private volatile boolean closed;
 
     /**
      * Creates a new instance of {@code BasePredictor} with the given {@link Model} and {@link
@@ -151,10 +156,7 @@ public class Predictor<I, O> implements AutoCloseable {
     public List<O> batchPredict(List<I> inputs) throws TranslateException {
         long begin = System.nanoTime();
         try (PredictorContext context = new PredictorContext()) {
-            if (!prepared) {
-                translator.prepare(context);
-                prepared = true;
-            }
+            prepareTranslator(context);
             Batchifier batchifier = translator.getBatchifier();
             if (batchifier == null) {
                 List<O> ret = new ArrayList<>(inputs.size());
@@ -190,6 +192,80 @@ public class Predictor<I, O> implements AutoCloseable {
         }
     }
 
+    /**
+     * Enables the pipelined mode of this {@code Predictor}.
+     *
+     * <p>In pipelined mode, {@link #predictAsync(Object)} runs {@link
+     * Translator#processInput(TranslatorContext, Object)}, the model forward and {@link
+     * Translator#processOutput(TranslatorContext, NDList)} on separate executor pools, so the
+     * pre-processing and post-processing of some requests overlap with the inference of others. The
+     * forward pass always runs on a single thread. Each stage has a bounded hand-off queue; when a
+     * stage is full, the stage in front of it blocks until space is available.
+     *
+     * <p>The {@link Translator} must be thread-safe to use more than one pre-processing or
+     * post-processing thread.
+     *
+     * @param preprocessThreads the number of pre-processing threads
+     * @param postprocessThreads the number of post-processing threads
+     * @param queueCapacity the maximum number of requests waiting in front of each stage
+     */
+    public synchronized void enablePipeline(
+            int preprocessThreads, int postprocessThreads, int queueCapacity) {
+        if (pipeline != null) {
+            throw new IllegalStateException("Pipelined mode is already enabled.");
+        }
+        pipeline = new PipelineExecutors(preprocessThreads, postprocessThreads, queueCapacity);
+    }
+
+    /**
+     * Predicts an item for inference asynchronously.
+     *
+     * <p>If the pipelined mode is not enabled with {@link #enablePipeline(int, int, int)}, the
+     * prediction runs on the calling thread and a completed future is returned.
+     *
+     * @param input the input
+     * @return a future holding the output object defined by the user, it fails with a {@link
+     *     TranslateException} if an error occurs during prediction, or with an {@link
+     *     IllegalStateException} if the predictor is closed
+     */
+    public CompletableFuture<O> predictAsync(I input) {
+        CompletableFuture<O> future = new CompletableFuture<>();
+        if (closed) {
+            future.completeExceptionally(new IllegalStateException("The predictor is closed."));
+            return future;
+        }
+        PipelineExecutors executors = pipeline;
+        if (executors == null) {
+            try {
+                future.complete(predict(input));
+            } catch (TranslateException | RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+            return future;
+        }
+
+        PredictorContext context = new PredictorContext();
+        // the begin time of the request and of the current stage
+        long[] timestamps = {System.nanoTime(), 0};
+        timestamps[1] = timestamps[0];
+        try {
+            return CompletableFuture.supplyAsync(
+                            () -> preprocessStage(context, input, timestamps),
+                            executors.getPreprocess())
+                    .thenApplyAsync(
+                            list -> inferenceStage(context, list, timestamps),
+                            executors.getInference())
+                    .thenApplyAsync(
+                            result -> postprocessStage(context, result, timestamps),
+                            executors.getPostprocess())
+                    .whenComplete((o, t) -> context.close());
+        } catch (RejectedExecutionException e) {
+            context.close();
+            future.completeExceptionally(e);
+            return future;
+        }
+    }
+
     /**
      * Attaches a Metrics param to use for benchmark.
      *
@@ -199,6 +275,83 @@ public class Predictor<I, O> implements AutoCloseable {
         this.metrics = metrics;
     }
 
+    @SuppressWarnings("PMD.SignatureDeclareThrowsException")
+    private synchronized void prepareTranslator(TranslatorContext ctx) throws Exception {
+        if (!prepared) {
+            translator.prepare(ctx);
+            prepared = true;
+        }
+    }
+
+    @SuppressWarnings("PMD.SignatureDeclareThrowsException")
+    private NDList processSingleInput(TranslatorContext ctx, I input) throws Exception {
+        if (translator.getBatchifier() == null) {
+            return translator.processInput(ctx, input);
+        }
+        return processInputs(ctx, Collections.singletonList(input));
+    }
+
+    @SuppressWarnings("PMD.SignatureDeclareThrowsException")
+    private O processSingleOutput(TranslatorContext ctx, NDList list) throws Exception {
+        if (translator.getBatchifier() == null) {
+            return translator.processOutput(ctx, list);
+        }
+        return processOutputs(ctx, list).get(0);
+    }
+
+    private long stageEnd(NDList list, String stage, long start) {
+        long end = System.nanoTime();
+        if (metrics != null) {
+            if (list != null) {
+                waitToRead(list);
+                end = System.nanoTime();
+            }
+            metrics.addMetric(stage, (end - start) / 1000, Unit.MICROSECONDS);
+        }
+        return end;
+    }
+
+    private NDList preprocessStage(PredictorContext ctx, I input, long[] timestamps) {
+        try {
+            prepareTranslator(ctx);
+            NDList list = processSingleInput(ctx, input);
+            timestamps[1] = stageEnd(list, "Preprocess", timestamps[1]);
+            return list;
+        } catch (Exception e) {
+            throw wrapStageException(e);
+        }
+    }
+
+    private NDList inferenceStage(PredictorContext ctx, NDList list, long[] timestamps) {
+        try {
+            NDList result = predictInternal(ctx, list);
+            timestamps[1] = stageEnd(result, "Inference", timestamps[1]);
+            return result;
+        } catch (TranslateException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private O postprocessStage(PredictorContext ctx, NDList result, long[] timestamps) {
+        try {
+            O output = processSingleOutput(ctx, result);
+            long end = stageEnd(null, "Postprocess", timestamps[1]);
+            if (metrics != null) {
+                metrics.addMetric("Total", (end - timestamps[0]) / 1000, Unit.MICROSECONDS);
+            }
+            return output;
+        } catch (Exception e) {
+            throw wrapStageException(e);
+        }
+    }
+
+    private static CompletionException wrapStageException(Exception e) {
+        if (e instanceof TranslateException) {
+            return new CompletionException(e);
+        }
+        return new CompletionException(new TranslateException(e));
+    }
+
     private void waitToRead(NDList list) {
         for (NDArray array : list) {
             if (array instanceof LazyNDArray) {
@@ -260,6 +413,15 @@ public class Predictor<I, O> implements AutoCloseable {
     /** {@inheritDoc} */
     @Override
     public void close() {
+        PipelineExecutors executors;
+        synchronized (this) {
+            closed = true;
+            executors = pipeline;
+            pipeline = null;
+        }
+        if (executors != null) {
+            executors.shutdown();
+        }
         manager.close();
     }
 
@@ -0,0 +1,454 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.inference;
+
+import ai.djl.Device;
+import ai.djl.Model;
+import ai.djl.metric.Dimension;
+import ai.djl.metric.Metric;
+import ai.djl.metric.Metrics;
+import ai.djl.metric.Unit;
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.DataType;
+import ai.djl.ndarray.types.Shape;
+import ai.djl.nn.Block;
+import ai.djl.translate.NoopTranslator;
+import ai.djl.translate.TranslateException;
+import ai.djl.util.PairList;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A {@code Warmup} runs a model on synthesized inputs until its latency is stable, so the first
+ * requests do not pay for the lazy initialization and optimization of the engine.
+ *
+ * <p>The inputs are arrays of ones with the shapes given to the builder, or the shapes of {@link
+ * Block#describeInput()} if none are given. The first dimension of each shape is the batch
+ * dimension, and is set to each of the batch sizes in turn, any other unknown dimension is set to
+ * 1. The inputs run through the block of the model without the translator, on a {@link Predictor}
+ * of every device.
+ *
+ * <p>For every device and batch size, the model runs until the median latency of the last {@code
+ * window} iterations differs from the median of the {@code window} iterations before by at most the
+ * threshold, or until the maximum number of iterations. Every latency is recorded in the {@link
+ * Metrics} as {@code WarmupLatency} with the device and batch size as dimensions.
+ *
+ * <pre>
+ * Criteria&lt;Image, Classifications&gt; criteria =
+ *         Criteria.builder()
+ *                 ...
+ *                 .optWarmup(
+ *                         Warmup.builder()
+ *                                 .addInputShape(new Shape(1, 3, 224, 224))
+ *                                 .optBatchSizes(1, 8)
+ *                                 .build())
+ *                 .build();
+ * </pre>
+ */
+public final class Warmup {
+
+    /**
+     * The model property that is {@code true} once the latency has stabilized during the warm-up,
+     * and {@code false} if it did not stabilize and a stable latency is required.
+     */
+    public static final String READY_PROPERTY = "Ready";
+
+    private static final Logger logger = LoggerFactory.getLogger(Warmup.class);
+
+    private List<Shape> shapes;
+    private DataType dataType;
+    private int[] batchSizes;
+    private List<Device> devices;
+    private int window;
+    private int maxIterations;
+    private float threshold;
+    private Metrics metrics;
+    private boolean requireStable;
+
+    Warmup(Builder builder) {
+        shapes = builder.shapes;
+        dataType = builder.dataType;
+        batchSizes = builder.batchSizes;
+        devices = builder.devices;
+        window = builder.window;
+        maxIterations = builder.maxIterations;
+        threshold = builder.threshold;
+        metrics = builder.metrics;
+        requireStable = builder.requireStable;
+    }
+
+    /**
+     * Creates a builder to build a {@code Warmup}.
+     *
+     * @return a new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Warms up a model and sets its {@link #READY_PROPERTY}.
+     *
+     * <p>The model is ready once its latency has stabilized for every device and batch size. A
+     * latency that did not stabilize within the maximum number of iterations is logged as a
+     * warning, and the model is not ready unless a stable latency is not required, see {@link
+     * Builder#optRequireStable(boolean)}.
+     *
+     * @param model the model to warm up
+     * @return the result of the warm-up
+     * @throws TranslateException if the model failed to run on the inputs
+     */
+    public Result run(Model model) throws TranslateException {
+        List<Shape> inputShapes = shapes;
+        if (inputShapes.isEmpty()) {
+            inputShapes = describeInput(model.getBlock());
+        }
+        List<Device> targets = devices;
+        if (targets.isEmpty()) {
+            targets = Collections.singletonList(model.getNDManager().getDevice());
+        }
+
+        Result result = new Result();
+        for (Device device : targets) {
+            try (Predictor<NDList, NDList> predictor =
+                            model.newPredictor(new NoopTranslator(), device);
+                    NDManager manager = model.getNDManager().newSubManager(device)) {
+                for (int batchSize : batchSizes) {
+                    List<Shape> batchShapes = new ArrayList<>(inputShapes.size());
+                    for (Shape shape : inputShapes) {
+                        batchShapes.add(withBatchSize(shape, batchSize));
+                    }
+                    result.add(warmup(predictor, manager, batchShapes, device, batchSize));
+                }
+            }
+        }
+        boolean stable = result.isStable();
+        if (!stable) {
+            logger.warn(
+                    "Latency of model {} did not stabilize within {} iterations",
+                    model.getName(),
+                    maxIterations);
+        }
+        model.setProperty(READY_PROPERTY, String.valueOf(stable || !requireStable));
+        return result;
+    }
+
+    private Run warmup(
+            Predictor<NDList, NDList> predictor,
+            NDManager manager,
+            List<Shape> batchShapes,
+            Device device,
+            int batchSize)
+            throws TranslateException {
+        Dimension[] dimensions = {
+            new Dimension("Device", device.toString()),
+            new Dimension("BatchSize", String.valueOf(batchSize))
+        };
+        long[] latencies = new long[maxIterations];
+        int iterations = 0;
+        boolean stable = false;
+        while (iterations < maxIterations && !stable) {
+            // the outputs are usually attached to the manager of the inputs
+            try (NDManager scope = manager.newSubManager()) {
+                NDList input = new NDList(batchShapes.size());
+                for (Shape shape : batchShapes) {
+                    input.add(scope.ones(shape, dataType));
+                }
+                long begin = System.nanoTime();
+                predictor.predict(input);
+                long latency = (System.nanoTime() - begin) / 1000;
+                latencies[iterations++] = latency;
+                if (metrics != null) {
+                    metrics.addMetric(
+                            new Metric("WarmupLatency", latency, Unit.MICROSECONDS, dimensions));
+                }
+            }
+            stable = isStable(latencies, iterations);
+        }
+        logger.debug(
+                "Warm-up on {} with batch size {}: {} iterations, stable: {}",
+                device,
+                batchSize,
+                iterations,
+                stable);
+        return new Run(device, batchSize, Arrays.copyOf(latencies, iterations), stable);
+    }
+
+    private boolean isStable(long[] latencies, int iterations) {
+        if (iterations < window * 2) {
+            return false;
+        }
+        long previous = median(latencies, iterations - window * 2, iterations - window);
+        long last = median(latencies, iterations - window, iterations);
+        return Math.abs(last - previous) <= threshold * Math.max(previous, 1);
+    }
+
+    private static long median(long[] values, int from, int to) {
+        long[] sorted = Arrays.copyOfRange(values, from, to);
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private static List<Shape> describeInput(Block block) {
+        PairList<String, Shape> description = null;
+        try {
+            description = block.describeInput();
+        } catch (IllegalStateException e) {
+            logger.trace("The block cannot describe its input", e);
+        }
+        if (description == null || description.isEmpty()) {
+            throw new IllegalArgumentException(
+                    "The block cannot describe its input, the warm-up input shapes must be set");
+        }
+        return description.values();
+    }
+
+    private static Shape withBatchSize(Shape shape, int batchSize) {
+        // the shape owns its array, which may be the input shape of the block
+        long[] dims = shape.getShape().clone();
+        for (int i = 0; i < dims.length; ++i) {
+            if (i == 0) {
+                dims[i] = batchSize;
+            } else if (dims[i] < 0) {
+                dims[i] = 1;
+            }
+        }
+        return new Shape(dims);
+    }
+
+    /** The result of a {@link Warmup}. */
+    public static final class Result {
+
+        private List<Run> runs = new ArrayList<>();
+
+        Result() {}
+
+        void add(Run run) {
+            runs.add(run);
+        }
+
+        /**
+         * Returns the runs of every device and batch size.
+         *
+         * @return the runs of every device and batch size
+         */
+        public List<Run> getRuns() {
+            return Collections.unmodifiableList(runs);
+        }
+
+        /**
+         * Returns whether the latency stabilized for every device and batch size.
+         *
+         * @return whether the latency stabilized for every device and batch size
+         */
+        public boolean isStable() {
+            for (Run run : runs) {
+                if (!run.isStable()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /** The warm-up of one device and batch size. */
+    public static final class Run {
+
+        private Device device;
+        private int batchSize;
+        private long[] latencies;
+        private boolean stable;
+
+        Run(Device device, int batchSize, long[] latencies, boolean stable) {
+            this.device = device;
+            this.batchSize = batchSize;
+            this.latencies = latencies;
+            this.stable = stable;
+        }
+
+        /**
+         * Returns the device of the run.
+         *
+         * @return the device of the run
+         */
+        public Device getDevice() {
+            return device;
+        }
+
+        /**
+         * Returns the batch size of the run.
+         *
+         * @return the batch size of the run
+         */
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        /**
+         * Returns the latency of every iteration in microseconds.
+         *
+         * @return the latency of every iteration in microseconds
+         */
+        public long[] getLatencies() {
+            return latencies;
+        }
+
+        /**
+         * Returns whether the latency stabilized.
+         *
+         * @return whether the latency stabilized
+         */
+        public boolean isStable() {
+            return stable;
+        }
+    }
+
+    /** The Builder to construct a {@link Warmup}. */
+    public static final class Builder {
+
+        List<Shape> shapes = new ArrayList<>();
+        DataType dataType = DataType.FLOAT32;
+        int[] batchSizes = {1};
+        List<Device> devices = new ArrayList<>();
+        int window = 3;
+        int maxIterations = 100;
+        float threshold = 0.1f;
+        Metrics metrics;
+        boolean requireStable = true;
+
+        Builder() {}
+
+        /**
+         * Adds the shape of an input of the model, including the batch dimension. The shapes of
+         * {@link Block#describeInput()} are used if no shape is added.
+         *
+         * @param shape the shape of an input
+         * @return this builder
+         */
+        public Builder addInputShape(Shape shape) {
+            shapes.add(shape);
+            return this;
+        }
+
+        /**
+         * Sets the data type of the inputs, defaults to float32.
+         *
+         * @param dataType the data type of the inputs
+         * @return this builder
+         */
+        public Builder optDataType(DataType dataType) {
+            this.dataType = dataType;
+            return this;
+        }
+
+        /**
+         * Sets the batch sizes to warm up with, defaults to 1.
+         *
+         * @param batchSizes the batch sizes to warm up with
+         * @return this builder
+         */
+        public Builder optBatchSizes(int... batchSizes) {
+            this.batchSizes = batchSizes;
+            return this;
+        }
+
+        /**
+         * Adds a device to warm up on, the device of the model is used if no device is added.
+         *
+         * @param device a device to warm up on
+         * @return this builder
+         */
+        public Builder addDevice(Device device) {
+            devices.add(device);
+            return this;
+        }
+
+        /**
+         * Sets the number of iterations whose median latency is compared, defaults to 3.
+         *
+         * @param window the number of iterations whose median latency is compared
+         * @return this builder
+         */
+        public Builder optWindow(int window) {
+            this.window = window;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of iterations of each device and batch size, defaults to 100.
+         *
+         * @param maxIterations the maximum number of iterations
+         * @return this builder
+         */
+        public Builder optMaxIterations(int maxIterations) {
+            this.maxIterations = maxIterations;
+            return this;
+        }
+
+        /**
+         * Sets the maximum relative change of the median latency of a stable model, defaults to
+         * 0.1.
+         *
+         * @param threshold the maximum relative change of the median latency
+         * @return this builder
+         */
+        public Builder optThreshold(float threshold) {
+            this.threshold = threshold;
+            return this;
+        }
+
+        /**
+         * Sets the {@link Metrics} to record the warm-up latencies.
+         *
+         * @param metrics the {@link Metrics} to record the warm-up latencies
+         * @return this builder
+         */
+        public Builder optMetrics(Metrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        /**
+         * Sets whether the model is only ready once its latency has stabilized, defaults to {@code
+         * true}. If {@code false}, a model whose latency did not stabilize is still ready after the
+         * warm-up.
+         *
+         * @param requireStable whether the model is only ready once its latency has stabilized
+         * @return this builder
+         */
+        public Builder optRequireStable(boolean requireStable) {
+            this.requireStable = requireStable;
+            return this;
+        }
+
+        /**
+         * Builds the {@link Warmup}.
+         *
+         * @return the {@link Warmup}
+         */
+        public Warmup build() {
+            if (batchSizes.length == 0 || window < 1 || maxIterations < 1) {
+                throw new IllegalArgumentException(
+                        "The batch sizes, window and maximum iterations must be set");
+            }
+            return new Warmup(this);
+        }
+    }
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.inference.streaming;
+
+import ai.djl.ndarray.BytesSupplier;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link BytesSupplier} whose content is appended in chunks while it is consumed.
+ *
+ * <p>A {@link ai.djl.translate.ServingTranslator} can add a {@code ChunkedBytesSupplier} to its
+ * {@link ai.djl.modality.Output} and keep appending to it after the output is returned, for example
+ * the tokens of a generative model. A consumer like a server sends each chunk as soon as it is
+ * appended with {@link #nextChunk(long, TimeUnit)} or {@link #getAsChannel()}, instead of waiting
+ * for the complete payload.
+ *
+ * <pre>
+ * ChunkedBytesSupplier cs = new ChunkedBytesSupplier();
+ * output.add(cs);
+ * executor.submit(() -&gt; {
+ *     for (String token : generate()) {
+ *         cs.appendContent(token, false);
+ *     }
+ *     cs.appendContent(new byte[0], true);
+ * });
+ * return output;
+ * </pre>
+ *
+ * <p>The content can be appended from one thread and consumed from another one. The methods that
+ * return the complete content, like {@link #getAsBytes()}, block until the last chunk is appended.
+ * A consumer that gives up, for example because the client disconnected, calls {@link #cancel()} so
+ * the producer stops appending.
+ */
+public class ChunkedBytesSupplier implements BytesSupplier {
+
+    private BlockingQueue<BytesSupplier> queue;
+    private volatile boolean completed;
+    private volatile boolean cancelled;
+    private volatile byte[] content;
+
+    /** Constructs a new {@code ChunkedBytesSupplier} instance. */
+    public ChunkedBytesSupplier() {
+        queue = new LinkedBlockingQueue<>();
+    }
+
+    /**
+     * Appends a chunk of content.
+     *
+     * @param data the chunk to append
+     * @param lastChunk whether this is the last chunk
+     */
+    public void appendContent(byte[] data, boolean lastChunk) {
+        appendContent(BytesSupplier.wrap(data), lastChunk);
+    }
+
+    /**
+     * Appends a chunk of content.
+     *
+     * @param data the chunk to append
+     * @param lastChunk whether this is the last chunk
+     */
+    public void appendContent(String data, boolean lastChunk) {
+        appendContent(BytesSupplier.wrap(data), lastChunk);
+    }
+
+    /**
+     * Appends a chunk of content.
+     *
+     * @param data the chunk to append
+     * @param lastChunk whether this is the last chunk
+     * @throws CancellationException if the content has been cancelled by the consumer
+     */
+    public void appendContent(BytesSupplier data, boolean lastChunk) {
+        if (cancelled) {
+            throw new CancellationException("The content has been cancelled");
+        }
+        if (completed) {
+            throw new IllegalStateException("The last chunk has already been appended");
+        }
+        queue.add(data);
+        // the chunk is queued before the completion is visible
+        completed = lastChunk;
+    }
+
+    /**
+     * Cancels the content, the chunks that are not consumed are dropped and appending more chunks
+     * throws a {@link CancellationException}.
+     */
+    public void cancel() {
+        cancelled = true;
+        completed = true;
+        queue.clear();
+    }
+
+    /**
+     * Returns whether the content has been cancelled by the consumer.
+     *
+     * @return whether the content has been cancelled
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Returns whether there are chunks that are not consumed yet, including chunks that are not
+     * appended yet.
+     *
+     * @return whether there are chunks that are not consumed yet
+     */
+    public boolean hasNext() {
+        return !completed || !queue.isEmpty();
+    }
+
+    /**
+     * Returns the next chunk, waiting up to the timeout for it to be appended.
+     *
+     * @param timeout how long to wait
+     * @param unit the unit of the timeout
+     * @return the next chunk, or {@code null} if no chunk is appended within the timeout or all
+     *     chunks are consumed
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public BytesSupplier nextChunk(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        // wakes up regularly to notice the completion without a chunk
+        long wait = TimeUnit.MILLISECONDS.toNanos(100);
+        while (hasNext()) {
+            long remaining = deadline - System.nanoTime();
+            BytesSupplier chunk = queue.poll(Math.min(remaining, wait), TimeUnit.NANOSECONDS);
+            if (chunk != null || remaining <= 0) {
+                return chunk;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the next chunk if it is already appended.
+     *
+     * @return the next chunk, or {@code null} if no chunk is available
+     */
+    public BytesSupplier pollChunk() {
+        return queue.poll();
+    }
+
+    /**
+     * Returns a channel that reads the chunks as they are appended, it blocks until a chunk is
+     * available. The chunks that are read are consumed. Once {@link #getAsBytes()} has consumed the
+     * chunks, the channel reads the complete content.
+     *
+     * @return a channel that reads the chunks as they are appended
+     */
+    @Override
+    public ReadableByteChannel getAsChannel() {
+        byte[] bytes = content;
+        if (bytes != null) {
+            return Channels.newChannel(new ByteArrayInputStream(bytes));
+        }
+        return new ChunkChannel();
+    }
+
+    /**
+     * Returns the complete content, waiting until the last chunk is appended. The chunks are
+     * consumed by the first call.
+     *
+     * @return the complete content
+     */
+    @Override
+    public synchronized byte[] getAsBytes() {
+        if (content == null) {
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            try {
+                BytesSupplier chunk;
+                while ((chunk = nextChunk(1, TimeUnit.MINUTES)) != null || hasNext()) {
+                    if (chunk != null) {
+                        byte[] buf = chunk.getAsBytes();
+                        bos.write(buf, 0, buf.length);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the content", e);
+            }
+            content = bos.toByteArray();
+        }
+        return content;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public ByteBuffer toByteBuffer() {
+        return ByteBuffer.wrap(getAsBytes());
+    }
+
+    private final class ChunkChannel implements ReadableByteChannel {
+
+        private ByteBuffer current;
+        private boolean open = true;
+
+        /** {@inheritDoc} */
+        @Override
+        public int read(ByteBuffer dst) throws InterruptedIOException {
+            while (current == null || !current.hasRemaining()) {
+                if (!hasNext()) {
+                    return -1;
+                }
+                try {
+                    BytesSupplier chunk = nextChunk(1, TimeUnit.MINUTES);
+                    if (chunk != null) {
+                        current = chunk.toByteBuffer();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for a chunk");
+                }
+            }
+            int size = Math.min(dst.remaining(), current.remaining());
+            ByteBuffer slice = current.duplicate();
+            slice.limit(slice.position() + size);
+            dst.put(slice);
+            current.position(current.position() + size);
+            return size;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void close() {
+            open = false;
+        }
+    }
+}
@@ -0,0 +1,270 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.metric;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.DoubleAccumulator;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@code Histogram} is a fixed-memory, thread-safe histogram of {@code double} values.
+ *
+ * <p>Values are counted in log-linear buckets in the style of an HDR histogram: every power of two
+ * is split into 128 linear sub-buckets, so percentiles are reported with a relative error below 1%.
+ * Bucket rows are allocated lazily per power of two, the memory used is bounded regardless of the
+ * number of recorded values. Count, sum, minimum and maximum are kept exactly in striped counters,
+ * recording never takes a lock.
+ */
+public class Histogram {
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MIN_EXPONENT = -64;
+    private static final int MAX_EXPONENT = 127;
+    private static final double MIN_VALUE = Math.scalb(1d, MIN_EXPONENT);
+
+    private AtomicReferenceArray<AtomicLongArray> positive;
+    private AtomicReferenceArray<AtomicLongArray> negative;
+    private LongAdder zeros;
+    private LongAdder count;
+    private DoubleAdder sum;
+    private DoubleAccumulator min;
+    private DoubleAccumulator max;
+
+    /** Constructs an empty {@code Histogram}. */
+    public Histogram() {
+        int rows = MAX_EXPONENT - MIN_EXPONENT + 1;
+        positive = new AtomicReferenceArray<>(rows);
+        negative = new AtomicReferenceArray<>(rows);
+        zeros = new LongAdder();
+        count = new LongAdder();
+        sum = new DoubleAdder();
+        min = new DoubleAccumulator(Math::min, Double.POSITIVE_INFINITY);
+        max = new DoubleAccumulator(Math::max, Double.NEGATIVE_INFINITY);
+    }
+
+    /**
+     * Records a value, {@code NaN} values are ignored.
+     *
+     * @param value the value to record
+     */
+    public void record(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        count.increment();
+        sum.add(value);
+        min.accumulate(value);
+        max.accumulate(value);
+
+        double abs = Math.abs(value);
+        if (abs < MIN_VALUE) {
+            zeros.increment();
+            return;
+        }
+        int exponent = Math.getExponent(abs);
+        int subBucket;
+        if (exponent > MAX_EXPONENT) {
+            exponent = MAX_EXPONENT;
+            subBucket = SUB_BUCKETS - 1;
+        } else {
+            long bits = Double.doubleToRawLongBits(abs);
+            subBucket = (int) (bits >>> (52 - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        }
+        AtomicReferenceArray<AtomicLongArray> rows = value < 0 ? negative : positive;
+        getRow(rows, exponent - MIN_EXPONENT).incrementAndGet(subBucket);
+    }
+
+    /**
+     * Returns the number of recorded values.
+     *
+     * @return the number of recorded values
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Returns the sum of the recorded values.
+     *
+     * @return the sum of the recorded values
+     */
+    public double getSum() {
+        return sum.sum();
+    }
+
+    /**
+     * Returns the average of the recorded values, or {@code NaN} if the histogram is empty.
+     *
+     * @return the average of the recorded values
+     */
+    public double getMean() {
+        long n = count.sum();
+        if (n == 0) {
+            return Double.NaN;
+        }
+        return sum.sum() / n;
+    }
+
+    /**
+     * Returns the smallest recorded value, or {@code NaN} if the histogram is empty.
+     *
+     * @return the smallest recorded value
+     */
+    public double getMin() {
+        double value = min.get();
+        return Double.isInfinite(value) ? Double.NaN : value;
+    }
+
+    /**
+     * Returns the largest recorded value, or {@code NaN} if the histogram is empty.
+     *
+     * @return the largest recorded value
+     */
+    public double getMax() {
+        double value = max.get();
+        return Double.isInfinite(value) ? Double.NaN : value;
+    }
+
+    /**
+     * Returns the value at the given percentile, or {@code NaN} if the histogram is empty.
+     *
+     * <p>The result is the lower bound of the bucket holding the percentile, clamped to the
+     * recorded minimum and maximum, which are returned exactly for the lowest and highest rank. The
+     * cost only depends on the number of buckets in use, not on the number of recorded values.
+     *
+     * @param percentile the percentile between 0 and 100
+     * @return the value at the given percentile
+     */
+    public double percentile(double percentile) {
+        long total = zeros.sum() + countRows(negative) + countRows(positive);
+        if (total == 0) {
+            return Double.NaN;
+        }
+        long rank = (long) (total * percentile / 100);
+        if (rank <= 0) {
+            return getMin();
+        } else if (rank >= total - 1) {
+            return getMax();
+        }
+
+        long seen = 0;
+        for (int i = negative.length() - 1; i >= 0; --i) {
+            AtomicLongArray row = negative.get(i);
+            if (row == null) {
+                continue;
+            }
+            for (int j = SUB_BUCKETS - 1; j >= 0; --j) {
+                seen += row.get(j);
+                if (seen > rank) {
+                    return clamp(-bucketValue(i, j));
+                }
+            }
+        }
+        seen += zeros.sum();
+        if (seen > rank) {
+            return clamp(0);
+        }
+        for (int i = 0; i < positive.length(); ++i) {
+            AtomicLongArray row = positive.get(i);
+            if (row == null) {
+                continue;
+            }
+            for (int j = 0; j < SUB_BUCKETS; ++j) {
+                seen += row.get(j);
+                if (seen > rank) {
+                    return clamp(bucketValue(i, j));
+                }
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Adds all values recorded in another {@code Histogram} to this one.
+     *
+     * @param other the histogram to add
+     */
+    public void add(Histogram other) {
+        addRows(negative, other.negative);
+        addRows(positive, other.positive);
+        zeros.add(other.zeros.sum());
+        count.add(other.count.sum());
+        sum.add(other.sum.sum());
+        min.accumulate(other.min.get());
+        max.accumulate(other.max.get());
+    }
+
+    /** Removes all recorded values. */
+    public void reset() {
+        for (int i = 0; i < positive.length(); ++i) {
+            positive.set(i, null);
+            negative.set(i, null);
+        }
+        zeros.reset();
+        count.reset();
+        sum.reset();
+        min.reset();
+        max.reset();
+    }
+
+    private double clamp(double value) {
+        return Math.max(getMin(), Math.min(getMax(), value));
+    }
+
+    private static double bucketValue(int row, int subBucket) {
+        return Math.scalb(1d + (double) subBucket / SUB_BUCKETS, row + MIN_EXPONENT);
+    }
+
+    private static AtomicLongArray getRow(AtomicReferenceArray<AtomicLongArray> rows, int index) {
+        AtomicLongArray row = rows.get(index);
+        if (row == null) {
+            rows.compareAndSet(index, null, new AtomicLongArray(SUB_BUCKETS));
+            row = rows.get(index);
+        }
+        return row;
+    }
+
+    private static long countRows(AtomicReferenceArray<AtomicLongArray> rows) {
+        long total = 0;
+        for (int i = 0; i < rows.length(); ++i) {
+            AtomicLongArray row = rows.get(i);
+            if (row != null) {
+                for (int j = 0; j < SUB_BUCKETS; ++j) {
+                    total += row.get(j);
+                }
+            }
+        }
+        return total;
+    }
+
+    private static void addRows(
+            AtomicReferenceArray<AtomicLongArray> target,
+            AtomicReferenceArray<AtomicLongArray> source) {
+        for (int i = 0; i < source.length(); ++i) {
+            AtomicLongArray row = source.get(i);
+            if (row == null) {
+                continue;
+            }
+            AtomicLongArray targetRow = getRow(target, i);
+            for (int j = 0; j < SUB_BUCKETS; ++j) {
+                long n = row.get(j);
+                if (n > 0) {
+                    targetRow.addAndGet(j, n);
+                }
+            }
+        }
+    }
+}
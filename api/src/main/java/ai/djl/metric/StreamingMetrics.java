@@ -0,0 +1,252 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.metric;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongSupplier;
+
+/**
+ * A {@link Metrics} implementation that aggregates values into fixed-memory {@link Histogram}s
+ * instead of keeping every sample.
+ *
+ * <p>{@code StreamingMetrics} can be used anywhere a {@link Metrics} is accepted, for example with
+ * {@link ai.djl.inference.Predictor#setMetrics(Metrics)} in a long-running service. {@link
+ * #percentile(String, int)} and {@link #mean(String)} are computed over all recorded values without
+ * sorting, {@link #rollingPercentile(String, int)} and {@link #rollingMean(String)} only consider
+ * the values recorded within the rolling window.
+ *
+ * <p>Only the most recent samples of each metric are retained as {@link Metric} objects, so {@link
+ * #getMetric(String)} returns at most {@code retainedSamples} values.
+ */
+public class StreamingMetrics extends Metrics {
+
+    private Map<String, Entry> entries;
+    private int retainedSamples;
+    private long sliceMillis;
+    private int slices;
+    private LongSupplier clock;
+
+    /**
+     * Constructs an empty {@code StreamingMetrics} that retains the last 100 samples of each metric
+     * and has a one minute rolling window.
+     */
+    public StreamingMetrics() {
+        this(100, 60_000, 6);
+    }
+
+    /**
+     * Constructs an empty {@code StreamingMetrics}.
+     *
+     * @param retainedSamples the number of most recent samples retained for each metric
+     * @param windowMillis the length of the rolling window in milliseconds
+     * @param windowSlices the number of slices the rolling window advances by
+     */
+    public StreamingMetrics(int retainedSamples, long windowMillis, int windowSlices) {
+        this(retainedSamples, windowMillis, windowSlices, System::currentTimeMillis);
+    }
+
+    StreamingMetrics(int retainedSamples, long windowMillis, int windowSlices, LongSupplier clock) {
+        if (retainedSamples < 1 || windowSlices < 1 || windowMillis < windowSlices) {
+            throw new IllegalArgumentException("Invalid StreamingMetrics configuration.");
+        }
+        entries = new ConcurrentHashMap<>();
+        this.retainedSamples = retainedSamples;
+        sliceMillis = windowMillis / windowSlices;
+        slices = windowSlices;
+        this.clock = clock;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void addMetric(Metric metric) {
+        // the entry is complete when it is published, other threads may read it before it records
+        Entry entry = entries.computeIfAbsent(metric.getMetricName(), k -> new Entry(metric));
+        entry.record(metric, clock.getAsLong());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean hasMetric(String name) {
+        return entries.containsKey(name);
+    }
+
+    /**
+     * Returns the most recent {@link Metric}s retained with the specified metric name.
+     *
+     * @param name the name of the metric
+     * @return a list of the retained {@link Metric} with the specified metric name, oldest first
+     */
+    @Override
+    public List<Metric> getMetric(String name) {
+        Entry entry = entries.get(name);
+        if (entry == null) {
+            return Collections.emptyList();
+        }
+        return entry.getRecent();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Set<String> getMetricNames() {
+        return entries.keySet();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Metric latestMetric(String name) {
+        return getEntry(name).latest.get();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Metric percentile(String metricName, int percentile) {
+        Entry entry = getEntry(metricName);
+        return entry.toMetric(metricName, entry.total.percentile(percentile));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double mean(String metricName) {
+        return getEntry(metricName).total.getMean();
+    }
+
+    /**
+     * Returns a percentile {@link Metric} over the values recorded within the rolling window.
+     *
+     * @param metricName the name of the metric
+     * @param percentile the percentile
+     * @return the {@link Metric} object at specified {@code percentile}, its value is {@code NaN}
+     *     if no value was recorded within the window
+     */
+    public Metric rollingPercentile(String metricName, int percentile) {
+        Entry entry = getEntry(metricName);
+        Histogram window = entry.getWindow(clock.getAsLong());
+        return entry.toMetric(metricName, window.percentile(percentile));
+    }
+
+    /**
+     * Returns the average of the values recorded within the rolling window.
+     *
+     * @param metricName the name of the metric
+     * @return the average value, or {@code NaN} if no value was recorded within the window
+     */
+    public double rollingMean(String metricName) {
+        return getEntry(metricName).getWindow(clock.getAsLong()).getMean();
+    }
+
+    /**
+     * Returns the {@link Histogram} of all values recorded for the specified metric.
+     *
+     * @param metricName the name of the metric
+     * @return the {@link Histogram} of the specified metric
+     */
+    public Histogram getHistogram(String metricName) {
+        return getEntry(metricName).total;
+    }
+
+    private Entry getEntry(String name) {
+        Entry entry = entries.get(name);
+        if (entry == null) {
+            throw new IllegalArgumentException("Metric name not found: " + name);
+        }
+        return entry;
+    }
+
+    private final class Entry {
+
+        Histogram total;
+        Histogram[] window;
+        AtomicLongArray windowSlices;
+        AtomicReferenceArray<Metric> recent;
+        AtomicLong recentCount;
+        AtomicReference<Metric> latest;
+        Unit unit;
+
+        Entry(Metric first) {
+            total = new Histogram();
+            window = new Histogram[slices];
+            windowSlices = new AtomicLongArray(slices);
+            for (int i = 0; i < slices; ++i) {
+                window[i] = new Histogram();
+                windowSlices.set(i, -1);
+            }
+            recent = new AtomicReferenceArray<>(retainedSamples);
+            recentCount = new AtomicLong();
+            latest = new AtomicReference<>(first);
+            try {
+                unit = first.getUnit();
+            } catch (IllegalArgumentException e) {
+                unit = Unit.NONE;
+            }
+        }
+
+        void record(Metric metric, long now) {
+            double value = metric.getValue();
+            total.record(value);
+
+            long slice = now / sliceMillis;
+            int index = (int) (slice % slices);
+            if (windowSlices.get(index) != slice) {
+                synchronized (window[index]) {
+                    if (windowSlices.get(index) != slice) {
+                        window[index].reset();
+                        windowSlices.set(index, slice);
+                    }
+                }
+            }
+            window[index].record(value);
+
+            long position = recentCount.getAndIncrement();
+            recent.set((int) (position % retainedSamples), metric);
+            latest.set(metric);
+        }
+
+        Histogram getWindow(long now) {
+            long slice = now / sliceMillis;
+            Histogram merged = new Histogram();
+            for (int i = 0; i < slices; ++i) {
+                long age = slice - windowSlices.get(i);
+                if (age >= 0 && age < slices) {
+                    merged.add(window[i]);
+                }
+            }
+            return merged;
+        }
+
+        List<Metric> getRecent() {
+            long end = recentCount.get();
+            long begin = Math.max(0, end - retainedSamples);
+            List<Metric> list = new ArrayList<>((int) (end - begin));
+            for (long i = begin; i < end; ++i) {
+                Metric metric = recent.get((int) (i % retainedSamples));
+                if (metric != null) {
+                    list.add(metric);
+                }
+            }
+            return list;
+        }
+
+        Metric toMetric(String name, double value) {
+            return new Metric(name, value, unit);
+        }
+    }
+}
@@ -19,6 +19,10 @@ import ai.djl.ndarray.NDManager;
 import ai.djl.util.Pair;
 import ai.djl.util.PairList;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.charset.StandardCharsets;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -113,6 +117,15 @@ public class Input {
         add(BytesSupplier.wrap(data.getBytes(StandardCharsets.UTF_8)));
     }
 
+    /**
+     * Appends an item at the end of the input, the stream is read only when the item is used.
+     *
+     * @param data data to be added
+     */
+    public void add(InputStream data) {
+        add(BytesSupplier.wrap(data));
+    }
+
     /**
      * Appends an item at the end of the input.
      *
@@ -142,6 +155,16 @@ public class Input {
         add(key, BytesSupplier.wrap(data));
     }
 
+    /**
+     * Adds a key/value pair to the input content, the stream is read only when the data is used.
+     *
+     * @param key key with which the specified data is to be added
+     * @param data data to be added with the specified key
+     */
+    public void add(String key, InputStream data) {
+        add(key, BytesSupplier.wrap(data));
+    }
+
     /**
      * Adds a key/value pair to the input content.
      *
@@ -325,7 +348,12 @@ public class Input {
         } else if (data instanceof NDArray) {
             return new NDList((NDArray) data);
         }
-        return NDList.decode(manager, data.getAsBytes());
+        // reads the arrays into direct buffers without copying a stream into memory first
+        try (ReadableByteChannel channel = data.getAsChannel()) {
+            return NDList.decode(manager, channel);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     /** {@inheritDoc} * */
@@ -12,7 +12,13 @@
  */
 package ai.djl.modality;
 
-/** A class stores the generic inference results. */
+/**
+ * A class stores the generic inference results.
+ *
+ * <p>The content of an {@code Output} can be streamed with a {@link
+ * ai.djl.inference.streaming.ChunkedBytesSupplier}, which is written incrementally after the output
+ * is returned.
+ */
 public class Output extends Input {
 
     private int code;
@@ -32,11 +32,18 @@ import java.awt.FontMetrics;
 import java.awt.Graphics2D;
 import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBuffer;
 import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SampleModel;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
 import java.nio.file.Path;
 import java.util.List;
 
@@ -95,35 +102,29 @@ public class BufferedImageFactory extends ImageFactory {
             int height = (int) shape.get(1);
             int width = (int) shape.get(2);
             BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
-            int[] pixels = new int[width * height];
+            // a new TYPE_INT_RGB image is backed by a single packed int array
+            int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
             int imageArea = height * width;
-            for (int h = 0; h < height; ++h) {
-                for (int w = 0; w < width; ++w) {
-                    int index = h * width + w;
-                    int red = raw[index];
-                    int green = raw[imageArea + index];
-                    int blue = raw[imageArea * 2 + index];
-                    pixels[index] = (red << 16) | (green << 8) | blue;
-                }
+            for (int index = 0; index < imageArea; ++index) {
+                int red = raw[index];
+                int green = raw[imageArea + index];
+                int blue = raw[imageArea * 2 + index];
+                pixels[index] = (red << 16) | (green << 8) | blue;
             }
-            image.setRGB(0, 0, width, height, pixels, 0, width);
             return new BufferedImageWrapper(image);
         }
         int height = (int) shape.get(0);
         int width = (int) shape.get(1);
         BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
-        int[] pixels = new int[width * height];
-        for (int h = 0; h < height; ++h) {
-            for (int w = 0; w < width; ++w) {
-                int index = h * width + w;
-                int pos = index * 3;
-                int red = raw[pos];
-                int green = raw[pos + 1];
-                int blue = raw[pos + 2];
-                pixels[index] = (red << 16) | (green << 8) | blue;
-            }
+        int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        int imageArea = height * width;
+        for (int index = 0; index < imageArea; ++index) {
+            int pos = index * 3;
+            int red = raw[pos];
+            int green = raw[pos + 1];
+            int blue = raw[pos + 2];
+            pixels[index] = (red << 16) | (green << 8) | blue;
         }
-        image.setRGB(0, 0, width, height, pixels, 0, width);
         return new BufferedImageWrapper(image);
     }
 
@@ -201,39 +202,94 @@ public class BufferedImageFactory extends ImageFactory {
             }
 
             ByteBuffer bb = manager.allocateDirect(channel * height * width);
-            if (image.getType() == BufferedImage.TYPE_BYTE_GRAY) {
-                int[] data = new int[width * height];
-                image.getData().getPixels(0, 0, width, height, data);
-                for (int gray : data) {
-                    byte b = (byte) gray;
-                    bb.put(b);
-                    if (flag != Flag.GRAYSCALE) {
-                        bb.put(b);
-                        bb.put(b);
+            PixelReader reader = new PixelReader(image);
+            int[] row = new int[width];
+            byte[] out = new byte[channel * width];
+            for (int y = 0; y < height; ++y) {
+                reader.read(y, row);
+                if (channel == 1) {
+                    for (int x = 0; x < width; ++x) {
+                        out[x] = (byte) reader.gray(row[x]);
                     }
-                }
-            } else {
-                // get an array of integer pixels in the default RGB color mode
-                int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
-                for (int rgb : pixels) {
-                    int red = (rgb >> 16) & 0xFF;
-                    int green = (rgb >> 8) & 0xFF;
-                    int blue = rgb & 0xFF;
-
-                    if (flag == Flag.GRAYSCALE) {
-                        int gray = Math.round(0.299f * red + 0.587f * green + 0.114f * blue);
-                        bb.put((byte) gray);
-                    } else {
-                        bb.put((byte) red);
-                        bb.put((byte) green);
-                        bb.put((byte) blue);
+                } else {
+                    for (int x = 0, i = 0; x < width; ++x) {
+                        int rgb = row[x];
+                        out[i++] = (byte) (rgb >> 16);
+                        out[i++] = (byte) (rgb >> 8);
+                        out[i++] = (byte) rgb;
                     }
                 }
+                bb.put(out);
             }
             bb.rewind();
             return manager.create(bb, new Shape(height, width, channel), DataType.UINT8);
         }
 
+        /** {@inheritDoc} */
+        @Override
+        public NDArray toTensor(
+                NDManager manager, Flag flag, boolean channelsFirst, float[] mean, float[] std) {
+            int width = image.getWidth();
+            int height = image.getHeight();
+            int channel = flag == Flag.GRAYSCALE ? 1 : 3;
+            int imageArea = height * width;
+            if (mean != null && std != null && (mean.length != channel || std.length != channel)) {
+                throw new IllegalArgumentException(
+                        "Expected a mean and std for each of the " + channel + " channels.");
+            }
+
+            // ToTensor and Normalize map each 8-bit value to a float, precompute them per channel
+            float[][] table = new float[channel][256];
+            for (int c = 0; c < channel; ++c) {
+                float m = mean == null || std == null ? 0f : mean[c];
+                float s = mean == null || std == null ? 1f : std[c];
+                for (int v = 0; v < 256; ++v) {
+                    table[c][v] = (v / 255f - m) / s;
+                }
+            }
+
+            ByteBuffer bb = manager.allocateDirect(channel * imageArea * 4);
+            FloatBuffer fb = bb.asFloatBuffer();
+            PixelReader reader = new PixelReader(image);
+            int[] row = new int[width];
+            float[] out = new float[channel * width];
+            for (int y = 0; y < height; ++y) {
+                reader.read(y, row);
+                if (channel == 1) {
+                    for (int x = 0; x < width; ++x) {
+                        out[x] = table[0][reader.gray(row[x])];
+                    }
+                    fb.put(out);
+                } else if (channelsFirst) {
+                    for (int x = 0; x < width; ++x) {
+                        int rgb = row[x];
+                        out[x] = table[0][(rgb >> 16) & 0xFF];
+                        out[width + x] = table[1][(rgb >> 8) & 0xFF];
+                        out[width * 2 + x] = table[2][rgb & 0xFF];
+                    }
+                    for (int c = 0; c < channel; ++c) {
+                        fb.position(c * imageArea + y * width);
+                        fb.put(out, c * width, width);
+                    }
+                } else {
+                    for (int x = 0, i = 0; x < width; ++x) {
+                        int rgb = row[x];
+                        out[i++] = table[0][(rgb >> 16) & 0xFF];
+                        out[i++] = table[1][(rgb >> 8) & 0xFF];
+                        out[i++] = table[2][rgb & 0xFF];
+                    }
+                    fb.put(out);
+                }
+            }
+            Shape shape;
+            if (channelsFirst) {
+                shape = new Shape(channel, height, width);
+            } else {
+                shape = new Shape(height, width, channel);
+            }
+            return manager.create(bb, shape, DataType.FLOAT32);
+        }
+
         /** {@inheritDoc} */
         @Override
         public void save(OutputStream os, String type) throws IOException {
@@ -367,4 +423,86 @@ public class BufferedImageFactory extends ImageFactory {
             g.dispose();
         }
     }
+
+    /**
+     * Reads the pixels of a {@code BufferedImage} a row at a time as packed RGB values.
+     *
+     * <p>The common image types are read from the backing array of the raster directly, other types
+     * fall back to {@link BufferedImage#getRGB(int, int, int, int, int[], int, int)}.
+     */
+    private static final class PixelReader {
+
+        private BufferedImage image;
+        private byte[] bytes;
+        private int[] ints;
+        private int offset;
+        private int scanline;
+        private int pixelStride;
+        private int red;
+        private int green;
+        private int blue;
+        private boolean grayscale;
+
+        PixelReader(BufferedImage image) {
+            this.image = image;
+            WritableRaster raster = image.getRaster();
+            DataBuffer buffer = raster.getDataBuffer();
+            SampleModel model = raster.getSampleModel();
+            // sub-images share the data buffer of their parent with a translated sample model
+            int x = -raster.getSampleModelTranslateX();
+            int y = -raster.getSampleModelTranslateY();
+            int type = image.getType();
+            if ((type == BufferedImage.TYPE_3BYTE_BGR || type == BufferedImage.TYPE_BYTE_GRAY)
+                    && model instanceof ComponentSampleModel
+                    && buffer instanceof DataBufferByte
+                    && buffer.getNumBanks() == 1) {
+                ComponentSampleModel csm = (ComponentSampleModel) model;
+                int[] bandOffsets = csm.getBandOffsets();
+                bytes = ((DataBufferByte) buffer).getData();
+                pixelStride = csm.getPixelStride();
+                scanline = csm.getScanlineStride();
+                offset = buffer.getOffset() + y * scanline + x * pixelStride;
+                grayscale = type == BufferedImage.TYPE_BYTE_GRAY;
+                red = bandOffsets[0];
+                green = grayscale ? red : bandOffsets[1];
+                blue = grayscale ? red : bandOffsets[2];
+            } else if ((type == BufferedImage.TYPE_INT_RGB || type == BufferedImage.TYPE_INT_ARGB)
+                    && model instanceof SinglePixelPackedSampleModel
+                    && buffer instanceof DataBufferInt
+                    && buffer.getNumBanks() == 1) {
+                ints = ((DataBufferInt) buffer).getData();
+                scanline = ((SinglePixelPackedSampleModel) model).getScanlineStride();
+                offset = buffer.getOffset() + y * scanline + x;
+            }
+        }
+
+        void read(int y, int[] row) {
+            int width = row.length;
+            if (ints != null) {
+                System.arraycopy(ints, offset + y * scanline, row, 0, width);
+            } else if (bytes != null) {
+                int pos = offset + y * scanline;
+                for (int x = 0; x < width; ++x) {
+                    row[x] =
+                            (bytes[pos + red] & 0xFF) << 16
+                                    | (bytes[pos + green] & 0xFF) << 8
+                                    | (bytes[pos + blue] & 0xFF);
+                    pos += pixelStride;
+                }
+            } else {
+                image.getRGB(0, y, width, 1, row, 0, width);
+            }
+        }
+
+        int gray(int rgb) {
+            int b = rgb & 0xFF;
+            if (grayscale) {
+                // raw gray value, without the gamma conversion of getRGB()
+                return b;
+            }
+            int r = (rgb >> 16) & 0xFF;
+            int g = (rgb >> 8) & 0xFF;
+            return Math.round(0.299f * r + 0.587f * g + 0.114f * b);
+        }
+    }
 }
@@ -17,6 +17,8 @@ import ai.djl.modality.cv.output.DetectedObjects;
 import ai.djl.modality.cv.output.Joints;
 import ai.djl.ndarray.NDArray;
 import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.DataType;
+import ai.djl.ndarray.types.Shape;
 
 import java.io.IOException;
 import java.io.OutputStream;
@@ -86,6 +88,41 @@ public interface Image {
      */
     NDArray toNDArray(NDManager manager, Flag flag);
 
+    /**
+     * Converts image to a {@link DataType#FLOAT32} {@link NDArray} in the range {@code [0, 1]},
+     * optionally normalized with the mean and standard deviation of each channel.
+     *
+     * <p>This is equivalent to {@link #toNDArray(NDManager, Flag)} followed by the {@code ToTensor}
+     * and {@code Normalize} transforms, but implementations may produce the output in a single pass
+     * over the pixels.
+     *
+     * @param manager a {@link NDManager} to create the new NDArray with
+     * @param flag the color mode
+     * @param channelsFirst {@code true} for CHW layout, {@code false} for HWC layout
+     * @param mean the mean of each channel, or {@code null} to skip normalization
+     * @param std the standard deviation of each channel, or {@code null} to skip normalization
+     * @return {@link NDArray}
+     * @throws IllegalArgumentException if {@code mean} or {@code std} does not have one value per
+     *     channel
+     */
+    default NDArray toTensor(
+            NDManager manager, Flag flag, boolean channelsFirst, float[] mean, float[] std) {
+        NDArray array = toNDArray(manager, flag).toType(DataType.FLOAT32, false).divi(255);
+        long channel = array.getShape().get(2);
+        if (mean != null && std != null && (mean.length != channel || std.length != channel)) {
+            throw new IllegalArgumentException(
+                    "Expected a mean and std for each of the " + channel + " channels.");
+        }
+        if (channelsFirst) {
+            array = array.transpose(2, 0, 1);
+        }
+        if (mean != null && std != null) {
+            Shape shape = channelsFirst ? new Shape(mean.length, 1, 1) : new Shape(mean.length);
+            array = array.sub(manager.create(mean, shape)).divi(manager.create(std, shape));
+        }
+        return array;
+    }
+
     /**
      * Save the image to file.
      *
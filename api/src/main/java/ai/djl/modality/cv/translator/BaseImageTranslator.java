@@ -20,6 +20,7 @@ import ai.djl.modality.cv.transform.Resize;
 import ai.djl.modality.cv.transform.ToTensor;
 import ai.djl.ndarray.NDArray;
 import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
 import ai.djl.translate.ArgumentsUtil;
 import ai.djl.translate.Batchifier;
 import ai.djl.translate.Pipeline;
@@ -71,10 +72,32 @@ public abstract class BaseImageTranslator<T> implements Translator<Image, T> {
     /** {@inheritDoc} */
     @Override
     public NDList processInput(TranslatorContext ctx, Image input) {
-        NDArray array = input.toNDArray(ctx.getNDManager(), flag);
+        NDManager manager = ctx.getNDManager();
+        // ToTensor and Normalize at the front of the pipeline are applied while reading the pixels
+        Transform first = pipeline.getTransform(0);
+        if (first != null && first.getClass() == ToTensor.class) {
+            int channel = flag == Image.Flag.GRAYSCALE ? 1 : 3;
+            Transform next = pipeline.getTransform(1);
+            if (next == null || next.getClass() != Normalize.class) {
+                NDArray array = input.toTensor(manager, flag, isChannelsFirst(manager), null, null);
+                return pipeline.skip(1).transform(new NDList(array));
+            }
+            float[] mean = ((Normalize) next).getMean();
+            float[] std = ((Normalize) next).getStd();
+            if (mean.length == channel && std.length == channel) {
+                NDArray array = input.toTensor(manager, flag, isChannelsFirst(manager), mean, std);
+                return pipeline.skip(2).transform(new NDList(array));
+            }
+        }
+        NDArray array = input.toNDArray(manager, flag);
         return pipeline.transform(new NDList(array));
     }
 
+    // matches the layout of NDImageUtils.toTensor, TensorFlow keeps the channels last
+    private static boolean isChannelsFirst(NDManager manager) {
+        return !"TensorFlow".equals(manager.getEngine().getEngineName());
+    }
+
     /**
      * A builder to extend for all classes extending the {@link BaseImageTranslator}.
      *
@@ -18,11 +18,11 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.nio.file.Path;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -60,14 +60,12 @@ public class DefaultVocabulary implements Vocabulary {
         if (unknownToken != null) {
             reservedTokens.add(unknownToken);
         }
-        for (List<String> sentence : builder.sentences) {
-            for (String token : sentence) {
-                addToken(token);
-            }
+        for (Entry<String, TokenInfo> token : builder.tokens.entrySet()) {
+            addToken(token.getKey(), token.getValue().frequency);
         }
         // Preserve order in vocab file, add reservedTokens after original vocab
         for (String token : reservedTokens) {
-            addToken(token);
+            addToken(token, 1);
         }
 
         boolean pruned = pruneTokens(builder.minFrequency, builder.maxTokens);
@@ -78,7 +76,7 @@ public class DefaultVocabulary implements Vocabulary {
         }
     }
 
-    private void addToken(String token) {
+    private void addToken(String token, int frequency) {
         int index = tokens.size();
         tokens.compute(
                 token,
@@ -92,8 +90,9 @@ public class DefaultVocabulary implements Vocabulary {
                     // Update the frequency for both old and new tokens
                     if (reservedTokens.contains(k)) {
                         v.frequency = Integer.MAX_VALUE;
-                    } else if (v.frequency < Integer.MAX_VALUE) {
-                        ++v.frequency;
+                    } else {
+                        v.frequency =
+                                (int) Math.min((long) v.frequency + frequency, Integer.MAX_VALUE);
                     }
                     return v;
                 });
@@ -213,7 +212,7 @@ public class DefaultVocabulary implements Vocabulary {
     /** Builder class that is used to build the {@link DefaultVocabulary}. */
     public static final class Builder {
 
-        List<List<String>> sentences = new ArrayList<>();
+        Map<String, TokenInfo> tokens = new LinkedHashMap<>();
         Set<String> reservedTokens = new HashSet<>();
         int minFrequency = -1;
         int maxTokens = -1;
@@ -287,7 +286,25 @@ public class DefaultVocabulary implements Vocabulary {
          * @return this {@code VocabularyBuilder}
          */
         public Builder add(List<String> sentence) {
-            this.sentences.add(sentence);
+            for (String token : sentence) {
+                add(token, 1);
+            }
+            return this;
+        }
+
+        /**
+         * Adds a token that occurs {@code frequency} times to the {@link DefaultVocabulary}.
+         *
+         * <p>This adds token counts that were computed separately, for example in parallel over
+         * shards of a corpus. The tokens are indexed in the order they are first added.
+         *
+         * @param token the token to be added
+         * @param frequency the number of times the token occurs
+         * @return this {@code VocabularyBuilder}
+         */
+        public Builder add(String token, int frequency) {
+            TokenInfo info = tokens.computeIfAbsent(token, k -> new TokenInfo());
+            info.frequency = (int) Math.min((long) info.frequency + frequency, Integer.MAX_VALUE);
             return this;
         }
 
@@ -298,7 +315,9 @@ public class DefaultVocabulary implements Vocabulary {
          * @return this {@code VocabularyBuilder}
          */
         public Builder addAll(List<List<String>> sentences) {
-            this.sentences.addAll(sentences);
+            for (List<String> sentence : sentences) {
+                add(sentence);
+            }
             return this;
         }
 
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.modality.nlp.bert;
+
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.Shape;
+
+import java.nio.LongBuffer;
+import java.util.Arrays;
+
+/**
+ * {@code BertEncoding} holds the token ids, token types, attention mask and character offsets of a
+ * batch of inputs encoded by {@link BertFullTokenizer}.
+ *
+ * <p>The values are stored row by row in flat arrays of {@code batchSize * sequenceLength} values,
+ * the rows are padded to the same length. The arrays are reused when the same {@code BertEncoding}
+ * is passed to the next call of the tokenizer, and may be longer than the encoded values.
+ *
+ * <p>A {@code BertEncoding} is not thread safe, it should be used by one thread at a time.
+ */
+public class BertEncoding {
+
+    private int batchSize;
+    private int sequenceLength;
+    private long[] ids = new long[0];
+    private long[] typeIds = new long[0];
+    private long[] attentionMask = new long[0];
+    private int[] offsets = new int[0];
+    private int[] validLengths = new int[0];
+
+    // the tokens of the rows being encoded
+    int[] tokens = new int[64];
+    int[] tokenEnds = new int[64];
+    int[] tokenTypes = new int[64];
+    int[] tokenOffsets = new int[128];
+    int tokenCount;
+    int[] rowEnds = new int[8];
+    int rowCount;
+
+    // the word being split into word pieces and the offsets of its characters in the input
+    StringBuilder word = new StringBuilder();
+    int[] charStarts = new int[64];
+    int[] charEnds = new int[64];
+
+    /**
+     * Returns the number of encoded inputs.
+     *
+     * @return the number of encoded inputs
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Returns the number of tokens of each row, including the padding.
+     *
+     * @return the number of tokens of each row
+     */
+    public int getSequenceLength() {
+        return sequenceLength;
+    }
+
+    /**
+     * Returns the number of tokens of a row, excluding the padding.
+     *
+     * @param row the index of the input
+     * @return the number of tokens of the row
+     */
+    public int getValidLength(int row) {
+        return validLengths[row];
+    }
+
+    /**
+     * Returns the vocabulary ids of the tokens.
+     *
+     * @return the vocabulary ids of the tokens
+     */
+    public long[] getIds() {
+        return ids;
+    }
+
+    /**
+     * Returns the token types, 0 for the tokens of the first sentence and 1 for the second.
+     *
+     * @return the token types
+     */
+    public long[] getTypeIds() {
+        return typeIds;
+    }
+
+    /**
+     * Returns the attention mask, 1 for the tokens and 0 for the padding.
+     *
+     * @return the attention mask
+     */
+    public long[] getAttentionMask() {
+        return attentionMask;
+    }
+
+    /**
+     * Returns the start and end character offsets of the tokens in their input text.
+     *
+     * <p>The offsets of token {@code i} are {@code offsets[2 * i]} and {@code offsets[2 * i + 1]},
+     * special tokens and padding have the offsets {@code (0, 0)}.
+     *
+     * @return the start and end character offsets of the tokens
+     */
+    public int[] getOffsets() {
+        return offsets;
+    }
+
+    /**
+     * Creates the token ids, the attention mask and optionally the token types as arrays of shape
+     * (batchSize, sequenceLength).
+     *
+     * @param manager the manager used to create the arrays
+     * @param includeTokenTypes whether to include the token types
+     * @return the token ids, the attention mask and the token types
+     */
+    public NDList toNDList(NDManager manager, boolean includeTokenTypes) {
+        int size = batchSize * sequenceLength;
+        Shape shape = new Shape(batchSize, sequenceLength);
+        NDList list = new NDList(3);
+        list.add(manager.create(LongBuffer.wrap(ids, 0, size), shape));
+        list.add(manager.create(LongBuffer.wrap(attentionMask, 0, size), shape));
+        if (includeTokenTypes) {
+            list.add(manager.create(LongBuffer.wrap(typeIds, 0, size), shape));
+        }
+        return list;
+    }
+
+    void reset() {
+        tokenCount = 0;
+        rowCount = 0;
+        word.setLength(0);
+    }
+
+    void ensureTokens(int count) {
+        int required = tokenCount + count;
+        if (tokens.length < required) {
+            int capacity = Math.max(required, tokens.length * 2);
+            tokens = Arrays.copyOf(tokens, capacity);
+            tokenEnds = Arrays.copyOf(tokenEnds, capacity);
+            tokenTypes = Arrays.copyOf(tokenTypes, capacity);
+            tokenOffsets = Arrays.copyOf(tokenOffsets, capacity * 2);
+        }
+    }
+
+    void addToken(int id, int type, int start, int end) {
+        ensureTokens(1);
+        tokens[tokenCount] = id;
+        tokenTypes[tokenCount] = type;
+        tokenOffsets[tokenCount * 2] = start;
+        tokenOffsets[tokenCount * 2 + 1] = end;
+        ++tokenCount;
+    }
+
+    void addChar(char c, int start, int end) {
+        int length = word.length();
+        if (charStarts.length == length) {
+            charStarts = Arrays.copyOf(charStarts, length * 2);
+            charEnds = Arrays.copyOf(charEnds, length * 2);
+        }
+        word.append(c);
+        charStarts[length] = start;
+        charEnds[length] = end;
+    }
+
+    void endRow() {
+        if (rowEnds.length == rowCount) {
+            rowEnds = Arrays.copyOf(rowEnds, rowCount * 2);
+        }
+        rowEnds[rowCount++] = tokenCount;
+    }
+
+    // copies the tokens of the rows into the padded output arrays
+    void layout(int maxLength, long padId) {
+        int longest = 0;
+        int rowStart = 0;
+        for (int i = 0; i < rowCount; ++i) {
+            longest = Math.max(longest, rowEnds[i] - rowStart);
+            rowStart = rowEnds[i];
+        }
+        batchSize = rowCount;
+        sequenceLength = Math.max(longest, maxLength);
+        int size = batchSize * sequenceLength;
+        if (ids.length < size) {
+            ids = new long[size];
+            typeIds = new long[size];
+            attentionMask = new long[size];
+            offsets = new int[size * 2];
+        }
+        if (validLengths.length < batchSize) {
+            validLengths = new int[batchSize];
+        }
+
+        rowStart = 0;
+        for (int row = 0; row < rowCount; ++row) {
+            int length = rowEnds[row] - rowStart;
+            int pos = row * sequenceLength;
+            for (int i = 0; i < length; ++i) {
+                ids[pos + i] = tokens[rowStart + i];
+                typeIds[pos + i] = tokenTypes[rowStart + i];
+            }
+            System.arraycopy(tokenOffsets, rowStart * 2, offsets, pos * 2, length * 2);
+            Arrays.fill(attentionMask, pos, pos + length, 1);
+            Arrays.fill(ids, pos + length, pos + sequenceLength, padId);
+            Arrays.fill(typeIds, pos + length, pos + sequenceLength, 0);
+            Arrays.fill(attentionMask, pos + length, pos + sequenceLength, 0);
+            Arrays.fill(offsets, (pos + length) * 2, (pos + sequenceLength) * 2, 0);
+            validLengths[row] = length;
+            rowStart = rowEnds[row];
+        }
+    }
+}
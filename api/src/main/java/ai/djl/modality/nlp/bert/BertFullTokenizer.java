@@ -26,6 +26,7 @@ import java.text.Normalizer;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 
 /**
  * BertFullTokenizer runs end to end tokenization of input text
@@ -42,6 +43,10 @@ public class BertFullTokenizer extends BertTokenizer {
     private Vocabulary vocabulary;
     private List<TextProcessor> basicBertPreprocessors;
     private WordpieceTokenizer wordpieceTokenizer;
+    private boolean lowerCase;
+    private int clsId;
+    private int sepId;
+    private int padId;
 
     /**
      * Creates an instance of {@code BertFullTokenizer}.
@@ -53,6 +58,10 @@ public class BertFullTokenizer extends BertTokenizer {
         this.vocabulary = vocabulary;
         basicBertPreprocessors = getPreprocessors(lowerCase);
         wordpieceTokenizer = new WordpieceTokenizer(vocabulary, "[UNK]", 200);
+        this.lowerCase = lowerCase;
+        clsId = getId("[CLS]");
+        sepId = getId("[SEP]");
+        padId = getId("[PAD]");
     }
 
     /**
@@ -74,12 +83,159 @@ public class BertFullTokenizer extends BertTokenizer {
         return wordpieceTokenizer.preprocess(tokens);
     }
 
+    /**
+     * Encodes a question and a paragraph into token ids.
+     *
+     * <p>This produces the same tokens as {@link #encode(String, String, int)} mapped to their
+     * vocabulary ids, without creating the intermediate strings. The tokens are padded to {@code
+     * maxLength}.
+     *
+     * @param question the input question
+     * @param paragraph the input paragraph
+     * @param maxLength the length to pad to, 0 to not pad
+     * @param encoding the {@link BertEncoding} to reuse, or {@code null} to create a new one
+     * @return the {@link BertEncoding} of the input
+     */
+    public BertEncoding encode(
+            String question, String paragraph, int maxLength, BertEncoding encoding) {
+        if (encoding == null) {
+            encoding = new BertEncoding();
+        }
+        encoding.reset();
+        encoding.addToken(clsId, 0, 0, 0);
+        encodeText(question, 0, encoding);
+        encoding.addToken(sepId, 0, 0, 0);
+        encodeText(paragraph, 1, encoding);
+        encoding.addToken(sepId, 1, 0, 0);
+        encoding.endRow();
+        encoding.layout(maxLength, padId);
+        return encoding;
+    }
+
+    /**
+     * Encodes a batch of sentences into token ids.
+     *
+     * <p>Each sentence is encoded as {@code [CLS] tokens [SEP]}. The rows are padded to the longest
+     * sentence, and at least to {@code maxLength}.
+     *
+     * @param sentences the input sentences
+     * @param maxLength the length to pad to, 0 to pad to the longest sentence
+     * @param encoding the {@link BertEncoding} to reuse, or {@code null} to create a new one
+     * @return the {@link BertEncoding} of the batch
+     */
+    public BertEncoding encode(List<String> sentences, int maxLength, BertEncoding encoding) {
+        if (encoding == null) {
+            encoding = new BertEncoding();
+        }
+        encoding.reset();
+        for (String sentence : sentences) {
+            encoding.addToken(clsId, 0, 0, 0);
+            encodeText(sentence, 0, encoding);
+            encoding.addToken(sepId, 0, 0, 0);
+            encoding.endRow();
+        }
+        encoding.layout(maxLength, padId);
+        return encoding;
+    }
+
     /** {@inheritDoc} */
     @Override
     public String buildSentence(List<String> tokens) {
         return String.join(" ", tokens).replace(" ##", "").trim();
     }
 
+    private int getId(String token) {
+        if (vocabulary.contains(token)) {
+            return Math.toIntExact(vocabulary.getIndex(token));
+        }
+        return wordpieceTokenizer.getUnknownId();
+    }
+
+    // applies the basic preprocessors and the wordpiece tokenizer in a single pass over the text
+    private void encodeText(String text, int type, BertEncoding encoding) {
+        int length = text.length();
+        for (int i = 0; i < length; ++i) {
+            char c = text.charAt(i);
+            if (c == 0 || c == 0xfffd || NlpUtils.isControl(c)) {
+                continue;
+            }
+            if (NlpUtils.isWhiteSpace(c)) {
+                endWord(type, encoding);
+            } else if (c < 0x80) {
+                if (lowerCase && c >= 'A' && c <= 'Z') {
+                    c += 'a' - 'A';
+                }
+                addChar(c, i, type, encoding);
+            } else {
+                String normalized = String.valueOf(c);
+                if (lowerCase) {
+                    normalized = normalized.toLowerCase(Locale.ENGLISH);
+                }
+                normalized = Normalizer.normalize(normalized, Normalizer.Form.NFD);
+                for (int j = 0; j < normalized.length(); ++j) {
+                    char n = normalized.charAt(j);
+                    if (Character.getType(n) != Character.NON_SPACING_MARK) {
+                        addChar(n, i, type, encoding);
+                    }
+                }
+            }
+        }
+        endWord(type, encoding);
+    }
+
+    private void addChar(char c, int index, int type, BertEncoding encoding) {
+        if (isPunctuation(c)) {
+            endWord(type, encoding);
+            encoding.addChar(c, index, index + 1);
+            endWord(type, encoding);
+        } else {
+            encoding.addChar(c, index, index + 1);
+        }
+    }
+
+    private void endWord(int type, BertEncoding encoding) {
+        StringBuilder word = encoding.word;
+        int length = word.length();
+        if (length == 0) {
+            return;
+        }
+        encoding.ensureTokens(length);
+        int start = encoding.tokenCount;
+        int end = wordpieceTokenizer.encode(word, encoding.tokens, encoding.tokenEnds, start);
+        int charStart = 0;
+        for (int i = start; i < end; ++i) {
+            int charEnd = encoding.tokenEnds[i];
+            encoding.tokenTypes[i] = type;
+            encoding.tokenOffsets[i * 2] = encoding.charStarts[charStart];
+            encoding.tokenOffsets[i * 2 + 1] = encoding.charEnds[charEnd - 1];
+            charStart = charEnd;
+        }
+        encoding.tokenCount = end;
+        word.setLength(0);
+    }
+
+    // the same characters as the pattern of PunctuationSeparator
+    private static boolean isPunctuation(char c) {
+        if (c < 0x80) {
+            return (c > ' ' && c < '0')
+                    || (c > '9' && c < 'A')
+                    || (c > 'Z' && c < 'a')
+                    || (c > 'z' && c < 0x7f);
+        }
+        switch (Character.getType(c)) {
+            case Character.CONNECTOR_PUNCTUATION:
+            case Character.DASH_PUNCTUATION:
+            case Character.START_PUNCTUATION:
+            case Character.END_PUNCTUATION:
+            case Character.INITIAL_QUOTE_PUNCTUATION:
+            case Character.FINAL_QUOTE_PUNCTUATION:
+            case Character.OTHER_PUNCTUATION:
+                return true;
+            default:
+                return false;
+        }
+    }
+
     /**
      * Get a list of {@link TextProcessor}s to process input text for Bert models.
      *
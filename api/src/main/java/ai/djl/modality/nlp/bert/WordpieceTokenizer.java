@@ -39,6 +39,8 @@ public class WordpieceTokenizer extends SimpleTokenizer {
     private String unknown;
     private int maxInputChars;
     private Vocabulary vocabulary;
+    private WordpieceTrie trie;
+    private int unknownId;
 
     /**
      * Creates an instance of {@code WordpieceTokenizer}.
@@ -51,57 +53,87 @@ public class WordpieceTokenizer extends SimpleTokenizer {
         this.unknown = unknown;
         this.maxInputChars = maxInputChars;
         this.vocabulary = vocabulary;
+        trie = new WordpieceTrie(vocabulary);
+        unknownId =
+                vocabulary.contains(unknown) ? Math.toIntExact(vocabulary.getIndex(unknown)) : -1;
     }
 
     /** {@inheritDoc} */
     @Override
     public List<String> tokenize(String sentence) {
-        StringBuilder sb = new StringBuilder();
-        List<String> subTokens = new ArrayList<>();
+        int[] ids = new int[0];
         List<String> outputTokens = new ArrayList<>();
         for (String token : super.tokenize(sentence.trim())) {
-            char[] chars = token.toCharArray();
-            if (chars.length > maxInputChars) {
+            if (ids.length < token.length()) {
+                ids = new int[token.length()];
+            }
+            int count = split(token, ids, null, 0);
+            if (count < 0) {
                 outputTokens.add(unknown);
                 continue;
             }
-            boolean isBad = false;
-            int start = 0;
-            subTokens.clear();
-            String currentSubString = null;
-            while (start < chars.length) {
-                int end = chars.length;
-                while (start < end) {
-                    sb.setLength(0);
-                    sb.append(token, start, end);
-                    if (start > 0) {
-                        sb.insert(0, "##");
-                    }
-                    String subString = sb.toString();
-                    if (vocabulary.contains(subString)) {
-                        currentSubString = subString;
-                        break;
-                    } else {
-                        currentSubString = null;
-                    }
-                    end--;
-                }
-                if (currentSubString == null) {
-                    isBad = true;
-                    break;
-                }
-                subTokens.add(currentSubString);
-                if (subTokens.size() > maxInputChars) {
-                    throw new IllegalStateException("Too many subTokens for: '" + sentence + '\'');
-                }
-                start = end;
-            }
-            if (isBad) {
-                outputTokens.add(unknown);
-            } else {
-                outputTokens.addAll(subTokens);
+            for (int i = 0; i < count; ++i) {
+                outputTokens.add(vocabulary.getToken(ids[i]));
             }
         }
         return outputTokens;
     }
+
+    /**
+     * Writes the vocabulary ids of the word pieces of a word into a buffer.
+     *
+     * <p>A word is split into at most {@code word.length()} pieces, the buffers must have room for
+     * as many pieces from {@code pos}. A word that can not be split into pieces of the vocabulary
+     * is written as the unknown token.
+     *
+     * @param word the word to split, it should already be cleaned and preprocessed
+     * @param ids the buffer to write the ids of the pieces into
+     * @param ends the buffer to write the index after the last character of each piece into, can be
+     *     {@code null}
+     * @param pos the index of the buffers to write the first piece to
+     * @return the index of the buffers after the last piece
+     */
+    public int encode(CharSequence word, int[] ids, int[] ends, int pos) {
+        int index = split(word, ids, ends, pos);
+        if (index >= 0) {
+            return index;
+        }
+        ids[pos] = unknownId;
+        if (ends != null) {
+            ends[pos] = word.length();
+        }
+        return pos + 1;
+    }
+
+    /**
+     * Returns the vocabulary id of the unknown token.
+     *
+     * @return the vocabulary id of the unknown token, or -1 if it is not in the vocabulary
+     */
+    public int getUnknownId() {
+        return unknownId;
+    }
+
+    // returns -1 if the word can not be split into pieces of the vocabulary
+    private int split(CharSequence word, int[] ids, int[] ends, int pos) {
+        int length = word.length();
+        if (length > maxInputChars) {
+            return -1;
+        }
+        int index = pos;
+        int start = 0;
+        while (start < length) {
+            long match = trie.match(word, start, length, start > 0);
+            if (match < 0) {
+                return -1;
+            }
+            ids[index] = (int) (match >>> 32);
+            start = (int) match;
+            if (ends != null) {
+                ends[index] = start;
+            }
+            ++index;
+        }
+        return index;
+    }
 }
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.modality.nlp.bert;
+
+import ai.djl.modality.nlp.Vocabulary;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.TreeMap;
+
+/**
+ * A {@code WordpieceTrie} is a {@link Vocabulary} compiled into a prefix tree for the longest match
+ * search of {@link WordpieceTokenizer}.
+ *
+ * <p>The tree is stored in flat arrays. The children of a node are sorted by character and found
+ * with a binary search, so a match walks the characters of a word once without any allocation. Word
+ * pieces that continue a word, the tokens that start with {@code "##"}, are stored without the
+ * prefix in a second tree.
+ */
+final class WordpieceTrie {
+
+    private static final String SUFFIX_PREFIX = "##";
+
+    private int[] firstChild;
+    private char[] labels;
+    private int[] children;
+    private int[] ids;
+    private int suffixRoot;
+
+    WordpieceTrie(Vocabulary vocabulary) {
+        Node root = new Node();
+        Node suffix = new Node();
+        for (long i = 0; i < vocabulary.size(); ++i) {
+            String token = vocabulary.getToken(i);
+            int id = Math.toIntExact(vocabulary.getIndex(token));
+            root.add(token, 0, id);
+            if (token.startsWith(SUFFIX_PREFIX)) {
+                suffix.add(token, SUFFIX_PREFIX.length(), id);
+            }
+        }
+
+        // number the nodes breadth first, the children of a node are numbered consecutively
+        List<Node> nodes = new ArrayList<>();
+        Queue<Node> queue = new ArrayDeque<>();
+        queue.add(root);
+        queue.add(suffix);
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            node.index = nodes.size();
+            nodes.add(node);
+            queue.addAll(node.children.values());
+        }
+        suffixRoot = suffix.index;
+
+        int size = nodes.size();
+        firstChild = new int[size + 1];
+        labels = new char[size];
+        children = new int[size];
+        ids = new int[size];
+        int edge = 0;
+        for (int i = 0; i < size; ++i) {
+            Node node = nodes.get(i);
+            firstChild[i] = edge;
+            ids[i] = node.id;
+            for (Node child : node.children.values()) {
+                labels[edge] = child.label;
+                children[edge] = child.index;
+                ++edge;
+            }
+        }
+        firstChild[size] = edge;
+    }
+
+    /**
+     * Finds the longest token that matches the characters of the word from {@code start}.
+     *
+     * @param word the word
+     * @param start the index of the first character to match
+     * @param end the index after the last character of the word
+     * @param suffix whether to match a token that continues the word
+     * @return the id of the token in the high 32 bits and the index after the match in the low 32
+     *     bits, or -1 if no token matches
+     */
+    long match(CharSequence word, int start, int end, boolean suffix) {
+        int node = suffix ? suffixRoot : 0;
+        long match = -1;
+        for (int i = start; i < end; ++i) {
+            node = child(node, word.charAt(i));
+            if (node < 0) {
+                break;
+            }
+            if (ids[node] >= 0) {
+                match = ((long) ids[node] << 32) | (i + 1);
+            }
+        }
+        return match;
+    }
+
+    private int child(int node, char c) {
+        int low = firstChild[node];
+        int high = firstChild[node + 1] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char label = labels[mid];
+            if (label < c) {
+                low = mid + 1;
+            } else if (label > c) {
+                high = mid - 1;
+            } else {
+                return children[mid];
+            }
+        }
+        return -1;
+    }
+
+    private static final class Node {
+
+        char label;
+        int id = -1;
+        int index;
+        TreeMap<Character, Node> children = new TreeMap<>();
+
+        void add(String token, int start, int tokenId) {
+            Node node = this;
+            for (int i = start; i < token.length(); ++i) {
+                char c = token.charAt(i);
+                Node child = node.children.get(c);
+                if (child == null) {
+                    child = new Node();
+                    child.label = c;
+                    node.children.put(c, child);
+                }
+                node = child;
+            }
+            if (node != this) {
+                node.id = tokenId;
+            }
+        }
+    }
+}
@@ -0,0 +1,697 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.modality.rl;
+
+import ai.djl.modality.rl.env.RlEnv.Step;
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.DataType;
+import ai.djl.ndarray.types.Shape;
+import ai.djl.util.RandomUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * A {@link ReplayBuffer} that stores the steps in preallocated off-heap columns and samples them by
+ * priority.
+ *
+ * <p>The buffer is a ring of {@code capacity} slots, and each array of the observations, actions
+ * and rewards has a column of direct memory with one slot per step. A step is copied into its slot
+ * when it is added, so the buffer holds no native arrays. A batch is copied from the columns into
+ * one buffer per column and created as a single stacked array, see {@link #getBatch(NDManager)}.
+ * All steps must have arrays of the same shapes and data types, which are taken from the first
+ * step.
+ *
+ * <p>The steps are sampled proportional to their priorities with a {@link SumTree}, as in <a
+ * href="https://arxiv.org/abs/1511.05952">prioritized experience replay</a>. New steps get the
+ * highest priority seen so far, and the learner updates the priorities with the TD errors of the
+ * sampled steps. The importance weights of a batch correct for the non-uniform sampling.
+ *
+ * <p>Steps can be added from multiple threads, the actors, while a single learner samples batches.
+ */
+public class PrioritizedReplayBuffer implements ReplayBuffer {
+
+    private static final int STRIPES = 64;
+
+    private int capacity;
+    private int batchSize;
+    private float alpha;
+    private volatile float beta;
+    private float epsilon;
+    private NDManager manager;
+    private NDManager batchManager;
+
+    private volatile Layout layout;
+    private boolean[] done;
+    private byte[][][] actionSpaces;
+    private AtomicLongArray stepIds;
+    private StampedLock[] locks;
+    private AtomicLong added;
+
+    private final SumTree tree;
+    private double maxPriority = 1;
+
+    PrioritizedReplayBuffer(Builder builder) {
+        capacity = builder.capacity;
+        batchSize = builder.batchSize;
+        alpha = builder.alpha;
+        beta = builder.beta;
+        epsilon = builder.epsilon;
+        manager = builder.manager;
+        done = new boolean[capacity];
+        actionSpaces = new byte[capacity][][];
+        stepIds = new AtomicLongArray(capacity);
+        locks = new StampedLock[STRIPES];
+        for (int i = 0; i < STRIPES; ++i) {
+            locks[i] = new StampedLock();
+        }
+        added = new AtomicLong();
+        tree = new SumTree(capacity);
+    }
+
+    /**
+     * Creates a builder to build a {@code PrioritizedReplayBuffer}.
+     *
+     * @return a new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns a batch of steps from this buffer.
+     *
+     * <p>The steps are views of a batch from {@link #getBatch(NDManager)}. They are valid until the
+     * next call, and they are {@link ReplayStep}s that report their TD errors back to the buffer.
+     *
+     * @return a batch of steps from this buffer
+     */
+    @Override
+    public Step[] getBatch() {
+        if (batchManager != null) {
+            batchManager.close();
+        }
+        batchManager = manager.newSubManager();
+        ReplayBatch batch = sample(batchManager, true);
+        Step[] steps = new Step[batchSize];
+        for (int i = 0; i < batchSize; ++i) {
+            steps[i] = new ReplayStep(batch, i);
+        }
+        return steps;
+    }
+
+    /**
+     * Samples a batch of steps by priority as stacked arrays.
+     *
+     * @param manager the manager to create the arrays of the batch with
+     * @return the sampled batch
+     * @throws IllegalStateException if the buffer is empty
+     */
+    public ReplayBatch getBatch(NDManager manager) {
+        return sample(manager, false);
+    }
+
+    /**
+     * Adds a new step to the buffer.
+     *
+     * <p>The data of the step is copied, so the step is not closed by the buffer. This method can
+     * be called from multiple threads.
+     *
+     * @param step the step to add
+     */
+    @Override
+    public void addStep(Step step) {
+        NDList pre = step.getPreObservation();
+        NDList action = step.getAction();
+        NDList post = step.getPostObservation();
+        NDArray reward = step.getReward();
+        Layout columns = getLayout(pre, action, post, reward);
+        ActionSpace actionSpace = step.getPostActionSpace();
+        byte[][] encoded = new byte[actionSpace.size()][];
+        for (int i = 0; i < encoded.length; ++i) {
+            encoded[i] = actionSpace.get(i).encode();
+        }
+
+        long id = added.getAndIncrement();
+        int slot = (int) (id % capacity);
+        // the old step is not sampled while it is overwritten
+        synchronized (tree) {
+            tree.set(slot, 0);
+        }
+        StampedLock lock = locks[slot % STRIPES];
+        long stamp = lock.writeLock();
+        try {
+            columns.write(slot, pre, action, post, reward);
+            done[slot] = step.isDone();
+            actionSpaces[slot] = encoded;
+            stepIds.set(slot, id);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        synchronized (tree) {
+            if (stepIds.get(slot) == id) {
+                tree.set(slot, maxPriority);
+            }
+        }
+    }
+
+    /**
+     * Updates the priorities of the steps of a batch from their TD errors.
+     *
+     * <p>Steps that were overwritten since the batch was sampled are skipped.
+     *
+     * @param batch the sampled batch
+     * @param errors the TD errors of the steps of the batch
+     */
+    public void updatePriorities(ReplayBatch batch, float[] errors) {
+        if (errors.length != batch.size()) {
+            throw new IllegalArgumentException(
+                    "Expected " + batch.size() + " errors, but got " + errors.length);
+        }
+        synchronized (tree) {
+            for (int i = 0; i < errors.length; ++i) {
+                updatePriority(batch.slots[i], batch.ids[i], errors[i]);
+            }
+        }
+    }
+
+    /**
+     * Updates the priorities of the steps of a batch from their TD errors.
+     *
+     * @param batch the sampled batch
+     * @param errors the TD errors of the steps of the batch
+     */
+    public void updatePriorities(ReplayBatch batch, NDArray errors) {
+        updatePriorities(batch, errors.toType(DataType.FLOAT32, false).toFloatArray());
+    }
+
+    /**
+     * Returns the number of steps in the buffer.
+     *
+     * @return the number of steps in the buffer
+     */
+    public int size() {
+        return (int) Math.min(added.get(), capacity);
+    }
+
+    /**
+     * Sets the exponent of the importance weights, it is usually annealed to 1 during training.
+     *
+     * @param beta the exponent of the importance weights
+     */
+    public void setBeta(float beta) {
+        this.beta = beta;
+    }
+
+    private ReplayBatch sample(NDManager arrayManager, boolean withActionSpaces) {
+        ReplayBatch batch = new ReplayBatch(batchSize);
+        double[] probabilities = new double[batchSize];
+        synchronized (tree) {
+            double total = tree.total();
+            if (total <= 0) {
+                throw new IllegalStateException("The replay buffer is empty");
+            }
+            // stratified sampling, one step from each equal part of the total priority
+            double segment = total / batchSize;
+            for (int i = 0; i < batchSize; ++i) {
+                double value = (i + RandomUtils.RANDOM.nextDouble()) * segment;
+                int slot = tree.find(Math.min(value, total));
+                batch.slots[i] = slot;
+                probabilities[i] = tree.get(slot) / total;
+            }
+        }
+
+        double count = size();
+        double maxWeight = 0;
+        for (int i = 0; i < batchSize; ++i) {
+            double weight = Math.pow(count * probabilities[i], -beta);
+            batch.weights[i] = (float) weight;
+            maxWeight = Math.max(maxWeight, weight);
+        }
+        for (int i = 0; i < batchSize; ++i) {
+            batch.weights[i] /= (float) maxWeight;
+        }
+        if (withActionSpaces) {
+            batch.actionSpaces = new byte[batchSize][][];
+        }
+
+        Layout columns = layout;
+        ByteBuffer[] pre = Layout.allocate(columns.pre, batchSize);
+        ByteBuffer[] action = Layout.allocate(columns.action, batchSize);
+        ByteBuffer[] post = Layout.allocate(columns.post, batchSize);
+        ByteBuffer reward = Layout.allocate(new Column[] {columns.reward}, batchSize)[0];
+        for (int i = 0; i < batchSize; ++i) {
+            int slot = batch.slots[i];
+            StampedLock lock = locks[slot % STRIPES];
+            long stamp = lock.readLock();
+            try {
+                Layout.read(columns.pre, slot, pre);
+                Layout.read(columns.action, slot, action);
+                Layout.read(columns.post, slot, post);
+                columns.reward.read(slot, reward);
+                batch.done[i] = done[slot];
+                batch.ids[i] = stepIds.get(slot);
+                if (withActionSpaces) {
+                    batch.actionSpaces[i] = actionSpaces[slot];
+                }
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        batch.preObservations = Layout.create(arrayManager, columns.pre, pre, batchSize);
+        batch.actions = Layout.create(arrayManager, columns.action, action, batchSize);
+        batch.postObservations = Layout.create(arrayManager, columns.post, post, batchSize);
+        batch.rewards = columns.reward.create(arrayManager, reward, batchSize);
+        batch.doneArray = arrayManager.create(batch.done);
+        batch.weightArray = arrayManager.create(batch.weights);
+        batch.manager = arrayManager;
+        return batch;
+    }
+
+    private void updatePriority(int slot, long id, float error) {
+        if (stepIds.get(slot) != id || tree.get(slot) <= 0) {
+            return;
+        }
+        double priority = Math.pow(Math.abs(error) + epsilon, alpha);
+        tree.set(slot, priority);
+        maxPriority = Math.max(maxPriority, priority);
+    }
+
+    private Layout getLayout(NDList pre, NDList action, NDList post, NDArray reward) {
+        Layout columns = layout;
+        if (columns == null) {
+            synchronized (this) {
+                columns = layout;
+                if (columns == null) {
+                    columns = new Layout(pre, action, post, reward, capacity);
+                    layout = columns;
+                }
+            }
+        }
+        return columns;
+    }
+
+    /** The batch of stacked steps sampled from a {@link PrioritizedReplayBuffer}. */
+    public static final class ReplayBatch {
+
+        NDManager manager;
+        NDList preObservations;
+        NDList actions;
+        NDList postObservations;
+        NDArray rewards;
+        NDArray doneArray;
+        NDArray weightArray;
+        int[] slots;
+        long[] ids;
+        boolean[] done;
+        float[] weights;
+        byte[][][] actionSpaces;
+
+        ReplayBatch(int size) {
+            slots = new int[size];
+            ids = new long[size];
+            done = new boolean[size];
+            weights = new float[size];
+        }
+
+        /**
+         * Returns the number of steps in the batch.
+         *
+         * @return the number of steps in the batch
+         */
+        public int size() {
+            return slots.length;
+        }
+
+        /**
+         * Returns the stacked observations before the actions.
+         *
+         * @return the stacked observations before the actions
+         */
+        public NDList getPreObservations() {
+            return preObservations;
+        }
+
+        /**
+         * Returns the stacked actions.
+         *
+         * @return the stacked actions
+         */
+        public NDList getActions() {
+            return actions;
+        }
+
+        /**
+         * Returns the stacked observations after the actions.
+         *
+         * @return the stacked observations after the actions
+         */
+        public NDList getPostObservations() {
+            return postObservations;
+        }
+
+        /**
+         * Returns the stacked rewards.
+         *
+         * @return the stacked rewards
+         */
+        public NDArray getRewards() {
+            return rewards;
+        }
+
+        /**
+         * Returns a boolean array of whether the environment was finished after each step.
+         *
+         * @return a boolean array of whether the environment was finished after each step
+         */
+        public NDArray getDone() {
+            return doneArray;
+        }
+
+        /**
+         * Returns the importance weights to multiply the losses of the steps with.
+         *
+         * @return the importance weights, the largest weight is 1
+         */
+        public NDArray getWeights() {
+            return weightArray;
+        }
+    }
+
+    /** A {@link Step} of a batch sampled from a {@link PrioritizedReplayBuffer}. */
+    public final class ReplayStep implements Step {
+
+        private ReplayBatch batch;
+        private int index;
+
+        ReplayStep(ReplayBatch batch, int index) {
+            this.batch = batch;
+            this.index = index;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public NDList getPreObservation() {
+            return slice(batch.preObservations);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public NDList getAction() {
+            return slice(batch.actions);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public NDList getPostObservation() {
+            return slice(batch.postObservations);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public ActionSpace getPostActionSpace() {
+            ActionSpace actionSpace = new ActionSpace();
+            for (byte[] encoded : batch.actionSpaces[index]) {
+                actionSpace.add(NDList.decode(batch.manager, encoded));
+            }
+            return actionSpace;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public NDArray getReward() {
+            return batch.rewards.get(index);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean isDone() {
+            return batch.done[index];
+        }
+
+        /**
+         * Returns the importance weight to multiply the loss of the step with.
+         *
+         * @return the importance weight to multiply the loss of the step with
+         */
+        public float getWeight() {
+            return batch.weights[index];
+        }
+
+        /**
+         * Updates the priority of the step from its TD error.
+         *
+         * @param error the TD error of the step
+         */
+        public void updatePriority(float error) {
+            synchronized (tree) {
+                PrioritizedReplayBuffer.this.updatePriority(
+                        batch.slots[index], batch.ids[index], error);
+            }
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void close() {}
+
+        private NDList slice(NDList stacked) {
+            NDList list = new NDList(stacked.size());
+            for (NDArray array : stacked) {
+                list.add(array.get(index));
+            }
+            return list;
+        }
+    }
+
+    /** The Builder to construct a {@link PrioritizedReplayBuffer}. */
+    public static final class Builder {
+
+        int capacity;
+        int batchSize;
+        NDManager manager;
+        float alpha = 0.6f;
+        float beta = 0.4f;
+        float epsilon = 1e-6f;
+
+        Builder() {}
+
+        /**
+         * Sets the number of steps to hold in the buffer.
+         *
+         * @param capacity the number of steps to hold in the buffer
+         * @return this builder
+         */
+        public Builder setCapacity(int capacity) {
+            this.capacity = capacity;
+            return this;
+        }
+
+        /**
+         * Sets the number of steps to train on per batch.
+         *
+         * @param batchSize the number of steps to train on per batch
+         * @return this builder
+         */
+        public Builder setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * Sets the {@link NDManager} to create the steps of {@link #getBatch()} with.
+         *
+         * @param manager the {@link NDManager} to create the steps with
+         * @return this builder
+         */
+        public Builder setManager(NDManager manager) {
+            this.manager = manager;
+            return this;
+        }
+
+        /**
+         * Sets how much the priorities matter, from 0 for uniform sampling to 1 for sampling
+         * proportional to the TD errors, defaults to 0.6.
+         *
+         * @param alpha the exponent of the priorities
+         * @return this builder
+         */
+        public Builder optAlpha(float alpha) {
+            this.alpha = alpha;
+            return this;
+        }
+
+        /**
+         * Sets the initial exponent of the importance weights, defaults to 0.4.
+         *
+         * @param beta the exponent of the importance weights
+         * @return this builder
+         */
+        public Builder optBeta(float beta) {
+            this.beta = beta;
+            return this;
+        }
+
+        /**
+         * Sets the value added to the TD errors, so no step has a priority of zero, defaults to
+         * 1e-6.
+         *
+         * @param epsilon the value added to the TD errors
+         * @return this builder
+         */
+        public Builder optEpsilon(float epsilon) {
+            this.epsilon = epsilon;
+            return this;
+        }
+
+        /**
+         * Builds the {@link PrioritizedReplayBuffer}.
+         *
+         * @return the {@link PrioritizedReplayBuffer}
+         */
+        public PrioritizedReplayBuffer build() {
+            if (capacity <= 0 || batchSize <= 0) {
+                throw new IllegalArgumentException("The capacity and batchSize must be positive");
+            }
+            if (manager == null) {
+                throw new IllegalArgumentException("The manager must be set");
+            }
+            return new PrioritizedReplayBuffer(this);
+        }
+    }
+
+    /** The off-heap columns of all arrays of the steps. */
+    private static final class Layout {
+
+        Column[] pre;
+        Column[] action;
+        Column[] post;
+        Column reward;
+
+        Layout(NDList pre, NDList action, NDList post, NDArray reward, int capacity) {
+            this.pre = columns(pre, capacity);
+            this.action = columns(action, capacity);
+            this.post = columns(post, capacity);
+            this.reward = new Column(reward, capacity);
+        }
+
+        void write(int slot, NDList pre, NDList action, NDList post, NDArray reward) {
+            writeAll(this.pre, slot, pre);
+            writeAll(this.action, slot, action);
+            writeAll(this.post, slot, post);
+            this.reward.write(slot, reward);
+        }
+
+        static ByteBuffer[] allocate(Column[] columns, int size) {
+            ByteBuffer[] buffers = new ByteBuffer[columns.length];
+            for (int i = 0; i < columns.length; ++i) {
+                buffers[i] = Column.allocate((long) columns[i].bytes * size);
+            }
+            return buffers;
+        }
+
+        static void read(Column[] columns, int slot, ByteBuffer[] buffers) {
+            for (int i = 0; i < columns.length; ++i) {
+                columns[i].read(slot, buffers[i]);
+            }
+        }
+
+        static NDList create(NDManager manager, Column[] columns, ByteBuffer[] buffers, int size) {
+            NDList list = new NDList(columns.length);
+            for (int i = 0; i < columns.length; ++i) {
+                list.add(columns[i].create(manager, buffers[i], size));
+            }
+            return list;
+        }
+
+        private static Column[] columns(NDList list, int capacity) {
+            Column[] columns = new Column[list.size()];
+            for (int i = 0; i < columns.length; ++i) {
+                columns[i] = new Column(list.get(i), capacity);
+            }
+            return columns;
+        }
+
+        private static void writeAll(Column[] columns, int slot, NDList list) {
+            if (list.size() != columns.length) {
+                throw new IllegalArgumentException(
+                        "Expected " + columns.length + " arrays, but got " + list.size());
+            }
+            for (int i = 0; i < columns.length; ++i) {
+                columns[i].write(slot, list.get(i));
+            }
+        }
+    }
+
+    /** The off-heap column of one array of the steps. */
+    private static final class Column {
+
+        String name;
+        Shape shape;
+        DataType dataType;
+        int bytes;
+        ByteBuffer data;
+
+        Column(NDArray array, int capacity) {
+            name = array.getName();
+            shape = array.getShape();
+            dataType = array.getDataType();
+            bytes = Math.toIntExact(shape.size() * dataType.getNumOfBytes());
+            data = allocate((long) bytes * capacity);
+        }
+
+        static ByteBuffer allocate(long size) {
+            if (size > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException(
+                        "The replay buffer column is too large: " + size + " bytes");
+            }
+            return ByteBuffer.allocateDirect((int) size).order(ByteOrder.nativeOrder());
+        }
+
+        void write(int slot, NDArray array) {
+            if (!shape.equals(array.getShape()) || dataType != array.getDataType()) {
+                throw new IllegalArgumentException(
+                        "Expected an array of "
+                                + shape
+                                + " "
+                                + dataType
+                                + ", but got "
+                                + array.getShape()
+                                + " "
+                                + array.getDataType());
+            }
+            ByteBuffer dst = data.duplicate();
+            dst.position(slot * bytes);
+            dst.put(array.toByteBuffer());
+        }
+
+        void read(int slot, ByteBuffer target) {
+            ByteBuffer src = data.duplicate();
+            src.position(slot * bytes);
+            src.limit(slot * bytes + bytes);
+            target.put(src);
+        }
+
+        NDArray create(NDManager manager, ByteBuffer buffer, int size) {
+            buffer.rewind();
+            NDArray array = manager.create(buffer, new Shape(size).addAll(shape), dataType);
+            array.setName(name);
+            return array;
+        }
+    }
+}
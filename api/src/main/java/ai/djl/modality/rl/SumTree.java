@@ -0,0 +1,85 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.modality.rl;
+
+/**
+ * A binary tree where each node holds the sum of its children, which samples leaves proportional to
+ * their values in logarithmic time.
+ *
+ * <p>The tree is not thread safe.
+ */
+final class SumTree {
+
+    private double[] nodes;
+    private int leaves;
+
+    SumTree(int capacity) {
+        leaves = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+        nodes = new double[leaves * 2];
+    }
+
+    /**
+     * Sets the value of a leaf.
+     *
+     * @param index the index of the leaf
+     * @param value the non-negative value of the leaf
+     */
+    void set(int index, double value) {
+        // the sums are recomputed from the children, so no rounding errors accumulate
+        int node = index + leaves;
+        nodes[node] = value;
+        for (node >>>= 1; node > 0; node >>>= 1) {
+            nodes[node] = nodes[node << 1] + nodes[(node << 1) + 1];
+        }
+    }
+
+    /**
+     * Returns the value of a leaf.
+     *
+     * @param index the index of the leaf
+     * @return the value of the leaf
+     */
+    double get(int index) {
+        return nodes[index + leaves];
+    }
+
+    /**
+     * Returns the sum of all leaves.
+     *
+     * @return the sum of all leaves
+     */
+    double total() {
+        return nodes[1];
+    }
+
+    /**
+     * Returns the leaf where the prefix sum of the leaves reaches the value.
+     *
+     * @param value the prefix sum, between 0 and {@link #total()}
+     * @return the index of the leaf
+     */
+    int find(double value) {
+        int node = 1;
+        while (node < leaves) {
+            int left = node << 1;
+            // rounding can leave a little of the value when the right subtree is empty
+            if (value < nodes[left] || nodes[left + 1] <= 0) {
+                node = left;
+            } else {
+                value -= nodes[left];
+                node = left + 1;
+            }
+        }
+        return node - leaves;
+    }
+}
@@ -13,6 +13,7 @@
 package ai.djl.modality.rl.agent;
 
 import ai.djl.modality.rl.ActionSpace;
+import ai.djl.modality.rl.PrioritizedReplayBuffer;
 import ai.djl.modality.rl.env.RlEnv;
 import ai.djl.modality.rl.env.RlEnv.Step;
 import ai.djl.ndarray.NDArray;
@@ -37,6 +38,9 @@ import java.util.stream.Stream;
  * information can be found in the <a
  * href="https://www.cs.toronto.edu/~vmnih/docs/dqn.pdf">paper</a>.
  *
+ * <p>The steps of a {@link PrioritizedReplayBuffer} are trained with their importance weights, and
+ * their priorities are updated with their TD errors.
+ *
  * <p>It is one of the earliest successful techniques for reinforcement learning with Deep learning.
  * It is also a good introduction to the field. However, many better techniques are commonly used
  * now.
@@ -112,6 +116,14 @@ public class QAgent implements RlAgent {
                     postQ = new NDList(bestAction.mul(rewardDiscount).add(step.getReward()));
                 }
                 NDArray lossValue = trainer.getLoss().evaluate(postQ, preQ);
+                if (step instanceof PrioritizedReplayBuffer.ReplayStep) {
+                    // weights the loss and reports the TD error of the prioritized step
+                    PrioritizedReplayBuffer.ReplayStep replayStep =
+                            (PrioritizedReplayBuffer.ReplayStep) step;
+                    lossValue = lossValue.mul(replayStep.getWeight());
+                    replayStep.updatePriority(
+                            postQ.singletonOrThrow().sub(preQ.singletonOrThrow()).getFloat());
+                }
                 collector.backward(lossValue);
                 batchData.getLabels().put(postQ.get(0).getDevice(), postQ);
                 batchData.getPredictions().put(preQ.get(0).getDevice(), preQ);
@@ -19,12 +19,14 @@ import ai.djl.ndarray.types.Shape;
 import ai.djl.util.Float16Utils;
 import ai.djl.util.PairList;
 import ai.djl.util.RandomUtils;
+import ai.djl.util.Utils;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.nio.Buffer;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.DoubleBuffer;
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
@@ -32,8 +34,8 @@ import java.nio.LongBuffer;
 import java.nio.ShortBuffer;
 import java.nio.charset.Charset;
 import java.nio.file.Path;
-import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /** {@code BaseNDManager} is the default implementation of {@link NDManager}. */
@@ -51,12 +53,19 @@ public abstract class BaseNDManager implements NDManager {
     protected AtomicBoolean closed = new AtomicBoolean(false);
     protected AtomicBoolean capped = new AtomicBoolean(false);
 
+    private DirectBufferPool bufferPool;
+    private ConcurrentLinkedQueue<ByteBuffer> pooledBuffers;
+
     protected BaseNDManager(NDManager parent, Device device) {
         this.parent = parent;
         this.device = device == null ? defaultDevice() : device;
         resources = new ConcurrentHashMap<>();
         tempResources = new ConcurrentHashMap<>();
-        uid = UUID.randomUUID().toString();
+        bufferPool = DirectBufferPool.getDefault();
+        if (bufferPool != null) {
+            pooledBuffers = new ConcurrentLinkedQueue<>();
+        }
+        uid = Utils.nextUid();
         Engine engine = getEngine().getAlternativeEngine();
         if (engine != null) {
             alternativeManager = engine.newBaseManager(Device.cpu());
@@ -69,6 +78,22 @@ public abstract class BaseNDManager implements NDManager {
         return getEngine().defaultDevice();
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>If a default {@link DirectBufferPool} is set, the buffer is taken from the pool and is
+     * returned to it when this manager is closed.
+     */
+    @Override
+    public ByteBuffer allocateDirect(int capacity) {
+        if (bufferPool == null) {
+            return ByteBuffer.allocateDirect(capacity).order(ByteOrder.nativeOrder());
+        }
+        ByteBuffer buf = bufferPool.acquire(capacity);
+        pooledBuffers.add(buf);
+        return buf.slice().order(ByteOrder.nativeOrder());
+    }
+
     /** {@inheritDoc} */
     @Override
     public NDArray create(String[] data, Charset charset, Shape shape) {
@@ -276,9 +301,14 @@ public abstract class BaseNDManager implements NDManager {
                 + resources.size();
     }
 
-    /** {@inheritDoc} */
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The resources are tracked in concurrent maps without locking this manager, so threads that
+     * attach to or detach from the same manager do not block each other.
+     */
     @Override
-    public synchronized void attachInternal(String resourceId, AutoCloseable resource) {
+    public void attachInternal(String resourceId, AutoCloseable resource) {
         if (capped.get()) {
             throw new IllegalStateException("NDManager is capped for addition of resources.");
         }
@@ -287,7 +317,7 @@ public abstract class BaseNDManager implements NDManager {
 
     /** {@inheritDoc} */
     @Override
-    public synchronized void attachUncappedInternal(String resourceId, AutoCloseable resource) {
+    public void attachUncappedInternal(String resourceId, AutoCloseable resource) {
         if (closed.get()) {
             throw new IllegalStateException("NDManager has been closed already.");
         }
@@ -307,6 +337,13 @@ public abstract class BaseNDManager implements NDManager {
                     }
                     return tempResource;
                 });
+        if (closed.get()) {
+            // this manager was closed while attaching, the resource may have been missed
+            if (resources.remove(resourceId, resource)) {
+                closeResource(resource);
+            }
+            throw new IllegalStateException("NDManager has been closed already.");
+        }
     }
 
     /** {@inheritDoc} */
@@ -321,7 +358,7 @@ public abstract class BaseNDManager implements NDManager {
 
     /** {@inheritDoc} */
     @Override
-    public synchronized void detachInternal(String resourceId) {
+    public void detachInternal(String resourceId) {
         if (closed.get()) {
             // This may happen in the middle of BaseNDManager.close()
             return;
@@ -352,11 +389,12 @@ public abstract class BaseNDManager implements NDManager {
     @Override
     public void close() {
         if (!closed.getAndSet(true)) {
-            for (AutoCloseable closeable : resources.values()) {
-                try {
-                    closeable.close();
-                } catch (Exception e) {
-                    logger.error("Resource close failed.", e);
+            // each resource is removed before it is closed, so it is closed only once even if it
+            // is attached concurrently
+            for (String resourceId : resources.keySet()) {
+                AutoCloseable closeable = resources.remove(resourceId);
+                if (closeable != null) {
+                    closeResource(closeable);
                 }
             }
             for (TempResource resource : tempResources.values()) {
@@ -365,6 +403,13 @@ public abstract class BaseNDManager implements NDManager {
             parent.detachInternal(uid);
             resources.clear();
             tempResources.clear();
+            if (pooledBuffers != null) {
+                ByteBuffer buf = pooledBuffers.poll();
+                while (buf != null) {
+                    bufferPool.release(buf);
+                    buf = pooledBuffers.poll();
+                }
+            }
         }
     }
 
@@ -379,7 +424,7 @@ public abstract class BaseNDManager implements NDManager {
             sb.append("    ");
         }
         sb.append("\\--- NDManager(")
-                .append(uid.substring(24))
+                .append(uid)
                 .append(") resource count: ")
                 .append(resources.size());
 
@@ -455,6 +500,14 @@ public abstract class BaseNDManager implements NDManager {
         target.rewind();
     }
 
+    private static void closeResource(AutoCloseable resource) {
+        try {
+            resource.close();
+        } catch (Exception e) {
+            logger.error("Resource close failed.", e);
+        }
+    }
+
     protected static final class TempResource {
 
         private NDResource resource;
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.ndarray;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/** A {@link ReadableByteChannel} that reads the remaining bytes of a {@link ByteBuffer}. */
+class BufferChannel implements ReadableByteChannel {
+
+    private ByteBuffer buf;
+    private boolean open;
+
+    BufferChannel(ByteBuffer buf) {
+        this.buf = buf.duplicate();
+        open = true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int read(ByteBuffer dst) {
+        if (!buf.hasRemaining()) {
+            return -1;
+        }
+        int size = Math.min(dst.remaining(), buf.remaining());
+        ByteBuffer slice = buf.duplicate();
+        slice.limit(slice.position() + size);
+        dst.put(slice);
+        buf.position(buf.position() + size);
+        return size;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close() {
+        open = false;
+    }
+}
@@ -12,7 +12,10 @@
  */
 package ai.djl.ndarray;
 
+import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.charset.StandardCharsets;
 
 /** Represents a supplier of {@code byte[]}. */
@@ -59,9 +62,22 @@ public interface BytesSupplier {
     ByteBuffer toByteBuffer();
 
     /**
-     * Wraps a byte array into a {code BytesSupplier}.
+     * Returns a {@code ReadableByteChannel} of the {@code byte[]} presentation of the object.
      *
-     * @param buf the byte array that will back this {code BytesSupplier}
+     * <p>A supplier that is backed by a stream returns a channel that reads the stream and keeps a
+     * copy of its content once the channel is closed, so the content can be read again. The caller
+     * should close the channel.
+     *
+     * @return a {@code ReadableByteChannel} of the {@code byte[]} presentation of the object
+     */
+    default ReadableByteChannel getAsChannel() {
+        return new BufferChannel(toByteBuffer());
+    }
+
+    /**
+     * Wraps a byte array into a {@code BytesSupplier}.
+     *
+     * @param buf the byte array that will back this {@code BytesSupplier}
      * @return a {@code BytesSupplier}
      */
     static BytesSupplier wrap(byte[] buf) {
@@ -69,9 +85,9 @@ public interface BytesSupplier {
     }
 
     /**
-     * Wraps a string into a {code BytesSupplier}.
+     * Wraps a string into a {@code BytesSupplier}.
      *
-     * @param value the string that will back this {code BytesSupplier}
+     * @param value the string that will back this {@code BytesSupplier}
      * @return a {@code BytesSupplier}
      */
     static BytesSupplier wrap(String value) {
@@ -79,9 +95,36 @@ public interface BytesSupplier {
     }
 
     /**
-     * Wraps an object as json into a {code BytesSupplier}.
+     * Wraps an {@code InputStream} into a {@code BytesSupplier}, the stream is read only when the
+     * content is needed.
+     *
+     * @param is the stream that will back this {@code BytesSupplier}
+     * @return a {@code BytesSupplier}
+     * @see #wrap(ReadableByteChannel)
+     */
+    static BytesSupplier wrap(InputStream is) {
+        return new StreamBytesSupplier(Channels.newChannel(is));
+    }
+
+    /**
+     * Wraps a {@code ReadableByteChannel} into a {@code BytesSupplier}, the channel is read only
+     * when the content is needed.
+     *
+     * <p>The channel can be read with {@link #getAsChannel()}, for example to decode an {@link
+     * NDList} directly into direct buffers. Any other method reads the whole channel into memory
+     * first. Either way, the content is kept in memory once it is read.
+     *
+     * @param channel the channel that will back this {@code BytesSupplier}
+     * @return a {@code BytesSupplier}
+     */
+    static BytesSupplier wrap(ReadableByteChannel channel) {
+        return new StreamBytesSupplier(channel);
+    }
+
+    /**
+     * Wraps an object as json into a {@code BytesSupplier}.
      *
-     * @param object the object that will back this {code BytesSupplier}
+     * @param object the object that will back this {@code BytesSupplier}
      * @return a {@code BytesSupplier}
      */
     static BytesSupplier wrapAsJson(Object object) {
@@ -0,0 +1,267 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.ndarray;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@code DirectBufferPool} is a pool of direct {@link ByteBuffer}s with power-of-two size classes.
+ *
+ * <p>Released buffers are first kept in a small cache of the releasing thread, then in a global
+ * arena that is bounded by {@code maxPooledBytes}. Requests larger than {@code maxBufferSize} are
+ * not pooled.
+ *
+ * <p>When a default pool is set, {@link BaseNDManager#allocateDirect(int)} takes its buffers from
+ * the pool and returns them when the {@link NDManager} is closed. The pool is disabled by default,
+ * it can be enabled with the {@code ai.djl.buffer_pool} system property or with {@link
+ * #setDefault(DirectBufferPool)}. Engines like PyTorch may share the memory of a direct buffer with
+ * the {@link NDArray} created from it on CPU, so the pool should only be enabled when arrays do not
+ * outlive the {@link NDManager} that created them, as is the case for the per-request managers of a
+ * {@link ai.djl.inference.Predictor}.
+ */
+public class DirectBufferPool {
+
+    private static final int MIN_CLASS = 6;
+    private static final int ZERO_CHUNK = 4096;
+    private static final ByteBuffer ZEROS = ByteBuffer.allocateDirect(ZERO_CHUNK);
+
+    private static DirectBufferPool defaultPool =
+            Boolean.getBoolean("ai.djl.buffer_pool") ? new DirectBufferPool() : null;
+
+    private int maxClass;
+    private int maxCachedClass;
+    private int threadCacheSize;
+    private long maxPooledBytes;
+    private ConcurrentLinkedQueue<ByteBuffer>[] arena;
+    private ThreadLocal<ThreadCache> threadCache;
+    private AtomicLong pooledBytes;
+    private LongAdder outstandingBytes;
+    private LongAdder hits;
+    private LongAdder misses;
+
+    /**
+     * Constructs a {@code DirectBufferPool} that pools buffers of up to 64 MiB and keeps at most
+     * 256 MiB of released buffers in its arena.
+     */
+    public DirectBufferPool() {
+        this(64 << 20, 256L << 20, 4);
+    }
+
+    /**
+     * Constructs a {@code DirectBufferPool}.
+     *
+     * @param maxBufferSize the largest buffer size in bytes that is pooled
+     * @param maxPooledBytes the maximum size in bytes of the released buffers kept in the arena
+     * @param threadCacheSize the number of buffers each thread caches per size class
+     */
+    @SuppressWarnings("unchecked")
+    public DirectBufferPool(int maxBufferSize, long maxPooledBytes, int threadCacheSize) {
+        if (maxBufferSize <= 0 || maxPooledBytes < 0 || threadCacheSize < 0) {
+            throw new IllegalArgumentException("Invalid DirectBufferPool configuration.");
+        }
+        maxClass = Math.max(MIN_CLASS, sizeClass(maxBufferSize));
+        maxCachedClass = Math.min(maxClass, 18);
+        this.threadCacheSize = threadCacheSize;
+        this.maxPooledBytes = maxPooledBytes;
+        arena = (ConcurrentLinkedQueue<ByteBuffer>[]) new ConcurrentLinkedQueue<?>[maxClass + 1];
+        for (int i = MIN_CLASS; i <= maxClass; ++i) {
+            arena[i] = new ConcurrentLinkedQueue<>();
+        }
+        threadCache = ThreadLocal.withInitial(ThreadCache::new);
+        pooledBytes = new AtomicLong();
+        outstandingBytes = new LongAdder();
+        hits = new LongAdder();
+        misses = new LongAdder();
+    }
+
+    /**
+     * Returns the default {@code DirectBufferPool} used by {@link NDManager}s.
+     *
+     * @return the default {@code DirectBufferPool}, or {@code null} if pooling is disabled
+     */
+    public static DirectBufferPool getDefault() {
+        return defaultPool;
+    }
+
+    /**
+     * Sets the default {@code DirectBufferPool} used by {@link NDManager}s.
+     *
+     * <p>Managers that are already open keep returning their buffers to the pool they took them
+     * from.
+     *
+     * @param pool the default {@code DirectBufferPool}, {@code null} to disable pooling
+     */
+    public static void setDefault(DirectBufferPool pool) {
+        defaultPool = pool;
+    }
+
+    /**
+     * Acquires a zero-filled direct buffer in native byte order.
+     *
+     * <p>The capacity of the returned buffer is the size class of the request, its position is 0
+     * and its limit is the requested capacity.
+     *
+     * @param capacity the requested capacity in bytes
+     * @return a direct buffer with at least the requested capacity
+     */
+    public ByteBuffer acquire(int capacity) {
+        int sizeClass = sizeClass(capacity);
+        outstandingBytes.add(capacity);
+        if (sizeClass > maxClass) {
+            misses.increment();
+            return ByteBuffer.allocateDirect(capacity).order(ByteOrder.nativeOrder());
+        }
+
+        ByteBuffer buf = null;
+        if (sizeClass <= maxCachedClass) {
+            buf = threadCache.get().poll(sizeClass);
+        }
+        if (buf == null) {
+            buf = arena[sizeClass].poll();
+            if (buf != null) {
+                pooledBytes.addAndGet(-buf.capacity());
+            }
+        }
+        if (buf == null) {
+            misses.increment();
+            buf = ByteBuffer.allocateDirect(1 << sizeClass).order(ByteOrder.nativeOrder());
+            buf.limit(capacity);
+            return buf;
+        }
+        hits.increment();
+        buf.clear();
+        buf.limit(capacity);
+        fillZeros(buf);
+        return buf;
+    }
+
+    /**
+     * Returns a buffer acquired from this pool.
+     *
+     * <p>The buffer must not be used after it has been released.
+     *
+     * @param buf the buffer returned by {@link #acquire(int)}
+     */
+    public void release(ByteBuffer buf) {
+        outstandingBytes.add(-buf.limit());
+        int capacity = buf.capacity();
+        int sizeClass = sizeClass(capacity);
+        if (!buf.isDirect() || capacity != 1 << sizeClass || sizeClass > maxClass) {
+            return;
+        }
+        if (sizeClass <= maxCachedClass && threadCache.get().offer(sizeClass, buf)) {
+            return;
+        }
+        if (pooledBytes.addAndGet(capacity) > maxPooledBytes) {
+            pooledBytes.addAndGet(-capacity);
+            return;
+        }
+        arena[sizeClass].offer(buf);
+    }
+
+    /**
+     * Returns the number of requests served with a pooled buffer.
+     *
+     * @return the number of requests served with a pooled buffer
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of requests that allocated a new buffer.
+     *
+     * @return the number of requests that allocated a new buffer
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the fraction of requests served with a pooled buffer.
+     *
+     * @return the hit rate between 0 and 1, or 0 if nothing was acquired yet
+     */
+    public double getHitRate() {
+        long hit = hits.sum();
+        long total = hit + misses.sum();
+        return total == 0 ? 0 : (double) hit / total;
+    }
+
+    /**
+     * Returns the number of requested bytes that are acquired and not yet released.
+     *
+     * @return the number of bytes outstanding
+     */
+    public long getBytesOutstanding() {
+        return outstandingBytes.sum();
+    }
+
+    /**
+     * Returns the number of bytes held by the global arena, not including the thread caches.
+     *
+     * @return the number of bytes held by the global arena
+     */
+    public long getBytesPooled() {
+        return pooledBytes.get();
+    }
+
+    private static int sizeClass(int capacity) {
+        if (capacity <= 1 << MIN_CLASS) {
+            return MIN_CLASS;
+        }
+        return 32 - Integer.numberOfLeadingZeros(capacity - 1);
+    }
+
+    private static void fillZeros(ByteBuffer buf) {
+        ByteBuffer target = buf.duplicate();
+        while (target.hasRemaining()) {
+            ByteBuffer zeros = ZEROS.duplicate();
+            zeros.limit(Math.min(ZERO_CHUNK, target.remaining()));
+            target.put(zeros);
+        }
+    }
+
+    private final class ThreadCache {
+
+        ArrayDeque<ByteBuffer>[] buffers;
+
+        @SuppressWarnings("unchecked")
+        ThreadCache() {
+            buffers = (ArrayDeque<ByteBuffer>[]) new ArrayDeque<?>[maxCachedClass + 1];
+        }
+
+        ByteBuffer poll(int sizeClass) {
+            ArrayDeque<ByteBuffer> queue = buffers[sizeClass];
+            return queue == null ? null : queue.poll();
+        }
+
+        boolean offer(int sizeClass, ByteBuffer buf) {
+            ArrayDeque<ByteBuffer> queue = buffers[sizeClass];
+            if (queue == null) {
+                queue = new ArrayDeque<>(threadCacheSize);
+                buffers[sizeClass] = queue;
+            }
+            if (queue.size() >= threadCacheSize) {
+                return false;
+            }
+            queue.push(buf);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,370 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.ndarray;
+
+import ai.djl.ndarray.types.DataType;
+import ai.djl.ndarray.types.Shape;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An {@code IndexedNDList} is a file of {@link NDArray}s with an index of their offsets, which
+ * reads single arrays without reading the rest of the file.
+ *
+ * <p>The file starts with a header that holds the name, data type, shape, offset and length of
+ * every array, followed by the data of the arrays aligned to 64 bytes. An opened file maps the data
+ * of an array into memory only when the array is read. The mapping is private, so the arrays can be
+ * modified without changing the file, and engines that create arrays from direct buffers without
+ * copying, like PyTorch on CPU, load the data lazily from the page cache.
+ *
+ * <pre>
+ * IndexedNDList.write(parameters, Paths.get("model.ndix"));
+ * try (IndexedNDList file = IndexedNDList.open(Paths.get("model.ndix"))) {
+ *     NDArray weight = file.get(manager, "fc1_weight");
+ * }
+ * </pre>
+ *
+ * <p>{@link NDList#decode(NDManager, java.io.InputStream)} also reads this format.
+ */
+public final class IndexedNDList implements AutoCloseable {
+
+    static final byte[] MAGIC = {'N', 'D', 'I', 'X'};
+
+    private static final int VERSION = 1;
+    private static final int ALIGNMENT = 64;
+
+    private FileChannel channel;
+    private boolean writable;
+    private List<Entry> entries;
+
+    private IndexedNDList(FileChannel channel, boolean writable, List<Entry> entries) {
+        this.channel = channel;
+        this.writable = writable;
+        this.entries = entries;
+    }
+
+    /**
+     * Writes the {@link NDArray}s to a file.
+     *
+     * @param list the arrays to write
+     * @param file the file to write to
+     * @throws IOException if failed to write the file
+     */
+    public static void write(NDList list, Path file) throws IOException {
+        try (FileChannel fc =
+                FileChannel.open(
+                        file,
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING)) {
+            write(list, fc);
+        }
+    }
+
+    /**
+     * Writes the {@link NDArray}s to a channel.
+     *
+     * <p>The data of the arrays is written from their buffers with a single gather write if the
+     * channel supports it.
+     *
+     * @param list the arrays to write
+     * @param channel the channel to write to
+     * @throws IOException if failed to write to the channel
+     */
+    public static void write(NDList list, WritableByteChannel channel) throws IOException {
+        int size = list.size();
+        ByteBuffer[] data = new ByteBuffer[size];
+        for (int i = 0; i < size; ++i) {
+            data[i] = list.get(i).toByteBuffer();
+        }
+
+        // the header has the same length for any offsets
+        long[] offsets = new long[size];
+        int headerLength = encodeHeader(list, data, offsets, 0).length;
+        long offset = align(headerLength);
+        for (int i = 0; i < size; ++i) {
+            offsets[i] = offset;
+            offset = align(offset + data[i].remaining());
+        }
+        byte[] header = encodeHeader(list, data, offsets, headerLength);
+
+        ByteBuffer zeros = ByteBuffer.allocate(ALIGNMENT);
+        ByteBuffer[] buffers = new ByteBuffer[size * 2 + 1];
+        buffers[0] = ByteBuffer.wrap(header);
+        long position = headerLength;
+        for (int i = 0; i < size; ++i) {
+            ByteBuffer padding = zeros.duplicate();
+            padding.limit((int) (offsets[i] - position));
+            buffers[i * 2 + 1] = padding;
+            buffers[i * 2 + 2] = data[i];
+            position = offsets[i] + data[i].remaining();
+        }
+        NDSerializer.write(channel, buffers);
+    }
+
+    /**
+     * Opens a file written by {@link #write(NDList, Path)}, only the header is read.
+     *
+     * @param file the file to open
+     * @return the opened file
+     * @throws IOException if failed to read the file
+     */
+    public static IndexedNDList open(Path file) throws IOException {
+        // a private mapping requires a channel that is open for writing, it never writes the file
+        FileChannel fc;
+        boolean writable = Files.isWritable(file);
+        if (writable) {
+            fc = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } else {
+            fc = FileChannel.open(file, StandardOpenOption.READ);
+        }
+        try {
+            // the stream does not read ahead, it reads only the header from the channel
+            DataInputStream dis = new DataInputStream(Channels.newInputStream(fc));
+            return new IndexedNDList(fc, writable, parseHeader(readHeader(dis)));
+        } catch (IOException | RuntimeException e) {
+            fc.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the arrays of this format from a stream.
+     *
+     * @param manager the manager to create the arrays with
+     * @param dis the stream positioned at the start of the file
+     * @return the arrays
+     * @throws IOException if failed to read the stream
+     */
+    static NDList decode(NDManager manager, DataInputStream dis) throws IOException {
+        byte[] header = readHeader(dis);
+        List<Entry> list = parseHeader(header);
+        long position = header.length;
+        NDList arrays = new NDList(list.size());
+        for (Entry entry : list) {
+            dis.readFully(new byte[(int) (entry.offset - position)]);
+            int length = Math.toIntExact(entry.length);
+            ByteBuffer data = manager.allocateDirect(length);
+            NDSerializer.readData(dis, data, length);
+            arrays.add(entry.create(manager, data));
+            position = entry.offset + length;
+        }
+        return arrays;
+    }
+
+    /**
+     * Returns the number of arrays in the file.
+     *
+     * @return the number of arrays in the file
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the names of the arrays in the file, {@code null} for arrays without a name.
+     *
+     * @return the names of the arrays in the file
+     */
+    public List<String> getNames() {
+        List<String> names = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            names.add(entry.name);
+        }
+        return Collections.unmodifiableList(names);
+    }
+
+    /**
+     * Returns the shape of an array without reading its data.
+     *
+     * @param index the index of the array
+     * @return the shape of the array
+     */
+    public Shape getShape(int index) {
+        return entries.get(index).shape;
+    }
+
+    /**
+     * Reads the array at the index.
+     *
+     * @param manager the manager to create the array with
+     * @param index the index of the array
+     * @return the array
+     * @throws IOException if failed to map the file
+     */
+    public NDArray get(NDManager manager, int index) throws IOException {
+        Entry entry = entries.get(index);
+        ByteBuffer data;
+        if (entry.length == 0) {
+            data = ByteBuffer.allocate(0);
+        } else if (writable) {
+            data = channel.map(FileChannel.MapMode.PRIVATE, entry.offset, entry.length);
+        } else {
+            // a read only mapping is copied, so the array can be modified
+            ByteBuffer mapped =
+                    channel.map(FileChannel.MapMode.READ_ONLY, entry.offset, entry.length);
+            data = manager.allocateDirect(mapped.remaining());
+            data.put(mapped);
+            data.rewind();
+        }
+        return entry.create(manager, data);
+    }
+
+    /**
+     * Reads the first array with the name.
+     *
+     * @param manager the manager to create the array with
+     * @param name the name of the array
+     * @return the array, or {@code null} if no array has the name
+     * @throws IOException if failed to map the file
+     */
+    public NDArray get(NDManager manager, String name) throws IOException {
+        for (int i = 0; i < entries.size(); ++i) {
+            if (name.equals(entries.get(i).name)) {
+                return get(manager, i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reads all arrays of the file.
+     *
+     * @param manager the manager to create the arrays with
+     * @return the arrays
+     * @throws IOException if failed to map the file
+     */
+    public NDList toNDList(NDManager manager) throws IOException {
+        NDList list = new NDList(entries.size());
+        for (int i = 0; i < entries.size(); ++i) {
+            list.add(get(manager, i));
+        }
+        return list;
+    }
+
+    /**
+     * Closes the file, arrays that were read stay valid.
+     *
+     * @throws IOException if failed to close the file
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static long align(long offset) {
+        return (offset + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    private static byte[] encodeHeader(
+            NDList list, ByteBuffer[] data, long[] offsets, int headerLength) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        DataOutputStream dos = new DataOutputStream(bos);
+        dos.write(MAGIC);
+        dos.writeInt(VERSION);
+        dos.writeInt(headerLength);
+        dos.writeInt(list.size());
+        for (int i = 0; i < list.size(); ++i) {
+            NDArray array = list.get(i);
+            String name = array.getName();
+            if (name == null) {
+                dos.write(0);
+            } else {
+                dos.write(1);
+                dos.writeUTF(name);
+            }
+            dos.writeUTF(array.getDataType().name());
+            dos.write(array.getShape().getEncoded());
+            dos.write(data[i].order() == ByteOrder.BIG_ENDIAN ? '>' : '<');
+            dos.writeLong(offsets[i]);
+            dos.writeLong(data[i].remaining());
+        }
+        dos.flush();
+        return bos.toByteArray();
+    }
+
+    private static byte[] readHeader(DataInputStream dis) throws IOException {
+        byte[] prefix = new byte[MAGIC.length + 8];
+        dis.readFully(prefix);
+        ByteBuffer bb = ByteBuffer.wrap(prefix);
+        for (byte b : MAGIC) {
+            if (bb.get() != b) {
+                throw new IllegalArgumentException("Malformed IndexedNDList data");
+            }
+        }
+        int version = bb.getInt();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unexpected IndexedNDList version " + version);
+        }
+        int headerLength = bb.getInt();
+        if (headerLength < prefix.length + 4) {
+            throw new IllegalArgumentException("Malformed IndexedNDList data");
+        }
+        byte[] header = Arrays.copyOf(prefix, headerLength);
+        dis.readFully(header, prefix.length, headerLength - prefix.length);
+        return header;
+    }
+
+    private static List<Entry> parseHeader(byte[] header) throws IOException {
+        DataInputStream dis = new DataInputStream(new ByteArrayInputStream(header));
+        dis.readFully(new byte[MAGIC.length + 8]);
+        int size = dis.readInt();
+        List<Entry> list = new ArrayList<>(size);
+        for (int i = 0; i < size; ++i) {
+            Entry entry = new Entry();
+            if (dis.readByte() == 1) {
+                entry.name = dis.readUTF();
+            }
+            entry.dataType = DataType.valueOf(dis.readUTF());
+            entry.shape = Shape.decode(dis);
+            entry.order = dis.readByte() == '>' ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+            entry.offset = dis.readLong();
+            entry.length = dis.readLong();
+            list.add(entry);
+        }
+        return list;
+    }
+
+    private static final class Entry {
+
+        String name;
+        DataType dataType;
+        Shape shape;
+        ByteOrder order;
+        long offset;
+        long length;
+
+        NDArray create(NDManager manager, ByteBuffer data) {
+            data.order(order);
+            NDArray array = NDSerializer.create(manager, data, shape, dataType);
+            array.setName(name);
+            return array;
+        }
+    }
+}
@@ -23,7 +23,11 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.PushbackInputStream;
+import java.io.SequenceInputStream;
 import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -108,6 +112,8 @@ public class NDList extends ArrayList<NDArray> implements NDResource, BytesSuppl
                     && magic[2] == 'U'
                     && magic[3] == 'M') {
                 return new NDList(NDSerializer.decode(manager, pis));
+            } else if (Arrays.equals(magic, IndexedNDList.MAGIC)) {
+                return IndexedNDList.decode(manager, new DataInputStream(pis));
             }
 
             dis = new DataInputStream(pis);
@@ -125,6 +131,43 @@ public class NDList extends ArrayList<NDArray> implements NDResource, BytesSuppl
         }
     }
 
+    /**
+     * Decodes NDList from a {@link ReadableByteChannel}.
+     *
+     * <p>The data of the arrays in the NDList format is read from the channel into direct buffers
+     * without intermediate copies. The other formats supported by {@link #decode(NDManager,
+     * InputStream)} are read as a stream.
+     *
+     * @param manager manager assigned to {@link NDArray}
+     * @param channel the channel to read from
+     * @return {@code NDList}
+     */
+    public static NDList decode(NDManager manager, ReadableByteChannel channel) {
+        try {
+            ByteBuffer bb = ByteBuffer.allocate(4);
+            NDSerializer.readFully(channel, bb);
+            byte[] magic = bb.array();
+            if (magic[0] == 'P' || magic[0] == (byte) 0x39 || magic[0] == 'N') {
+                InputStream is =
+                        new SequenceInputStream(
+                                new ByteArrayInputStream(magic), Channels.newInputStream(channel));
+                return decode(manager, is);
+            }
+            int size = bb.getInt(0);
+            if (size < 0) {
+                throw new IllegalArgumentException("Invalid NDList size: " + size);
+            }
+            // the size is not trusted to allocate the list, the data may be malformed
+            NDList list = new NDList();
+            for (int i = 0; i < size; i++) {
+                list.add(NDSerializer.decode(manager, channel));
+            }
+            return list;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed data", e);
+        }
+    }
+
     private static NDList decodeNumpy(NDManager manager, InputStream is) throws IOException {
         NDList list = new NDList();
         ZipInputStream zis = new ZipInputStream(is);
@@ -350,11 +393,31 @@ public class NDList extends ArrayList<NDArray> implements NDResource, BytesSuppl
         DataOutputStream dos = new DataOutputStream(os);
         dos.writeInt(size());
         for (NDArray nd : this) {
-            dos.write(nd.encode());
+            NDSerializer.encode(nd, dos);
         }
         dos.flush();
     }
 
+    /**
+     * Writes the encoded NDList to a {@link WritableByteChannel}.
+     *
+     * <p>The data of the arrays is written from their buffers without copying, with a single gather
+     * write if the channel supports it, like a {@link java.nio.channels.FileChannel}.
+     *
+     * @param channel the channel to be written to
+     * @throws IOException if failed on IO operation
+     */
+    public void encode(WritableByteChannel channel) throws IOException {
+        ByteBuffer[] buffers = new ByteBuffer[size() * 2 + 1];
+        buffers[0] = ByteBuffer.allocate(4).putInt(0, size());
+        for (int i = 0; i < size(); ++i) {
+            ByteBuffer[] array = NDSerializer.toBuffers(get(i));
+            buffers[i * 2 + 1] = array[0];
+            buffers[i * 2 + 2] = array[1];
+        }
+        NDSerializer.write(channel, buffers);
+    }
+
     /** {@inheritDoc} */
     @Override
     public byte[] getAsBytes() {
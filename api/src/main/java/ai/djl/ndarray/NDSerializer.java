@@ -19,11 +19,16 @@ import ai.djl.ndarray.types.Shape;
 import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.regex.Matcher;
@@ -61,6 +66,67 @@ final class NDSerializer {
 
     static void encode(NDArray array, OutputStream os) throws IOException {
         DataOutputStream dos = new DataOutputStream(os);
+        ByteBuffer bb = array.toByteBuffer();
+        writeHeader(dos, array, bb.order(), bb.remaining());
+
+        int length = bb.remaining();
+        if (length > 0) {
+            byte[] buf = new byte[Math.min(length, BUFFER_SIZE)];
+            while (bb.hasRemaining()) {
+                int len = Math.min(bb.remaining(), buf.length);
+                bb.get(buf, 0, len);
+                dos.write(buf, 0, len);
+            }
+        }
+        dos.flush();
+    }
+
+    /**
+     * Returns the encoded header and the data of {@link NDArray} as buffers to write to a channel,
+     * the data is not copied.
+     *
+     * @param array the input {@link NDArray}
+     * @return the header and the data
+     */
+    static ByteBuffer[] toBuffers(NDArray array) {
+        ByteBuffer bb = array.toByteBuffer();
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(64);
+        try {
+            writeHeader(new DataOutputStream(bos), array, bb.order(), bb.remaining());
+        } catch (IOException e) {
+            throw new AssertionError("This should never happen", e);
+        }
+        return new ByteBuffer[] {ByteBuffer.wrap(bos.toByteArray()), bb};
+    }
+
+    /**
+     * Writes the buffers to a channel, with a single gather write if the channel supports it.
+     *
+     * @param channel the channel to write to
+     * @param buffers the buffers to write
+     * @throws IOException if failed to write to the channel
+     */
+    static void write(WritableByteChannel channel, ByteBuffer... buffers) throws IOException {
+        if (channel instanceof GatheringByteChannel) {
+            GatheringByteChannel gather = (GatheringByteChannel) channel;
+            long remaining = 0;
+            for (ByteBuffer buf : buffers) {
+                remaining += buf.remaining();
+            }
+            while (remaining > 0) {
+                remaining -= gather.write(buffers);
+            }
+        } else {
+            for (ByteBuffer buf : buffers) {
+                while (buf.hasRemaining()) {
+                    channel.write(buf);
+                }
+            }
+        }
+    }
+
+    private static void writeHeader(
+            DataOutputStream dos, NDArray array, ByteOrder order, int length) throws IOException {
         // magic string for version identification
         dos.writeUTF(MAGIC_NUMBER);
         dos.writeInt(VERSION);
@@ -77,26 +143,8 @@ final class NDSerializer {
         Shape shape = array.getShape();
         dos.write(shape.getEncoded());
 
-        ByteBuffer bb = array.toByteBuffer();
-        dos.write(bb.order() == ByteOrder.BIG_ENDIAN ? '>' : '<');
-        int length = bb.remaining();
+        dos.write(order == ByteOrder.BIG_ENDIAN ? '>' : '<');
         dos.writeInt(length);
-
-        if (length > 0) {
-            if (length > BUFFER_SIZE) {
-                byte[] buf = new byte[BUFFER_SIZE];
-                while (length > BUFFER_SIZE) {
-                    bb.get(buf);
-                    dos.write(buf);
-                    length = bb.remaining();
-                }
-            }
-
-            byte[] buf = new byte[length];
-            bb.get(buf);
-            dos.write(buf);
-        }
-        dos.flush();
     }
 
     static void encodeAsNumpy(NDArray array, OutputStream os) throws IOException {
@@ -145,7 +193,56 @@ final class NDSerializer {
         } else {
             dis = new DataInputStream(is);
         }
+        Header header = readHeader(dis);
+        ByteBuffer data = manager.allocateDirect(header.length);
+        readData(dis, data, header.length);
+        return header.create(manager, data);
+    }
+
+    /**
+     * Decodes {@link NDArray} from a channel, the data is read into a direct buffer without
+     * intermediate copies.
+     *
+     * @param manager the {@link NDManager} assigned to the {@link NDArray}
+     * @param channel the channel to read from
+     * @return {@link NDArray}
+     * @throws IOException data is not readable
+     */
+    static NDArray decode(NDManager manager, ReadableByteChannel channel) throws IOException {
+        // the header is read through an unbuffered stream, so no data is read ahead
+        Header header = readHeader(new DataInputStream(Channels.newInputStream(channel)));
+        ByteBuffer data = manager.allocateDirect(header.length);
+        readFully(channel, data);
+        data.rewind();
+        return header.create(manager, data);
+    }
 
+    /**
+     * Creates an {@link NDArray} from its data, the buffer is shared with the array if the engine
+     * supports it and the data is in native order.
+     *
+     * @param manager the {@link NDManager} assigned to the {@link NDArray}
+     * @param data the data of the array
+     * @param shape the shape of the array
+     * @param dataType the data type of the array
+     * @return {@link NDArray}
+     */
+    static NDArray create(NDManager manager, ByteBuffer data, Shape shape, DataType dataType) {
+        if (data.order() == ByteOrder.nativeOrder() && data.isDirect() && data.hasRemaining()) {
+            return manager.create(data, shape, dataType);
+        }
+        return manager.create(dataType.asDataType(data), shape, dataType);
+    }
+
+    static void readFully(ReadableByteChannel channel, ByteBuffer data) throws IOException {
+        while (data.hasRemaining()) {
+            if (channel.read(data) < 0) {
+                throw new EOFException("Unexpected end of NDArray data");
+            }
+        }
+    }
+
+    private static Header readHeader(DataInputStream dis) throws IOException {
         if (!"NDAR".equals(dis.readUTF())) {
             throw new IllegalArgumentException("Malformed NDArray data");
         }
@@ -156,37 +253,30 @@ final class NDSerializer {
             throw new IllegalArgumentException("Unexpected NDArray encode version " + version);
         }
 
-        String name = null;
+        Header header = new Header();
         if (version > 1) {
             byte flag = dis.readByte();
             if (flag == 1) {
-                name = dis.readUTF();
+                header.name = dis.readUTF();
             }
         }
 
         dis.readUTF(); // ignore SparseFormat
 
         // DataType
-        DataType dataType = DataType.valueOf(dis.readUTF());
+        header.dataType = DataType.valueOf(dis.readUTF());
 
         // Shape
-        Shape shape = Shape.decode(dis);
+        header.shape = Shape.decode(dis);
 
         // Data
-        ByteOrder order;
         if (version > 2) {
-            order = dis.readByte() == '>' ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+            header.order = dis.readByte() == '>' ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
         } else {
-            order = ByteOrder.nativeOrder();
+            header.order = ByteOrder.nativeOrder();
         }
-        int length = dis.readInt();
-        ByteBuffer data = manager.allocateDirect(length);
-        data.order(order);
-        readData(dis, data, length);
-
-        NDArray array = manager.create(dataType.asDataType(data), shape, dataType);
-        array.setName(name);
-        return array;
+        header.length = dis.readInt();
+        return header;
     }
 
     static NDArray decodeNumpy(NDManager manager, InputStream is) throws IOException {
@@ -244,21 +334,35 @@ final class NDSerializer {
         }
         readData(dis, data, len);
 
-        return manager.create(dataType.asDataType(data), shape, dataType);
+        return create(manager, data, shape, dataType);
     }
 
-    private static void readData(DataInputStream dis, ByteBuffer data, int len) throws IOException {
+    static void readData(DataInputStream dis, ByteBuffer data, int len) throws IOException {
         if (len > 0) {
-            byte[] buf = new byte[BUFFER_SIZE];
-            while (len > BUFFER_SIZE) {
-                dis.readFully(buf);
-                data.put(buf);
-                len -= BUFFER_SIZE;
+            byte[] buf = new byte[Math.min(len, BUFFER_SIZE)];
+            while (len > 0) {
+                int size = Math.min(len, buf.length);
+                dis.readFully(buf, 0, size);
+                data.put(buf, 0, size);
+                len -= size;
             }
-
-            dis.readFully(buf, 0, len);
-            data.put(buf, 0, len);
             data.rewind();
         }
     }
+
+    private static final class Header {
+
+        String name;
+        DataType dataType;
+        Shape shape;
+        ByteOrder order;
+        int length;
+
+        NDArray create(NDManager manager, ByteBuffer data) {
+            data.order(order);
+            NDArray array = NDSerializer.create(manager, data, shape, dataType);
+            array.setName(name);
+            return array;
+        }
+    }
 }
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.ndarray;
+
+import ai.djl.util.Utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * A {@link BytesSupplier} that is backed by a stream, which is read only when the content is
+ * needed.
+ *
+ * <p>The stream is read once, either through {@link #getAsChannel()} or by reading the whole stream
+ * into memory with any of the other methods. The bytes that are read are kept, so later calls
+ * return the buffered bytes.
+ */
+class StreamBytesSupplier implements BytesSupplier {
+
+    private ReadableByteChannel channel;
+    private byte[] buf;
+
+    StreamBytesSupplier(ReadableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public synchronized ReadableByteChannel getAsChannel() {
+        if (buf != null) {
+            return new BufferChannel(ByteBuffer.wrap(buf));
+        }
+        if (channel == null) {
+            throw new IllegalStateException("The stream is being read");
+        }
+        ReadableByteChannel ret = new RecordingChannel(channel);
+        channel = null;
+        return ret;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public synchronized byte[] getAsBytes() {
+        if (buf == null) {
+            if (channel == null) {
+                throw new IllegalStateException("The stream is being read");
+            }
+            try (ReadableByteChannel rbc = channel) {
+                buf = Utils.toByteArray(Channels.newInputStream(rbc));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read the stream", e);
+            }
+            channel = null;
+        }
+        return buf;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public ByteBuffer toByteBuffer() {
+        return ByteBuffer.wrap(getAsBytes());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public synchronized String toString() {
+        if (buf == null) {
+            return "StreamBytesSupplier: unread stream";
+        }
+        return "StreamBytesSupplier: " + buf.length + " bytes";
+    }
+
+    /** A channel that keeps a copy of the bytes read from the stream once it is closed. */
+    private final class RecordingChannel implements ReadableByteChannel {
+
+        private ReadableByteChannel source;
+        private ByteArrayOutputStream bos;
+
+        RecordingChannel(ReadableByteChannel source) {
+            this.source = source;
+            bos = new ByteArrayOutputStream();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            int pos = dst.position();
+            int read = source.read(dst);
+            if (read > 0) {
+                ByteBuffer view = dst.duplicate();
+                view.flip();
+                view.position(pos);
+                byte[] bytes = new byte[read];
+                view.get(bytes);
+                bos.write(bytes, 0, read);
+            }
+            return read;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean isOpen() {
+            return source.isOpen();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void close() throws IOException {
+            if (!source.isOpen()) {
+                return;
+            }
+            try (ReadableByteChannel rbc = source) {
+                // keeps the part of the stream that was not read, so the content stays complete
+                bos.write(Utils.toByteArray(Channels.newInputStream(rbc)));
+            }
+            synchronized (StreamBytesSupplier.this) {
+                buf = bos.toByteArray();
+            }
+        }
+    }
+}
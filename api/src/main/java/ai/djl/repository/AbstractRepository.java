@@ -27,19 +27,31 @@ import org.slf4j.LoggerFactory;
 import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
+import java.net.HttpURLConnection;
 import java.net.URI;
 import java.net.URLDecoder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.OpenOption;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.security.DigestInputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.ZipInputStream;
 
@@ -53,6 +65,12 @@ public abstract class AbstractRepository implements Repository {
 
     private static final Logger logger = LoggerFactory.getLogger(AbstractRepository.class);
 
+    private static final int HTTP_RANGE_NOT_SATISFIABLE = 416;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_RETRIES = 3;
+    private static final Map<Path, LockHolder> LOCKS = new ConcurrentHashMap<>();
+    private static final int DOWNLOAD_THREADS = parseDownloadThreads();
+
     protected String name;
     protected URI uri;
     protected Map<String, String> arguments;
@@ -122,7 +140,13 @@ public abstract class AbstractRepository implements Repository {
         return getBaseUri().resolve(artifactUri.resolve(uriSuffix));
     }
 
-    /** {@inheritDoc} */
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The items of the artifact are downloaded concurrently, the number of concurrent downloads
+     * can be configured with {@code DJL_DOWNLOAD_THREADS} (default 4). The resource directory is
+     * guarded by a lock file, so concurrent processes on the same host share a single download.
+     */
     @Override
     public void prepare(Artifact artifact, Progress progress) throws IOException {
         Path resourceDir = getResourceDirectory(artifact);
@@ -131,16 +155,53 @@ public abstract class AbstractRepository implements Repository {
             return;
         }
 
-        Metadata metadata = artifact.getMetadata();
-        URI baseUri = metadata.getRepositoryUri();
-        Map<String, Artifact.Item> files = artifact.getFiles();
-
         Path parentDir = resourceDir.toAbsolutePath().getParent();
         if (parentDir == null) {
             throw new AssertionError("Parent path should never be null: " + resourceDir);
         }
 
         Files.createDirectories(parentDir);
+        Path lockFile = parentDir.resolve('.' + resourceDir.toFile().getName() + ".lock");
+        // FileLock is held on behalf of the whole JVM, threads have to be serialized first
+        LockHolder holder =
+                LOCKS.compute(
+                        lockFile,
+                        (k, v) -> {
+                            LockHolder h = v == null ? new LockHolder() : v;
+                            ++h.users;
+                            return h;
+                        });
+        try {
+            synchronized (holder) {
+                try (FileChannel channel =
+                        FileChannel.open(
+                                lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                    FileLock lock = channel.lock();
+                    try {
+                        if (Files.exists(resourceDir)) {
+                            logger.debug("Files have been downloaded by others: {}", resourceDir);
+                        } else {
+                            downloadAll(artifact, resourceDir, parentDir, progress);
+                        }
+                        // the lock file is only deleted once the resource directory exists, so
+                        // the processes still waiting on it won't download again
+                        Utils.deleteQuietly(lockFile);
+                    } finally {
+                        lock.release();
+                    }
+                }
+            }
+        } finally {
+            LOCKS.computeIfPresent(lockFile, (k, v) -> --v.users == 0 ? null : v);
+        }
+    }
+
+    private void downloadAll(Artifact artifact, Path resourceDir, Path parentDir, Progress progress)
+            throws IOException {
+        Metadata metadata = artifact.getMetadata();
+        URI baseUri = metadata.getRepositoryUri();
+        Map<String, Artifact.Item> files = artifact.getFiles();
+
         Path tmp = Files.createTempDirectory(parentDir, resourceDir.toFile().getName());
         if (progress != null) {
             long totalSize = 0;
@@ -150,13 +211,46 @@ public abstract class AbstractRepository implements Repository {
             progress.reset("Downloading", totalSize);
         }
 
+        int threads = Math.min(files.size(), DOWNLOAD_THREADS);
+        ExecutorService executor = null;
         try {
             logger.debug("Items to download: {}", files.size());
-            for (Artifact.Item item : files.values()) {
-                download(tmp, baseUri, item, progress);
+            if (threads <= 1) {
+                for (Artifact.Item item : files.values()) {
+                    download(tmp, baseUri, item, progress);
+                }
+            } else {
+                Progress shared = progress == null ? null : new SynchronizedProgress(progress);
+                executor = Executors.newFixedThreadPool(threads);
+                List<Future<?>> futures = new ArrayList<>(files.size());
+                for (Artifact.Item item : files.values()) {
+                    futures.add(
+                            executor.submit(
+                                    () -> {
+                                        download(tmp, baseUri, item, shared);
+                                        return null;
+                                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
             }
             Utils.moveQuietly(tmp, resourceDir);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Download interrupted: " + resourceDir, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException("Failed to download: " + resourceDir, cause);
         } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
             Utils.deleteQuietly(tmp);
             if (progress != null) {
                 progress.end();
@@ -191,8 +285,52 @@ public abstract class AbstractRepository implements Repository {
         }
 
         logger.debug("Downloading artifact: {} ...", fileUri);
-        try (InputStream is = new BufferedInputStream(fileUri.toURL().openStream())) {
-            save(is, tmp, item, progress);
+        transfer(fileUri, tmp, item, progress);
+    }
+
+    /**
+     * Downloads an item from the specified location and extracts it into the temporary directory.
+     *
+     * <p>HTTP downloads are written to a partial file next to the temporary directory first. If the
+     * connection is lost, the transfer is resumed with a range request, and a partial file left by
+     * a previous failed run is resumed the same way. The SHA-1 hash is computed while the file is
+     * written. Zip archives are then extracted in parallel. Other locations are streamed through
+     * {@link #save(InputStream, Path, Artifact.Item, Progress)}.
+     *
+     * @param fileUri the location of the item
+     * @param tmp the temporary directory to extract the item into
+     * @param item the item to download
+     * @param progress the (optionally null) progress tracker
+     * @throws IOException if the download or extraction fails
+     */
+    protected void transfer(URI fileUri, Path tmp, Artifact.Item item, Progress progress)
+            throws IOException {
+        String scheme = fileUri.getScheme();
+        if ("http".equalsIgnoreCase(scheme) || "https".equalsIgnoreCase(scheme)) {
+            Path parentDir = tmp.toAbsolutePath().getParent();
+            if (parentDir == null) {
+                throw new AssertionError("Parent path should never be null: " + tmp);
+            }
+            Path file = parentDir.resolve('.' + md5hash(fileUri.toString()) + ".part");
+            String sha1 = downloadFile(fileUri, file, progress);
+            try {
+                validateChecksum(item, sha1);
+                extract(file, tmp, item);
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        } else if ("file".equalsIgnoreCase(scheme)) {
+            Path file = Paths.get(fileUri);
+            if (item.getSha1Hash() != null) {
+                validateChecksum(item, sha1(file, progress));
+            } else if (progress != null) {
+                progress.increment(Files.size(file));
+            }
+            extract(file, tmp, item);
+        } else {
+            try (InputStream is = new BufferedInputStream(fileUri.toURL().openStream())) {
+                save(is, tmp, item, progress);
+            }
         }
     }
 
@@ -234,6 +372,174 @@ public abstract class AbstractRepository implements Repository {
         pis.validateChecksum(item);
     }
 
+    private void extract(Path file, Path tmp, Artifact.Item item) throws IOException {
+        String fileName = item.getName();
+        String extension = item.getExtension();
+        if ("dir".equals(item.getType())) {
+            Path dir;
+            if (!fileName.isEmpty()) {
+                // honer the name set in metadata.json
+                dir = tmp.resolve(fileName);
+                Files.createDirectories(dir);
+            } else {
+                dir = tmp;
+            }
+            if ("zip".equals(extension)) {
+                // the items of an artifact are downloaded and extracted concurrently
+                int downloads = Math.min(item.getArtifact().getFiles().size(), DOWNLOAD_THREADS);
+                int threads = Runtime.getRuntime().availableProcessors() / Math.max(downloads, 1);
+                ZipUtils.unzip(file, dir, Math.max(threads, 1));
+            } else if ("tgz".equals(extension)) {
+                try (InputStream is = Files.newInputStream(file)) {
+                    untar(is, dir, true);
+                }
+            } else if ("tar".equals(extension)) {
+                try (InputStream is = Files.newInputStream(file)) {
+                    untar(is, dir, false);
+                }
+            } else {
+                throw new IOException("File type is not supported: " + extension);
+            }
+        } else {
+            Path target = tmp.resolve(fileName);
+            if ("zip".equals(extension)) {
+                try (ZipInputStream zis = new ZipInputStream(Files.newInputStream(file))) {
+                    zis.getNextEntry();
+                    Files.copy(zis, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } else if ("gzip".equals(extension)) {
+                try (InputStream is = new GZIPInputStream(Files.newInputStream(file))) {
+                    Files.copy(is, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } else {
+                Files.copy(file, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+
+    private String downloadFile(URI fileUri, Path file, Progress progress) throws IOException {
+        MessageDigest md = newSha1();
+        long reported = 0;
+        int retry = 0;
+        while (true) {
+            // client errors like a missing file fail right away
+            boolean retryable = true;
+            long offset = Files.exists(file) ? Files.size(file) : 0;
+            HttpURLConnection conn = (HttpURLConnection) fileUri.toURL().openConnection();
+            if (offset > 0) {
+                conn.setRequestProperty("Range", "bytes=" + offset + '-');
+            }
+            try {
+                int code = conn.getResponseCode();
+                if (code == HTTP_RANGE_NOT_SATISFIABLE) {
+                    // the partial file is stale, start over
+                    Files.delete(file);
+                    continue;
+                } else if (code >= HttpURLConnection.HTTP_BAD_REQUEST) {
+                    retryable = code >= HttpURLConnection.HTTP_INTERNAL_ERROR;
+                    throw new IOException("Failed to download " + fileUri + ", status: " + code);
+                }
+
+                md.reset();
+                boolean append = code == HttpURLConnection.HTTP_PARTIAL;
+                long position = 0;
+                if (append) {
+                    logger.debug("Resuming download at {}: {}", offset, fileUri);
+                    try (InputStream is = Files.newInputStream(file)) {
+                        digest(is, md, null);
+                    }
+                    position = offset;
+                }
+                OpenOption mode =
+                        append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING;
+                try (InputStream is = conn.getInputStream();
+                        OutputStream os =
+                                Files.newOutputStream(
+                                        file,
+                                        StandardOpenOption.CREATE,
+                                        StandardOpenOption.WRITE,
+                                        mode)) {
+                    byte[] buf = new byte[BUFFER_SIZE];
+                    int read;
+                    while ((read = is.read(buf)) != -1) {
+                        os.write(buf, 0, read);
+                        md.update(buf, 0, read);
+                        position += read;
+                        if (progress != null && position > reported) {
+                            progress.increment(position - reported);
+                            reported = position;
+                        }
+                    }
+                }
+                long expected = conn.getContentLengthLong();
+                if (expected >= 0 && position - (append ? offset : 0) != expected) {
+                    throw new IOException("Connection closed before the download completed");
+                }
+                return Hex.toHexString(md.digest());
+            } catch (IOException e) {
+                if (!retryable || retry++ >= MAX_RETRIES) {
+                    throw e;
+                }
+                logger.warn("Failed to download {}, retrying: {}", fileUri, e.getMessage());
+            } finally {
+                conn.disconnect();
+            }
+        }
+    }
+
+    private static String sha1(Path file, Progress progress) throws IOException {
+        MessageDigest md = newSha1();
+        try (InputStream is = Files.newInputStream(file)) {
+            digest(is, md, progress);
+        }
+        return Hex.toHexString(md.digest());
+    }
+
+    private static void digest(InputStream is, MessageDigest md, Progress progress)
+            throws IOException {
+        byte[] buf = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = is.read(buf)) != -1) {
+            md.update(buf, 0, read);
+            if (progress != null) {
+                progress.increment(read);
+            }
+        }
+    }
+
+    private static MessageDigest newSha1() {
+        try {
+            return MessageDigest.getInstance("SHA1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError("SHA1 algorithm not found.", e);
+        }
+    }
+
+    private static void validateChecksum(Artifact.Item item, String sha1) throws IOException {
+        String expectedHash = item.getSha1Hash();
+        if (expectedHash != null && !sha1.equalsIgnoreCase(expectedHash)) {
+            throw new IOException(
+                    "Checksum error: "
+                            + item.getName()
+                            + ", expected sha1: "
+                            + expectedHash
+                            + ", actual sha1: "
+                            + sha1);
+        }
+    }
+
+    private static int parseDownloadThreads() {
+        String value = Utils.getEnvOrSystemProperty("DJL_DOWNLOAD_THREADS");
+        if (value != null) {
+            try {
+                return Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid DJL_DOWNLOAD_THREADS value: {}, using 4", value);
+            }
+        }
+        return 4;
+    }
+
     private void untar(InputStream is, Path dir, boolean gzip) throws IOException {
         InputStream bis;
         if (gzip) {
@@ -310,13 +616,7 @@ public abstract class AbstractRepository implements Repository {
          * @param progress the (optionally null) progress tracker
          */
         public ProgressInputStream(InputStream is, Progress progress) {
-            MessageDigest md;
-            try {
-                md = MessageDigest.getInstance("SHA1");
-            } catch (NoSuchAlgorithmException e) {
-                throw new AssertionError("SHA1 algorithm not found.", e);
-            }
-            dis = new DigestInputStream(is, md);
+            dis = new DigestInputStream(is, newSha1());
             this.progress = progress;
         }
 
@@ -345,23 +645,14 @@ public abstract class AbstractRepository implements Repository {
         }
 
         private void validateChecksum(Artifact.Item item) throws IOException {
-            String expectedHash = item.getSha1Hash();
-            if (expectedHash == null) {
+            if (item.getSha1Hash() == null) {
                 return;
             }
 
             // drain InputSteam to get correct sha1 hash
             Utils.toByteArray(dis);
             String sha1 = Hex.toHexString(dis.getMessageDigest().digest());
-            if (!sha1.equalsIgnoreCase(item.getSha1Hash())) {
-                throw new IOException(
-                        "Checksum error: "
-                                + item.getName()
-                                + ", expected sha1: "
-                                + item.getSha1Hash()
-                                + ", actual sha1: "
-                                + sha1);
-            }
+            AbstractRepository.validateChecksum(item, sha1);
         }
 
         /** {@inheritDoc} */
@@ -370,4 +661,51 @@ public abstract class AbstractRepository implements Repository {
             dis.close();
         }
     }
+
+    /** The JVM wide lock of a lock file, counting the threads that use it. */
+    private static final class LockHolder {
+
+        int users;
+    }
+
+    /**
+     * A {@link Progress} that can be shared by concurrent downloads. Only the owner of the
+     * underlying progress ends it.
+     */
+    private static final class SynchronizedProgress implements Progress {
+
+        private final Progress delegate;
+
+        SynchronizedProgress(Progress progress) {
+            delegate = progress;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public synchronized void reset(String message, long max, String trailingMessage) {
+            delegate.reset(message, max, trailingMessage);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public synchronized void start(long initialProgress) {
+            delegate.start(initialProgress);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void end() {}
+
+        /** {@inheritDoc} */
+        @Override
+        public synchronized void increment(long increment) {
+            delegate.increment(increment);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public synchronized void update(long progress, String message) {
+            delegate.update(progress, message);
+        }
+    }
 }
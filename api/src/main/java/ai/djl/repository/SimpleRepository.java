@@ -20,10 +20,8 @@ import ai.djl.util.Progress;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -119,9 +117,7 @@ public class SimpleRepository extends AbstractRepository {
     protected void download(Path tmp, URI baseUri, Artifact.Item item, Progress progress)
             throws IOException {
         logger.debug("Extracting artifact: {} ...", path);
-        try (InputStream is = new BufferedInputStream(Files.newInputStream(path))) {
-            save(is, tmp, item, progress);
-        }
+        transfer(path.toUri(), tmp, item, progress);
     }
 
     /** {@inheritDoc} */
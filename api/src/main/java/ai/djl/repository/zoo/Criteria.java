@@ -15,8 +15,10 @@ package ai.djl.repository.zoo;
 import ai.djl.Application;
 import ai.djl.Device;
 import ai.djl.MalformedModelException;
+import ai.djl.inference.Warmup;
 import ai.djl.nn.Block;
 import ai.djl.translate.DefaultTranslatorFactory;
+import ai.djl.translate.TranslateException;
 import ai.djl.translate.Translator;
 import ai.djl.translate.TranslatorFactory;
 import ai.djl.util.JsonUtils;
@@ -71,9 +73,11 @@ public class Criteria<I, O> {
     private Map<String, Object> arguments;
     private Map<String, String> options;
     private TranslatorFactory factory;
+    private Translator<I, O> translator;
     private Block block;
     private String modelName;
     private Progress progress;
+    private Warmup warmup;
 
     Criteria(Builder<I, O> builder) {
         this.application = builder.application;
@@ -88,9 +92,11 @@ public class Criteria<I, O> {
         this.arguments = builder.arguments;
         this.options = builder.options;
         this.factory = builder.factory;
+        this.translator = builder.translator;
         this.block = builder.block;
         this.modelName = builder.modelName;
         this.progress = builder.progress;
+        this.warmup = builder.warmup;
     }
 
     /**
@@ -165,7 +171,11 @@ public class Criteria<I, O> {
                 }
 
                 try {
-                    return loader.loadModel(this);
+                    ZooModel<I, O> model = loader.loadModel(this);
+                    if (warmup != null) {
+                        warmup(model);
+                    }
+                    return model;
                 } catch (ModelNotFoundException e) {
                     lastException = e;
                     logger.trace("", e);
@@ -181,6 +191,15 @@ public class Criteria<I, O> {
                 "No matching model with specified Input/Output type found.", lastException);
     }
 
+    private void warmup(ZooModel<I, O> model) throws MalformedModelException {
+        try {
+            warmup.run(model);
+        } catch (TranslateException | RuntimeException e) {
+            model.close();
+            throw new MalformedModelException("Failed to warm up the model", e);
+        }
+    }
+
     /**
      * Returns the application of the model.
      *
@@ -289,6 +308,11 @@ public class Criteria<I, O> {
         return factory;
     }
 
+    // the translator the translator factory was created with, if any
+    Translator<I, O> getTranslator() {
+        return translator;
+    }
+
     /**
      * Returns the optional {@link Block} to be used for {@link ZooModel}.
      *
@@ -316,6 +340,15 @@ public class Criteria<I, O> {
         return progress;
     }
 
+    /**
+     * Returns the optional {@link Warmup} to run after the model is loaded.
+     *
+     * @return the optional {@link Warmup} to run after the model is loaded
+     */
+    public Warmup getWarmup() {
+        return warmup;
+    }
+
     /** {@inheritDoc} */
     @Override
     public String toString() {
@@ -359,21 +392,25 @@ public class Criteria<I, O> {
      * @return a new {@link Builder}
      */
     public Builder<I, O> toBuilder() {
-        return Criteria.builder()
-                .setTypes(inputClass, outputClass)
-                .optApplication(application)
-                .optEngine(engine)
-                .optDevice(device)
-                .optGroupId(groupId)
-                .optArtifactId(artifactId)
-                .optModelZoo(modelZoo)
-                .optFilters(filters)
-                .optArguments(arguments)
-                .optOptions(options)
-                .optTranslatorFactory(factory)
-                .optBlock(block)
-                .optModelName(modelName)
-                .optProgress(progress);
+        Builder<I, O> builder =
+                Criteria.builder()
+                        .setTypes(inputClass, outputClass)
+                        .optApplication(application)
+                        .optEngine(engine)
+                        .optDevice(device)
+                        .optGroupId(groupId)
+                        .optArtifactId(artifactId)
+                        .optModelZoo(modelZoo)
+                        .optFilters(filters)
+                        .optArguments(arguments)
+                        .optOptions(options)
+                        .optTranslatorFactory(factory)
+                        .optBlock(block)
+                        .optModelName(modelName)
+                        .optProgress(progress)
+                        .optWarmup(warmup);
+        builder.translator = translator;
+        return builder;
     }
 
     /**
@@ -406,6 +443,7 @@ public class Criteria<I, O> {
         Block block;
         String modelName;
         Progress progress;
+        Warmup warmup;
         private Translator<I, O> translator;
 
         Builder() {
@@ -425,6 +463,7 @@ public class Criteria<I, O> {
             block = parent.block;
             modelName = parent.modelName;
             progress = parent.progress;
+            warmup = parent.warmup;
         }
 
         /**
@@ -677,6 +716,20 @@ public class Criteria<I, O> {
             return this;
         }
 
+        /**
+         * Sets the optional {@link Warmup} to run after the model is loaded.
+         *
+         * <p>The model is returned once the warm-up is complete, with its {@link
+         * Warmup#READY_PROPERTY} property set to whether its latency has stabilized.
+         *
+         * @param warmup the {@code Warmup}
+         * @return this {@code Builder}
+         */
+        public Builder<I, O> optWarmup(Warmup warmup) {
+            this.warmup = warmup;
+            return this;
+        }
+
         /**
          * Builds a {@link Criteria} instance.
          *
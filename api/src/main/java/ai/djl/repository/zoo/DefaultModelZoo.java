@@ -31,6 +31,7 @@ public class DefaultModelZoo extends ModelZoo {
 
     private static final Logger logger = LoggerFactory.getLogger(DefaultModelZoo.class);
 
+    private String locations;
     private List<ModelLoader> modelLoaders;
 
     /** Constructs a new {@code LocalModelZoo} instance. */
@@ -42,6 +43,7 @@ public class DefaultModelZoo extends ModelZoo {
      * @param locations a comma separated urls where the models to be loaded from
      */
     public DefaultModelZoo(String locations) {
+        this.locations = locations;
         modelLoaders = parseLocation(locations);
     }
 
@@ -51,9 +53,9 @@ public class DefaultModelZoo extends ModelZoo {
         if (modelLoaders != null) {
             return modelLoaders;
         }
-        String locations = System.getProperty("ai.djl.repository.zoo.location");
-        if (locations != null) {
-            return parseLocation(locations);
+        String location = System.getProperty("ai.djl.repository.zoo.location");
+        if (location != null) {
+            return parseLocation(location);
         }
         return Collections.emptyList();
     }
@@ -70,6 +72,10 @@ public class DefaultModelZoo extends ModelZoo {
         return Engine.getAllEngines();
     }
 
+    String getLocations() {
+        return locations;
+    }
+
     private List<ModelLoader> parseLocation(String locations) {
         String[] urls = locations.split("\\s*,\\s*");
         List<ModelLoader> list = new ArrayList<>(urls.length);
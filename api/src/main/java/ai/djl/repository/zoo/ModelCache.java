@@ -0,0 +1,576 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.repository.zoo;
+
+import ai.djl.Application;
+import ai.djl.Device;
+import ai.djl.MalformedModelException;
+import ai.djl.metric.Metrics;
+import ai.djl.metric.Unit;
+import ai.djl.nn.Block;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+
+/**
+ * A {@code ModelCache} shares loaded {@link ZooModel}s between the callers that load them with the
+ * same {@link Criteria}.
+ *
+ * <p>{@link #loadModel(Criteria)} returns a handle to the cached model. Concurrent requests for a
+ * model that is not loaded yet wait for a single load. Closing a handle releases it, the model
+ * stays in the cache until it is evicted. Only models without open handles are evicted, in least
+ * recently used order, when:
+ *
+ * <ul>
+ *   <li>more than {@code maxModels} models are cached
+ *   <li>the estimated memory of the cached models exceeds the {@code memoryBudget}
+ *   <li>the model was not used for {@code idleTimeout} milliseconds
+ * </ul>
+ *
+ * <p>The cache has no thread of its own, the limits are checked when a model is loaded or released
+ * and when {@link #cleanUp()} is called. To evict idle models while the cache is not used, call
+ * {@link #cleanUp()} periodically, for example from a {@link
+ * java.util.concurrent.ScheduledExecutorService}.
+ *
+ * <p>The memory of a model is estimated with the size of its model directory by default. The load
+ * time is recorded as the {@code "LoadTime"} metric in milliseconds.
+ *
+ * <pre>
+ * ModelCache cache = ModelCache.builder().optMaxModels(10).optIdleTimeout(600_000).build();
+ * try (ZooModel&lt;Image, Classifications&gt; model = cache.loadModel(criteria);
+ *         Predictor&lt;Image, Classifications&gt; predictor = model.newPredictor()) {
+ *     predictor.predict(image);
+ * }
+ * </pre>
+ */
+public class ModelCache implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ModelCache.class);
+
+    private int maxModels;
+    private long memoryBudget;
+    private long idleTimeout;
+    private ToLongFunction<ZooModel<?, ?>> memoryEstimator;
+    private Metrics metrics;
+
+    private LinkedHashMap<Key, Entry> entries;
+    private long usedMemory;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private boolean closed;
+
+    ModelCache(Builder builder) {
+        maxModels = builder.maxModels;
+        memoryBudget = builder.memoryBudget;
+        idleTimeout = builder.idleTimeout;
+        memoryEstimator = builder.memoryEstimator;
+        metrics = builder.metrics;
+        entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Creates a builder to build a {@code ModelCache}.
+     *
+     * @return a new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns a handle to the model that matches the criteria, the model is loaded if it is not
+     * cached yet.
+     *
+     * <p>Closing the returned {@link ZooModel} releases the handle instead of closing the model.
+     *
+     * @param criteria the criteria of the model
+     * @param <I> the model input type
+     * @param <O> the model output type
+     * @return a handle to the model that matches the criteria
+     * @throws IOException for various exceptions loading data from the repository
+     * @throws ModelNotFoundException if no model with the specified criteria is found
+     * @throws MalformedModelException if the model data is malformed
+     */
+    @SuppressWarnings("unchecked")
+    public <I, O> ZooModel<I, O> loadModel(Criteria<I, O> criteria)
+            throws IOException, ModelNotFoundException, MalformedModelException {
+        Key key = new Key(criteria);
+        Entry entry;
+        boolean load = false;
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("ModelCache is closed.");
+            }
+            entry = entries.get(key);
+            if (entry == null) {
+                entry = new Entry();
+                entries.put(key, entry);
+                load = true;
+                ++misses;
+            } else {
+                ++hits;
+            }
+            ++entry.references;
+        }
+
+        if (load) {
+            load(key, entry, criteria);
+        }
+        ZooModel<?, ?> model;
+        try {
+            model = entry.future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            release(entry);
+            throw new IllegalStateException("Interrupted while loading model", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof ModelNotFoundException) {
+                throw (ModelNotFoundException) cause;
+            } else if (cause instanceof MalformedModelException) {
+                throw (MalformedModelException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("Failed to load model", cause);
+        }
+        return new Handle<>((ZooModel<I, O>) model, entry);
+    }
+
+    /**
+     * Evicts the idle models that exceed the configured limits or the idle timeout.
+     *
+     * <p>Eviction also happens whenever a model is loaded or a handle is released.
+     */
+    public void cleanUp() {
+        List<ZooModel<?, ?>> evicted;
+        synchronized (this) {
+            evicted = evict();
+        }
+        closeModels(evicted);
+    }
+
+    /**
+     * Returns the number of models in the cache, including models being loaded.
+     *
+     * @return the number of models in the cache
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the estimated memory in bytes of the cached models.
+     *
+     * @return the estimated memory in bytes of the cached models
+     */
+    public synchronized long getUsedMemory() {
+        return usedMemory;
+    }
+
+    /**
+     * Returns the number of requests served from the cache, including requests waiting for a load
+     * in progress.
+     *
+     * @return the number of cache hits
+     */
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of requests that loaded a model.
+     *
+     * @return the number of cache misses
+     */
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    /**
+     * Returns the number of evicted models.
+     *
+     * @return the number of evicted models
+     */
+    public synchronized long getEvictionCount() {
+        return evictions;
+    }
+
+    /**
+     * Closes the cache and all idle models, the models still in use are closed once they are
+     * released.
+     */
+    @Override
+    public void close() {
+        List<ZooModel<?, ?>> evicted = new ArrayList<>();
+        synchronized (this) {
+            closed = true;
+            Iterator<Entry> it = entries.values().iterator();
+            while (it.hasNext()) {
+                Entry entry = it.next();
+                it.remove();
+                entry.evicted = true;
+                if (entry.references == 0 && entry.model != null) {
+                    evicted.add(entry.model);
+                }
+            }
+            usedMemory = 0;
+        }
+        closeModels(evicted);
+    }
+
+    private void load(Key key, Entry entry, Criteria<?, ?> criteria) {
+        long begin = System.nanoTime();
+        ZooModel<?, ?> model;
+        try {
+            model = criteria.loadModel();
+        } catch (IOException
+                | ModelNotFoundException
+                | MalformedModelException
+                | RuntimeException e) {
+            synchronized (this) {
+                entries.remove(key, entry);
+                entry.references = 0;
+            }
+            entry.future.completeExceptionally(e);
+            return;
+        }
+        long loadTime = (System.nanoTime() - begin) / 1_000_000;
+        if (metrics != null) {
+            metrics.addMetric("LoadTime", loadTime, Unit.MILLISECONDS);
+        }
+        logger.debug("Loaded model {} in {} ms", model.getName(), loadTime);
+
+        long memory = memoryEstimator.applyAsLong(model);
+        List<ZooModel<?, ?>> evicted;
+        synchronized (this) {
+            entry.model = model;
+            entry.memory = memory;
+            if (entry.evicted) {
+                evicted = new ArrayList<>();
+            } else {
+                usedMemory += memory;
+                evicted = evict();
+            }
+        }
+        closeModels(evicted);
+        entry.future.complete(model);
+    }
+
+    void release(Entry entry) {
+        List<ZooModel<?, ?>> evicted;
+        synchronized (this) {
+            entry.lastUsed = System.currentTimeMillis();
+            if (--entry.references == 0 && entry.evicted) {
+                evicted = new ArrayList<>();
+                if (entry.model != null) {
+                    evicted.add(entry.model);
+                }
+            } else {
+                evicted = evict();
+            }
+        }
+        closeModels(evicted);
+    }
+
+    private List<ZooModel<?, ?>> evict() {
+        List<ZooModel<?, ?>> evicted = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        int count = entries.size();
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            Entry entry = it.next();
+            if (entry.references > 0 || entry.model == null) {
+                continue;
+            }
+            boolean expired = idleTimeout > 0 && now - entry.lastUsed >= idleTimeout;
+            if (count > maxModels || usedMemory > memoryBudget || expired) {
+                it.remove();
+                --count;
+                usedMemory -= entry.memory;
+                ++evictions;
+                entry.evicted = true;
+                evicted.add(entry.model);
+            }
+        }
+        return evicted;
+    }
+
+    private static void closeModels(List<ZooModel<?, ?>> models) {
+        for (ZooModel<?, ?> model : models) {
+            logger.debug("Evicting model {}", model.getName());
+            model.close();
+        }
+    }
+
+    static long directorySize(ZooModel<?, ?> model) {
+        Path path = model.getModelPath();
+        if (path == null || !Files.exists(path)) {
+            return 0;
+        }
+        try (Stream<Path> stream = Files.walk(path)) {
+            return stream.filter(Files::isRegularFile)
+                    .mapToLong(
+                            p -> {
+                                try {
+                                    return Files.size(p);
+                                } catch (IOException e) {
+                                    throw new UncheckedIOException(e);
+                                }
+                            })
+                    .sum();
+        } catch (IOException | UncheckedIOException e) {
+            logger.warn("Failed to estimate the size of model: {}", path, e);
+            return 0;
+        }
+    }
+
+    static final class Entry {
+
+        CompletableFuture<ZooModel<?, ?>> future = new CompletableFuture<>();
+        ZooModel<?, ?> model;
+        int references;
+        long memory;
+        long lastUsed;
+        boolean evicted;
+    }
+
+    /**
+     * The cache key, it identifies a {@link Criteria} by the values that select the model.
+     *
+     * <p>The maps are copied, so changing them later does not change the key. The model zoo and the
+     * translator are compared by identity, except for the {@link DefaultModelZoo} created from
+     * model urls, which is compared by its urls, and the translator factory created from a
+     * translator, which is compared by that translator.
+     */
+    private static final class Key {
+
+        private Application application;
+        private Class<?> inputClass;
+        private Class<?> outputClass;
+        private String engine;
+        private Device device;
+        private String groupId;
+        private String artifactId;
+        private String locations;
+        private ModelZoo modelZoo;
+        private Map<String, String> filters;
+        private Map<String, Object> arguments;
+        private Map<String, String> options;
+        private Object translator;
+        private Block block;
+        private String modelName;
+
+        Key(Criteria<?, ?> criteria) {
+            application = criteria.getApplication();
+            inputClass = criteria.getInputClass();
+            outputClass = criteria.getOutputClass();
+            engine = criteria.getEngine();
+            device = criteria.getDevice();
+            groupId = criteria.getGroupId();
+            artifactId = criteria.getArtifactId();
+            modelZoo = criteria.getModelZoo();
+            if (modelZoo instanceof DefaultModelZoo) {
+                locations = ((DefaultModelZoo) modelZoo).getLocations();
+                if (locations != null) {
+                    modelZoo = null;
+                }
+            }
+            filters = copy(criteria.getFilters());
+            arguments = copy(criteria.getArguments());
+            options = copy(criteria.getOptions());
+            translator = criteria.getTranslator();
+            if (translator == null) {
+                translator = criteria.getTranslatorFactory();
+            }
+            block = criteria.getBlock();
+            modelName = criteria.getModelName();
+        }
+
+        private static <V> Map<String, V> copy(Map<String, V> map) {
+            return map == null ? null : new LinkedHashMap<>(map);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return Objects.equals(application, key.application)
+                    && Objects.equals(inputClass, key.inputClass)
+                    && Objects.equals(outputClass, key.outputClass)
+                    && Objects.equals(engine, key.engine)
+                    && Objects.equals(device, key.device)
+                    && Objects.equals(groupId, key.groupId)
+                    && Objects.equals(artifactId, key.artifactId)
+                    && Objects.equals(locations, key.locations)
+                    && modelZoo == key.modelZoo
+                    && Objects.equals(filters, key.filters)
+                    && Objects.equals(arguments, key.arguments)
+                    && Objects.equals(options, key.options)
+                    && translator == key.translator
+                    && block == key.block
+                    && Objects.equals(modelName, key.modelName);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int hashCode() {
+            return Objects.hash(
+                    application,
+                    inputClass,
+                    outputClass,
+                    engine,
+                    device,
+                    groupId,
+                    artifactId,
+                    locations,
+                    System.identityHashCode(modelZoo),
+                    filters,
+                    arguments,
+                    options,
+                    System.identityHashCode(translator),
+                    System.identityHashCode(block),
+                    modelName);
+        }
+    }
+
+    /** A reference-counted handle to a cached {@link ZooModel}. */
+    private final class Handle<I, O> extends ZooModel<I, O> {
+
+        private Entry entry;
+        private boolean released;
+
+        Handle(ZooModel<I, O> model, Entry entry) {
+            super(model.getWrappedModel(), model.getTranslator());
+            this.entry = entry;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void close() {
+            synchronized (this) {
+                if (released) {
+                    return;
+                }
+                released = true;
+            }
+            release(entry);
+        }
+    }
+
+    /** A builder to construct a {@link ModelCache}. */
+    public static final class Builder {
+
+        int maxModels = Integer.MAX_VALUE;
+        long memoryBudget = Long.MAX_VALUE;
+        long idleTimeout;
+        ToLongFunction<ZooModel<?, ?>> memoryEstimator = ModelCache::directorySize;
+        Metrics metrics;
+
+        Builder() {}
+
+        /**
+         * Sets the maximum number of cached models.
+         *
+         * @param maxModels the maximum number of cached models
+         * @return this builder
+         */
+        public Builder optMaxModels(int maxModels) {
+            this.maxModels = maxModels;
+            return this;
+        }
+
+        /**
+         * Sets the estimated memory budget of the cached models.
+         *
+         * @param memoryBudget the memory budget in bytes
+         * @return this builder
+         */
+        public Builder optMemoryBudget(long memoryBudget) {
+            this.memoryBudget = memoryBudget;
+            return this;
+        }
+
+        /**
+         * Sets the time after which an unused model is evicted, 0 to keep unused models.
+         *
+         * <p>The timeout is checked when the cache is used or {@link ModelCache#cleanUp()} is
+         * called, an expired model stays loaded until then.
+         *
+         * @param idleTimeout the idle timeout in milliseconds
+         * @return this builder
+         */
+        public Builder optIdleTimeout(long idleTimeout) {
+            this.idleTimeout = idleTimeout;
+            return this;
+        }
+
+        /**
+         * Sets the function that estimates the memory of a loaded model in bytes.
+         *
+         * @param memoryEstimator the function that estimates the memory of a model
+         * @return this builder
+         */
+        public Builder optMemoryEstimator(ToLongFunction<ZooModel<?, ?>> memoryEstimator) {
+            this.memoryEstimator = memoryEstimator;
+            return this;
+        }
+
+        /**
+         * Sets the {@link Metrics} to record the load time to.
+         *
+         * @param metrics the {@link Metrics} to record to
+         * @return this builder
+         */
+        public Builder optMetrics(Metrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        /**
+         * Builds the {@link ModelCache}.
+         *
+         * @return the {@link ModelCache}
+         */
+        public ModelCache build() {
+            if (maxModels < 1 || memoryBudget < 0 || idleTimeout < 0) {
+                throw new IllegalArgumentException("Invalid ModelCache configuration.");
+            }
+            return new ModelCache(this);
+        }
+    }
+}
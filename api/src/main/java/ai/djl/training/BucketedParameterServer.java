@@ -0,0 +1,269 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.training;
+
+import ai.djl.Device;
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDArrays;
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.types.DataType;
+import ai.djl.ndarray.types.Shape;
+import ai.djl.training.optimizer.Optimizer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * {@code BucketedParameterServer} is a {@link ParameterServer} that reduces the gradients of many
+ * parameters together.
+ *
+ * <p>Instead of copying each gradient to the first device on its own, updates are collected into
+ * buckets of about {@code bucketSize} bytes, one bucket per {@link DataType}. On each device the
+ * gradients of a bucket are flattened into a single array, so a bucket needs one copy per device
+ * instead of one copy per parameter. {@link #flush()} waits for all buckets to be applied.
+ *
+ * <p>By default, a bucket is reduced and applied on the calling thread as soon as it is full. When
+ * an {@link ExecutorService} is given, buckets are reduced on it while the following buckets are
+ * still being collected. The optimizer then updates several parameters concurrently, which is only
+ * safe if the {@link Optimizer} and the engine support concurrent updates of different parameters.
+ *
+ * <p>Parameters larger than {@code bucketSize} get a bucket of their own. With a single device, no
+ * reduction is needed and the buckets only apply the optimizer.
+ *
+ * @see Trainer#setParameterServer(ParameterServer)
+ */
+public class BucketedParameterServer implements ParameterServer {
+
+    private Optimizer optimizer;
+    private ExecutorService executor;
+    private long bucketSize;
+
+    private Map<DataType, Bucket> buckets;
+    private List<Future<?>> pending;
+
+    /**
+     * Creates a new instance of {@code BucketedParameterServer} with 4 MiB buckets reduced on the
+     * calling thread.
+     *
+     * @param optimizer an optimizer
+     */
+    public BucketedParameterServer(Optimizer optimizer) {
+        this(optimizer, 4L << 20);
+    }
+
+    /**
+     * Creates a new instance of {@code BucketedParameterServer} that reduces the buckets on the
+     * calling thread.
+     *
+     * @param optimizer an optimizer
+     * @param bucketSize the size of a bucket in bytes
+     */
+    public BucketedParameterServer(Optimizer optimizer, long bucketSize) {
+        this(optimizer, null, bucketSize);
+    }
+
+    /**
+     * Creates a new instance of {@code BucketedParameterServer}.
+     *
+     * @param optimizer an optimizer
+     * @param executor the {@link ExecutorService} to reduce the buckets on, or {@code null} to
+     *     reduce them on the calling thread
+     * @param bucketSize the size of a bucket in bytes
+     */
+    public BucketedParameterServer(Optimizer optimizer, ExecutorService executor, long bucketSize) {
+        this.optimizer = optimizer;
+        this.executor = executor;
+        this.bucketSize = bucketSize;
+        buckets = new EnumMap<>(DataType.class);
+        pending = new ArrayList<>();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void init(String parameterId, NDArray[] value) {}
+
+    /** {@inheritDoc} */
+    @Override
+    public void update(String parameterId, NDArray[] params) {
+        NDArray[] grads = Arrays.stream(params).map(NDArray::getGradient).toArray(NDArray[]::new);
+        add(new Entry(parameterId, grads, params, true));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void update(String parameterId, NDArray[] grads, NDArray[] params) {
+        add(new Entry(parameterId, grads, params, false));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void flush() {
+        for (Bucket bucket : buckets.values()) {
+            submit(bucket);
+        }
+        try {
+            for (Future<?> future : pending) {
+                future.get();
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            throw new IllegalStateException("Failed to update parameters", e);
+        } finally {
+            pending.clear();
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close() {
+        flush();
+    }
+
+    private void add(Entry entry) {
+        DataType dataType = entry.grads[0].getDataType();
+        long bytes = entry.grads[0].size() * dataType.getNumOfBytes();
+        // gradients are concatenated, so a bucket only holds a single data type
+        Bucket bucket = buckets.computeIfAbsent(dataType, k -> new Bucket());
+        if (!bucket.entries.isEmpty() && bucket.bytes + bytes > bucketSize) {
+            submit(bucket);
+        }
+        bucket.entries.add(entry);
+        bucket.bytes += bytes;
+        if (bucket.bytes >= bucketSize) {
+            submit(bucket);
+        }
+    }
+
+    private void submit(Bucket bucket) {
+        if (bucket.entries.isEmpty()) {
+            return;
+        }
+        List<Entry> entries = bucket.entries;
+        bucket.entries = new ArrayList<>();
+        bucket.bytes = 0;
+        if (executor == null) {
+            reduce(entries);
+        } else {
+            pending.add(executor.submit(() -> reduce(entries)));
+        }
+    }
+
+    private void reduce(List<Entry> entries) {
+        try {
+            if (entries.get(0).grads.length == 1 || entries.size() == 1) {
+                for (Entry entry : entries) {
+                    entry.reduceAndUpdate();
+                }
+                return;
+            }
+
+            Device firstDevice = entries.get(0).params[0].getDevice();
+            int numDevices = entries.get(0).grads.length;
+            NDArray sum = null;
+            for (int i = 0; i < numDevices; ++i) {
+                NDList flat = new NDList(entries.size());
+                for (Entry entry : entries) {
+                    flat.add(entry.grads[i].reshape(-1));
+                }
+                NDArray concat = NDArrays.concat(flat);
+                flat.close();
+                if (sum == null) {
+                    sum = concat;
+                } else {
+                    try (NDArray copy = concat.toDevice(firstDevice, true)) {
+                        sum.addi(copy);
+                    }
+                    concat.close();
+                }
+            }
+
+            long[] indices = new long[entries.size() - 1];
+            long offset = 0;
+            for (int i = 0; i < indices.length; ++i) {
+                offset += entries.get(i).grads[0].size();
+                indices[i] = offset;
+            }
+            try (NDList reduced = sum.split(indices)) {
+                sum.close();
+                for (int i = 0; i < entries.size(); ++i) {
+                    Entry entry = entries.get(i);
+                    Shape shape = entry.grads[0].getShape();
+                    try (NDArray grad = reduced.get(i).reshape(shape)) {
+                        entry.update(grad, firstDevice);
+                    }
+                }
+            }
+        } finally {
+            for (Entry entry : entries) {
+                entry.close();
+            }
+        }
+    }
+
+    private static final class Bucket {
+
+        List<Entry> entries = new ArrayList<>();
+        long bytes;
+    }
+
+    private final class Entry {
+
+        String parameterId;
+        NDArray[] grads;
+        NDArray[] params;
+        boolean closeGrads;
+
+        Entry(String parameterId, NDArray[] grads, NDArray[] params, boolean closeGrads) {
+            this.parameterId = parameterId;
+            this.grads = grads;
+            this.params = params;
+            this.closeGrads = closeGrads;
+        }
+
+        void reduceAndUpdate() {
+            Device firstDevice = params[0].getDevice();
+            for (int i = 1; i < grads.length; i++) {
+                try (NDArray gradCopy = grads[i].toDevice(firstDevice, true)) {
+                    grads[0].addi(gradCopy);
+                }
+            }
+            // the optimizer may zero grads[0], see LocalParameterServer
+            try (NDArray aggregatedGrad = grads[0].duplicate()) {
+                update(aggregatedGrad, firstDevice);
+            }
+        }
+
+        void update(NDArray grad, Device firstDevice) {
+            for (NDArray param : params) {
+                if (param.getDevice().equals(firstDevice)) {
+                    optimizer.update(parameterId, param, grad);
+                } else {
+                    try (NDArray gradCopy = grad.toDevice(param.getDevice(), true)) {
+                        optimizer.update(parameterId, param, gradCopy);
+                    }
+                }
+            }
+        }
+
+        void close() {
+            if (closeGrads) {
+                Arrays.stream(grads).forEach(NDArray::close);
+            }
+        }
+    }
+}
@@ -48,6 +48,14 @@ public interface ParameterServer extends AutoCloseable {
      */
     void update(String parameterId, NDArray[] grads, NDArray[] params);
 
+    /**
+     * Waits until all the updates issued to the Parameter Server are applied.
+     *
+     * <p>Implementations that apply updates asynchronously must override this method. It is called
+     * by {@link ParameterStore#updateAllParameters()} after all parameters were updated.
+     */
+    default void flush() {}
+
     /** {@inheritDoc} */
     @Override
     void close();
@@ -80,6 +80,7 @@ public class ParameterStore {
                 parameterServer.update(parameterId, params);
             }
         }
+        parameterServer.flush();
     }
 
     /**
@@ -23,6 +23,7 @@ import ai.djl.ndarray.types.Shape;
 import ai.djl.nn.Parameter;
 import ai.djl.training.dataset.Batch;
 import ai.djl.training.dataset.Dataset;
+import ai.djl.training.dataset.ParallelDataIterable;
 import ai.djl.training.evaluator.Evaluator;
 import ai.djl.training.listener.EpochTrainingListener;
 import ai.djl.training.listener.EvaluatorTrainingListener;
@@ -74,6 +75,7 @@ public class Trainer implements AutoCloseable {
     private List<TrainingListener> listeners;
     private Device[] devices;
     private ParameterStore parameterStore;
+    private ParameterServer parameterServer;
     private List<Evaluator> evaluators;
     private Loss loss;
     private ExecutorService executorService;
@@ -98,8 +100,7 @@ public class Trainer implements AutoCloseable {
         evaluators.add(loss); // track loss as an evaluator by default
         executorService = trainingConfig.getExecutorService();
 
-        ParameterServer parameterServer =
-                manager.getEngine().newParameterServer(trainingConfig.getOptimizer());
+        parameterServer = manager.getEngine().newParameterServer(trainingConfig.getOptimizer());
 
         parameterStore = new ParameterStore(manager, false);
         parameterStore.setParameterServer(parameterServer, devices);
@@ -108,6 +109,21 @@ public class Trainer implements AutoCloseable {
         notifyListeners(listener -> listener.onTrainingBegin(this));
     }
 
+    /**
+     * Sets the {@link ParameterServer} used to update the parameters.
+     *
+     * <p>By default, the {@link ParameterServer} of the engine is used. It should be replaced
+     * before {@link #initialize(Shape...)} is called, for example with a {@link
+     * BucketedParameterServer}. The previous {@link ParameterServer} is closed.
+     *
+     * @param parameterServer the {@link ParameterServer} to use
+     */
+    public void setParameterServer(ParameterServer parameterServer) {
+        this.parameterServer.close();
+        this.parameterServer = parameterServer;
+        parameterStore.setParameterServer(parameterServer, devices);
+    }
+
     /**
      * Initializes the {@link Model} that the {@code Trainer} is going to train.
      *
@@ -135,7 +151,11 @@ public class Trainer implements AutoCloseable {
      * @throws TranslateException if there is an error while processing input
      */
     public Iterable<Batch> iterateDataset(Dataset dataset) throws IOException, TranslateException {
-        return dataset.getData(getManager(), executorService);
+        Iterable<Batch> data = dataset.getData(getManager(), executorService);
+        if (metrics != null && data instanceof ParallelDataIterable) {
+            ((ParallelDataIterable) data).setMetrics(metrics);
+        }
+        return data;
     }
 
     /**
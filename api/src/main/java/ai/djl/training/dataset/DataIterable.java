@@ -167,7 +167,7 @@ public class DataIterable implements Iterable<Batch>, Iterator<Batch> {
         NDList[] data = new NDList[batchSize];
         NDList[] labels = new NDList[batchSize];
         for (int i = 0; i < batchSize; i++) {
-            Record record = dataset.get(subManager, indices.get(i));
+            Record record = dataset.getCached(subManager, indices.get(i));
             data[i] = record.getData();
             // apply transform
             if (pipeline != null) {
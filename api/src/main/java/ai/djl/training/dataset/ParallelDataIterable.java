@@ -0,0 +1,314 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.training.dataset;
+
+import ai.djl.Device;
+import ai.djl.metric.Metrics;
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
+import ai.djl.translate.Batchifier;
+import ai.djl.translate.Pipeline;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@code ParallelDataIterable} is a data loader that reads the individual records of a batch in
+ * parallel.
+ *
+ * <p>Unlike {@link DataIterable}, which fetches a whole batch in a single task, every record read
+ * and {@link Pipeline} transform is submitted as its own task to the {@link ExecutorService}, so a
+ * slow record does not hold up the other records of its batch. With a {@link
+ * java.util.concurrent.ForkJoinPool} idle workers steal record tasks from busy ones. Records are
+ * batchified in sample order once all of them are loaded.
+ *
+ * <p>The prefetched data is bounded by size: new batches are only scheduled while the estimated
+ * size of the batches in flight is below {@code maxPrefetchBytes}. Until the size of a batch is
+ * known, at most {@code prefetchNumber} batches are scheduled. The time the consumer spends waiting
+ * for a batch is reported as the {@code "loader-stall"} metric in nanoseconds.
+ *
+ * @see RandomAccessDataset.BaseBuilder#optPrefetchBytes(long)
+ */
+public class ParallelDataIterable implements Iterable<Batch>, Iterator<Batch> {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParallelDataIterable.class);
+
+    private RandomAccessDataset dataset;
+    private NDManager manager;
+    private Batchifier dataBatchifier;
+    private Batchifier labelBatchifier;
+    private Pipeline pipeline;
+    private Pipeline targetPipeline;
+    private ExecutorService executor;
+    private Device device;
+    private int prefetchNumber;
+    private long maxPrefetchBytes;
+    private Metrics metrics;
+
+    private Iterator<List<Long>> sample;
+    private Queue<PendingBatch> queue;
+    private long progress;
+    private long inFlightBytes;
+    private AtomicLong loadedBytes;
+    private AtomicLong loadedBatches;
+    private long stallTime;
+    private boolean autoClose;
+
+    /**
+     * Creates a new instance of {@code ParallelDataIterable} with the given parameters.
+     *
+     * @param dataset the dataset to iterate on
+     * @param manager the manager to create the arrays
+     * @param sampler a sampler to sample data with
+     * @param dataBatchifier a batchifier for data
+     * @param labelBatchifier a batchifier for labels
+     * @param pipeline the pipeline of transforms to apply on the data
+     * @param targetPipeline the pipeline of transforms to apply on the labels
+     * @param executor the {@link ExecutorService} to load records with
+     * @param prefetchNumber the number of batches to prefetch before their size is known
+     * @param maxPrefetchBytes the maximum estimated size of the prefetched batches
+     * @param device the {@link Device}
+     */
+    public ParallelDataIterable(
+            RandomAccessDataset dataset,
+            NDManager manager,
+            Sampler sampler,
+            Batchifier dataBatchifier,
+            Batchifier labelBatchifier,
+            Pipeline pipeline,
+            Pipeline targetPipeline,
+            ExecutorService executor,
+            int prefetchNumber,
+            long maxPrefetchBytes,
+            Device device) {
+        this.dataset = dataset;
+        this.manager = manager.newSubManager();
+        this.manager.setName("parallelDataIter");
+        this.dataBatchifier = dataBatchifier;
+        this.labelBatchifier = labelBatchifier;
+        this.pipeline = pipeline;
+        this.targetPipeline = targetPipeline;
+        this.executor = executor;
+        this.prefetchNumber = Math.max(1, prefetchNumber);
+        this.maxPrefetchBytes = maxPrefetchBytes;
+        this.device = device;
+        String close = System.getProperty("ai.djl.dataiterator.autoclose", "true");
+        autoClose = Boolean.parseBoolean(close);
+
+        queue = new ArrayDeque<>();
+        loadedBytes = new AtomicLong();
+        loadedBatches = new AtomicLong();
+        sample = sampler.sample(dataset);
+        preFetch();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Iterator<Batch> iterator() {
+        return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean hasNext() {
+        if (queue.isEmpty()) {
+            if (autoClose) {
+                manager.close();
+            }
+            return false;
+        }
+        return true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Batch next() {
+        PendingBatch pending = queue.poll();
+        if (pending == null) {
+            throw new NoSuchElementException();
+        }
+        long begin = System.nanoTime();
+        Batch batch;
+        try {
+            batch = pending.future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            closeQuietly(pending);
+            throw new IllegalStateException("Interrupted while loading data", e);
+        } catch (ExecutionException e) {
+            logger.error(e.getMessage());
+            closeQuietly(pending);
+            throw new IllegalStateException("Data loading failed", e.getCause());
+        }
+        long stall = System.nanoTime() - begin;
+        stallTime += stall;
+        if (metrics != null) {
+            metrics.addMetric("loader-stall", stall);
+        }
+        inFlightBytes -= pending.estimatedBytes;
+        preFetch();
+        return batch;
+    }
+
+    /**
+     * Sets the {@link Metrics} to report the loader stall time to.
+     *
+     * @param metrics the {@link Metrics} to report to
+     */
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Returns the total time in nanoseconds {@link #next()} waited for batches to be loaded.
+     *
+     * <p>A large stall time relative to the time spent on each batch means the training is bound by
+     * data loading.
+     *
+     * @return the total stall time in nanoseconds
+     */
+    public long getStallTime() {
+        return stallTime;
+    }
+
+    private void preFetch() {
+        while (sample.hasNext()) {
+            long batches = loadedBatches.get();
+            long estimate = batches == 0 ? 0 : loadedBytes.get() / batches;
+            if (!queue.isEmpty()) {
+                if (estimate == 0 && queue.size() >= prefetchNumber) {
+                    return;
+                }
+                if (estimate > 0 && inFlightBytes + estimate > maxPrefetchBytes) {
+                    return;
+                }
+            }
+            List<Long> indices = sample.next();
+            inFlightBytes += estimate;
+            NDManager subManager = manager.newSubManager();
+            subManager.setName("parallelDataIter fetch");
+            queue.offer(new PendingBatch(schedule(subManager, indices), subManager, estimate));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private CompletableFuture<Batch> schedule(NDManager subManager, List<Long> indices) {
+        int batchSize = indices.size();
+        long batchProgress = progress;
+        progress += batchSize;
+        CompletableFuture<Record>[] records =
+                (CompletableFuture<Record>[]) new CompletableFuture<?>[batchSize];
+        for (int i = 0; i < batchSize; ++i) {
+            long index = indices.get(i);
+            records[i] = CompletableFuture.supplyAsync(() -> load(subManager, index), executor);
+        }
+        return CompletableFuture.allOf(records)
+                .thenApplyAsync(
+                        v -> assemble(subManager, records, indices, batchProgress), executor);
+    }
+
+    private Record load(NDManager subManager, long index) {
+        try {
+            Record record = dataset.getCached(subManager, index);
+            if (pipeline == null) {
+                return record;
+            }
+            return new Record(pipeline.transform(record.getData()), record.getLabels());
+        } catch (IOException | RuntimeException e) {
+            throw new CompletionException("Failed to load record " + index, e);
+        }
+    }
+
+    // a failed batch is done with all its records, so nothing else uses its manager
+    private static void closeQuietly(PendingBatch pending) {
+        if (pending.future.isDone()) {
+            pending.subManager.close();
+        }
+    }
+
+    private Batch assemble(
+            NDManager subManager,
+            CompletableFuture<Record>[] records,
+            List<Long> indices,
+            long batchProgress) {
+        int batchSize = records.length;
+        NDList[] data = new NDList[batchSize];
+        NDList[] labels = new NDList[batchSize];
+        for (int i = 0; i < batchSize; ++i) {
+            Record record = records[i].join();
+            data[i] = record.getData();
+            labels[i] = record.getLabels();
+        }
+        NDList batchData = dataBatchifier.batchify(data);
+        NDList batchLabels = labelBatchifier.batchify(labels);
+
+        Arrays.stream(data).forEach(NDList::close);
+        Arrays.stream(labels).forEach(NDList::close);
+
+        if (targetPipeline != null) {
+            batchLabels = targetPipeline.transform(batchLabels);
+        }
+        loadedBytes.addAndGet(sizeOf(batchData) + sizeOf(batchLabels));
+        loadedBatches.incrementAndGet();
+
+        if (device != null) {
+            batchData = batchData.toDevice(device, false);
+            batchLabels = batchLabels.toDevice(device, false);
+        }
+        return new Batch(
+                subManager,
+                batchData,
+                batchLabels,
+                batchSize,
+                dataBatchifier,
+                labelBatchifier,
+                batchProgress,
+                dataset.size(),
+                indices);
+    }
+
+    private static long sizeOf(NDList list) {
+        long bytes = 0;
+        for (NDArray array : list) {
+            bytes += array.size() * array.getDataType().getNumOfBytes();
+        }
+        return bytes;
+    }
+
+    private static final class PendingBatch {
+
+        CompletableFuture<Batch> future;
+        NDManager subManager;
+        long estimatedBytes;
+
+        PendingBatch(CompletableFuture<Batch> future, NDManager subManager, long estimatedBytes) {
+            this.future = future;
+            this.subManager = subManager;
+            this.estimatedBytes = estimatedBytes;
+        }
+    }
+}
@@ -49,8 +49,10 @@ public abstract class RandomAccessDataset implements Dataset {
     protected Pipeline pipeline;
     protected Pipeline targetPipeline;
     protected int prefetchNumber;
+    protected long prefetchBytes;
     protected long limit;
     protected Device device;
+    protected RecordCache cache;
 
     RandomAccessDataset() {}
 
@@ -67,8 +69,10 @@ public abstract class RandomAccessDataset implements Dataset {
         this.pipeline = builder.pipeline;
         this.targetPipeline = builder.targetPipeline;
         this.prefetchNumber = builder.prefetchNumber;
+        this.prefetchBytes = builder.prefetchBytes;
         this.limit = builder.limit;
         this.device = builder.device;
+        this.cache = builder.cache;
     }
 
     /**
@@ -81,6 +85,27 @@ public abstract class RandomAccessDataset implements Dataset {
      */
     public abstract Record get(NDManager manager, long index) throws IOException;
 
+    /**
+     * Gets the {@link Record} for the given index from the {@link RecordCache} of the dataset, the
+     * record is read with {@link #get(NDManager, long)} and cached if it is not cached yet.
+     *
+     * @param manager the manager used to create the arrays
+     * @param index the index of the requested data item
+     * @return a {@link Record} that contains the data and label of the requested data item
+     * @throws IOException if an I/O error occurs
+     */
+    Record getCached(NDManager manager, long index) throws IOException {
+        if (cache == null) {
+            return get(manager, index);
+        }
+        Record record = cache.get(manager, index);
+        if (record == null) {
+            record = get(manager, index);
+            cache.put(index, record);
+        }
+        return record;
+    }
+
     /** {@inheritDoc} */
     @Override
     public Iterable<Batch> getData(NDManager manager) throws IOException, TranslateException {
@@ -103,17 +128,7 @@ public abstract class RandomAccessDataset implements Dataset {
     public Iterable<Batch> getData(NDManager manager, ExecutorService executorService)
             throws IOException, TranslateException {
         prepare();
-        return new DataIterable(
-                this,
-                manager,
-                sampler,
-                dataBatchifier,
-                labelBatchifier,
-                pipeline,
-                targetPipeline,
-                executorService,
-                prefetchNumber,
-                device);
+        return newDataIterable(manager, sampler, executorService);
     }
 
     /**
@@ -156,6 +171,25 @@ public abstract class RandomAccessDataset implements Dataset {
             NDManager manager, Sampler sampler, ExecutorService executorService)
             throws IOException, TranslateException {
         prepare();
+        return newDataIterable(manager, sampler, executorService);
+    }
+
+    private Iterable<Batch> newDataIterable(
+            NDManager manager, Sampler sampler, ExecutorService executorService) {
+        if (prefetchBytes > 0 && executorService != null) {
+            return new ParallelDataIterable(
+                    this,
+                    manager,
+                    sampler,
+                    dataBatchifier,
+                    labelBatchifier,
+                    pipeline,
+                    targetPipeline,
+                    executorService,
+                    prefetchNumber,
+                    prefetchBytes,
+                    device);
+        }
         return new DataIterable(
                 this,
                 manager,
@@ -209,10 +243,10 @@ public abstract class RandomAccessDataset implements Dataset {
         int from = 0;
         for (int i = 0; i < ratio.length - 1; ++i) {
             int to = from + (int) (ratio[i] / sum * size);
-            ret[i] = new SubDataset(this, indices, from, to);
+            ret[i] = newSubDataset(indices, from, to);
             from = to;
         }
-        ret[ratio.length - 1] = new SubDataset(this, indices, from, size);
+        ret[ratio.length - 1] = newSubDataset(indices, from, size);
         return ret;
     }
 
@@ -227,7 +261,14 @@ public abstract class RandomAccessDataset implements Dataset {
     public RandomAccessDataset subDataset(int fromIndex, int toIndex) {
         int size = Math.toIntExact(size());
         int[] indices = IntStream.range(0, size).toArray();
-        return new SubDataset(this, indices, fromIndex, toIndex);
+        return newSubDataset(indices, fromIndex, toIndex);
+    }
+
+    private RandomAccessDataset newSubDataset(int[] indices, int from, int to) {
+        if (this instanceof SampleLengthProvider) {
+            return new LengthSubDataset(this, indices, from, to);
+        }
+        return new SubDataset(this, indices, from, to);
     }
 
     /**
@@ -284,8 +325,10 @@ public abstract class RandomAccessDataset implements Dataset {
         protected Pipeline pipeline;
         protected Pipeline targetPipeline;
         protected int prefetchNumber = 2;
+        protected long prefetchBytes;
         protected long limit = Long.MAX_VALUE;
         protected Device device;
+        protected RecordCache cache;
 
         /**
          * Gets the {@link Sampler} for the dataset.
@@ -423,6 +466,39 @@ public abstract class RandomAccessDataset implements Dataset {
             return self();
         }
 
+        /**
+         * Enables loading the records of a batch in parallel, with the prefetched data bounded by
+         * size.
+         *
+         * <p>When the dataset is iterated with an {@link ExecutorService}, each record is read and
+         * transformed as a separate task and the batches are assembled in sample order by a {@link
+         * ParallelDataIterable}. New batches are prefetched while the estimated size of the batches
+         * in flight stays below {@code prefetchBytes}.
+         *
+         * @param prefetchBytes the maximum size in bytes of the prefetched batches, 0 disables
+         *     parallel record loading
+         * @return this {@code BaseBuilder}
+         */
+        public T optPrefetchBytes(long prefetchBytes) {
+            this.prefetchBytes = prefetchBytes;
+            return self();
+        }
+
+        /**
+         * Sets the {@link RecordCache} that keeps the records of the dataset between epochs.
+         *
+         * <p>The records returned by {@link RandomAccessDataset#get(NDManager, long)} are cached
+         * before the {@link Pipeline} is applied, so the random transforms of the pipeline are
+         * still applied to every sample in every epoch. See {@link RecordCache}.
+         *
+         * @param cache the {@link RecordCache} of the dataset
+         * @return this {@code BaseBuilder}
+         */
+        public T optCache(RecordCache cache) {
+            this.cache = cache;
+            return self();
+        }
+
         /**
          * Sets the {@link Device}.
          *
@@ -456,7 +532,7 @@ public abstract class RandomAccessDataset implements Dataset {
         protected abstract T self();
     }
 
-    private static final class SubDataset extends RandomAccessDataset {
+    private static class SubDataset extends RandomAccessDataset {
 
         private RandomAccessDataset dataset;
         private int[] indices;
@@ -474,6 +550,7 @@ public abstract class RandomAccessDataset implements Dataset {
             this.pipeline = dataset.pipeline;
             this.targetPipeline = dataset.targetPipeline;
             this.prefetchNumber = dataset.prefetchNumber;
+            this.prefetchBytes = dataset.prefetchBytes;
             this.device = dataset.device;
 
             limit = Long.MAX_VALUE;
@@ -485,7 +562,15 @@ public abstract class RandomAccessDataset implements Dataset {
             if (index >= size()) {
                 throw new IndexOutOfBoundsException("index(" + index + ") > size(" + size() + ").");
             }
-            return dataset.get(manager, indices[Math.toIntExact(index) + from]);
+            return dataset.getCached(manager, getParentIndex(index));
+        }
+
+        long getParentIndex(long index) {
+            return indices[Math.toIntExact(index) + from];
+        }
+
+        RandomAccessDataset getParent() {
+            return dataset;
         }
 
         /** {@inheritDoc} */
@@ -498,4 +583,21 @@ public abstract class RandomAccessDataset implements Dataset {
         @Override
         public void prepare(Progress progress) {}
     }
+
+    /** A {@code SubDataset} of a {@link SampleLengthProvider} dataset. */
+    private static final class LengthSubDataset extends SubDataset implements SampleLengthProvider {
+
+        LengthSubDataset(RandomAccessDataset dataset, int[] indices, int from, int to) {
+            super(dataset, indices, from, to);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int getSampleLength(long index) {
+            if (index >= size()) {
+                throw new IndexOutOfBoundsException("index(" + index + ") > size(" + size() + ").");
+            }
+            return ((SampleLengthProvider) getParent()).getSampleLength(getParentIndex(index));
+        }
+    }
 }
@@ -0,0 +1,522 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.training.dataset;
+
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.DataType;
+import ai.djl.ndarray.types.Shape;
+import ai.djl.util.Utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@code RecordCache} keeps the {@link Record}s returned by {@link RandomAccessDataset#get(
+ * NDManager, long)} between epochs.
+ *
+ * <p>A dataset built with {@link RandomAccessDataset.BaseBuilder#optCache(RecordCache)} caches the
+ * record of each index the first time it is read, which is the decoded image of an image dataset or
+ * the featurized row of a tabular dataset. The {@link ai.djl.translate.Pipeline} of the dataset is
+ * applied on top of the cached record, so random augmentations still produce a different sample
+ * every epoch.
+ *
+ * <p>The records are stored off-heap within the {@code memoryBudget}. When the budget is exceeded,
+ * records are evicted with the clock algorithm, an approximation of least recently used. Evicted
+ * records are written to a memory-mapped spill file of {@code spillBudget} bytes if a spill
+ * directory is set, otherwise they are dropped and read from the dataset again. The spill file is
+ * used as a circular log of segments of up to 64 MiB, the oldest spilled records are dropped when
+ * it is full. The part of the {@code spillBudget} that does not fill a whole segment is not used.
+ *
+ * <pre>
+ * RecordCache cache = RecordCache.builder()
+ *         .optMemoryBudget(4L * 1024 * 1024 * 1024)
+ *         .optSpillDirectory(Paths.get("/tmp"), 32L * 1024 * 1024 * 1024)
+ *         .build();
+ * ImageFolder dataset = ImageFolder.builder()
+ *         .setRepositoryPath(root)
+ *         .addTransform(new RandomResizedCrop(224, 224))
+ *         .addTransform(new RandomFlipLeftRight())
+ *         .addTransform(new ToTensor())
+ *         .optCache(cache)
+ *         .setSampling(32, true)
+ *         .build();
+ * </pre>
+ *
+ * <p>A cache holds the records of a single dataset. Records that contain {@link DataType#STRING}
+ * arrays are not cached.
+ */
+public class RecordCache implements AutoCloseable {
+
+    static final int SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    private long memoryBudget;
+    private long spillBudget;
+    private Path spillDirectory;
+
+    private Map<Long, Entry> entries;
+    private Deque<MemoryEntry> clock;
+    private long usedMemory;
+    private SpillFile spillFile;
+    private AtomicLong hits;
+    private AtomicLong misses;
+    private long evictions;
+    private boolean closed;
+
+    RecordCache(Builder builder) {
+        memoryBudget = builder.memoryBudget;
+        spillBudget = builder.spillBudget;
+        spillDirectory = builder.spillDirectory;
+        entries = new ConcurrentHashMap<>();
+        clock = new ArrayDeque<>();
+        hits = new AtomicLong();
+        misses = new AtomicLong();
+    }
+
+    /**
+     * Creates a builder to build a {@code RecordCache}.
+     *
+     * @return a new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns a copy of the cached {@link Record} at the index.
+     *
+     * @param manager the manager used to create the arrays
+     * @param index the index of the record in the dataset
+     * @return a copy of the cached record, or {@code null} if the record is not cached
+     */
+    public Record get(NDManager manager, long index) {
+        Entry entry = entries.get(index);
+        Record record = null;
+        if (entry instanceof MemoryEntry) {
+            MemoryEntry memoryEntry = (MemoryEntry) entry;
+            memoryEntry.referenced = true;
+            record = decode(manager, memoryEntry.buffer.duplicate().order(ByteOrder.nativeOrder()));
+        } else if (entry != null) {
+            synchronized (this) {
+                // the spill segment may have been reused, or the cache closed, since the entry
+                // was looked up
+                DiskEntry diskEntry = (DiskEntry) entry;
+                if (!closed && diskEntry.valid) {
+                    record = decode(manager, spillFile.read(diskEntry));
+                }
+            }
+        }
+        if (record == null) {
+            misses.incrementAndGet();
+        } else {
+            hits.incrementAndGet();
+        }
+        return record;
+    }
+
+    /**
+     * Caches a copy of the {@link Record} at the index.
+     *
+     * @param index the index of the record in the dataset
+     * @param record the record to cache
+     * @throws IOException if the record could not be written to the spill file
+     */
+    public void put(long index, Record record) throws IOException {
+        int size = encodedSize(record);
+        if (size < 0 || size > Math.max(memoryBudget, spillBudget)) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.allocateDirect(size).order(ByteOrder.nativeOrder());
+        encode(record, buffer);
+        buffer.flip();
+
+        synchronized (this) {
+            if (closed || entries.containsKey(index)) {
+                return;
+            }
+            MemoryEntry entry = new MemoryEntry(index, buffer);
+            entries.put(index, entry);
+            clock.add(entry);
+            usedMemory += size;
+            while (usedMemory > memoryBudget) {
+                evict();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of cached records.
+     *
+     * @return the number of cached records
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the off-heap memory used by the cached records.
+     *
+     * @return the used memory in bytes
+     */
+    public synchronized long getUsedMemory() {
+        return usedMemory;
+    }
+
+    /**
+     * Returns the number of records that were found in the cache.
+     *
+     * @return the number of cache hits
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of records that were not found in the cache.
+     *
+     * @return the number of cache misses
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Returns the number of records that were dropped from the cache.
+     *
+     * @return the number of evictions
+     */
+    public synchronized long getEvictionCount() {
+        return evictions;
+    }
+
+    /** Removes all records from the cache and deletes the spill file. */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        entries.clear();
+        clock.clear();
+        usedMemory = 0;
+        if (spillFile != null) {
+            spillFile.close();
+            spillFile = null;
+        }
+    }
+
+    // moves the first unreferenced record of the clock to the spill file, a referenced record
+    // gets a second chance at the end of the clock
+    private void evict() throws IOException {
+        MemoryEntry entry = clock.poll();
+        while (entry.referenced) {
+            entry.referenced = false;
+            clock.offer(entry);
+            entry = clock.poll();
+        }
+        usedMemory -= entry.buffer.capacity();
+
+        DiskEntry diskEntry = spill(entry);
+        if (diskEntry == null) {
+            entries.remove(entry.index);
+            ++evictions;
+        } else {
+            entries.put(entry.index, diskEntry);
+        }
+    }
+
+    private DiskEntry spill(MemoryEntry entry) throws IOException {
+        if (spillDirectory == null || entry.buffer.capacity() > spillFile().segmentSize) {
+            return null;
+        }
+        return spillFile.write(entry);
+    }
+
+    private SpillFile spillFile() throws IOException {
+        if (spillFile == null) {
+            spillFile = new SpillFile();
+        }
+        return spillFile;
+    }
+
+    // returns -1 if the record can not be cached
+    private static int encodedSize(Record record) {
+        long size = 8;
+        for (NDList list : new NDList[] {record.getData(), record.getLabels()}) {
+            if (list == null) {
+                continue;
+            }
+            for (NDArray array : list) {
+                if (array.getDataType() == DataType.STRING) {
+                    return -1;
+                }
+                String name = array.getName();
+                size += 16 + 8L * array.getShape().dimension();
+                if (name != null) {
+                    size += name.getBytes(StandardCharsets.UTF_8).length;
+                }
+                size += array.size() * array.getDataType().getNumOfBytes();
+            }
+        }
+        return size > Integer.MAX_VALUE ? -1 : (int) size;
+    }
+
+    private static void encode(Record record, ByteBuffer buf) {
+        NDList data = record.getData();
+        NDList labels = record.getLabels();
+        buf.putInt(data == null ? -1 : data.size());
+        buf.putInt(labels == null ? -1 : labels.size());
+        for (NDList list : new NDList[] {data, labels}) {
+            if (list == null) {
+                continue;
+            }
+            for (NDArray array : list) {
+                String name = array.getName();
+                if (name == null) {
+                    buf.putInt(-1);
+                } else {
+                    byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+                    buf.putInt(bytes.length);
+                    buf.put(bytes);
+                }
+                buf.putInt(array.getDataType().ordinal());
+                long[] shape = array.getShape().getShape();
+                buf.putInt(shape.length);
+                for (long dim : shape) {
+                    buf.putLong(dim);
+                }
+                ByteBuffer bb = array.toByteBuffer();
+                buf.putInt(bb.remaining());
+                buf.put(bb);
+            }
+        }
+    }
+
+    private static Record decode(NDManager manager, ByteBuffer buf) {
+        int dataSize = buf.getInt();
+        int labelSize = buf.getInt();
+        NDList data = decode(manager, buf, dataSize);
+        NDList labels = decode(manager, buf, labelSize);
+        return new Record(data, labels);
+    }
+
+    private static NDList decode(NDManager manager, ByteBuffer buf, int size) {
+        if (size < 0) {
+            return null;
+        }
+        DataType[] types = DataType.values();
+        NDList list = new NDList(size);
+        for (int i = 0; i < size; ++i) {
+            int nameLength = buf.getInt();
+            String name = null;
+            if (nameLength >= 0) {
+                byte[] bytes = new byte[nameLength];
+                buf.get(bytes);
+                name = new String(bytes, StandardCharsets.UTF_8);
+            }
+            DataType dataType = types[buf.getInt()];
+            long[] shape = new long[buf.getInt()];
+            for (int j = 0; j < shape.length; ++j) {
+                shape[j] = buf.getLong();
+            }
+            int length = buf.getInt();
+            ByteBuffer slice = buf.slice();
+            slice.limit(length);
+            buf.position(buf.position() + length);
+
+            // the engine may share the buffer with the array, so the cached bytes are copied
+            ByteBuffer bb = manager.allocateDirect(length);
+            bb.put(slice);
+            bb.rewind();
+            NDArray array = manager.create(bb, new Shape(shape), dataType);
+            if (name != null) {
+                array.setName(name);
+            }
+            list.add(array);
+        }
+        return list;
+    }
+
+    private abstract static class Entry {
+
+        long index;
+
+        Entry(long index) {
+            this.index = index;
+        }
+    }
+
+    private static final class MemoryEntry extends Entry {
+
+        ByteBuffer buffer;
+        volatile boolean referenced;
+
+        MemoryEntry(long index, ByteBuffer buffer) {
+            super(index);
+            this.buffer = buffer;
+        }
+    }
+
+    private static final class DiskEntry extends Entry {
+
+        int segment;
+        int offset;
+        int length;
+        boolean valid = true;
+
+        DiskEntry(long index, int segment, int offset, int length) {
+            super(index);
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    /** A spill file of fixed size segments that are written in a circle. */
+    private final class SpillFile {
+
+        Path file;
+        FileChannel channel;
+        int segmentSize;
+        MappedByteBuffer[] segments;
+        List<List<DiskEntry>> segmentEntries;
+        int segment;
+        int position;
+
+        SpillFile() throws IOException {
+            file = Files.createTempFile(spillDirectory, "djl-cache", ".tmp");
+            file.toFile().deleteOnExit();
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            segmentSize = (int) Math.min(spillBudget, SEGMENT_SIZE);
+            // the remainder of the budget that is smaller than a segment is not used
+            int count = (int) Math.max(1, spillBudget / Math.max(1, segmentSize));
+            segments = new MappedByteBuffer[count];
+            segmentEntries = new ArrayList<>(count);
+            for (int i = 0; i < count; ++i) {
+                segmentEntries.add(new ArrayList<>());
+            }
+        }
+
+        DiskEntry write(MemoryEntry entry) throws IOException {
+            int length = entry.buffer.capacity();
+            if (segments[segment] == null || position + length > segmentSize) {
+                if (segments[segment] != null) {
+                    segment = (segment + 1) % segments.length;
+                }
+                position = 0;
+                recycle(segment);
+            }
+            ByteBuffer buf = segments[segment].duplicate();
+            buf.position(position);
+            buf.put(entry.buffer.duplicate());
+
+            DiskEntry diskEntry = new DiskEntry(entry.index, segment, position, length);
+            segmentEntries.get(segment).add(diskEntry);
+            position += length;
+            return diskEntry;
+        }
+
+        ByteBuffer read(DiskEntry entry) {
+            ByteBuffer buf = segments[entry.segment].duplicate().order(ByteOrder.nativeOrder());
+            buf.position(entry.offset);
+            buf.limit(entry.offset + entry.length);
+            return buf.slice().order(ByteOrder.nativeOrder());
+        }
+
+        // drops the records of a segment before it is overwritten
+        private void recycle(int index) throws IOException {
+            List<DiskEntry> list = segmentEntries.get(index);
+            for (DiskEntry entry : list) {
+                entry.valid = false;
+                if (entries.remove(entry.index, entry)) {
+                    ++evictions;
+                }
+            }
+            list.clear();
+            if (segments[index] == null) {
+                long offset = (long) index * segmentSize;
+                segments[index] = channel.map(FileChannel.MapMode.READ_WRITE, offset, segmentSize);
+            }
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException ignore) {
+                // ignore
+            }
+            Utils.deleteQuietly(file);
+        }
+    }
+
+    /** A builder to construct a {@link RecordCache}. */
+    public static final class Builder {
+
+        long memoryBudget = 1024L * 1024 * 1024;
+        long spillBudget;
+        Path spillDirectory;
+
+        Builder() {}
+
+        /**
+         * Sets the off-heap memory budget of the cached records, 1 GB by default.
+         *
+         * @param memoryBudget the memory budget in bytes
+         * @return this builder
+         */
+        public Builder optMemoryBudget(long memoryBudget) {
+            this.memoryBudget = memoryBudget;
+            return this;
+        }
+
+        /**
+         * Sets the directory of the memory-mapped file the evicted records are spilled to.
+         *
+         * @param spillDirectory the directory to create the spill file in
+         * @param spillBudget the maximum size of the spill file in bytes, rounded down to a
+         *     multiple of 64 MiB if it is larger
+         * @return this builder
+         */
+        public Builder optSpillDirectory(Path spillDirectory, long spillBudget) {
+            this.spillDirectory = spillDirectory;
+            this.spillBudget = spillBudget;
+            return this;
+        }
+
+        /**
+         * Builds the {@link RecordCache}.
+         *
+         * @return the {@link RecordCache}
+         */
+        public RecordCache build() {
+            if (memoryBudget < 0
+                    || spillBudget < 0
+                    || (spillDirectory != null && spillBudget == 0)) {
+                throw new IllegalArgumentException("Invalid RecordCache configuration.");
+            }
+            return new RecordCache(this);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.training.dataset;
+
+/**
+ * An interface for {@link RandomAccessDataset}s of variable length samples, like sentences, that
+ * tells the length of a sample without reading it.
+ *
+ * @see TokenBudgetSampler
+ */
+public interface SampleLengthProvider {
+
+    /**
+     * Returns the length of the sample at the index, for example the number of tokens of a
+     * sentence.
+     *
+     * @param index the index of the sample
+     * @return the length of the sample
+     */
+    int getSampleLength(long index);
+}
@@ -0,0 +1,256 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.training.dataset;
+
+import ai.djl.metric.Metrics;
+import ai.djl.metric.Unit;
+import ai.djl.util.RandomUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * {@code TokenBudgetSampler} is a {@link Sampler} for datasets of variable length samples that
+ * forms batches by the number of tokens instead of the number of samples.
+ *
+ * <p>The dataset must implement {@link SampleLengthProvider}. A batch holds as many samples as fit
+ * into the token budget after padding, that is the number of samples times the length of the
+ * longest sample is at most {@code maxTokens}. Short samples are put into large batches and long
+ * samples into small ones, so every batch takes about the same memory and compute. A sample that is
+ * longer than the budget is put into a batch of its own.
+ *
+ * <p>To keep the padding small, samples of similar lengths are batched together. Without shuffling,
+ * the samples are sorted by length. With shuffling, the samples are shuffled, sorted by length
+ * within windows of {@code windowSize} samples, and the batches are shuffled again, so each epoch
+ * sees different batches while most of the sorting benefit is kept.
+ *
+ * <p>The sampler is meant to be used with a {@link ai.djl.translate.PaddingStackBatchifier} that
+ * pads to the longest sample of the batch, which is a padding size of -1. The fraction of padding
+ * of the last sampled epoch is returned by {@link #getPaddingWaste()}, and also recorded as the
+ * {@code PaddingWaste} metric if {@link Metrics} are set.
+ */
+public class TokenBudgetSampler implements Sampler {
+
+    private int maxTokens;
+    private int maxBatchSize;
+    private int windowSize;
+    private boolean shuffle;
+    private Integer seed;
+    private Metrics metrics;
+    private volatile double paddingWaste;
+
+    TokenBudgetSampler(Builder builder) {
+        maxTokens = builder.maxTokens;
+        maxBatchSize = builder.maxBatchSize;
+        windowSize = builder.windowSize;
+        shuffle = builder.shuffle;
+        seed = builder.seed;
+    }
+
+    /**
+     * Creates a builder to build a {@code TokenBudgetSampler}.
+     *
+     * @return a new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Iterator<List<Long>> sample(RandomAccessDataset dataset) {
+        if (!(dataset instanceof SampleLengthProvider)) {
+            throw new IllegalArgumentException(
+                    "TokenBudgetSampler can only be used with a SampleLengthProvider dataset");
+        }
+        SampleLengthProvider provider = (SampleLengthProvider) dataset;
+        int size = Math.toIntExact(dataset.size());
+        int[] indices = new int[size];
+        for (int i = 0; i < size; ++i) {
+            indices[i] = i;
+        }
+        Random random = seed != null ? new Random(seed) : RandomUtils.RANDOM;
+        int window = size;
+        if (shuffle) {
+            for (int i = size - 1; i > 0; --i) {
+                int j = random.nextInt(i + 1);
+                int tmp = indices[i];
+                indices[i] = indices[j];
+                indices[j] = tmp;
+            }
+            window = windowSize;
+        }
+
+        List<List<Long>> batches = new ArrayList<>();
+        long paddedTokens = 0;
+        long tokens = 0;
+        long[] keys = new long[Math.min(window, size)];
+        for (int start = 0; start < size; start += window) {
+            int end = Math.min(start + window, size);
+            // sort the window by length, the position in the window breaks ties
+            for (int i = start; i < end; ++i) {
+                int length = provider.getSampleLength(indices[i]);
+                if (length < 0) {
+                    throw new IllegalArgumentException("Negative sample length: " + length);
+                }
+                keys[i - start] = ((long) length << 32) | indices[i];
+            }
+            Arrays.sort(keys, 0, end - start);
+
+            List<Long> batch = new ArrayList<>();
+            long longest = 0;
+            for (int i = 0; i < end - start; ++i) {
+                long length = keys[i] >>> 32;
+                long count = batch.size() + 1;
+                if (!batch.isEmpty()
+                        && (count * Math.max(longest, length) > maxTokens
+                                || count > maxBatchSize)) {
+                    paddedTokens += batch.size() * longest;
+                    batches.add(batch);
+                    batch = new ArrayList<>();
+                    longest = 0;
+                }
+                batch.add(keys[i] & 0xFFFFFFFFL);
+                longest = Math.max(longest, length);
+                tokens += length;
+            }
+            if (!batch.isEmpty()) {
+                paddedTokens += batch.size() * longest;
+                batches.add(batch);
+            }
+        }
+        if (shuffle) {
+            Collections.shuffle(batches, random);
+        }
+
+        paddingWaste = paddedTokens == 0 ? 0 : 1 - (double) tokens / paddedTokens;
+        if (metrics != null) {
+            metrics.addMetric("PaddingWaste", paddingWaste * 100, Unit.PERCENT);
+            metrics.addMetric("Batches", batches.size(), Unit.COUNT);
+        }
+        return batches.iterator();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int getBatchSize() {
+        return -1;
+    }
+
+    /**
+     * Returns the fraction of the padded tokens that are padding in the last sampled epoch.
+     *
+     * @return the fraction of the padded tokens that are padding, between 0 and 1
+     */
+    public double getPaddingWaste() {
+        return paddingWaste;
+    }
+
+    /**
+     * Sets the {@link Metrics} to record the padding waste and number of batches of each epoch.
+     *
+     * @param metrics the {@link Metrics} to record with
+     */
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /** The Builder to construct a {@link TokenBudgetSampler}. */
+    public static final class Builder {
+
+        int maxTokens;
+        int maxBatchSize = Integer.MAX_VALUE;
+        int windowSize = 4096;
+        boolean shuffle = true;
+        Integer seed;
+
+        Builder() {}
+
+        /**
+         * Sets the maximum number of tokens of a batch, including the padding.
+         *
+         * @param maxTokens the maximum number of tokens of a batch
+         * @return this builder
+         */
+        public Builder setMaxTokens(int maxTokens) {
+            this.maxTokens = maxTokens;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of samples of a batch, there is no maximum by default.
+         *
+         * @param maxBatchSize the maximum number of samples of a batch
+         * @return this builder
+         */
+        public Builder optMaxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        /**
+         * Sets the number of shuffled samples that are sorted by length together, defaults to 4096.
+         *
+         * <p>A larger window gives less padding, a smaller window gives more random batches.
+         *
+         * @param windowSize the number of samples that are sorted together
+         * @return this builder
+         */
+        public Builder optWindowSize(int windowSize) {
+            this.windowSize = windowSize;
+            return this;
+        }
+
+        /**
+         * Sets whether to shuffle the samples and batches, defaults to true.
+         *
+         * @param shuffle whether to shuffle the samples and batches
+         * @return this builder
+         */
+        public Builder optShuffle(boolean shuffle) {
+            this.shuffle = shuffle;
+            return this;
+        }
+
+        /**
+         * Sets the seed of the shuffling, a shared random generator is used by default.
+         *
+         * @param seed the seed of the shuffling
+         * @return this builder
+         */
+        public Builder optSeed(int seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /**
+         * Builds the {@link TokenBudgetSampler}.
+         *
+         * @return the {@link TokenBudgetSampler}
+         */
+        public TokenBudgetSampler build() {
+            if (maxTokens <= 0) {
+                throw new IllegalArgumentException("The maxTokens must be set to a positive value");
+            }
+            if (maxBatchSize <= 0 || windowSize <= 0) {
+                throw new IllegalArgumentException(
+                        "The maxBatchSize and windowSize must be positive");
+            }
+            return new TokenBudgetSampler(this);
+        }
+    }
+}
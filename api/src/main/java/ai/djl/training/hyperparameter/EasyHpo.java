@@ -24,6 +24,8 @@ import ai.djl.training.dataset.RandomAccessDataset;
 import ai.djl.training.hyperparameter.optimizer.HpORandom;
 import ai.djl.training.hyperparameter.optimizer.HpOptimizer;
 import ai.djl.training.hyperparameter.param.HpSet;
+import ai.djl.training.hyperparameter.scheduler.TrialScheduler;
+import ai.djl.training.hyperparameter.scheduler.TrialSchedulerListener;
 import ai.djl.translate.TranslateException;
 import ai.djl.util.Pair;
 
@@ -31,8 +33,21 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
-/** Helper for easy training with hyperparameters. */
+/**
+ * Helper for easy training with hyperparameters.
+ *
+ * <p>The hyperparameter trials run one after another by default. They run concurrently if {@link
+ * #numWorkers()} is overridden, each trial on a worker thread with its own {@link Model}, {@link
+ * Trainer} and {@link ai.djl.ndarray.NDManager}. The datasets are shared by the trials, and the
+ * engine must support training on multiple threads. Losing trials can be stopped early by the
+ * {@link TrialScheduler} of {@link #setupScheduler()}.
+ */
 public abstract class EasyHpo {
 
     private static final Logger logger = LoggerFactory.getLogger(EasyHpo.class);
@@ -52,21 +67,54 @@ public abstract class EasyHpo {
 
         HpSet hyperParams = setupHyperParams();
         HpOptimizer hpOptimizer = new HpORandom(hyperParams);
+        TrialScheduler scheduler = setupScheduler();
 
         final int hyperparameterTests = numHyperParameterTests();
+        int workers = Math.min(numWorkers(), hyperparameterTests);
 
-        for (int i = 0; i < hyperparameterTests; i++) {
-            HpSet hpVals = hpOptimizer.nextConfig();
-            Pair<Model, TrainingResult> trained = train(hpVals, trainingSet, validateSet);
-            trained.getKey().close();
-            float loss = trained.getValue().getValidateLoss();
-            hpOptimizer.update(hpVals, loss);
-            logger.info(
-                    "--------- hp test {}/{} - Loss {} - {}", i, hyperparameterTests, loss, hpVals);
+        if (workers <= 1) {
+            for (int i = 0; i < hyperparameterTests; i++) {
+                HpSet hpVals = hpOptimizer.nextConfig();
+                Trial trial = runTrial(i, hpVals, scheduler, trainingSet, validateSet);
+                update(hpOptimizer, trial, hyperparameterTests);
+            }
+        } else {
+            // the optimizer is only used on this thread, the workers only train
+            ExecutorService executor = Executors.newFixedThreadPool(workers);
+            CompletionService<Trial> trials = new ExecutorCompletionService<>(executor);
+            try {
+                int submitted = 0;
+                for (int i = 0; i < hyperparameterTests; i++) {
+                    while (submitted < hyperparameterTests && submitted < i + workers) {
+                        int index = submitted++;
+                        HpSet hpVals = hpOptimizer.nextConfig();
+                        trials.submit(
+                                () -> runTrial(index, hpVals, scheduler, trainingSet, validateSet));
+                    }
+                    update(hpOptimizer, trials.take().get(), hyperparameterTests);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Hyperparameter search was interrupted", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                } else if (cause instanceof TranslateException) {
+                    throw (TranslateException) cause;
+                } else if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                } else if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new IllegalStateException(cause);
+            } finally {
+                executor.shutdownNow();
+            }
         }
 
         HpSet bestHpVals = hpOptimizer.getBest().getKey();
-        Pair<Model, TrainingResult> trained = train(bestHpVals, trainingSet, validateSet);
+        Pair<Model, TrainingResult> trained = train(bestHpVals, trainingSet, validateSet, null);
         TrainingResult result = trained.getValue();
 
         Model model = trained.getKey();
@@ -74,8 +122,56 @@ public abstract class EasyHpo {
         return trained;
     }
 
+    private void update(HpOptimizer hpOptimizer, Trial trial, int hyperparameterTests) {
+        hpOptimizer.update(trial.hpVals, trial.loss);
+        if (trial.stopped) {
+            logger.info(
+                    "--------- hp test {}/{} - Loss {} - stopped after epoch {} - {}",
+                    trial.index,
+                    hyperparameterTests,
+                    trial.loss,
+                    trial.epoch,
+                    trial.hpVals);
+        } else {
+            logger.info(
+                    "--------- hp test {}/{} - Loss {} - {}",
+                    trial.index,
+                    hyperparameterTests,
+                    trial.loss,
+                    trial.hpVals);
+        }
+    }
+
+    private Trial runTrial(
+            int index,
+            HpSet hpVals,
+            TrialScheduler scheduler,
+            RandomAccessDataset trainingSet,
+            RandomAccessDataset validateSet)
+            throws IOException, TranslateException {
+        TrialSchedulerListener listener = null;
+        if (scheduler != null) {
+            listener = new TrialSchedulerListener(scheduler, index);
+        }
+        Pair<Model, TrainingResult> trained = train(hpVals, trainingSet, validateSet, listener);
+        trained.getKey().close();
+
+        Trial trial = new Trial();
+        trial.index = index;
+        trial.hpVals = hpVals;
+        trial.loss = trained.getValue().getValidateLoss();
+        if (listener != null) {
+            trial.epoch = listener.getEpoch();
+            trial.stopped = listener.isStopped();
+        }
+        return trial;
+    }
+
     private Pair<Model, TrainingResult> train(
-            HpSet hpVals, RandomAccessDataset trainingSet, RandomAccessDataset validateSet)
+            HpSet hpVals,
+            RandomAccessDataset trainingSet,
+            RandomAccessDataset validateSet,
+            TrialSchedulerListener listener)
             throws IOException, TranslateException {
 
         // Construct neural network
@@ -83,6 +179,10 @@ public abstract class EasyHpo {
 
         // setup training configuration
         TrainingConfig config = setupTrainingConfig(hpVals);
+        if (listener != null) {
+            // added last to report the evaluations of the finished epoch
+            config.getTrainingListeners().add(listener);
+        }
 
         try (Trainer trainer = model.newTrainer(config)) {
             trainer.setMetrics(new Metrics());
@@ -90,10 +190,20 @@ public abstract class EasyHpo {
             // initialize trainer with proper input shape
             trainer.initialize(inputShape(hpVals));
 
-            EasyTrain.fit(trainer, numEpochs(hpVals), trainingSet, validateSet);
+            int numEpochs = numEpochs(hpVals);
+            if (listener == null) {
+                EasyTrain.fit(trainer, numEpochs, trainingSet, validateSet);
+            } else {
+                for (int epoch = 0; epoch < numEpochs && !listener.isStopped(); epoch++) {
+                    EasyTrain.fit(trainer, 1, trainingSet, validateSet);
+                }
+            }
 
             TrainingResult result = trainer.getTrainingResult();
             return new Pair<>(model, result);
+        } catch (IOException | TranslateException | RuntimeException e) {
+            model.close();
+            throw e;
         }
     }
 
@@ -152,6 +262,27 @@ public abstract class EasyHpo {
      */
     protected abstract int numHyperParameterTests();
 
+    /**
+     * Returns the number of hyperparameter sets to train concurrently, defaults to 1.
+     *
+     * @return the number of hyperparameter sets to train concurrently
+     */
+    protected int numWorkers() {
+        return 1;
+    }
+
+    /**
+     * Returns the {@link TrialScheduler} to stop losing hyperparameter sets early, defaults to
+     * {@code null} to train every set for all epochs.
+     *
+     * <p>The best hyperparameter set is trained again for all epochs after the search.
+     *
+     * @return the {@link TrialScheduler}, or {@code null} to train every set for all epochs
+     */
+    protected TrialScheduler setupScheduler() {
+        return null;
+    }
+
     /**
      * Saves the best hyperparameter set.
      *
@@ -160,4 +291,13 @@ public abstract class EasyHpo {
      * @throws IOException if the model could not be saved
      */
     protected void saveModel(Model model, TrainingResult result) throws IOException {}
+
+    private static final class Trial {
+
+        int index;
+        HpSet hpVals;
+        float loss;
+        int epoch;
+        boolean stopped;
+    }
 }
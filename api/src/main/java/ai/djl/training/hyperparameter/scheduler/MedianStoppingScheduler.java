@@ -0,0 +1,127 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.training.hyperparameter.scheduler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code MedianStoppingScheduler} is a {@link TrialScheduler} that stops a trial if its best loss
+ * is worse than the median of the running average losses of the other trials at the same epoch.
+ *
+ * <p>The trials are never stopped during the grace period, and only when at least {@code minTrials}
+ * other trials have trained for as many epochs.
+ */
+public class MedianStoppingScheduler implements TrialScheduler {
+
+    private int gracePeriod;
+    private int minTrials;
+    private Map<Integer, List<Float>> history;
+
+    MedianStoppingScheduler(Builder builder) {
+        gracePeriod = builder.gracePeriod;
+        minTrials = builder.minTrials;
+        history = new HashMap<>();
+    }
+
+    /**
+     * Creates a builder to build a {@code MedianStoppingScheduler}.
+     *
+     * @return a new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public synchronized boolean onResult(int trial, int epoch, float loss) {
+        if (Float.isNaN(loss)) {
+            return false;
+        }
+        List<Float> losses = history.computeIfAbsent(trial, k -> new ArrayList<>());
+        losses.add(loss);
+        if (epoch <= gracePeriod) {
+            return true;
+        }
+
+        List<Float> averages = new ArrayList<>();
+        for (Map.Entry<Integer, List<Float>> entry : history.entrySet()) {
+            List<Float> other = entry.getValue();
+            if (entry.getKey() != trial && other.size() >= epoch) {
+                double sum = 0;
+                for (int i = 0; i < epoch; ++i) {
+                    sum += other.get(i);
+                }
+                averages.add((float) (sum / epoch));
+            }
+        }
+        if (averages.isEmpty() || averages.size() < minTrials) {
+            return true;
+        }
+        Collections.sort(averages);
+        int mid = averages.size() / 2;
+        float median = averages.get(mid);
+        if (averages.size() % 2 == 0) {
+            median = (median + averages.get(mid - 1)) / 2;
+        }
+        return Collections.min(losses) <= median;
+    }
+
+    /** The Builder to construct a {@link MedianStoppingScheduler}. */
+    public static final class Builder {
+
+        int gracePeriod = 1;
+        int minTrials = 3;
+
+        Builder() {}
+
+        /**
+         * Sets the number of epochs in which no trial is stopped, defaults to 1.
+         *
+         * @param gracePeriod the number of epochs in which no trial is stopped
+         * @return this builder
+         */
+        public Builder optGracePeriod(int gracePeriod) {
+            this.gracePeriod = gracePeriod;
+            return this;
+        }
+
+        /**
+         * Sets the minimum number of other trials to compute the median from, defaults to 3.
+         *
+         * @param minTrials the minimum number of other trials to compute the median from
+         * @return this builder
+         */
+        public Builder optMinTrials(int minTrials) {
+            this.minTrials = minTrials;
+            return this;
+        }
+
+        /**
+         * Builds the {@link MedianStoppingScheduler}.
+         *
+         * @return the {@link MedianStoppingScheduler}
+         */
+        public MedianStoppingScheduler build() {
+            if (gracePeriod < 0 || minTrials < 0) {
+                throw new IllegalArgumentException(
+                        "The gracePeriod and minTrials must not be negative");
+            }
+            return new MedianStoppingScheduler(this);
+        }
+    }
+}
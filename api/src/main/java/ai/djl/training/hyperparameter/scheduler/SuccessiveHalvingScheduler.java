@@ -0,0 +1,150 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.training.hyperparameter.scheduler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code SuccessiveHalvingScheduler} is a {@link TrialScheduler} that implements asynchronous
+ * successive halving and Hyperband.
+ *
+ * <p>A trial reaches a rung after {@code minEpochs * reductionFactor^k} epochs. At each rung, a
+ * trial continues only if its loss is among the best {@code 1 / reductionFactor} of the losses that
+ * were reported at the rung so far, so about {@code 1 / reductionFactor} of the trials train to the
+ * next rung. The decision is made as soon as a trial reaches the rung, without waiting for the
+ * other trials, which keeps all workers busy.
+ *
+ * <p>With more than one bracket, this is asynchronous Hyperband. The trials are assigned to the
+ * brackets round robin, and bracket {@code b} has its first rung after {@code minEpochs *
+ * reductionFactor^b} epochs, so the brackets trade off how many configurations are tried against
+ * how long each one is trained before it is judged.
+ */
+public class SuccessiveHalvingScheduler implements TrialScheduler {
+
+    private int minEpochs;
+    private int reductionFactor;
+    private int brackets;
+    private Map<Long, List<Float>> rungs;
+
+    SuccessiveHalvingScheduler(Builder builder) {
+        minEpochs = builder.minEpochs;
+        reductionFactor = builder.reductionFactor;
+        brackets = builder.brackets;
+        rungs = new HashMap<>();
+    }
+
+    /**
+     * Creates a builder to build a {@code SuccessiveHalvingScheduler}.
+     *
+     * @return a new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public synchronized boolean onResult(int trial, int epoch, float loss) {
+        if (Float.isNaN(loss)) {
+            return false;
+        }
+        long grace = minEpochs;
+        for (int i = trial % brackets; i > 0; --i) {
+            grace *= reductionFactor;
+        }
+        if (!isRung(epoch, grace)) {
+            return true;
+        }
+
+        // the losses of a rung are kept sorted
+        long key = (long) (trial % brackets) << 32 | epoch;
+        List<Float> losses = rungs.computeIfAbsent(key, k -> new ArrayList<>());
+        int pos = Collections.binarySearch(losses, loss);
+        losses.add(pos < 0 ? -pos - 1 : pos, loss);
+        int keep = (losses.size() + reductionFactor - 1) / reductionFactor;
+        return loss <= losses.get(keep - 1);
+    }
+
+    private boolean isRung(long epoch, long grace) {
+        if (epoch < grace || epoch % grace != 0) {
+            return false;
+        }
+        long steps = epoch / grace;
+        while (steps % reductionFactor == 0) {
+            steps /= reductionFactor;
+        }
+        return steps == 1;
+    }
+
+    /** The Builder to construct a {@link SuccessiveHalvingScheduler}. */
+    public static final class Builder {
+
+        int minEpochs = 1;
+        int reductionFactor = 3;
+        int brackets = 1;
+
+        Builder() {}
+
+        /**
+         * Sets the number of epochs before the first rung, defaults to 1.
+         *
+         * @param minEpochs the number of epochs before the first rung
+         * @return this builder
+         */
+        public Builder optMinEpochs(int minEpochs) {
+            this.minEpochs = minEpochs;
+            return this;
+        }
+
+        /**
+         * Sets the factor by which the trials are reduced at each rung, defaults to 3.
+         *
+         * @param reductionFactor the factor by which the trials are reduced at each rung
+         * @return this builder
+         */
+        public Builder optReductionFactor(int reductionFactor) {
+            this.reductionFactor = reductionFactor;
+            return this;
+        }
+
+        /**
+         * Sets the number of Hyperband brackets, defaults to 1 for plain successive halving.
+         *
+         * @param brackets the number of brackets
+         * @return this builder
+         */
+        public Builder optBrackets(int brackets) {
+            this.brackets = brackets;
+            return this;
+        }
+
+        /**
+         * Builds the {@link SuccessiveHalvingScheduler}.
+         *
+         * @return the {@link SuccessiveHalvingScheduler}
+         */
+        public SuccessiveHalvingScheduler build() {
+            if (minEpochs <= 0 || brackets <= 0) {
+                throw new IllegalArgumentException("The minEpochs and brackets must be positive");
+            }
+            if (reductionFactor < 2) {
+                throw new IllegalArgumentException("The reductionFactor must be at least 2");
+            }
+            return new SuccessiveHalvingScheduler(this);
+        }
+    }
+}
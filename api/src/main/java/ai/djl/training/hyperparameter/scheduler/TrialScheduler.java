@@ -0,0 +1,34 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.training.hyperparameter.scheduler;
+
+/**
+ * A {@code TrialScheduler} decides whether a hyperparameter trial continues training, based on the
+ * intermediate results of all trials.
+ *
+ * <p>Trials may run concurrently, so the implementations must be thread safe.
+ *
+ * @see TrialSchedulerListener
+ */
+public interface TrialScheduler {
+
+    /**
+     * Reports the loss of a trial after an epoch, and returns whether the trial should continue.
+     *
+     * @param trial the index of the trial
+     * @param epoch the number of epochs the trial has trained, starting from 1
+     * @param loss the <b>validation</b> loss of the trial after the epoch
+     * @return {@code true} to continue the trial, {@code false} to stop it
+     */
+    boolean onResult(int trial, int epoch, float loss);
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.training.hyperparameter.scheduler;
+
+import ai.djl.training.Trainer;
+import ai.djl.training.TrainingResult;
+import ai.djl.training.listener.TrainingListenerAdapter;
+
+/**
+ * {@code TrialSchedulerListener} is a {@link ai.djl.training.listener.TrainingListener} that
+ * reports the result of each epoch of a trial to a {@link TrialScheduler}.
+ *
+ * <p>The validation loss is reported, or the training loss if there is no validation. It is read
+ * from {@link Trainer#getTrainingResult()}, so the listener must be added after the {@link
+ * ai.djl.training.listener.EvaluatorTrainingListener}. The training loop checks {@link
+ * #isStopped()} after each epoch.
+ */
+public class TrialSchedulerListener extends TrainingListenerAdapter {
+
+    private TrialScheduler scheduler;
+    private int trial;
+    private int epoch;
+    private float loss = Float.NaN;
+    private volatile boolean stopped;
+
+    /**
+     * Constructs a {@code TrialSchedulerListener}.
+     *
+     * @param scheduler the scheduler to report to
+     * @param trial the index of the trial
+     */
+    public TrialSchedulerListener(TrialScheduler scheduler, int trial) {
+        this.scheduler = scheduler;
+        this.trial = trial;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void onEpoch(Trainer trainer) {
+        ++epoch;
+        TrainingResult result = trainer.getTrainingResult();
+        Float value = result.getValidateLoss();
+        if (value == null) {
+            value = result.getTrainLoss();
+        }
+        if (value == null || stopped) {
+            return;
+        }
+        loss = value;
+        stopped = !scheduler.onResult(trial, epoch, loss);
+    }
+
+    /**
+     * Returns whether the scheduler stopped the trial.
+     *
+     * @return whether the scheduler stopped the trial
+     */
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * Returns the number of epochs the trial has trained.
+     *
+     * @return the number of epochs the trial has trained
+     */
+    public int getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * Returns the last reported loss, {@code NaN} if no loss was reported.
+     *
+     * @return the last reported loss
+     */
+    public float getLoss() {
+        return loss;
+    }
+}
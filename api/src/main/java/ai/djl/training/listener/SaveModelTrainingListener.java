@@ -12,26 +12,73 @@
  */
 package ai.djl.training.listener;
 
+import ai.djl.BaseModel;
 import ai.djl.Model;
+import ai.djl.repository.zoo.ZooModel;
 import ai.djl.training.Trainer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
-/** A {@link TrainingListener} that saves a model and can save checkpoints. */
+/**
+ * A {@link TrainingListener} that saves a model and can save checkpoints.
+ *
+ * <p>Checkpoints are saved every n epochs, and optionally every n training steps. Step checkpoints
+ * are saved as {@code <modelName>-step-<step>.params}, they can be loaded with the model name
+ * {@code <modelName>-step} and the {@code epoch} option set to the step.
+ *
+ * <p>In asynchronous mode, only the file write is asynchronous: the model is still serialized into
+ * host memory on the training thread, and that copy is written to the file on a background thread.
+ * The file is written to a temporary file first and renamed when it is complete, so a checkpoint
+ * file is never partially written. At most one checkpoint is written at a time, a checkpoint waits
+ * for the previous one to finish.
+ *
+ * <p>Step checkpoints and asynchronous mode require a {@link BaseModel} that does not override
+ * {@link Model#save(Path, String)}. Other models, for example the models of engines that do not
+ * support saving, are saved synchronously with {@link Model#save(Path, String)} for every
+ * checkpoint.
+ */
 public class SaveModelTrainingListener extends TrainingListenerAdapter {
 
     private static final Logger logger = LoggerFactory.getLogger(SaveModelTrainingListener.class);
 
+    private static final String STEP_SUFFIX = "-step";
+
     private String outputDir;
     private String overrideModelName;
     private Consumer<Trainer> onSaveModel;
     private int checkpoint;
     private int epoch;
+    private int stepCheckpoint = -1;
+    private long step;
+    private int maxCheckpoints = -1;
+    private boolean async;
+    private ExecutorService executor;
+    private Future<?> pending;
 
     /**
      * Constructs a {@link SaveModelTrainingListener} using the model's name.
@@ -83,11 +130,29 @@ public class SaveModelTrainingListener extends TrainingListenerAdapter {
         }
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public void onTrainingBatch(Trainer trainer, BatchData batchData) {
+        // the parameters are updated after this batch, they hold the updates of the earlier steps
+        if (stepCheckpoint > 0 && step > 0 && step % stepCheckpoint == 0) {
+            checkpoint(trainer, true);
+        }
+        ++step;
+    }
+
     /** {@inheritDoc} */
     @Override
     public void onTrainingEnd(Trainer trainer) {
-        if (checkpoint == -1 || epoch % checkpoint != 0) {
-            saveModel(trainer);
+        try {
+            if (checkpoint == -1 || epoch % checkpoint != 0) {
+                saveModel(trainer);
+            }
+        } finally {
+            waitForCheckpoint();
+            if (executor != null) {
+                executor.shutdown();
+                executor = null;
+            }
         }
     }
 
@@ -128,6 +193,65 @@ public class SaveModelTrainingListener extends TrainingListenerAdapter {
         this.checkpoint = checkpoint;
     }
 
+    /**
+     * Returns the number of training steps between checkpoints, or -1 for no step checkpoints.
+     *
+     * @return the number of training steps between checkpoints
+     */
+    public int getStepCheckpoint() {
+        return stepCheckpoint;
+    }
+
+    /**
+     * Sets the number of training steps between checkpoints, in addition to the epoch checkpoints.
+     *
+     * @param stepCheckpoint how many training steps between checkpoints (or -1 for no step
+     *     checkpoints)
+     */
+    public void setStepCheckpoint(int stepCheckpoint) {
+        this.stepCheckpoint = stepCheckpoint;
+    }
+
+    /**
+     * Returns the number of epoch and of step checkpoint files that are kept, or -1 to keep all.
+     *
+     * @return the number of checkpoint files that are kept
+     */
+    public int getMaxCheckpoints() {
+        return maxCheckpoints;
+    }
+
+    /**
+     * Sets the number of epoch and of step checkpoint files to keep, older checkpoint files of the
+     * model in the output directory are deleted.
+     *
+     * @param maxCheckpoints the number of checkpoint files to keep (or -1 to keep all)
+     */
+    public void setMaxCheckpoints(int maxCheckpoints) {
+        this.maxCheckpoints = maxCheckpoints;
+    }
+
+    /**
+     * Returns whether checkpoints are written on a background thread.
+     *
+     * @return whether checkpoints are written on a background thread
+     */
+    public boolean isAsync() {
+        return async;
+    }
+
+    /**
+     * Sets whether to write checkpoints on a background thread.
+     *
+     * <p>The model is serialized into memory on the training thread, only the file write happens in
+     * the background.
+     *
+     * @param async whether to write checkpoints on a background thread
+     */
+    public void setAsync(boolean async) {
+        this.async = async;
+    }
+
     /**
      * Sets the callback function on model saving.
      *
@@ -140,19 +264,202 @@ public class SaveModelTrainingListener extends TrainingListenerAdapter {
     }
 
     protected void saveModel(Trainer trainer) {
-        Model model = trainer.getModel();
-        String modelName = model.getName();
+        checkpoint(trainer, false);
+    }
+
+    /** Waits until the checkpoint that is written in the background is complete. */
+    protected void waitForCheckpoint() {
+        if (pending == null) {
+            return;
+        }
+        try {
+            pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            logger.error("Failed to save checkpoint", e.getCause());
+        }
+        pending = null;
+    }
+
+    private String getModelName(Trainer trainer) {
         if (overrideModelName != null) {
-            modelName = overrideModelName;
+            return overrideModelName;
         }
+        return trainer.getModel().getName();
+    }
+
+    private void checkpoint(Trainer trainer, boolean onStep) {
+        Model model = trainer.getModel();
+        String modelName = getModelName(trainer);
+        String prefix = onStep ? modelName + STEP_SUFFIX : modelName;
+        long index = onStep ? step : epoch;
+        Path dir = Paths.get(outputDir);
         try {
             model.setProperty("Epoch", String.valueOf(epoch));
+            if (stepCheckpoint > 0) {
+                model.setProperty("Step", String.valueOf(step));
+            }
             if (onSaveModel != null) {
                 onSaveModel.accept(trainer);
             }
-            model.save(Paths.get(outputDir), modelName);
+            if (model instanceof ZooModel) {
+                model = ((ZooModel<?, ?>) model).getWrappedModel();
+            }
+            if (!isSnapshotSupported(model) || (!async && !onStep)) {
+                model.save(dir, modelName);
+                deleteOldCheckpoints(dir, modelName);
+                return;
+            }
+
+            // bound the memory to one snapshot that is being written
+            waitForCheckpoint();
+            Snapshot snapshot = new Snapshot();
+            ((BaseModel) model).saveParameters(snapshot, modelName);
+            String fileName = String.format(Locale.ROOT, "%s-%04d.params", prefix, index);
+            Path file = dir.resolve(fileName);
+            if (async) {
+                if (executor == null) {
+                    executor =
+                            Executors.newSingleThreadExecutor(
+                                    r -> {
+                                        Thread thread = new Thread(r, "checkpoint-writer");
+                                        thread.setDaemon(true);
+                                        return thread;
+                                    });
+                }
+                pending =
+                        executor.submit(
+                                () -> {
+                                    write(snapshot, file);
+                                    deleteOldCheckpoints(dir, prefix);
+                                    return null;
+                                });
+            } else {
+                write(snapshot, file);
+                deleteOldCheckpoints(dir, prefix);
+            }
         } catch (IOException e) {
             logger.error("Failed to save checkpoint", e);
         }
     }
+
+    // the snapshot writes the same file as BaseModel.save, unless a subclass saves differently
+    private static boolean isSnapshotSupported(Model model) {
+        if (!(model instanceof BaseModel)) {
+            return false;
+        }
+        try {
+            Method save = model.getClass().getMethod("save", Path.class, String.class);
+            return save.getDeclaringClass() == BaseModel.class;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    // writes the snapshot to a temporary file that is renamed when it is complete
+    private static void write(Snapshot snapshot, Path file) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel fc = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                for (ByteBuffer bb : snapshot.getBuffers()) {
+                    while (bb.hasRemaining()) {
+                        fc.write(bb);
+                    }
+                }
+                fc.force(true);
+            }
+            try {
+                Files.move(
+                        tmp,
+                        file,
+                        StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private void deleteOldCheckpoints(Path dir, String prefix) throws IOException {
+        if (maxCheckpoints <= 0) {
+            return;
+        }
+        Pattern pattern = Pattern.compile(Pattern.quote(prefix) + "-(\\d+)\\.params");
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(dir)) {
+            files =
+                    stream.filter(p -> pattern.matcher(p.getFileName().toString()).matches())
+                            .sorted(
+                                    (a, b) ->
+                                            Long.compare(
+                                                    getIndex(pattern, a), getIndex(pattern, b)))
+                            .collect(Collectors.toList());
+        }
+        for (int i = 0; i < files.size() - maxCheckpoints; ++i) {
+            Files.deleteIfExists(files.get(i));
+        }
+    }
+
+    private static long getIndex(Pattern pattern, Path file) {
+        Matcher m = pattern.matcher(file.getFileName().toString());
+        if (!m.matches()) {
+            throw new AssertionError("Unexpected checkpoint file: " + file);
+        }
+        return Long.parseLong(m.group(1));
+    }
+
+    /** An in-memory copy of a model file, kept in chunks to hold models larger than 2GB. */
+    private static final class Snapshot extends OutputStream {
+
+        private static final int CHUNK_SIZE = 1024 * 1024;
+
+        private List<byte[]> chunks = new ArrayList<>();
+        private byte[] current;
+        private int position;
+
+        /** {@inheritDoc} */
+        @Override
+        public void write(int b) {
+            if (current == null || position == current.length) {
+                nextChunk(CHUNK_SIZE);
+            }
+            current[position++] = (byte) b;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void write(byte[] b, int off, int len) {
+            while (len > 0) {
+                if (current == null || position == current.length) {
+                    nextChunk(Math.max(CHUNK_SIZE, len));
+                }
+                int n = Math.min(len, current.length - position);
+                System.arraycopy(b, off, current, position, n);
+                position += n;
+                off += n;
+                len -= n;
+            }
+        }
+
+        List<ByteBuffer> getBuffers() {
+            List<ByteBuffer> buffers = new ArrayList<>(chunks.size());
+            for (int i = 0; i < chunks.size(); ++i) {
+                byte[] chunk = chunks.get(i);
+                int length = i == chunks.size() - 1 ? position : chunk.length;
+                buffers.add(ByteBuffer.wrap(chunk, 0, length));
+            }
+            return buffers;
+        }
+
+        private void nextChunk(int size) {
+            current = new byte[size];
+            position = 0;
+            chunks.add(current);
+        }
+    }
 }
@@ -137,6 +137,40 @@ public class Pipeline {
         return this;
     }
 
+    /**
+     * Returns the {@link Transform} at the given position if it is applied to the first element of
+     * the input.
+     *
+     * @param position the position of the {@link Transform}
+     * @return the {@link Transform}, or {@code null} if there is none at the position or it is
+     *     applied to another element of the input
+     */
+    public Transform getTransform(int position) {
+        if (position >= transforms.size()) {
+            return null;
+        }
+        IndexKey key = transforms.keyAt(position);
+        if (key.key != null || key.index != 0) {
+            return null;
+        }
+        return transforms.valueAt(position);
+    }
+
+    /**
+     * Returns a new {@code Pipeline} with the transforms of this {@code Pipeline} except the first
+     * {@code count} ones.
+     *
+     * @param count the number of transforms to skip
+     * @return a new {@code Pipeline}
+     */
+    public Pipeline skip(int count) {
+        Pipeline pipeline = new Pipeline();
+        for (int i = count; i < transforms.size(); ++i) {
+            pipeline.transforms.add(transforms.keyAt(i), transforms.valueAt(i));
+        }
+        return pipeline;
+    }
+
     /**
      * Applies the transforms configured in this object on the input {@link NDList}.
      *
@@ -17,7 +17,14 @@ import ai.djl.modality.Output;
 
 import java.util.Map;
 
-/** A {@link Translator} that can handle generic {@link Input} and {@link Output}. */
+/**
+ * A {@link Translator} that can handle generic {@link Input} and {@link Output}.
+ *
+ * <p>The content of the {@link Input} may be backed by a stream, see {@link
+ * ai.djl.ndarray.BytesSupplier#getAsChannel()} to read it without buffering. A translator that
+ * produces its output incrementally can return an {@link Output} with a {@link
+ * ai.djl.inference.streaming.ChunkedBytesSupplier} and append to it afterwards.
+ */
 public interface ServingTranslator extends Translator<Input, Output> {
 
     /**
@@ -35,6 +35,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Scanner;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -44,8 +45,24 @@ public final class Utils {
 
     private static final Logger logger = LoggerFactory.getLogger(Utils.class);
 
+    private static final AtomicLong UID_COUNTER = new AtomicLong();
+
     private Utils() {}
 
+    /**
+     * Returns a new identifier that is unique within this JVM.
+     *
+     * <p>The identifiers are taken from a counter, which is much cheaper than {@link
+     * java.util.UUID#randomUUID()} for resources that are created often, like {@link NDArray}s and
+     * {@link ai.djl.ndarray.NDManager}s. They always contain a non-digit character, so they never
+     * equal the native handles that are used as the identifiers of other resources.
+     *
+     * @return a new identifier that is unique within this JVM
+     */
+    public static String nextUid() {
+        return "uid-" + Long.toHexString(UID_COUNTER.incrementAndGet());
+    }
+
     /**
      * Returns the index of the first occurrence of the specified element in {@code array}, or -1 if
      * this list does not contain the element.
@@ -19,7 +19,15 @@ import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
 
@@ -58,6 +66,77 @@ public final class ZipUtils {
         }
     }
 
+    /**
+     * Unzips a zip file to a given path, extracting the entries in parallel.
+     *
+     * <p>Unlike {@link #unzip(InputStream, Path)}, the zip file is read through its central
+     * directory, so the entries can be inflated by several threads at once.
+     *
+     * @param zipFile the zip file to unzip
+     * @param dest the path to store the unzipped files
+     * @param parallelism the maximum number of entries to extract at the same time
+     * @throws IOException for failures to unzip the file and create files in the dest path
+     */
+    public static void unzip(Path zipFile, Path dest, int parallelism) throws IOException {
+        try (ZipFile zip = new ZipFile(zipFile.toFile())) {
+            List<ZipEntry> entries = new ArrayList<>();
+            Enumeration<? extends ZipEntry> en = zip.entries();
+            while (en.hasMoreElements()) {
+                ZipEntry entry = en.nextElement();
+                String name = entry.getName();
+                if (name.contains("..")) {
+                    throw new IOException("Malicious zip entry: " + name);
+                }
+                Path file = dest.resolve(name).toAbsolutePath();
+                if (entry.isDirectory()) {
+                    Files.createDirectories(file);
+                } else {
+                    Path parentFile = file.getParent();
+                    if (parentFile == null) {
+                        throw new AssertionError("Parent path should never be null: " + file);
+                    }
+                    Files.createDirectories(parentFile);
+                    entries.add(entry);
+                }
+            }
+
+            int threads = Math.min(parallelism, entries.size());
+            if (threads <= 1) {
+                for (ZipEntry entry : entries) {
+                    extract(zip, entry, dest);
+                }
+                return;
+            }
+
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                List<Future<?>> futures = new ArrayList<>(entries.size());
+                for (ZipEntry entry : entries) {
+                    futures.add(
+                            executor.submit(
+                                    () -> {
+                                        extract(zip, entry, dest);
+                                        return null;
+                                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while unzipping: " + zipFile, e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+                throw new IOException("Failed to unzip: " + zipFile, cause);
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
     /**
      * Zips an input directory to a given file.
      *
@@ -77,6 +156,13 @@ public final class ZipUtils {
         }
     }
 
+    private static void extract(ZipFile zip, ZipEntry entry, Path dest) throws IOException {
+        Path file = dest.resolve(entry.getName()).toAbsolutePath();
+        try (InputStream is = zip.getInputStream(entry)) {
+            Files.copy(is, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
     private static void addToZip(Path root, Path file, ZipOutputStream zos) throws IOException {
         Path relative = root.relativize(file);
         String name = relative.toString();
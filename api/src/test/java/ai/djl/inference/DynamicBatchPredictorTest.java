@@ -0,0 +1,168 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.inference;
+
+import ai.djl.Model;
+import ai.djl.metric.Metrics;
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.DataType;
+import ai.djl.ndarray.types.Shape;
+import ai.djl.nn.Block;
+import ai.djl.nn.Blocks;
+import ai.djl.nn.LambdaBlock;
+import ai.djl.translate.NoopTranslator;
+import ai.djl.translate.StackBatchifier;
+import ai.djl.translate.TranslateException;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class DynamicBatchPredictorTest {
+
+    @Test
+    public void testDynamicBatching() throws ExecutionException, InterruptedException {
+        try (Model model = Model.newInstance("identity");
+                NDManager manager = NDManager.newBaseManager()) {
+            Block block = Blocks.identityBlock();
+            block.initialize(manager, DataType.FLOAT32, new Shape(1));
+            model.setBlock(block);
+
+            Metrics metrics = new Metrics();
+            Predictor<NDList, NDList> base =
+                    model.newPredictor(new NoopTranslator(new StackBatchifier()));
+            try (DynamicBatchPredictor<NDList, NDList> predictor =
+                    DynamicBatchPredictor.builder(base)
+                            .optMaxBatchSize(4)
+                            .optMaxBatchDelay(1000)
+                            .optMetrics(metrics)
+                            .build()) {
+                List<CompletableFuture<NDList>> futures = new ArrayList<>();
+                for (int i = 0; i < 8; ++i) {
+                    NDArray array = manager.create(new float[] {i});
+                    futures.add(predictor.predictAsync(new NDList(array)));
+                }
+                for (int i = 0; i < 8; ++i) {
+                    float[] result = futures.get(i).get().head().toFloatArray();
+                    Assert.assertEquals(result, new float[] {i});
+                }
+                Assert.assertEquals(metrics.getMetric("BatchSize").size(), 2);
+                Assert.assertEquals(metrics.latestMetric("BatchSize").getValue().intValue(), 4);
+            }
+        }
+    }
+
+    @Test
+    public void testBackpressure() {
+        try (Model model = Model.newInstance("identity");
+                NDManager manager = NDManager.newBaseManager()) {
+            model.setBlock(Blocks.identityBlock());
+            Predictor<NDList, NDList> base =
+                    model.newPredictor(new NoopTranslator(new StackBatchifier()));
+            DynamicBatchPredictor<NDList, NDList> predictor =
+                    DynamicBatchPredictor.builder(base).optMaxQueueSize(1).build();
+            predictor.close();
+            NDList input = new NDList(manager.create(new float[] {1f}));
+            Assert.assertTrue(predictor.predictAsync(input).isCompletedExceptionally());
+            Assert.assertThrows(TranslateException.class, () -> predictor.predict(input));
+        }
+    }
+
+    @Test
+    public void testFullQueue() throws ExecutionException, InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try (Model model = Model.newInstance("identity");
+                NDManager manager = NDManager.newBaseManager()) {
+            model.setBlock(
+                    new LambdaBlock(
+                            list -> {
+                                started.countDown();
+                                try {
+                                    release.await();
+                                } catch (InterruptedException e) {
+                                    Thread.currentThread().interrupt();
+                                }
+                                return list;
+                            }));
+            Predictor<NDList, NDList> base =
+                    model.newPredictor(new NoopTranslator(new StackBatchifier()));
+            try (DynamicBatchPredictor<NDList, NDList> predictor =
+                    DynamicBatchPredictor.builder(base)
+                            .optMaxBatchSize(1)
+                            .optMaxQueueSize(1)
+                            .optQueueTimeout(100)
+                            .build()) {
+                NDList input = new NDList(manager.create(new float[] {1f}));
+                // the first request blocks the worker, the second one fills the queue
+                CompletableFuture<NDList> first = predictor.predictAsync(input);
+                Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+                CompletableFuture<NDList> second = predictor.predictAsync(input);
+                Assert.assertEquals(predictor.getQueueLength(), 1);
+
+                long begin = System.nanoTime();
+                CompletableFuture<NDList> rejected = predictor.predictAsync(input);
+                long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin);
+                Assert.assertTrue(rejected.isCompletedExceptionally());
+                Assert.assertTrue(elapsed >= 90, "waited " + elapsed + " ms");
+
+                release.countDown();
+                Assert.assertEquals(first.get().head().toFloatArray(), new float[] {1f});
+                Assert.assertEquals(second.get().head().toFloatArray(), new float[] {1f});
+            }
+        }
+    }
+
+    @Test
+    public void testUncheckedFailure() throws ExecutionException, InterruptedException {
+        try (Model model = Model.newInstance("identity");
+                NDManager manager = NDManager.newBaseManager()) {
+            model.setBlock(Blocks.identityBlock());
+            AtomicBoolean failed = new AtomicBoolean();
+            Predictor<NDList, NDList> base =
+                    new Predictor<NDList, NDList>(
+                            model,
+                            new NoopTranslator(new StackBatchifier()),
+                            manager.getDevice(),
+                            false) {
+
+                        /** {@inheritDoc} */
+                        @Override
+                        public List<NDList> batchPredict(List<NDList> inputs)
+                                throws TranslateException {
+                            if (failed.compareAndSet(false, true)) {
+                                throw new IllegalStateException("failure");
+                            }
+                            return super.batchPredict(inputs);
+                        }
+                    };
+            try (DynamicBatchPredictor<NDList, NDList> predictor =
+                    DynamicBatchPredictor.builder(base).optMaxBatchSize(1).build()) {
+                NDList input = new NDList(manager.create(new float[] {1f}));
+                Assert.assertThrows(TranslateException.class, () -> predictor.predict(input));
+                // the worker is still running
+                NDList output = predictor.predictAsync(input).get();
+                Assert.assertEquals(output.head().toFloatArray(), new float[] {1f});
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.inference;
+
+import ai.djl.Model;
+import ai.djl.metric.Metrics;
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
+import ai.djl.nn.Blocks;
+import ai.djl.translate.NoopTranslator;
+import ai.djl.translate.StackBatchifier;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+public class PredictorTest {
+
+    @Test
+    public void testPipelinedPredict() throws ExecutionException, InterruptedException {
+        try (Model model = Model.newInstance("identity");
+                NDManager manager = NDManager.newBaseManager()) {
+            model.setBlock(Blocks.identityBlock());
+            Metrics metrics = new Metrics();
+            Predictor<NDList, NDList> closed;
+            try (Predictor<NDList, NDList> predictor =
+                    model.newPredictor(new NoopTranslator(new StackBatchifier()))) {
+                closed = predictor;
+                predictor.setMetrics(metrics);
+                predictor.enablePipeline(2, 2, 4);
+                List<CompletableFuture<NDList>> futures = new ArrayList<>();
+                for (int i = 0; i < 16; ++i) {
+                    NDList input = new NDList(manager.create(new float[] {i}));
+                    futures.add(predictor.predictAsync(input));
+                }
+                for (int i = 0; i < 16; ++i) {
+                    float[] result = futures.get(i).get().head().toFloatArray();
+                    Assert.assertEquals(result, new float[] {i});
+                }
+                Assert.assertThrows(
+                        IllegalStateException.class, () -> predictor.enablePipeline(1, 1, 1));
+            }
+            Assert.assertEquals(metrics.getMetric("Preprocess").size(), 16);
+            Assert.assertEquals(metrics.getMetric("Inference").size(), 16);
+            Assert.assertEquals(metrics.getMetric("Postprocess").size(), 16);
+
+            // a closed predictor no longer submits to the pipeline executors
+            NDList input = new NDList(manager.create(new float[] {0}));
+            CompletableFuture<NDList> future = closed.predictAsync(input);
+            Assert.assertTrue(future.isCompletedExceptionally());
+            ExecutionException e = Assert.expectThrows(ExecutionException.class, future::get);
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+
+            // without the pipelined mode, the prediction runs on the calling thread
+            try (Predictor<NDList, NDList> predictor =
+                    model.newPredictor(new NoopTranslator(new StackBatchifier()))) {
+                input = new NDList(manager.create(new float[] {1}));
+                future = predictor.predictAsync(input);
+                Assert.assertTrue(future.isDone());
+                Assert.assertEquals(future.get().head().toFloatArray(), new float[] {1});
+
+                // a failure of the prediction fails the future instead of being thrown
+                future = predictor.predictAsync(null);
+                Assert.assertTrue(future.isCompletedExceptionally());
+            }
+        }
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.inference;
+
+import ai.djl.MalformedModelException;
+import ai.djl.Model;
+import ai.djl.metric.Metrics;
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.DataType;
+import ai.djl.ndarray.types.Shape;
+import ai.djl.nn.Block;
+import ai.djl.nn.Blocks;
+import ai.djl.nn.LambdaBlock;
+import ai.djl.repository.zoo.Criteria;
+import ai.djl.repository.zoo.ModelNotFoundException;
+import ai.djl.repository.zoo.ZooModel;
+import ai.djl.translate.NoopTranslator;
+import ai.djl.translate.TranslateException;
+import ai.djl.util.Utils;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntToLongFunction;
+
+public class WarmupTest {
+
+    @AfterClass
+    public void tierDown() {
+        Utils.deleteQuietly(Paths.get("build/warmup"));
+    }
+
+    @Test
+    public void testWarmup() throws TranslateException {
+        List<Shape> shapes = Collections.synchronizedList(new ArrayList<>());
+        // the first calls are slow like the first calls of an engine
+        Block block = sleepingBlock(shapes, i -> i < 4 ? 30 : 2);
+        Metrics metrics = new Metrics();
+        Warmup warmup =
+                Warmup.builder()
+                        .addInputShape(new Shape(-1, 3))
+                        .addInputShape(new Shape(1, -1, 2))
+                        .optBatchSizes(1, 4)
+                        .optThreshold(0.5f)
+                        .optMetrics(metrics)
+                        .build();
+        try (Model model = Model.newInstance("warmup")) {
+            model.setBlock(block);
+            Warmup.Result result = warmup.run(model);
+            Assert.assertTrue(result.isStable());
+            Assert.assertEquals(model.getProperty(Warmup.READY_PROPERTY), "true");
+
+            List<Warmup.Run> runs = result.getRuns();
+            Assert.assertEquals(runs.size(), 2);
+            Assert.assertEquals(runs.get(0).getBatchSize(), 1);
+            Assert.assertEquals(runs.get(1).getBatchSize(), 4);
+            int iterations = runs.get(0).getLatencies().length + runs.get(1).getLatencies().length;
+            Assert.assertTrue(runs.get(0).getLatencies().length >= 6);
+            Assert.assertEquals(metrics.getMetric("WarmupLatency").size(), iterations);
+            Assert.assertEquals(shapes.size(), iterations * 2);
+            Assert.assertEquals(shapes.get(0), new Shape(1, 3));
+            Assert.assertEquals(shapes.get(1), new Shape(1, 1, 2));
+            Assert.assertEquals(shapes.get(shapes.size() - 1), new Shape(4, 1, 2));
+        }
+    }
+
+    @Test
+    public void testDescribedInput() throws TranslateException {
+        List<Shape> shapes = Collections.synchronizedList(new ArrayList<>());
+        Block block = sleepingBlock(shapes, i -> 0);
+        try (NDManager manager = NDManager.newBaseManager();
+                Model model = Model.newInstance("warmup")) {
+            block.initialize(manager, DataType.FLOAT32, new Shape(-1, 3, -1));
+            model.setBlock(block);
+            Warmup.builder().optBatchSizes(2).optThreshold(1).build().run(model);
+            Assert.assertEquals(shapes.get(0), new Shape(2, 3, 1));
+            // the input shapes of the block are not changed
+            Assert.assertEquals(block.describeInput().get(0).getValue(), new Shape(-1, 3, -1));
+        }
+    }
+
+    @Test
+    public void testUnstable() throws TranslateException {
+        // alternating latencies never stabilize
+        Block block = sleepingBlock(new ArrayList<>(), i -> i % 2 == 0 ? 1 : 20);
+        Warmup warmup = Warmup.builder().addInputShape(new Shape(1)).optMaxIterations(10).build();
+        try (Model model = Model.newInstance("warmup")) {
+            model.setBlock(block);
+            Warmup.Result result = warmup.run(model);
+            Assert.assertFalse(result.isStable());
+            Assert.assertEquals(result.getRuns().get(0).getLatencies().length, 10);
+            Assert.assertEquals(model.getProperty(Warmup.READY_PROPERTY), "false");
+
+            // the model can be served without a stable latency
+            Warmup.builder()
+                    .addInputShape(new Shape(1))
+                    .optMaxIterations(10)
+                    .optRequireStable(false)
+                    .build()
+                    .run(model);
+            Assert.assertEquals(model.getProperty(Warmup.READY_PROPERTY), "true");
+
+            // the block cannot describe its input without shapes
+            Warmup described = Warmup.builder().build();
+            Assert.assertThrows(IllegalArgumentException.class, () -> described.run(model));
+        }
+    }
+
+    @Test
+    public void testCriteria()
+            throws IOException, ModelNotFoundException, MalformedModelException,
+                    TranslateException {
+        Path path = Paths.get("build/warmup");
+        Files.createDirectories(path);
+        try (NDManager manager = NDManager.newBaseManager();
+                Model model = Model.newInstance("identity")) {
+            Block block = Blocks.identityBlock();
+            block.initialize(manager, DataType.FLOAT32, new Shape(1));
+            model.setBlock(block);
+            model.save(path, null);
+        }
+
+        Metrics metrics = new Metrics();
+        Criteria<NDList, NDList> criteria =
+                Criteria.builder()
+                        .setTypes(NDList.class, NDList.class)
+                        .optModelPath(path)
+                        .optModelName("identity")
+                        .optBlock(sleepingBlock(new ArrayList<>(), i -> i < 2 ? 20 : 1))
+                        .optTranslator(new NoopTranslator())
+                        .optWarmup(
+                                Warmup.builder()
+                                        .addInputShape(new Shape(1, 2))
+                                        .optThreshold(1)
+                                        .optMetrics(metrics)
+                                        .build())
+                        .build();
+        Assert.assertNotNull(criteria.toBuilder().build().getWarmup());
+        try (ZooModel<NDList, NDList> model = criteria.loadModel()) {
+            Assert.assertEquals(model.getProperty(Warmup.READY_PROPERTY), "true");
+            Assert.assertTrue(metrics.getMetric("WarmupLatency").size() >= 6);
+        }
+    }
+
+    private static Block sleepingBlock(List<Shape> shapes, IntToLongFunction sleep) {
+        AtomicInteger calls = new AtomicInteger();
+        return new LambdaBlock(
+                list -> {
+                    for (int i = 0; i < list.size(); ++i) {
+                        shapes.add(list.get(i).getShape());
+                    }
+                    try {
+                        Thread.sleep(sleep.applyAsLong(calls.getAndIncrement()));
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return list;
+                });
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.metric;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class StreamingMetricsTest {
+
+    @Test
+    public void testStreamingMetrics() {
+        Metrics metrics = new StreamingMetrics(2, 60_000, 6);
+        metrics.addMetric(new Metric("m1", 1L));
+        metrics.addMetric("m1", 3L, Unit.COUNT);
+        metrics.addMetric("m1", 2L);
+        Assert.assertEquals(metrics.percentile("m1", 50).getValue().longValue(), 2L);
+        Assert.assertEquals(metrics.percentile("m1", 99).getValue().longValue(), 3L);
+        Assert.assertEquals(metrics.mean("m1"), 2d);
+        Assert.assertEquals(metrics.latestMetric("m1").getValue().longValue(), 2L);
+        Assert.assertTrue(metrics.hasMetric("m1"));
+        Assert.assertEquals(metrics.getMetricNames().size(), 1);
+
+        List<Metric> list = metrics.getMetric("m1");
+        Assert.assertEquals(list.size(), 2);
+        Assert.assertEquals(list.get(0).getValue().longValue(), 3L);
+        Assert.assertEquals(metrics.getMetric("m2").size(), 0);
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> metrics.latestMetric("none"));
+        Assert.assertThrows(IllegalArgumentException.class, () -> metrics.percentile("none", 1));
+        Assert.assertThrows(IllegalArgumentException.class, () -> metrics.mean("none"));
+    }
+
+    @Test
+    public void testHistogram() {
+        Histogram histogram = new Histogram();
+        Assert.assertTrue(Double.isNaN(histogram.percentile(50)));
+        for (int i = 1; i <= 10000; ++i) {
+            histogram.record(i * 1.5);
+        }
+        histogram.record(-2.5);
+        histogram.record(0);
+        Assert.assertEquals(histogram.getCount(), 10002);
+        Assert.assertEquals(histogram.getMin(), -2.5);
+        Assert.assertEquals(histogram.getMax(), 15000d);
+        Assert.assertEquals(histogram.percentile(0), -2.5);
+        Assert.assertEquals(histogram.percentile(100), 15000d);
+        Assert.assertEquals(histogram.percentile(50), 7500d, 7500 * 0.01);
+        Assert.assertEquals(histogram.percentile(99), 14850d, 14850 * 0.01);
+
+        Histogram merged = new Histogram();
+        merged.add(histogram);
+        merged.add(histogram);
+        Assert.assertEquals(merged.getCount(), 20004);
+        Assert.assertEquals(merged.getMean(), histogram.getMean(), 1e-9);
+
+        histogram.reset();
+        Assert.assertEquals(histogram.getCount(), 0);
+        Assert.assertTrue(Double.isNaN(histogram.getMean()));
+    }
+
+    @Test
+    public void testRollingWindow() {
+        AtomicLong now = new AtomicLong(1000);
+        StreamingMetrics metrics = new StreamingMetrics(10, 100, 2, now::get);
+        metrics.addMetric("latency", 10, Unit.MILLISECONDS);
+        Assert.assertEquals(metrics.rollingMean("latency"), 10d);
+        Assert.assertEquals(metrics.rollingPercentile("latency", 90).getUnit(), Unit.MILLISECONDS);
+        now.addAndGet(50);
+        Assert.assertEquals(metrics.rollingMean("latency"), 10d);
+        now.addAndGet(200);
+        Assert.assertTrue(Double.isNaN(metrics.rollingMean("latency")));
+        metrics.addMetric("latency", 20, Unit.MILLISECONDS);
+        Assert.assertEquals(metrics.rollingMean("latency"), 20d);
+        Assert.assertEquals(metrics.mean("latency"), 15d);
+    }
+}
@@ -12,6 +12,7 @@
  */
 package ai.djl.modality;
 
+import ai.djl.inference.streaming.ChunkedBytesSupplier;
 import ai.djl.ndarray.BytesSupplier;
 import ai.djl.ndarray.NDArray;
 import ai.djl.ndarray.NDList;
@@ -21,7 +22,12 @@ import ai.djl.ndarray.types.Shape;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
 import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
 
 public class InputOutputTest {
 
@@ -73,4 +79,83 @@ public class InputOutputTest {
             Assert.assertEquals(ndlist.size(), 1);
         }
     }
+
+    @Test
+    public void testStreamInput() {
+        try (NDManager manager = NDManager.newBaseManager()) {
+            NDList list = new NDList(manager.arange(6f).reshape(2, 3), manager.ones(new Shape(4)));
+            Input input = new Input();
+            input.add("data", new ByteArrayInputStream(list.encode()));
+            input.add("text", new ByteArrayInputStream("text".getBytes(StandardCharsets.UTF_8)));
+
+            NDList decoded = input.getDataAsNDList(manager);
+            Assert.assertEquals(decoded.size(), 2);
+            Assert.assertEquals(decoded.get(0), list.get(0));
+            Assert.assertEquals(decoded.get(1), list.get(1));
+            // the content that is consumed by decoding can be read again
+            decoded = input.getDataAsNDList(manager);
+            Assert.assertEquals(decoded.get(0), list.get(0));
+            Assert.assertEquals(input.getAsBytes("data"), list.encode());
+
+            Assert.assertEquals(input.getAsString("text"), "text");
+            Assert.assertEquals(input.getAsString("text"), "text");
+            decoded = NDList.decode(manager, BytesSupplier.wrap(list.encode()).getAsChannel());
+            Assert.assertEquals(decoded.get(0), list.get(0));
+        }
+    }
+
+    @Test
+    public void testChunkedOutput() throws InterruptedException, IOException {
+        ChunkedBytesSupplier cs = new ChunkedBytesSupplier();
+        Output output = new Output();
+        output.add(cs);
+        Assert.assertTrue(cs.hasNext());
+        Assert.assertNull(cs.pollChunk());
+        Assert.assertNull(cs.nextChunk(1, TimeUnit.MILLISECONDS));
+
+        Thread producer =
+                new Thread(
+                        () -> {
+                            for (int i = 0; i < 10; ++i) {
+                                cs.appendContent(String.valueOf(i), i == 9);
+                            }
+                        });
+        producer.start();
+        StringBuilder sb = new StringBuilder();
+        while (cs.hasNext()) {
+            BytesSupplier chunk = cs.nextChunk(1, TimeUnit.MINUTES);
+            if (chunk != null) {
+                sb.append(chunk.getAsString());
+            }
+        }
+        producer.join();
+        Assert.assertEquals(sb.toString(), "0123456789");
+        Assert.assertThrows(IllegalStateException.class, () -> cs.appendContent("a", true));
+
+        ChunkedBytesSupplier stream = new ChunkedBytesSupplier();
+        stream.appendContent("chunked ", false);
+        stream.appendContent("content".getBytes(StandardCharsets.UTF_8), true);
+        try (InputStream is = Channels.newInputStream(stream.getAsChannel())) {
+            byte[] buf = new byte[64];
+            int size = 0;
+            int read;
+            while ((read = is.read(buf, size, buf.length - size)) > 0) {
+                size += read;
+            }
+            Assert.assertEquals(
+                    new String(buf, 0, size, StandardCharsets.UTF_8), "chunked content");
+        }
+
+        ChunkedBytesSupplier complete = new ChunkedBytesSupplier();
+        complete.appendContent("a", false);
+        complete.appendContent("b", true);
+        Assert.assertEquals(complete.getAsString(), "ab");
+        Assert.assertFalse(complete.hasNext());
+        // the channel reads the content that getAsBytes consumed
+        try (InputStream is = Channels.newInputStream(complete.getAsChannel())) {
+            byte[] buf = new byte[4];
+            Assert.assertEquals(is.read(buf), 2);
+            Assert.assertEquals(new String(buf, 0, 2, StandardCharsets.UTF_8), "ab");
+        }
+    }
 }
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.modality.nlp.bert;
+
+import ai.djl.modality.nlp.DefaultVocabulary;
+import ai.djl.modality.nlp.Vocabulary;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class BertFullTokenizerTest {
+
+    private static final Vocabulary VOCABULARY =
+            DefaultVocabulary.builder()
+                    .add(
+                            Arrays.asList(
+                                    "[PAD]", "[UNK]", "[CLS]", "[SEP]", "un", "##aff", "##able",
+                                    "the", "cafe", "caf", "##e", "is", "open", "?", ",", ".", "a",
+                                    "##b", "##bc", "ab", "ma", "##n", "##ana", "##a", "b"))
+                    .optUnknownToken("[UNK]")
+                    .build();
+
+    @Test
+    public void testWordpiece() {
+        WordpieceTokenizer tokenizer = new WordpieceTokenizer(VOCABULARY, "[UNK]", 9);
+        Assert.assertEquals(
+                tokenizer.tokenize("unaffable abc manana xyz abbc abbbbbbbbb"),
+                Arrays.asList(
+                        "un", "##aff", "##able", "[UNK]", "ma", "##n", "##ana", "[UNK]", "ab",
+                        "##bc", "[UNK]"));
+    }
+
+    @Test
+    public void testEncode() {
+        BertFullTokenizer tokenizer = new BertFullTokenizer(VOCABULARY, true);
+        String question = "Is the Café\tOPEN?";
+        String paragraph = "Unaffable, the\u0000 cafe is open. xyz";
+
+        BertToken expected = tokenizer.encode(question, paragraph, 32);
+        BertEncoding encoding = tokenizer.encode(question, paragraph, 32, null);
+        Assert.assertEquals(encoding.getBatchSize(), 1);
+        Assert.assertEquals(encoding.getSequenceLength(), 32);
+        Assert.assertEquals(encoding.getValidLength(0), expected.getValidLength() + 3);
+        assertEncoding(encoding, 0, expected);
+
+        // offsets point to the characters of the inputs
+        Assert.assertEquals(encoding.getIds()[3], VOCABULARY.getIndex("cafe"));
+        int[] offsets = encoding.getOffsets();
+        Assert.assertEquals(Arrays.copyOfRange(offsets, 6, 8), new int[] {7, 11});
+        Assert.assertEquals(Arrays.copyOfRange(offsets, 14, 18), new int[] {0, 2, 2, 5});
+    }
+
+    @Test
+    public void testBatchEncode() {
+        BertFullTokenizer tokenizer = new BertFullTokenizer(VOCABULARY, true);
+        List<String> sentences = Arrays.asList("the cafe is open.", "manana", "Ab, b?");
+        BertEncoding encoding = new BertEncoding();
+        for (int maxLength : new int[] {0, 12}) {
+            tokenizer.encode(sentences, maxLength, encoding);
+            Assert.assertEquals(encoding.getBatchSize(), 3);
+            Assert.assertEquals(encoding.getSequenceLength(), Math.max(maxLength, 7));
+            for (int i = 0; i < sentences.size(); ++i) {
+                List<String> tokens = tokenizer.tokenize(sentences.get(i));
+                tokens.add(0, "[CLS]");
+                tokens.add("[SEP]");
+                Assert.assertEquals(encoding.getValidLength(i), tokens.size());
+                BertToken expected =
+                        new BertToken(
+                                tokenizer.pad(tokens, "[PAD]", encoding.getSequenceLength()),
+                                null,
+                                null,
+                                0);
+                assertEncoding(encoding, i, expected);
+            }
+        }
+    }
+
+    private static void assertEncoding(BertEncoding encoding, int row, BertToken expected) {
+        int length = encoding.getSequenceLength();
+        List<String> tokens = expected.getTokens();
+        Assert.assertEquals(tokens.size(), length);
+        for (int i = 0; i < length; ++i) {
+            int pos = row * length + i;
+            Assert.assertEquals(encoding.getIds()[pos], VOCABULARY.getIndex(tokens.get(i)));
+            if (expected.getTokenTypes() != null) {
+                long type = expected.getTokenTypes().get(i);
+                long mask = expected.getAttentionMask().get(i);
+                Assert.assertEquals(encoding.getTypeIds()[pos], type);
+                Assert.assertEquals(encoding.getAttentionMask()[pos], mask);
+            }
+        }
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.modality.rl;
+
+import ai.djl.modality.rl.PrioritizedReplayBuffer.ReplayBatch;
+import ai.djl.modality.rl.PrioritizedReplayBuffer.ReplayStep;
+import ai.djl.modality.rl.env.RlEnv.Step;
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.Shape;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class PrioritizedReplayBufferTest {
+
+    @Test
+    public void testSumTree() {
+        SumTree tree = new SumTree(5);
+        tree.set(0, 1);
+        tree.set(2, 2);
+        tree.set(4, 3);
+        Assert.assertEquals(tree.total(), 6.0);
+        Assert.assertEquals(tree.find(0), 0);
+        Assert.assertEquals(tree.find(0.99), 0);
+        Assert.assertEquals(tree.find(1), 2);
+        Assert.assertEquals(tree.find(2.99), 2);
+        Assert.assertEquals(tree.find(3), 4);
+        Assert.assertEquals(tree.find(6), 4);
+        tree.set(4, 0);
+        Assert.assertEquals(tree.total(), 3.0);
+        Assert.assertEquals(tree.find(3), 2);
+    }
+
+    @Test
+    public void testGetBatch() {
+        try (NDManager manager = NDManager.newBaseManager()) {
+            PrioritizedReplayBuffer buffer =
+                    PrioritizedReplayBuffer.builder()
+                            .setCapacity(8)
+                            .setBatchSize(4)
+                            .setManager(manager)
+                            .optAlpha(1)
+                            .build();
+            Assert.assertThrows(IllegalStateException.class, () -> buffer.getBatch(manager));
+            for (int i = 0; i < 10; ++i) {
+                try (TestStep step = new TestStep(manager, i)) {
+                    buffer.addStep(step);
+                }
+            }
+            Assert.assertEquals(buffer.size(), 8);
+
+            ReplayBatch batch = buffer.getBatch(manager);
+            Assert.assertEquals(batch.getPreObservations().head().getShape(), new Shape(4, 2));
+            Assert.assertEquals(batch.getActions().head().getShape(), new Shape(4));
+            Assert.assertEquals(batch.getPostObservations().head().getShape(), new Shape(4, 2));
+            Assert.assertEquals(batch.getRewards().getShape(), new Shape(4));
+            Assert.assertEquals(batch.getWeights().toFloatArray(), new float[] {1, 1, 1, 1});
+            assertConsistent(batch);
+            // the first two steps were overwritten
+            for (long action : batch.getActions().head().toLongArray()) {
+                Assert.assertTrue(action >= 2);
+            }
+
+            // a large TD error makes the step much more likely to be sampled
+            long target = batch.getActions().head().toLongArray()[0];
+            buffer.updatePriorities(batch, new float[] {100, 0, 0, 0});
+            int count = 0;
+            for (int i = 0; i < 20; ++i) {
+                batch = buffer.getBatch(manager);
+                long[] actions = batch.getActions().head().toLongArray();
+                float[] weights = batch.getWeights().toFloatArray();
+                for (int j = 0; j < actions.length; ++j) {
+                    if (actions[j] == target) {
+                        ++count;
+                        Assert.assertTrue(weights[j] <= 1);
+                    }
+                }
+            }
+            Assert.assertTrue(count > 40, "sampled " + count + " of 80");
+
+            Step[] steps = buffer.getBatch();
+            Assert.assertEquals(steps.length, 4);
+            for (Step step : steps) {
+                long action = step.getAction().singletonOrThrow().getLong();
+                Assert.assertEquals(step.getPreObservation().head().getFloat(0), action);
+                Assert.assertEquals(step.getReward().getFloat(), action);
+                Assert.assertEquals(step.isDone(), action % 3 == 0);
+                Assert.assertEquals(step.getPostActionSpace().size(), 2);
+                ((ReplayStep) step).updatePriority(1);
+            }
+        }
+    }
+
+    @Test
+    public void testConcurrentProducers() throws InterruptedException, ExecutionException {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (NDManager manager = NDManager.newBaseManager()) {
+            PrioritizedReplayBuffer buffer =
+                    PrioritizedReplayBuffer.builder()
+                            .setCapacity(64)
+                            .setBatchSize(16)
+                            .setManager(manager)
+                            .build();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; ++t) {
+                int offset = t * 1000;
+                futures.add(
+                        executor.submit(
+                                () -> {
+                                    try (NDManager actor = manager.newSubManager()) {
+                                        for (int i = 0; i < 500; ++i) {
+                                            buffer.addStep(new TestStep(actor, offset + i));
+                                        }
+                                    }
+                                }));
+            }
+            buffer.addStep(new TestStep(manager, 0));
+            for (int i = 0; i < 200; ++i) {
+                try (NDManager learner = manager.newSubManager()) {
+                    ReplayBatch batch = buffer.getBatch(learner);
+                    assertConsistent(batch);
+                    buffer.updatePriorities(batch, batch.getRewards());
+                }
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            Assert.assertEquals(buffer.size(), 64);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void assertConsistent(ReplayBatch batch) {
+        long[] actions = batch.getActions().head().toLongArray();
+        float[] pre = batch.getPreObservations().head().toFloatArray();
+        float[] post = batch.getPostObservations().head().toFloatArray();
+        float[] rewards = batch.getRewards().toFloatArray();
+        boolean[] done = batch.getDone().toBooleanArray();
+        for (int i = 0; i < actions.length; ++i) {
+            Assert.assertEquals(pre[i * 2], actions[i]);
+            Assert.assertEquals(pre[i * 2 + 1], -actions[i]);
+            Assert.assertEquals(post[i * 2], actions[i] + 1);
+            Assert.assertEquals(rewards[i], actions[i]);
+            Assert.assertEquals(done[i], actions[i] % 3 == 0);
+        }
+    }
+
+    private static final class TestStep implements Step {
+
+        private NDManager manager;
+        private int value;
+
+        TestStep(NDManager manager, int value) {
+            this.manager = manager.newSubManager();
+            this.value = value;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public NDList getPreObservation() {
+            return new NDList(manager.create(new float[] {value, -value}));
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public NDList getAction() {
+            return new NDList(manager.create((long) value));
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public NDList getPostObservation() {
+            return new NDList(manager.create(new float[] {value + 1, -value - 1}));
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public ActionSpace getPostActionSpace() {
+            ActionSpace actionSpace = new ActionSpace();
+            actionSpace.add(new NDList(manager.create(0L)));
+            actionSpace.add(new NDList(manager.create(1L)));
+            return actionSpace;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public NDArray getReward() {
+            return manager.create((float) value);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean isDone() {
+            return value % 3 == 0;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void close() {
+            manager.close();
+        }
+    }
+}
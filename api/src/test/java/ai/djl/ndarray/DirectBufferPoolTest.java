@@ -0,0 +1,55 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.ndarray;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+public class DirectBufferPoolTest {
+
+    @Test
+    public void testAcquireRelease() {
+        DirectBufferPool pool = new DirectBufferPool(1024, 4096, 1);
+        ByteBuffer buf = pool.acquire(100);
+        Assert.assertTrue(buf.isDirect());
+        Assert.assertEquals(buf.capacity(), 128);
+        Assert.assertEquals(buf.limit(), 100);
+        Assert.assertEquals(buf.order(), ByteOrder.nativeOrder());
+        Assert.assertEquals(pool.getBytesOutstanding(), 100);
+        buf.putInt(0, 42);
+        pool.release(buf);
+        Assert.assertEquals(pool.getBytesOutstanding(), 0);
+
+        ByteBuffer reused = pool.acquire(120);
+        Assert.assertSame(reused, buf);
+        Assert.assertEquals(reused.getInt(0), 0);
+        Assert.assertEquals(pool.getHitCount(), 1);
+        Assert.assertEquals(pool.getMissCount(), 1);
+        Assert.assertEquals(pool.getHitRate(), 0.5);
+
+        // thread cache holds one buffer per class, the second goes to the arena
+        ByteBuffer other = pool.acquire(128);
+        pool.release(reused);
+        pool.release(other);
+        Assert.assertEquals(pool.getBytesPooled(), 128);
+
+        ByteBuffer large = pool.acquire(2000);
+        Assert.assertEquals(large.capacity(), 2000);
+        pool.release(large);
+        Assert.assertEquals(pool.getBytesPooled(), 128);
+        Assert.assertEquals(pool.getBytesOutstanding(), 0);
+    }
+}
@@ -13,12 +13,23 @@
 package ai.djl.ndarray;
 
 import ai.djl.Device;
+import ai.djl.ndarray.types.DataType;
+import ai.djl.ndarray.types.Shape;
+import ai.djl.util.Utils;
 
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 
 public class NDListTest {
 
@@ -35,4 +46,84 @@ public class NDListTest {
             Assert.assertEquals(list.get(0).getName(), "bool8");
         }
     }
+
+    @Test
+    public void testChannel() throws IOException {
+        Path file = Paths.get("build/tmp/ndlist.ndarray");
+        Files.createDirectories(file.getParent());
+        try (NDManager manager = NDManager.newBaseManager(Device.cpu())) {
+            NDList list = newList(manager);
+            try (FileChannel fc =
+                    FileChannel.open(
+                            file,
+                            StandardOpenOption.CREATE,
+                            StandardOpenOption.WRITE,
+                            StandardOpenOption.TRUNCATE_EXISTING)) {
+                list.encode(fc);
+            }
+            // the channel and the stream encodings are the same
+            byte[] data = Files.readAllBytes(file);
+            Assert.assertEquals(data, list.encode());
+
+            try (FileChannel fc = FileChannel.open(file)) {
+                assertList(NDList.decode(manager, fc), list);
+            }
+            assertList(NDList.decode(manager, new ByteArrayInputStream(data)), list);
+
+            // other formats are read through the channel as well
+            byte[] npz = list.encode(true);
+            NDList decoded =
+                    NDList.decode(manager, Channels.newChannel(new ByteArrayInputStream(npz)));
+            assertList(decoded, list);
+        } finally {
+            Utils.deleteQuietly(file);
+        }
+    }
+
+    @Test
+    public void testIndexedNDList() throws IOException {
+        Path file = Paths.get("build/tmp/ndlist.ndix");
+        Files.createDirectories(file.getParent());
+        try (NDManager manager = NDManager.newBaseManager(Device.cpu())) {
+            NDList list = newList(manager);
+            IndexedNDList.write(list, file);
+            try (IndexedNDList indexed = IndexedNDList.open(file)) {
+                Assert.assertEquals(indexed.size(), 4);
+                Assert.assertEquals(
+                        indexed.getNames(), Arrays.asList("weight", null, "empty", "bias"));
+                Assert.assertEquals(indexed.getShape(0), new Shape(3, 4));
+                Assert.assertEquals(indexed.get(manager, "bias"), list.get(3));
+                Assert.assertNull(indexed.get(manager, "missing"));
+
+                // arrays are mapped privately, changes are not written to the file
+                NDArray weight = indexed.get(manager, 0);
+                Assert.assertEquals(weight, list.get(0));
+                weight.addi(1);
+                assertList(indexed.toNDList(manager), list);
+            }
+            assertList(NDList.decode(manager, Files.readAllBytes(file)), list);
+        } finally {
+            Utils.deleteQuietly(file);
+        }
+    }
+
+    private static NDList newList(NDManager manager) {
+        NDArray weight = manager.arange(12f).reshape(3, 4);
+        weight.setName("weight");
+        NDArray ids = manager.arange(5L, 10L, 1L, DataType.INT64);
+        NDArray empty = manager.create(new Shape(0, 2));
+        empty.setName("empty");
+        NDArray bias = manager.create(new double[] {1.5, -2});
+        bias.setName("bias");
+        return new NDList(weight, ids, empty, bias);
+    }
+
+    private static void assertList(NDList actual, NDList expected) {
+        Assert.assertEquals(actual.size(), expected.size());
+        for (int i = 0; i < expected.size(); ++i) {
+            Assert.assertEquals(actual.get(i).getName(), expected.get(i).getName());
+            Assert.assertEquals(actual.get(i).getDataType(), expected.get(i).getDataType());
+            Assert.assertEquals(actual.get(i), expected.get(i));
+        }
+    }
 }
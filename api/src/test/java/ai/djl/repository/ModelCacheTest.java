@@ -0,0 +1,241 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.repository;
+
+import ai.djl.Application;
+import ai.djl.MalformedModelException;
+import ai.djl.Model;
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.DataType;
+import ai.djl.ndarray.types.Shape;
+import ai.djl.nn.Block;
+import ai.djl.nn.Blocks;
+import ai.djl.repository.zoo.Criteria;
+import ai.djl.repository.zoo.ModelCache;
+import ai.djl.repository.zoo.ModelLoader;
+import ai.djl.repository.zoo.ModelNotFoundException;
+import ai.djl.repository.zoo.ModelZoo;
+import ai.djl.repository.zoo.ZooModel;
+import ai.djl.translate.DefaultTranslatorFactory;
+import ai.djl.translate.NoopTranslator;
+import ai.djl.translate.Translator;
+import ai.djl.util.Utils;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ModelCacheTest {
+
+    @Test
+    public void testSingleFlight() throws Exception {
+        TestZoo zoo = new TestZoo();
+        Criteria<NDList, NDList> criteria = newCriteria(zoo, "a");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (ModelCache cache = ModelCache.builder().build()) {
+            Future<?>[] futures = new Future<?>[8];
+            for (int i = 0; i < futures.length; ++i) {
+                futures[i] =
+                        executor.submit(
+                                () -> {
+                                    try (ZooModel<NDList, NDList> model =
+                                            cache.loadModel(criteria)) {
+                                        Assert.assertEquals(model.getName(), "a");
+                                    }
+                                    return null;
+                                });
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            Assert.assertEquals(zoo.loads.get(), 1);
+            Assert.assertEquals(cache.getMissCount(), 1);
+            Assert.assertEquals(cache.getHitCount(), 7);
+
+            // a criteria with the same values hits the cache
+            cache.loadModel(newCriteria(zoo, "a")).close();
+            Assert.assertEquals(zoo.loads.get(), 1);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testEviction() throws IOException, ModelNotFoundException, MalformedModelException {
+        TestZoo zoo = new TestZoo();
+        try (ModelCache cache =
+                ModelCache.builder()
+                        .optMaxModels(2)
+                        .optMemoryBudget(250)
+                        .optMemoryEstimator(m -> 100)
+                        .build()) {
+            ZooModel<NDList, NDList> a = cache.loadModel(newCriteria(zoo, "a"));
+            ZooModel<NDList, NDList> b = cache.loadModel(newCriteria(zoo, "b"));
+            ZooModel<NDList, NDList> c = cache.loadModel(newCriteria(zoo, "c"));
+            // all models are in use
+            Assert.assertEquals(cache.size(), 3);
+            Assert.assertEquals(cache.getUsedMemory(), 300);
+
+            a.close();
+            a.close();
+            Assert.assertEquals(cache.size(), 2);
+            Assert.assertEquals(cache.getEvictionCount(), 1);
+
+            b.close();
+            c.close();
+            Assert.assertEquals(cache.size(), 2);
+            cache.loadModel(newCriteria(zoo, "c")).close();
+            cache.loadModel(newCriteria(zoo, "a")).close();
+            // b is the least recently used
+            Assert.assertEquals(zoo.loads.get(), 4);
+            Assert.assertEquals(cache.getEvictionCount(), 2);
+            cache.loadModel(newCriteria(zoo, "c")).close();
+            Assert.assertEquals(zoo.loads.get(), 4);
+        }
+    }
+
+    @Test
+    public void testIdleTimeout() throws Exception {
+        TestZoo zoo = new TestZoo();
+        try (ModelCache cache = ModelCache.builder().optIdleTimeout(50).build()) {
+            cache.loadModel(newCriteria(zoo, "a")).close();
+            Assert.assertEquals(cache.size(), 1);
+            Thread.sleep(100);
+            cache.cleanUp();
+            Assert.assertEquals(cache.size(), 0);
+        }
+    }
+
+    @Test
+    public void testCriteriaKey()
+            throws IOException, ModelNotFoundException, MalformedModelException {
+        Path path = Paths.get("build/model-cache");
+        Files.createDirectories(path);
+        Block block = Blocks.identityBlock();
+        try (NDManager manager = NDManager.newBaseManager();
+                Model model = Model.newInstance("identity")) {
+            block.initialize(manager, DataType.FLOAT32, new Shape(1));
+            model.setBlock(block);
+            model.save(path, null);
+        }
+
+        NoopTranslator translator = new NoopTranslator();
+        Criteria.Builder<NDList, NDList> builder =
+                Criteria.builder()
+                        .setTypes(NDList.class, NDList.class)
+                        .optModelPath(path)
+                        .optModelName("identity")
+                        .optBlock(block)
+                        .optTranslator(translator);
+        try (ModelCache cache = ModelCache.builder().build()) {
+            Criteria<NDList, NDList> criteria = builder.build();
+            cache.loadModel(criteria).close();
+            // a new zoo and factory of the same path and translator share the model
+            cache.loadModel(builder.build()).close();
+            cache.loadModel(criteria.toBuilder().build()).close();
+            Assert.assertEquals(cache.getMissCount(), 1);
+            Assert.assertEquals(cache.getHitCount(), 2);
+
+            // a factory is compared by identity, registering a translator does not change the key
+            DefaultTranslatorFactory factory =
+                    (DefaultTranslatorFactory) criteria.getTranslatorFactory();
+            Criteria<NDList, NDList> custom =
+                    criteria.toBuilder().optTranslatorFactory(factory).build();
+            cache.loadModel(custom).close();
+            Assert.assertEquals(cache.getMissCount(), 2);
+            factory.registerTranslator(NDList.class, NDList.class, new NoopTranslator());
+            cache.loadModel(custom).close();
+            Assert.assertEquals(cache.getMissCount(), 2);
+        } finally {
+            Utils.deleteQuietly(path);
+        }
+    }
+
+    private static Criteria<NDList, NDList> newCriteria(ModelZoo zoo, String name) {
+        return Criteria.builder()
+                .setTypes(NDList.class, NDList.class)
+                .optModelZoo(zoo)
+                .optModelName(name)
+                .build();
+    }
+
+    private static final class TestZoo extends ModelZoo {
+
+        AtomicInteger loads = new AtomicInteger();
+
+        /** {@inheritDoc} */
+        @Override
+        public String getGroupId() {
+            return "ai.djl.test";
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public List<ModelLoader> getModelLoaders() {
+            return Collections.singletonList(new TestLoader());
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public Set<String> getSupportedEngines() {
+            return Collections.emptySet();
+        }
+
+        private final class TestLoader implements ModelLoader {
+
+            /** {@inheritDoc} */
+            @Override
+            public String getArtifactId() {
+                return "test";
+            }
+
+            /** {@inheritDoc} */
+            @Override
+            public Application getApplication() {
+                return Application.UNDEFINED;
+            }
+
+            /** {@inheritDoc} */
+            @Override
+            @SuppressWarnings("unchecked")
+            public <I, O> ZooModel<I, O> loadModel(Criteria<I, O> criteria) {
+                loads.incrementAndGet();
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    throw new AssertionError(e);
+                }
+                Model model = Model.newInstance(criteria.getModelName());
+                return new ZooModel<>(model, (Translator<I, O>) new NoopTranslator());
+            }
+
+            /** {@inheritDoc} */
+            @Override
+            public List<Artifact> listModels() {
+                return Collections.emptyList();
+            }
+        }
+    }
+}
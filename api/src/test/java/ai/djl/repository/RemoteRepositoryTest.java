@@ -0,0 +1,240 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.repository;
+
+import ai.djl.util.Hex;
+import ai.djl.util.Utils;
+import ai.djl.util.ZipUtils;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RemoteRepositoryTest {
+
+    private HttpServer server;
+    private ExecutorService executor;
+    private Map<String, byte[]> files = new ConcurrentHashMap<>();
+    private Map<String, AtomicInteger> downloads = new ConcurrentHashMap<>();
+    private List<String> ranges = new CopyOnWriteArrayList<>();
+    private AtomicBoolean truncate = new AtomicBoolean();
+    private String baseUrl;
+
+    @BeforeClass
+    public void setUp() throws IOException {
+        Path dir = Paths.get("build/tmp/download/model");
+        Utils.deleteQuietly(dir);
+        Files.createDirectories(dir.resolve("sub"));
+        byte[] weights = new byte[512 * 1024];
+        for (int i = 0; i < weights.length; ++i) {
+            weights[i] = (byte) (i * 31);
+        }
+        Files.write(dir.resolve("model.bin"), weights);
+        Files.write(dir.resolve("sub/synset.txt"), "a\nb\n".getBytes(StandardCharsets.UTF_8));
+        Path zip = dir.resolveSibling("model.zip");
+        ZipUtils.zip(dir, zip, false);
+        files.put("/model.zip", Files.readAllBytes(zip));
+        files.put("/serving.properties", "engine=PyTorch\n".getBytes(StandardCharsets.UTF_8));
+
+        executor = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterClass
+    public void tearDown() {
+        server.stop(0);
+        executor.shutdown();
+        Utils.deleteQuietly(Paths.get("build/tmp/download"));
+    }
+
+    @Test
+    public void testResumeDownload() throws IOException {
+        ranges.clear();
+        truncate.set(true);
+        Repository repo = Repository.newInstance("test", baseUrl + "/model.zip");
+        Artifact artifact = repo.resolve(repo.getResources().get(0), null);
+        Path resourceDir = repo.getResourceDirectory(artifact);
+        Utils.deleteQuietly(resourceDir);
+        try {
+            repo.prepare(artifact);
+            Assert.assertEquals(ranges.size(), 1);
+            Assert.assertTrue(ranges.get(0).startsWith("bytes="));
+            Assert.assertFalse(ranges.get(0).startsWith("bytes=0-"));
+            Assert.assertEquals(Files.size(resourceDir.resolve("model.bin")), 512 * 1024);
+            Assert.assertTrue(Files.exists(resourceDir.resolve("sub/synset.txt")));
+        } finally {
+            truncate.set(false);
+            Utils.deleteQuietly(resourceDir);
+        }
+    }
+
+    @Test
+    public void testConcurrentPrepare() throws Exception {
+        downloads.clear();
+        Repository repo = Repository.newInstance("test", baseUrl + '/');
+        Artifact artifact = newArtifact();
+        Path resourceDir = repo.getResourceDirectory(artifact);
+        Utils.deleteQuietly(resourceDir);
+        ExecutorService threads = Executors.newFixedThreadPool(4);
+        try {
+            Future<?>[] futures = new Future<?>[4];
+            for (int i = 0; i < futures.length; ++i) {
+                futures[i] =
+                        threads.submit(
+                                () -> {
+                                    repo.prepare(artifact);
+                                    return null;
+                                });
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            Assert.assertEquals(downloads.get("/model.zip").get(), 1);
+            Assert.assertEquals(downloads.get("/serving.properties").get(), 1);
+            Assert.assertTrue(Files.exists(resourceDir.resolve("model/model.bin")));
+            Assert.assertTrue(Files.exists(resourceDir.resolve("model/sub/synset.txt")));
+            Assert.assertTrue(Files.exists(resourceDir.resolve("serving.properties")));
+            Path lockFile =
+                    resourceDir.resolveSibling('.' + resourceDir.toFile().getName() + ".lock");
+            Assert.assertFalse(Files.exists(lockFile));
+        } finally {
+            threads.shutdown();
+            Utils.deleteQuietly(resourceDir);
+        }
+    }
+
+    @Test
+    public void testChecksumError() throws IOException {
+        Repository repo = Repository.newInstance("test", baseUrl + '/');
+        Artifact artifact = newArtifact();
+        artifact.getFiles().get("serving").setSha1Hash("0000");
+        Path resourceDir = repo.getResourceDirectory(artifact);
+        Utils.deleteQuietly(resourceDir);
+        Assert.assertThrows(IOException.class, () -> repo.prepare(artifact));
+        Assert.assertFalse(Files.exists(resourceDir));
+    }
+
+    @Test
+    public void testMissingFile() throws IOException {
+        downloads.clear();
+        Repository repo = Repository.newInstance("test", baseUrl + '/');
+        Artifact artifact = newArtifact();
+        artifact.getFiles().get("serving").setUri(baseUrl + "/missing.properties");
+        Path resourceDir = repo.getResourceDirectory(artifact);
+        Utils.deleteQuietly(resourceDir);
+        Assert.assertThrows(IOException.class, () -> repo.prepare(artifact));
+        // a client error is not retried
+        Assert.assertEquals(downloads.get("/missing.properties").get(), 1);
+    }
+
+    private Artifact newArtifact() {
+        Metadata metadata = new Metadata();
+        metadata.setRepositoryUri(
+                URI.create("test/download/" + server.getAddress().getPort() + '/'));
+        Artifact artifact = new Artifact();
+        artifact.setName("model");
+        artifact.setVersion("0.0.1");
+        artifact.setMetadata(metadata);
+
+        Map<String, Artifact.Item> items = new ConcurrentHashMap<>();
+        Artifact.Item model = new Artifact.Item();
+        model.setUri(baseUrl + "/model.zip");
+        model.setSha1Hash(sha1(files.get("/model.zip")));
+        model.setArtifact(artifact);
+        items.put("model", model);
+
+        Artifact.Item serving = new Artifact.Item();
+        serving.setUri(baseUrl + "/serving.properties");
+        serving.setName("serving.properties");
+        serving.setArtifact(artifact);
+        items.put("serving", serving);
+        artifact.setFiles(items);
+        return artifact;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        byte[] content = files.get(path);
+        if (content == null) {
+            downloads.computeIfAbsent(path, k -> new AtomicInteger()).incrementAndGet();
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+            return;
+        }
+        if ("HEAD".equals(exchange.getRequestMethod())) {
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+            return;
+        }
+
+        downloads.computeIfAbsent(path, k -> new AtomicInteger()).incrementAndGet();
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        int offset = 0;
+        if (range != null) {
+            ranges.add(range);
+            offset = Integer.parseInt(range.substring(6, range.length() - 1));
+            exchange.getResponseHeaders()
+                    .add(
+                            "Content-Range",
+                            "bytes " + offset + '-' + (content.length - 1) + '/' + content.length);
+            exchange.sendResponseHeaders(206, content.length - offset);
+        } else {
+            exchange.sendResponseHeaders(200, content.length);
+        }
+        OutputStream os = exchange.getResponseBody();
+        if (truncate.getAndSet(false)) {
+            // simulate a dropped connection half way through the transfer
+            os.write(content, 0, content.length / 2);
+            os.flush();
+            throw new IOException("Connection dropped");
+        }
+        os.write(content, offset, content.length - offset);
+        exchange.close();
+    }
+
+    private static String sha1(byte[] data) {
+        try {
+            return Hex.toHexString(MessageDigest.getInstance("SHA1").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
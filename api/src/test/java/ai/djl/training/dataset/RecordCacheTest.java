@@ -0,0 +1,138 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.training.dataset;
+
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDArrays;
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.Shape;
+import ai.djl.translate.TranslateException;
+import ai.djl.util.Utils;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RecordCacheTest {
+
+    @Test
+    public void testCachedEpochs() throws IOException, TranslateException {
+        try (NDManager manager = NDManager.newBaseManager();
+                RecordCache cache = RecordCache.builder().build()) {
+            NDArray data = manager.arange(20f).reshape(10, 2);
+            NDArray labels = manager.arange(10f);
+            CountingDataset dataset =
+                    new CountingDataset(
+                            new ArrayDataset.Builder()
+                                    .setData(data)
+                                    .optLabels(labels)
+                                    .addTransform(RecordCacheTest::addNoise)
+                                    .optCache(cache)
+                                    .setSampling(5, true));
+
+            NDArray[] epochs = new NDArray[2];
+            for (int epoch = 0; epoch < epochs.length; ++epoch) {
+                NDList sorted = new NDList();
+                NDList sortedLabels = new NDList();
+                for (Batch batch : dataset.getData(manager)) {
+                    // keep the arrays after the batch is closed
+                    batch.getData().attach(manager);
+                    batch.getLabels().attach(manager);
+                    sorted.add(batch.getData().head());
+                    sortedLabels.add(batch.getLabels().head());
+                }
+                NDArray label = NDArrays.concat(sortedLabels);
+                NDArray order = label.argSort();
+                epochs[epoch] = NDArrays.concat(sorted).get(order);
+                Assert.assertEquals(label.get(order), labels);
+            }
+            Assert.assertEquals(dataset.reads.get(), 10);
+            Assert.assertEquals(cache.size(), 10);
+            Assert.assertEquals(cache.getMissCount(), 10);
+            Assert.assertEquals(cache.getHitCount(), 10);
+
+            // the random transform is still applied on top of the cached records
+            Assert.assertNotEquals(epochs[0], epochs[1]);
+            Assert.assertTrue(epochs[1].sub(data).lt(1).all().getBoolean());
+            Assert.assertTrue(epochs[1].sub(data).gte(0).all().getBoolean());
+        }
+    }
+
+    @Test
+    public void testSpill() throws IOException {
+        Path dir = Paths.get("build/tmp/cache");
+        Files.createDirectories(dir);
+        // each record takes 8 + (16 + 8 + 32) + (16 + 4) = 84 bytes
+        try (NDManager manager = NDManager.newBaseManager();
+                RecordCache cache =
+                        RecordCache.builder()
+                                .optMemoryBudget(200)
+                                .optSpillDirectory(dir, 300)
+                                .build()) {
+            NDArray data = manager.arange(80f).reshape(10, 8);
+            NDArray labels = manager.arange(10);
+            CountingDataset dataset =
+                    new CountingDataset(
+                            new ArrayDataset.Builder()
+                                    .setData(data)
+                                    .optLabels(labels)
+                                    .optCache(cache)
+                                    .setSampling(1, false));
+            for (long i = 0; i < 10; ++i) {
+                Record record = dataset.getCached(manager, i);
+                Assert.assertEquals(record.getData().head(), data.get(i));
+            }
+            Assert.assertTrue(cache.getUsedMemory() <= 200);
+            // records 8 and 9 are in memory, 6 and 7 in the spill file which dropped 0 to 5
+            Assert.assertEquals(cache.size(), 4);
+            Assert.assertEquals(cache.getEvictionCount(), 6);
+
+            for (long i = 9; i >= 0; --i) {
+                Record record = dataset.getCached(manager, i);
+                Assert.assertEquals(record.getData().head(), data.get(i));
+                Assert.assertEquals(record.getLabels().head(), labels.get(i));
+                Assert.assertEquals(record.getLabels().head().getShape(), new Shape());
+            }
+            Assert.assertEquals(dataset.reads.get(), 16);
+            Assert.assertEquals(cache.getHitCount(), 4);
+        } finally {
+            Utils.deleteQuietly(dir);
+        }
+    }
+
+    private static NDArray addNoise(NDArray array) {
+        return array.add(array.getManager().randomUniform(0, 1, array.getShape()));
+    }
+
+    private static final class CountingDataset extends ArrayDataset {
+
+        AtomicInteger reads = new AtomicInteger();
+
+        CountingDataset(ArrayDataset.Builder builder) {
+            super(builder);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public Record get(NDManager manager, long index) {
+            reads.incrementAndGet();
+            return super.get(manager, index);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.training.dataset;
+
+import ai.djl.metric.Metrics;
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.Shape;
+import ai.djl.translate.PaddingStackBatchifier;
+import ai.djl.translate.TranslateException;
+import ai.djl.util.Progress;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+public class TokenBudgetSamplerTest {
+
+    @Test
+    public void testSample() {
+        Random random = new Random(1234);
+        int[] lengths = new int[1000];
+        for (int i = 0; i < lengths.length; ++i) {
+            lengths[i] = 1 + random.nextInt(100);
+        }
+        lengths[10] = 300;
+        LengthDataset dataset = new LengthDataset(lengths, new LengthDataset.Builder());
+
+        TokenBudgetSampler sampler =
+                TokenBudgetSampler.builder()
+                        .setMaxTokens(256)
+                        .optWindowSize(200)
+                        .optSeed(1)
+                        .build();
+        Metrics metrics = new Metrics();
+        sampler.setMetrics(metrics);
+        List<List<Long>> batches = collect(sampler.sample(dataset));
+        boolean[] seen = new boolean[lengths.length];
+        for (List<Long> batch : batches) {
+            int longest = 0;
+            for (long index : batch) {
+                Assert.assertFalse(seen[(int) index]);
+                seen[(int) index] = true;
+                longest = Math.max(longest, lengths[(int) index]);
+            }
+            Assert.assertTrue(batch.size() == 1 || batch.size() * longest <= 256);
+        }
+        for (boolean s : seen) {
+            Assert.assertTrue(s);
+        }
+        Assert.assertTrue(sampler.getPaddingWaste() < 0.1, "waste " + sampler.getPaddingWaste());
+        Assert.assertEquals(metrics.getMetric("PaddingWaste").size(), 1);
+
+        // the same seed gives the same batches, sorting everything gives the least padding
+        Assert.assertEquals(collect(sampler.sample(dataset)), batches);
+        double waste = sampler.getPaddingWaste();
+        sampler =
+                TokenBudgetSampler.builder()
+                        .setMaxTokens(256)
+                        .optMaxBatchSize(8)
+                        .optShuffle(false)
+                        .build();
+        batches = collect(sampler.sample(dataset));
+        Assert.assertTrue(sampler.getPaddingWaste() < waste);
+        int previous = 0;
+        for (List<Long> batch : batches) {
+            Assert.assertTrue(batch.size() <= 8);
+            for (long index : batch) {
+                Assert.assertTrue(lengths[(int) index] >= previous);
+                previous = lengths[(int) index];
+            }
+        }
+    }
+
+    @Test
+    public void testBatchify() throws IOException, TranslateException {
+        int[] lengths = {3, 9, 4, 8, 2, 7, 1, 5};
+        try (NDManager manager = NDManager.newBaseManager()) {
+            LengthDataset dataset =
+                    new LengthDataset(
+                            lengths,
+                            new LengthDataset.Builder()
+                                    .setSampling(
+                                            TokenBudgetSampler.builder()
+                                                    .setMaxTokens(20)
+                                                    .optShuffle(false)
+                                                    .build())
+                                    .optDataBatchifier(
+                                            PaddingStackBatchifier.builder()
+                                                    .optIncludeValidLengths(false)
+                                                    .addPad(0, 0, m -> m.zeros(new Shape(1)), -1)
+                                                    .build()));
+            List<Shape> shapes = new ArrayList<>();
+            for (Batch batch : dataset.getData(manager)) {
+                shapes.add(batch.getData().head().getShape());
+                batch.close();
+            }
+            Assert.assertEquals(
+                    shapes, Arrays.asList(new Shape(4, 4), new Shape(2, 7), new Shape(2, 9)));
+        }
+    }
+
+    @Test
+    public void testSubDataset() {
+        int[] lengths = {3, 9, 4, 8, 2, 7, 1, 5};
+        LengthDataset dataset = new LengthDataset(lengths, new LengthDataset.Builder());
+        RandomAccessDataset sub = dataset.subDataset(2, 6);
+        Assert.assertTrue(sub instanceof SampleLengthProvider);
+        Assert.assertEquals(((SampleLengthProvider) sub).getSampleLength(1), 8);
+
+        TokenBudgetSampler sampler =
+                TokenBudgetSampler.builder().setMaxTokens(16).optShuffle(false).build();
+        // indices of the sub dataset, with the lengths 4, 8, 2 and 7
+        Assert.assertEquals(
+                collect(sampler.sample(sub)),
+                Arrays.asList(Arrays.asList(2L, 0L), Arrays.asList(3L, 1L)));
+    }
+
+    private static List<List<Long>> collect(Iterator<List<Long>> it) {
+        List<List<Long>> list = new ArrayList<>();
+        it.forEachRemaining(list::add);
+        return list;
+    }
+
+    private static final class LengthDataset extends RandomAccessDataset
+            implements SampleLengthProvider {
+
+        private int[] lengths;
+
+        LengthDataset(int[] lengths, Builder builder) {
+            super(builder);
+            this.lengths = lengths;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int getSampleLength(long index) {
+            return lengths[(int) index];
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public Record get(NDManager manager, long index) {
+            NDArray data = manager.arange((float) lengths[(int) index]);
+            return new Record(new NDList(data), new NDList(manager.create(index)));
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        protected long availableSize() {
+            return lengths.length;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void prepare(Progress progress) {}
+
+        static final class Builder extends BaseBuilder<Builder> {
+
+            Builder() {
+                setSampling(1, false);
+            }
+
+            /** {@inheritDoc} */
+            @Override
+            protected Builder self() {
+                return this;
+            }
+        }
+    }
+}
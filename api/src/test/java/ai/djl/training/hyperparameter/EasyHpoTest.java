@@ -0,0 +1,197 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.training.hyperparameter;
+
+import ai.djl.Model;
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.Shape;
+import ai.djl.nn.core.Linear;
+import ai.djl.training.DefaultTrainingConfig;
+import ai.djl.training.Trainer;
+import ai.djl.training.TrainingConfig;
+import ai.djl.training.TrainingResult;
+import ai.djl.training.dataset.ArrayDataset;
+import ai.djl.training.dataset.Dataset;
+import ai.djl.training.dataset.RandomAccessDataset;
+import ai.djl.training.hyperparameter.param.HpFloat;
+import ai.djl.training.hyperparameter.param.HpSet;
+import ai.djl.training.hyperparameter.scheduler.MedianStoppingScheduler;
+import ai.djl.training.hyperparameter.scheduler.SuccessiveHalvingScheduler;
+import ai.djl.training.hyperparameter.scheduler.TrialScheduler;
+import ai.djl.training.listener.TrainingListener;
+import ai.djl.training.listener.TrainingListenerAdapter;
+import ai.djl.training.loss.Loss;
+import ai.djl.training.optimizer.Optimizer;
+import ai.djl.training.tracker.Tracker;
+import ai.djl.translate.TranslateException;
+import ai.djl.util.Pair;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class EasyHpoTest {
+
+    @Test
+    public void testSuccessiveHalving() {
+        TrialScheduler scheduler =
+                SuccessiveHalvingScheduler.builder().optReductionFactor(2).build();
+        // first rung after 1 epoch, the best half of the trials continues
+        Assert.assertTrue(scheduler.onResult(0, 1, 1f));
+        Assert.assertFalse(scheduler.onResult(1, 1, 2f));
+        Assert.assertTrue(scheduler.onResult(2, 1, 0.5f));
+        Assert.assertFalse(scheduler.onResult(3, 1, 1.5f));
+        // epoch 3 is not a rung, epoch 2 and 4 are
+        Assert.assertTrue(scheduler.onResult(0, 2, 0.8f));
+        Assert.assertFalse(scheduler.onResult(2, 2, 0.9f));
+        Assert.assertTrue(scheduler.onResult(0, 3, 5f));
+        Assert.assertTrue(scheduler.onResult(0, 4, 5f));
+        Assert.assertFalse(scheduler.onResult(4, 1, Float.NaN));
+
+        // the second bracket of Hyperband has its first rung after 2 epochs
+        scheduler =
+                SuccessiveHalvingScheduler.builder().optReductionFactor(2).optBrackets(2).build();
+        Assert.assertTrue(scheduler.onResult(0, 1, 1f));
+        Assert.assertTrue(scheduler.onResult(1, 1, 3f));
+        Assert.assertTrue(scheduler.onResult(3, 1, 2f));
+        Assert.assertTrue(scheduler.onResult(1, 2, 3f));
+        Assert.assertFalse(scheduler.onResult(3, 2, 4f));
+    }
+
+    @Test
+    public void testMedianStopping() {
+        TrialScheduler scheduler =
+                MedianStoppingScheduler.builder().optGracePeriod(1).optMinTrials(2).build();
+        Assert.assertTrue(scheduler.onResult(0, 1, 1f));
+        Assert.assertTrue(scheduler.onResult(0, 2, 1f));
+        Assert.assertTrue(scheduler.onResult(1, 1, 3f));
+        Assert.assertTrue(scheduler.onResult(1, 2, 3f));
+        // the grace period
+        Assert.assertTrue(scheduler.onResult(2, 1, 10f));
+        // the median of the averages 1 and 3 is 2
+        Assert.assertFalse(scheduler.onResult(2, 2, 2.5f));
+        Assert.assertTrue(scheduler.onResult(3, 1, 2f));
+        Assert.assertTrue(scheduler.onResult(3, 2, 1.5f));
+        // too few trials trained for 3 epochs
+        Assert.assertTrue(scheduler.onResult(3, 3, 10f));
+    }
+
+    @Test
+    public void testParallelFit() throws IOException, TranslateException {
+        try (NDManager manager = NDManager.newBaseManager()) {
+            NDArray data = manager.randomUniform(0, 1, new Shape(64, 4));
+            NDArray labels = data.sum(new int[] {1}, true);
+            ArrayDataset dataset =
+                    new ArrayDataset.Builder()
+                            .setData(data)
+                            .optLabels(labels)
+                            .setSampling(8, false)
+                            .build();
+
+            // stops every odd trial after 2 of 4 epochs
+            TrialScheduler scheduler = (trial, epoch, loss) -> trial % 2 == 0 || epoch < 2;
+            LinearHpo hpo = new LinearHpo(dataset, scheduler);
+            Pair<Model, TrainingResult> trained = hpo.fit();
+            try (Model model = trained.getKey()) {
+                Assert.assertEquals(trained.getValue().getEpoch(), 4);
+                Assert.assertNotNull(model.getBlock().getParameters().get("weight"));
+            }
+            // 3 full trials, 3 stopped trials and the final training
+            Assert.assertEquals(hpo.epochs.get(), 3 * 4 + 3 * 2 + 4);
+        }
+    }
+
+    private static final class LinearHpo extends EasyHpo {
+
+        RandomAccessDataset dataset;
+        TrialScheduler scheduler;
+        AtomicInteger epochs = new AtomicInteger();
+
+        LinearHpo(RandomAccessDataset dataset, TrialScheduler scheduler) {
+            this.dataset = dataset;
+            this.scheduler = scheduler;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        protected HpSet setupHyperParams() {
+            return new HpSet(
+                    "hp", Collections.singletonList(new HpFloat("lr", 0.001f, 0.1f, true)));
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        protected RandomAccessDataset getDataset(Dataset.Usage usage) {
+            return dataset;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        protected TrainingConfig setupTrainingConfig(HpSet hpVals) {
+            float lr = (Float) hpVals.getHParam("lr").random();
+            return new DefaultTrainingConfig(Loss.l2Loss())
+                    .optOptimizer(Optimizer.sgd().setLearningRateTracker(Tracker.fixed(lr)).build())
+                    .addTrainingListeners(TrainingListener.Defaults.basic())
+                    .addTrainingListeners(
+                            new TrainingListenerAdapter() {
+                                /** {@inheritDoc} */
+                                @Override
+                                public void onEpoch(Trainer trainer) {
+                                    epochs.incrementAndGet();
+                                }
+                            });
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        protected Model buildModel(HpSet hpVals) {
+            Model model = Model.newInstance("linear");
+            model.setBlock(Linear.builder().setUnits(1).build());
+            return model;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        protected Shape inputShape(HpSet hpVals) {
+            return new Shape(1, 4);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        protected int numEpochs(HpSet hpVals) {
+            return 4;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        protected int numHyperParameterTests() {
+            return 6;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        protected int numWorkers() {
+            return 3;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        protected TrialScheduler setupScheduler() {
+            return scheduler;
+        }
+    }
+}
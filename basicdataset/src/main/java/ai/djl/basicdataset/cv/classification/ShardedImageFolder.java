@@ -0,0 +1,545 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.basicdataset.cv.classification;
+
+import ai.djl.modality.cv.Image;
+import ai.djl.modality.cv.ImageFactory;
+import ai.djl.modality.cv.transform.ToTensor;
+import ai.djl.modality.cv.util.NDImageUtils;
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.DataType;
+import ai.djl.ndarray.types.Shape;
+import ai.djl.training.dataset.RandomAccessDataset;
+import ai.djl.training.dataset.Sampler;
+import ai.djl.translate.Pipeline;
+import ai.djl.translate.TranslateException;
+import ai.djl.util.Pair;
+import ai.djl.util.Progress;
+import ai.djl.util.RandomUtils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Random;
+
+/**
+ * A dataset for images packed into large shard files by {@link #convert(AbstractImageFolder, Path,
+ * boolean, long)}.
+ *
+ * <p>Reading one small file per sample is expensive on network file systems, and listing an {@link
+ * ImageFolder} walks the whole directory tree. The packed format stores the samples in a few large
+ * shard files that are memory-mapped, and an index that is read on {@link #prepare(Progress)}
+ * instead of a directory walk:
+ *
+ * <pre>
+ *  dir/index              synset, format and the location and label of each record
+ *  dir/shard-00000.djls   records, each record holds:
+ *                         label, height, width, channels (int32) and the pixels or image bytes
+ *  dir/shard-00001.djls
+ *  ...
+ * </pre>
+ *
+ * <p>A record holds either the encoded image file (height, width and channels are 0), or the
+ * decoded HWC pixels so no image decoding is needed while training. The records are shuffled when
+ * the shards are written. Use {@link ShardSampler} to shuffle the data without giving up the
+ * locality of the shards:
+ *
+ * <pre>
+ * ShardedImageFolder.convert(imageFolder, dir, true, 256L &lt;&lt; 20);
+ * ShardedImageFolder dataset =
+ *     ShardedImageFolder.builder()
+ *         .setDirectory(dir)
+ *         .setSampling(new BatchSampler(new ShardedImageFolder.ShardSampler(), batchSize))
+ *         .build();
+ * </pre>
+ */
+public final class ShardedImageFolder extends ImageClassificationDataset {
+
+    private static final int MAGIC = 0x444a4c49;
+    private static final int VERSION = 1;
+    private static final int RECORD_HEADER = 16;
+    private static final String INDEX = "index";
+
+    private Path dir;
+    private Integer imageWidth;
+    private Integer imageHeight;
+
+    private List<String> synset;
+    private boolean encoded;
+    private MappedByteBuffer[] shards;
+    private int[] shardStart;
+    private int[] recordShard;
+    private long[] recordOffset;
+    private int[] recordLength;
+    private int[] labels;
+    private boolean prepared;
+
+    private ShardedImageFolder(Builder builder) {
+        super(builder);
+        dir = builder.dir;
+        imageWidth = builder.imageWidth;
+        imageHeight = builder.imageHeight;
+    }
+
+    /**
+     * Creates a new builder to build a {@link ShardedImageFolder}.
+     *
+     * @return a new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Packs the images of an {@link AbstractImageFolder} into shard files.
+     *
+     * <p>If {@code decode} is {@code true}, the images are stored as decoded pixels with the color
+     * mode and (if set) the image size of the image folder. Otherwise, the image files are stored
+     * as they are, which is smaller but still requires decoding while training.
+     *
+     * @param folder the image folder to pack
+     * @param dir the directory to write the index and the shards to
+     * @param decode whether to store the decoded pixels instead of the image files
+     * @param shardSize the approximate size of each shard in bytes, up to 2 GB
+     * @throws IOException if the images cannot be read or the shards cannot be written
+     * @throws TranslateException if the image folder cannot be prepared
+     */
+    public static void convert(AbstractImageFolder folder, Path dir, boolean decode, long shardSize)
+            throws IOException, TranslateException {
+        if (shardSize <= 0 || shardSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Shard size must be between 1 and 2 GB");
+        }
+        folder.prepare();
+        Files.createDirectories(dir);
+
+        // shuffle once, so that a shard holds a mix of all classes
+        List<Integer> order = new ArrayList<>(folder.items.size());
+        for (int i = 0; i < folder.items.size(); ++i) {
+            order.add(i);
+        }
+        Collections.shuffle(order, new Random(0));
+
+        Image.Flag flag = folder.getImageChannels() == 1 ? Image.Flag.GRAYSCALE : Image.Flag.COLOR;
+        Optional<Integer> width = folder.getImageWidth();
+        Optional<Integer> height = folder.getImageHeight();
+
+        int numShards = 0;
+        long shardBytes = 0;
+        OutputStream os = null;
+        int[] recordShard = new int[order.size()];
+        long[] recordOffset = new long[order.size()];
+        int[] recordLength = new int[order.size()];
+        int[] labels = new int[order.size()];
+        try (NDManager manager = decode ? NDManager.newBaseManager() : null) {
+            for (int i = 0; i < order.size(); ++i) {
+                Pair<String, Integer> item = folder.items.get(order.get(i));
+                ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER);
+                header.putInt(item.getValue());
+                byte[] data;
+                if (decode) {
+                    try (NDManager sub = manager.newSubManager()) {
+                        NDArray array = folder.getImage(order.get(i)).toNDArray(sub, flag);
+                        if (width.isPresent() && height.isPresent()) {
+                            array = NDImageUtils.resize(array, width.get(), height.get());
+                        }
+                        Shape shape = array.getShape();
+                        header.putInt((int) shape.get(0));
+                        header.putInt((int) shape.get(1));
+                        header.putInt((int) shape.get(2));
+                        data = array.toType(DataType.UINT8, false).toByteArray();
+                    }
+                } else {
+                    data = Files.readAllBytes(folder.getImagePath(item.getKey()));
+                }
+
+                int length = RECORD_HEADER + data.length;
+                if (os == null || shardBytes > 0 && shardBytes + length > shardSize) {
+                    if (os != null) {
+                        os.close();
+                    }
+                    Path shard = dir.resolve(shardName(numShards++));
+                    os = new BufferedOutputStream(Files.newOutputStream(shard), 1 << 16);
+                    shardBytes = 0;
+                }
+                os.write(header.array());
+                os.write(data);
+                recordShard[i] = numShards - 1;
+                recordOffset[i] = shardBytes;
+                recordLength[i] = length;
+                labels[i] = item.getValue();
+                shardBytes += length;
+            }
+        } finally {
+            if (os != null) {
+                os.close();
+            }
+        }
+
+        try (DataOutputStream dos =
+                new DataOutputStream(
+                        new BufferedOutputStream(Files.newOutputStream(dir.resolve(INDEX))))) {
+            dos.writeInt(MAGIC);
+            dos.writeInt(VERSION);
+            dos.writeBoolean(!decode);
+            List<String> classes = folder.getSynset();
+            dos.writeInt(classes.size());
+            for (String name : classes) {
+                dos.writeUTF(name);
+            }
+            dos.writeInt(numShards);
+            dos.writeInt(order.size());
+            for (int i = 0; i < order.size(); ++i) {
+                dos.writeInt(recordShard[i]);
+                dos.writeLong(recordOffset[i]);
+                dos.writeInt(recordLength[i]);
+                dos.writeInt(labels[i]);
+            }
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void prepare(Progress progress) throws IOException {
+        if (prepared) {
+            return;
+        }
+        try (DataInputStream dis =
+                new DataInputStream(
+                        new BufferedInputStream(Files.newInputStream(dir.resolve(INDEX))))) {
+            if (dis.readInt() != MAGIC) {
+                throw new IOException("Not a sharded image folder: " + dir);
+            }
+            int version = dis.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported version: " + version);
+            }
+            encoded = dis.readBoolean();
+            int numClasses = dis.readInt();
+            synset = new ArrayList<>(numClasses);
+            for (int i = 0; i < numClasses; ++i) {
+                synset.add(dis.readUTF());
+            }
+            int numShards = dis.readInt();
+            int size = dis.readInt();
+            recordShard = new int[size];
+            recordOffset = new long[size];
+            recordLength = new int[size];
+            labels = new int[size];
+            shardStart = new int[numShards + 1];
+            for (int i = 0; i < size; ++i) {
+                recordShard[i] = dis.readInt();
+                recordOffset[i] = dis.readLong();
+                recordLength[i] = dis.readInt();
+                labels[i] = dis.readInt();
+                shardStart[recordShard[i] + 1] = i + 1;
+            }
+
+            shards = new MappedByteBuffer[numShards];
+            if (progress != null) {
+                progress.reset("Mapping shards", numShards);
+            }
+            for (int i = 0; i < numShards; ++i) {
+                try (FileChannel fc = FileChannel.open(dir.resolve(shardName(i)))) {
+                    shards[i] = fc.map(FileChannel.MapMode.READ_ONLY, 0, fc.size());
+                }
+                if (progress != null) {
+                    progress.increment(1);
+                }
+            }
+            if (progress != null) {
+                progress.end();
+            }
+        }
+        prepared = true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected NDArray getRecordImage(NDManager manager, long index) throws IOException {
+        int i = Math.toIntExact(index);
+        if (encoded) {
+            return super.getRecordImage(manager, index);
+        }
+        ByteBuffer record = getRecord(i);
+        // skip the label
+        record.getInt();
+        int height = record.getInt();
+        int width = record.getInt();
+        int channels = record.getInt();
+        ByteBuffer bb = manager.allocateDirect(record.remaining());
+        bb.put(record);
+        bb.rewind();
+        NDArray image = manager.create(bb, new Shape(height, width, channels), DataType.UINT8);
+        if (imageWidth != null
+                && imageHeight != null
+                && (imageWidth != width || imageHeight != height)) {
+            image = NDImageUtils.resize(image, imageWidth, imageHeight);
+        }
+        return image;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected Image getImage(long index) throws IOException {
+        ByteBuffer record = getRecord(Math.toIntExact(index));
+        record.position(record.position() + RECORD_HEADER);
+        if (encoded) {
+            byte[] buf = new byte[record.remaining()];
+            record.get(buf);
+            return ImageFactory.getInstance().fromInputStream(new ByteArrayInputStream(buf));
+        }
+        try (NDManager manager = NDManager.newBaseManager()) {
+            NDArray array = getRecordImage(manager, index);
+            return ImageFactory.getInstance().fromNDArray(array);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected long getClassNumber(long index) {
+        return labels[Math.toIntExact(index)];
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected long availableSize() {
+        return labels.length;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public List<String> getClasses() {
+        return synset;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Optional<Integer> getImageWidth() {
+        return Optional.ofNullable(imageWidth);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Optional<Integer> getImageHeight() {
+        return Optional.ofNullable(imageHeight);
+    }
+
+    /**
+     * Returns the number of shards.
+     *
+     * @return the number of shards
+     */
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    private ByteBuffer getRecord(int index) {
+        // duplicate so that concurrent readers don't share the position of the mapped buffer
+        ByteBuffer shard = shards[recordShard[index]].duplicate();
+        int offset = Math.toIntExact(recordOffset[index]);
+        shard.position(offset);
+        shard.limit(offset + recordLength[index]);
+        return shard;
+    }
+
+    private static String shardName(int shard) {
+        return String.format(Locale.ROOT, "shard-%05d.djls", shard);
+    }
+
+    /**
+     * A {@link Sampler.SubSampler} that visits the shards of a {@link ShardedImageFolder} in random
+     * order and shuffles the records within each shard.
+     *
+     * <p>Each shard is read to the end before moving on to the next shard, so the pages of a shard
+     * are read sequentially while the order of the samples is still random.
+     */
+    public static final class ShardSampler implements Sampler.SubSampler {
+
+        private Integer seed;
+
+        /** Creates a new instance of {@code ShardSampler}. */
+        public ShardSampler() {}
+
+        /**
+         * Creates a new instance of {@code ShardSampler} with the given seed.
+         *
+         * @param seed the value of the seed
+         */
+        public ShardSampler(int seed) {
+            this.seed = seed;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public Iterator<Long> sample(RandomAccessDataset dataset) {
+            if (!(dataset instanceof ShardedImageFolder)) {
+                throw new IllegalArgumentException("ShardSampler requires a ShardedImageFolder");
+            }
+            ShardedImageFolder folder = (ShardedImageFolder) dataset;
+            Random rnd = seed != null ? new Random(seed) : RandomUtils.RANDOM;
+            return new Iterate(folder.shardStart, folder.size(), rnd);
+        }
+
+        private static final class Iterate implements Iterator<Long> {
+
+            private int[] shardStart;
+            private long size;
+            private Random rnd;
+            private int[] shardOrder;
+            private int nextShard;
+            private int[] indices;
+            private int current;
+
+            Iterate(int[] shardStart, long size, Random rnd) {
+                this.shardStart = shardStart;
+                this.size = size;
+                this.rnd = rnd;
+                shardOrder = new int[shardStart.length - 1];
+                for (int i = 0; i < shardOrder.length; ++i) {
+                    shardOrder[i] = i;
+                }
+                shuffle(shardOrder);
+                indices = new int[0];
+                advance();
+            }
+
+            /** {@inheritDoc} */
+            @Override
+            public boolean hasNext() {
+                return current < indices.length;
+            }
+
+            /** {@inheritDoc} */
+            @Override
+            public Long next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                long index = indices[current++];
+                if (current == indices.length) {
+                    advance();
+                }
+                return index;
+            }
+
+            private void advance() {
+                while (nextShard < shardOrder.length) {
+                    int shard = shardOrder[nextShard++];
+                    // records beyond the size are excluded by optLimit()
+                    int start = shardStart[shard];
+                    int end = (int) Math.min(shardStart[shard + 1], size);
+                    if (end > start) {
+                        indices = new int[end - start];
+                        for (int i = 0; i < indices.length; ++i) {
+                            indices[i] = start + i;
+                        }
+                        shuffle(indices);
+                        current = 0;
+                        return;
+                    }
+                }
+            }
+
+            private void shuffle(int[] array) {
+                for (int i = array.length - 1; i > 0; --i) {
+                    int j = rnd.nextInt(i + 1);
+                    int tmp = array[i];
+                    array[i] = array[j];
+                    array[j] = tmp;
+                }
+            }
+        }
+    }
+
+    /** A builder for the {@link ShardedImageFolder}. */
+    public static final class Builder extends BaseBuilder<Builder> {
+
+        Path dir;
+        Integer imageWidth;
+        Integer imageHeight;
+
+        Builder() {}
+
+        /** {@inheritDoc} */
+        @Override
+        protected Builder self() {
+            return this;
+        }
+
+        /**
+         * Sets the directory containing the index and the shards.
+         *
+         * @param dir the directory written by {@link
+         *     ShardedImageFolder#convert(AbstractImageFolder, Path, boolean, long)}
+         * @return this builder
+         */
+        public Builder setDirectory(Path dir) {
+            this.dir = dir;
+            return this;
+        }
+
+        /**
+         * Sets the width of the images, images of another size are resized.
+         *
+         * @param width the width of the images
+         * @return this builder
+         */
+        public Builder optImageWidth(int width) {
+            this.imageWidth = width;
+            return this;
+        }
+
+        /**
+         * Sets the height of the images, images of another size are resized.
+         *
+         * @param height the height of the images
+         * @return this builder
+         */
+        public Builder optImageHeight(int height) {
+            this.imageHeight = height;
+            return this;
+        }
+
+        /**
+         * Builds the {@link ShardedImageFolder}.
+         *
+         * @return the {@link ShardedImageFolder}
+         */
+        public ShardedImageFolder build() {
+            if (dir == null) {
+                throw new IllegalArgumentException("The directory must be set");
+            }
+            if (pipeline == null) {
+                pipeline = new Pipeline(new ToTensor());
+            }
+            return new ShardedImageFolder(this);
+        }
+    }
+}
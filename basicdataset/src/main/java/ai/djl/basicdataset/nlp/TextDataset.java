@@ -25,6 +25,7 @@ import ai.djl.ndarray.NDManager;
 import ai.djl.repository.MRL;
 import ai.djl.repository.Repository;
 import ai.djl.training.dataset.RandomAccessDataset;
+import ai.djl.training.dataset.SampleLengthProvider;
 
 import java.util.ArrayList;
 import java.util.Comparator;
@@ -40,7 +41,7 @@ import java.util.List;
  * are set, the dataset creates {@link TrainableWordEmbedding} based {@link TrainableWordEmbedding}
  * from the {@link Vocabulary} created within the dataset.
  */
-public abstract class TextDataset extends RandomAccessDataset {
+public abstract class TextDataset extends RandomAccessDataset implements SampleLengthProvider {
 
     protected TextData sourceTextData;
     protected TextData targetTextData;
@@ -51,6 +52,8 @@ public abstract class TextDataset extends RandomAccessDataset {
     protected boolean prepared;
     protected List<Sample> samples;
 
+    private int[] sampleLengths;
+
     /**
      * Creates a new instance of {@link RandomAccessDataset} with the given necessary
      * configurations.
@@ -134,6 +137,24 @@ public abstract class TextDataset extends RandomAccessDataset {
         return samples;
     }
 
+    /**
+     * Returns the number of tokens of the processed source text.
+     *
+     * @param index the index of the sample
+     * @return the number of tokens of the processed source text
+     */
+    @Override
+    public int getSampleLength(long index) {
+        if (sampleLengths == null) {
+            int[] lengths = new int[Math.toIntExact(size())];
+            for (Sample sample : getSamples()) {
+                lengths[Math.toIntExact(sample.getIndex())] = sample.getSentenceLength();
+            }
+            sampleLengths = lengths;
+        }
+        return sampleLengths[Math.toIntExact(index)];
+    }
+
     /**
      * Performs pre-processing steps on text data such as tokenising, applying {@link
      * ai.djl.modality.nlp.preprocess.TextProcessor}s, creating vocabulary, and word embeddings.
@@ -0,0 +1,471 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.basicdataset.tabular;
+
+import ai.djl.basicdataset.tabular.utils.DynamicBuffer;
+import ai.djl.basicdataset.tabular.utils.Feature;
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.Shape;
+import ai.djl.training.dataset.RandomAccessDataset;
+import ai.djl.training.dataset.Record;
+import ai.djl.util.Progress;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@code ColumnarDataset} is a {@link RandomAccessDataset} that reads already featurized rows from
+ * a memory-mapped columnar file.
+ *
+ * <p>The file is created once from any prepared {@link TabularDataset} with {@link
+ * #convert(TabularDataset, Path)}. Every feature and label is stored as its own column of
+ * featurized values: numeric features as {@code float} columns, one-hot encoded categorical
+ * features as an {@code int} column of category indices. Reading a row copies floats out of the
+ * mapped file, no cell is parsed or featurized again. Since the file is memory-mapped, it does not
+ * need to fit on the heap.
+ *
+ * <p>The file starts with a header followed by the column data, in little endian:
+ *
+ * <pre>
+ * int magic, int version, long rows, int columns
+ * for each column: UTF-8 name, byte role (0 feature, 1 label), byte type (0 float, 1 one-hot),
+ *                  int width, long offset
+ * column data
+ * </pre>
+ */
+public class ColumnarDataset extends RandomAccessDataset {
+
+    private static final int MAGIC = 0x444a4c54; // DJLT
+    private static final int VERSION = 1;
+    private static final byte FEATURE = 0;
+    private static final byte LABEL = 1;
+    private static final byte FLOAT = 0;
+    private static final byte ONE_HOT = 1;
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private Path file;
+    private long rows;
+    private List<Column> features;
+    private List<Column> labels;
+    private int featureWidth;
+    private int labelWidth;
+    private boolean prepared;
+
+    ColumnarDataset(Builder builder) {
+        super(builder);
+        file = builder.file;
+    }
+
+    /**
+     * Creates a new builder to build a {@link ColumnarDataset}.
+     *
+     * @return a new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Writes the featurized rows of a {@link TabularDataset} into a columnar file.
+     *
+     * <p>The dataset must be prepared. A feature is stored as a one-hot column if every featurized
+     * value of it is a one-hot vector.
+     *
+     * @param dataset the prepared dataset to convert
+     * @param file the columnar file to write
+     * @throws IOException if the file could not be written
+     */
+    public static void convert(TabularDataset dataset, Path file) throws IOException {
+        long rows = dataset.size();
+        List<Column> columns = new ArrayList<>();
+        for (Feature feature : dataset.features) {
+            columns.add(new Column(feature, FEATURE));
+        }
+        for (Feature feature : dataset.labels) {
+            columns.add(new Column(feature, LABEL));
+        }
+
+        try (FileChannel channel =
+                FileChannel.open(
+                        file,
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING,
+                        StandardOpenOption.READ,
+                        StandardOpenOption.WRITE)) {
+            // the header has the same size for any column type, it is written last
+            long offset = align(headerSize(columns));
+            ByteBuffer buf =
+                    ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            for (Column column : columns) {
+                column.offset = offset;
+                channel.position(offset);
+                // a column is written as one-hot until a value is not a one-hot vector, every
+                // cell is featurized once
+                for (long i = 0; i < rows; ++i) {
+                    FloatBuffer values = column.featurize(dataset, i);
+                    int index = oneHotIndex(values);
+                    if (i == 0) {
+                        column.width = values.remaining();
+                        column.type = column.width >= 2 && index >= 0 ? ONE_HOT : FLOAT;
+                        if (buf.capacity() < column.width * 4) {
+                            buf =
+                                    ByteBuffer.allocateDirect(column.width * 4)
+                                            .order(ByteOrder.LITTLE_ENDIAN);
+                        }
+                    } else if (values.remaining() != column.width) {
+                        throw new IllegalArgumentException(
+                                "Feature " + column.name + " has a variable length.");
+                    }
+                    if (column.type == ONE_HOT && index < 0) {
+                        flush(channel, buf);
+                        expandOneHot(channel, column, i);
+                        column.type = FLOAT;
+                    }
+                    if (buf.remaining() < values.remaining() * 4) {
+                        flush(channel, buf);
+                    }
+                    if (column.type == ONE_HOT) {
+                        buf.putInt(index);
+                    } else {
+                        while (values.hasRemaining()) {
+                            buf.putFloat(values.get());
+                        }
+                    }
+                }
+                flush(channel, buf);
+                long bytes = column.type == ONE_HOT ? 4L : 4L * column.width;
+                offset = align(offset + bytes * rows);
+            }
+            // pads the last column
+            if (channel.size() < offset) {
+                writeFully(
+                        channel,
+                        ByteBuffer.allocate((int) (offset - channel.size())),
+                        channel.size());
+            }
+            writeFully(channel, writeHeader(columns, rows), 0);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void prepare(Progress progress) throws IOException {
+        if (prepared) {
+            return;
+        }
+        features = new ArrayList<>();
+        labels = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = mapBuffer(channel, 0, Math.min(channel.size(), Integer.MAX_VALUE));
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("Invalid columnar file: " + file);
+            }
+            rows = header.getLong();
+            int numColumns = header.getInt();
+            for (int i = 0; i < numColumns; ++i) {
+                byte[] name = new byte[header.getShort()];
+                header.get(name);
+                Column column = new Column(new String(name, StandardCharsets.UTF_8));
+                byte role = header.get();
+                column.type = header.get();
+                column.width = header.getInt();
+                column.offset = header.getLong();
+                column.map(channel, rows);
+                if (role == FEATURE) {
+                    features.add(column);
+                    featureWidth += column.width;
+                } else {
+                    labels.add(column);
+                    labelWidth += column.width;
+                }
+            }
+        }
+        prepared = true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Record get(NDManager manager, long index) {
+        NDList data = new NDList(manager.create(read(features, featureWidth, index)));
+        NDList label;
+        if (labels.isEmpty()) {
+            label = new NDList();
+        } else {
+            label = new NDList(manager.create(read(labels, labelWidth, index)));
+        }
+        return new Record(data, label);
+    }
+
+    /**
+     * Returns the rows at the given indices as a single batch.
+     *
+     * <p>The data and labels are each returned as one array of shape (indices.length, width).
+     *
+     * @param manager the manager used to create the arrays
+     * @param indices the indices of the rows
+     * @return the rows as a {@link Record}
+     */
+    public Record getRows(NDManager manager, long[] indices) {
+        return new Record(
+                new NDList(readBatch(manager, features, featureWidth, indices)),
+                labels.isEmpty()
+                        ? new NDList()
+                        : new NDList(readBatch(manager, labels, labelWidth, indices)));
+    }
+
+    /**
+     * Returns the names of the feature columns.
+     *
+     * @return the names of the feature columns
+     */
+    public List<String> getFeatureNames() {
+        List<String> names = new ArrayList<>(features.size());
+        for (Column column : features) {
+            names.add(column.name);
+        }
+        return names;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected long availableSize() {
+        return rows;
+    }
+
+    private static float[] read(List<Column> columns, int width, long index) {
+        float[] values = new float[width];
+        int pos = 0;
+        for (Column column : columns) {
+            column.read(index, values, pos);
+            pos += column.width;
+        }
+        return values;
+    }
+
+    private static NDArray readBatch(
+            NDManager manager, List<Column> columns, int width, long[] indices) {
+        float[] values = new float[indices.length * width];
+        for (int i = 0; i < indices.length; ++i) {
+            int pos = i * width;
+            for (Column column : columns) {
+                column.read(indices[i], values, pos);
+                pos += column.width;
+            }
+        }
+        return manager.create(FloatBuffer.wrap(values), new Shape(indices.length, width));
+    }
+
+    private static int headerSize(List<Column> columns) {
+        int size = 20;
+        for (Column column : columns) {
+            size += 2 + column.name.getBytes(StandardCharsets.UTF_8).length + 14;
+        }
+        return size;
+    }
+
+    private static ByteBuffer writeHeader(List<Column> columns, long rows) {
+        ByteBuffer buf = ByteBuffer.allocate(headerSize(columns)).order(ByteOrder.LITTLE_ENDIAN);
+        buf.putInt(MAGIC).putInt(VERSION).putLong(rows).putInt(columns.size());
+        for (Column column : columns) {
+            byte[] name = column.name.getBytes(StandardCharsets.UTF_8);
+            buf.putShort((short) name.length).put(name);
+            buf.put(column.role).put(column.type).putInt(column.width).putLong(column.offset);
+        }
+        buf.flip();
+        return buf;
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buf) throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) {
+            channel.write(buf);
+        }
+        buf.clear();
+    }
+
+    // rewrites the one-hot indices of the first rows of a column as floats in place, from the last
+    // row to the first, the floats of a row start after the indices of all rows before it
+    private static void expandOneHot(FileChannel channel, Column column, long rows)
+            throws IOException {
+        int width = column.width;
+        int chunk = Math.max(1, WRITE_BUFFER_SIZE / (4 * width));
+        ByteBuffer ints = ByteBuffer.allocate(chunk * 4).order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer floats = ByteBuffer.allocate(chunk * 4 * width).order(ByteOrder.LITTLE_ENDIAN);
+        for (long end = rows; end > 0; end -= chunk) {
+            long start = Math.max(0, end - chunk);
+            int count = (int) (end - start);
+            ints.clear();
+            ints.limit(count * 4);
+            long position = column.offset + start * 4;
+            while (ints.hasRemaining()) {
+                if (channel.read(ints, position + ints.position()) < 0) {
+                    throw new IOException("Unexpected end of the columnar file");
+                }
+            }
+            ints.flip();
+            floats.clear();
+            for (int i = 0; i < count; ++i) {
+                int index = ints.getInt();
+                for (int j = 0; j < width; ++j) {
+                    floats.putFloat(j == index ? 1f : 0f);
+                }
+            }
+            floats.flip();
+            writeFully(channel, floats, column.offset + start * 4 * width);
+        }
+        channel.position(column.offset + rows * 4 * width);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buf, long position)
+            throws IOException {
+        while (buf.hasRemaining()) {
+            channel.write(buf, position + buf.position());
+        }
+    }
+
+    private static int oneHotIndex(FloatBuffer values) {
+        int index = -1;
+        for (int i = values.position(); i < values.limit(); ++i) {
+            float value = values.get(i);
+            if (value == 1f && index < 0) {
+                index = i - values.position();
+            } else if (value != 0f) {
+                return -1;
+            }
+        }
+        return index;
+    }
+
+    private static long align(long offset) {
+        return (offset + 7) & ~7L;
+    }
+
+    private static MappedByteBuffer mapBuffer(FileChannel channel, long offset, long size)
+            throws IOException {
+        MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, offset, size);
+        buf.order(ByteOrder.LITTLE_ENDIAN);
+        return buf;
+    }
+
+    private static final class Column {
+
+        String name;
+        Feature feature;
+        byte role;
+        byte type;
+        int width;
+        long offset;
+        int rowsPerChunk;
+        FloatBuffer[] floats;
+        IntBuffer[] ints;
+
+        Column(String name) {
+            this.name = name;
+        }
+
+        Column(Feature feature, byte role) {
+            this(feature.getName());
+            this.feature = feature;
+            this.role = role;
+        }
+
+        FloatBuffer featurize(TabularDataset dataset, long row) {
+            DynamicBuffer buf = new DynamicBuffer();
+            feature.getFeaturizer().featurize(buf, dataset.getCell(row, name));
+            return buf.getBuffer();
+        }
+
+        // maps the column in chunks, a single mapping is limited to 2 GB
+        void map(FileChannel channel, long rows) throws IOException {
+            int rowBytes = type == ONE_HOT ? 4 : 4 * width;
+            rowsPerChunk = Integer.MAX_VALUE / rowBytes;
+            int chunks = Math.toIntExact((rows + rowsPerChunk - 1) / rowsPerChunk);
+            if (type == ONE_HOT) {
+                ints = new IntBuffer[chunks];
+            } else {
+                floats = new FloatBuffer[chunks];
+            }
+            for (int i = 0; i < chunks; ++i) {
+                long first = (long) i * rowsPerChunk;
+                long size = Math.min(rowsPerChunk, rows - first) * rowBytes;
+                ByteBuffer buf = mapBuffer(channel, offset + first * rowBytes, size);
+                if (type == ONE_HOT) {
+                    ints[i] = buf.asIntBuffer();
+                } else {
+                    floats[i] = buf.asFloatBuffer();
+                }
+            }
+        }
+
+        void read(long row, float[] dest, int pos) {
+            int chunk = (int) (row / rowsPerChunk);
+            int index = (int) (row % rowsPerChunk);
+            if (type == ONE_HOT) {
+                dest[pos + ints[chunk].get(index)] = 1f;
+            } else {
+                FloatBuffer buf = floats[chunk].duplicate();
+                buf.position(index * width);
+                buf.get(dest, pos, width);
+            }
+        }
+    }
+
+    /** A builder to construct a {@link ColumnarDataset}. */
+    public static final class Builder extends BaseBuilder<Builder> {
+
+        Path file;
+
+        /** {@inheritDoc} */
+        @Override
+        protected Builder self() {
+            return this;
+        }
+
+        /**
+         * Sets the columnar file to read.
+         *
+         * @param file the columnar file created with {@link ColumnarDataset#convert(TabularDataset,
+         *     Path)}
+         * @return this builder
+         */
+        public Builder setFile(Path file) {
+            this.file = file;
+            return this;
+        }
+
+        /**
+         * Builds the {@link ColumnarDataset}.
+         *
+         * @return the {@link ColumnarDataset}
+         */
+        public ColumnarDataset build() {
+            if (file == null || !Files.isRegularFile(file)) {
+                throw new IllegalArgumentException("Columnar file not found: " + file);
+            }
+            return new ColumnarDataset(this);
+        }
+    }
+}
@@ -30,8 +30,12 @@ import ai.djl.nn.AbstractBlock;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * {@link TextData} is a utility for managing textual data within a {@link
@@ -41,6 +45,8 @@ import java.util.Locale;
  */
 public class TextData {
 
+    private static final int SHARD_SIZE = 1024;
+
     private List<NDArray> textEmbeddingList;
     private List<String> rawText;
     private List<TextProcessor> textProcessors;
@@ -87,20 +93,24 @@ public class TextData {
     /**
      * Preprocess the textData into {@link NDArray} by providing the data from the dataset.
      *
+     * <p>The text processors run in parallel over shards of the data on the common {@link
+     * java.util.concurrent.ForkJoinPool}, so they must be thread safe. The token frequencies of the
+     * shards are merged in order, so the vocabulary and the embeddings are the same for any number
+     * of threads.
+     *
      * @param manager the
      * @param newTextData the data from the dataset
      * @throws EmbeddingException if there is an error while embedding input
      */
     public void preprocess(NDManager manager, List<String> newTextData) throws EmbeddingException {
         rawText = newTextData;
-        List<List<String>> textData = new ArrayList<>();
-        for (String textDatum : newTextData) {
-            List<String> tokens = Collections.singletonList(textDatum);
-            for (TextProcessor processor : textProcessors) {
-                tokens = processor.preprocess(tokens);
-            }
-            textData.add(tokens);
-        }
+        size = newTextData.size();
+        int shardCount = (size + SHARD_SIZE - 1) / SHARD_SIZE;
+        List<Shard> shards =
+                IntStream.range(0, shardCount)
+                        .parallel()
+                        .mapToObj(i -> processShard(i * SHARD_SIZE))
+                        .collect(Collectors.toList());
 
         if (vocabulary == null) {
             DefaultVocabulary.Builder vocabularyBuilder = DefaultVocabulary.builder();
@@ -108,32 +118,69 @@ public class TextData {
                     .optMinFrequency(3)
                     .optReservedTokens(reservedTokens)
                     .optUnknownToken(unknownToken);
-            for (List<String> tokens : textData) {
-                vocabularyBuilder.add(tokens);
+            for (Shard shard : shards) {
+                for (int i = 0; i < shard.uniqueTokens.size(); ++i) {
+                    vocabularyBuilder.add(shard.uniqueTokens.get(i), shard.counts[i]);
+                }
             }
             vocabulary = vocabularyBuilder.build();
         }
 
+        // the ids of a trainable embedding of this vocabulary are the vocabulary indices
+        boolean vocabularyIds = textEmbedding == null;
         if (textEmbedding == null) {
             textEmbedding =
                     new TrainableTextEmbedding(
                             new TrainableWordEmbedding(vocabulary, embeddingSize));
         }
-        size = textData.size();
-        textEmbeddingList = new ArrayList<>();
-        for (int i = 0; i < size; i++) {
-            List<String> tokenizedTextDatum = textData.get(i);
-            for (int j = 0; j < tokenizedTextDatum.size(); j++) {
-                tokenizedTextDatum.set(
-                        j, vocabulary.getToken(vocabulary.getIndex(tokenizedTextDatum.get(j))));
+        if (vocabularyIds) {
+            shards.parallelStream().forEach(this::toIds);
+        }
+
+        textEmbeddingList = new ArrayList<>(size);
+        for (Shard shard : shards) {
+            for (int i = 0; i < shard.tokens.size(); ++i) {
+                if (vocabularyIds) {
+                    textEmbeddingList.add(manager.create(shard.ids[i]));
+                    continue;
+                }
+                List<String> tokenizedTextDatum = new ArrayList<>();
+                for (String token : shard.tokens.get(i)) {
+                    tokenizedTextDatum.add(vocabulary.getToken(vocabulary.getIndex(token)));
+                }
+                if (textEmbedding instanceof AbstractBlock) {
+                    textEmbeddingList.add(
+                            manager.create(
+                                    textEmbedding.preprocessTextToEmbed(tokenizedTextDatum)));
+                } else {
+                    textEmbeddingList.add(textEmbedding.embedText(manager, tokenizedTextDatum));
+                }
             }
-            textData.set(i, tokenizedTextDatum);
-            if (textEmbedding instanceof AbstractBlock) {
-                textEmbeddingList.add(
-                        manager.create(textEmbedding.preprocessTextToEmbed(tokenizedTextDatum)));
-            } else {
-                textEmbeddingList.add(textEmbedding.embedText(manager, tokenizedTextDatum));
+        }
+    }
+
+    private Shard processShard(int start) {
+        int end = Math.min(start + SHARD_SIZE, size);
+        Shard shard = new Shard(end - start);
+        for (int i = start; i < end; ++i) {
+            List<String> tokens = Collections.singletonList(rawText.get(i));
+            for (TextProcessor processor : textProcessors) {
+                tokens = processor.preprocess(tokens);
             }
+            shard.add(tokens);
+        }
+        return shard;
+    }
+
+    private void toIds(Shard shard) {
+        shard.ids = new long[shard.tokens.size()][];
+        for (int i = 0; i < shard.ids.length; ++i) {
+            List<String> tokens = shard.tokens.get(i);
+            long[] ids = new long[tokens.size()];
+            for (int j = 0; j < ids.length; ++j) {
+                ids[j] = vocabulary.getIndex(tokens.get(j));
+            }
+            shard.ids[i] = ids;
         }
     }
 
@@ -232,6 +279,36 @@ public class TextData {
         return size;
     }
 
+    /** The processed sentences of a shard and the frequencies of their tokens. */
+    private static final class Shard {
+
+        List<List<String>> tokens;
+        long[][] ids;
+        List<String> uniqueTokens = new ArrayList<>();
+        int[] counts = new int[64];
+        Map<String, Integer> indices = new HashMap<>();
+
+        Shard(int sentences) {
+            tokens = new ArrayList<>(sentences);
+        }
+
+        void add(List<String> sentence) {
+            tokens.add(sentence);
+            for (String token : sentence) {
+                Integer index = indices.get(token);
+                if (index == null) {
+                    index = uniqueTokens.size();
+                    indices.put(token, index);
+                    uniqueTokens.add(token);
+                    if (counts.length == index) {
+                        counts = Arrays.copyOf(counts, index * 2);
+                    }
+                }
+                ++counts[index];
+            }
+        }
+    }
+
     /**
      * The configuration for creating a {@link TextData} value in a {@link
      * ai.djl.training.dataset.Dataset}.
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.basicdataset;
+
+import ai.djl.basicdataset.tabular.ColumnarDataset;
+import ai.djl.basicdataset.tabular.CsvDataset;
+import ai.djl.basicdataset.tabular.utils.Feature;
+import ai.djl.ndarray.NDManager;
+import ai.djl.training.dataset.Record;
+import ai.djl.translate.TranslateException;
+import ai.djl.util.Utils;
+
+import org.apache.commons.csv.CSVFormat;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+public class ColumnarDatasetTest {
+
+    @Test
+    public void testColumnarDataset() throws IOException, TranslateException {
+        Path dir = Paths.get("build/tmp/columnar");
+        Files.createDirectories(dir);
+        Path csvFile = dir.resolve("data.csv");
+        Path columnarFile = dir.resolve("data.djlt");
+        String csv = "x,color,y\n1.5,red,3\n2,blue,4\n-1,green,5\n4,red,6\n";
+        Files.write(csvFile, csv.getBytes(StandardCharsets.UTF_8));
+
+        try (NDManager manager = NDManager.newBaseManager()) {
+            CsvDataset csvDataset =
+                    CsvDataset.builder()
+                            .optCsvFile(csvFile)
+                            .setCsvFormat(CSVFormat.DEFAULT.builder().setHeader().build())
+                            .addNumericFeature("x")
+                            .addCategoricalFeature("color")
+                            .addNumericLabel("y")
+                            .setSampling(2, false)
+                            .build();
+            csvDataset.prepare();
+            ColumnarDataset.convert(csvDataset, columnarFile);
+
+            ColumnarDataset dataset =
+                    ColumnarDataset.builder().setFile(columnarFile).setSampling(2, false).build();
+            dataset.prepare();
+            Assert.assertEquals(dataset.size(), 4);
+            Assert.assertEquals(dataset.getFeatureNames(), Arrays.asList("x", "color"));
+
+            for (long i = 0; i < dataset.size(); ++i) {
+                Record expected = csvDataset.get(manager, i);
+                Record actual = dataset.get(manager, i);
+                Assert.assertEquals(
+                        actual.getData().head().toFloatArray(),
+                        expected.getData().head().toFloatArray());
+                Assert.assertEquals(
+                        actual.getLabels().head().toFloatArray(),
+                        expected.getLabels().head().toFloatArray());
+            }
+
+            Record batch = dataset.getRows(manager, new long[] {3, 1});
+            Assert.assertEquals(
+                    batch.getData().head().toFloatArray(), new float[] {4, 0, 0, 1, 2, 1, 0, 0});
+            Assert.assertEquals(batch.getLabels().head().toFloatArray(), new float[] {6, 4});
+        } finally {
+            Utils.deleteQuietly(dir);
+        }
+    }
+
+    @Test
+    public void testWideColumns() throws IOException, TranslateException {
+        Path dir = Paths.get("build/tmp/columnar-wide");
+        Files.createDirectories(dir);
+        Path csvFile = dir.resolve("data.csv");
+        Path columnarFile = dir.resolve("data.djlt");
+        Files.write(csvFile, "a,y\n0,1\n3,2\n-1,3\n5,4\n".getBytes(StandardCharsets.UTF_8));
+
+        // wider than the write buffer, and no longer one-hot from the third row
+        int width = 20000;
+        Feature wide =
+                new Feature(
+                        "a",
+                        (buf, input) -> {
+                            int index = Integer.parseInt(input);
+                            for (int i = 0; i < width; ++i) {
+                                buf.put(i == index ? 1f : index < 0 && i == 7 ? 0.5f : 0f);
+                            }
+                        });
+        try (NDManager manager = NDManager.newBaseManager()) {
+            CsvDataset csvDataset =
+                    CsvDataset.builder()
+                            .optCsvFile(csvFile)
+                            .setCsvFormat(CSVFormat.DEFAULT.builder().setHeader().build())
+                            .addFeature(wide)
+                            .addNumericLabel("y")
+                            .setSampling(2, false)
+                            .build();
+            csvDataset.prepare();
+            ColumnarDataset.convert(csvDataset, columnarFile);
+
+            ColumnarDataset dataset =
+                    ColumnarDataset.builder().setFile(columnarFile).setSampling(2, false).build();
+            dataset.prepare();
+            for (long i = 0; i < dataset.size(); ++i) {
+                Record expected = csvDataset.get(manager, i);
+                Record actual = dataset.get(manager, i);
+                Assert.assertEquals(
+                        actual.getData().head().toFloatArray(),
+                        expected.getData().head().toFloatArray());
+                Assert.assertEquals(
+                        actual.getLabels().head().toFloatArray(),
+                        expected.getLabels().head().toFloatArray());
+            }
+        } finally {
+            Utils.deleteQuietly(dir);
+        }
+    }
+}
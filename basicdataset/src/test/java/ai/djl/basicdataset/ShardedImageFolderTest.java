@@ -0,0 +1,92 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.basicdataset;
+
+import ai.djl.basicdataset.cv.classification.ImageFolder;
+import ai.djl.basicdataset.cv.classification.ShardedImageFolder;
+import ai.djl.modality.cv.transform.Resize;
+import ai.djl.modality.cv.transform.ToTensor;
+import ai.djl.ndarray.NDManager;
+import ai.djl.repository.Repository;
+import ai.djl.testing.Assertions;
+import ai.djl.training.dataset.BatchSampler;
+import ai.djl.training.dataset.Record;
+import ai.djl.translate.TranslateException;
+import ai.djl.util.Utils;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+public class ShardedImageFolderTest {
+
+    @Test
+    public void testShardedImageFolder() throws IOException, TranslateException {
+        Path dir = Paths.get("build/tmp/sharded");
+        Repository repository = Repository.newInstance("test", "src/test/resources/imagefolder");
+        ImageFolder folder =
+                ImageFolder.builder()
+                        .setRepository(repository)
+                        .addTransform(new Resize(64, 64))
+                        .addTransform(new ToTensor())
+                        .setSampling(1, false)
+                        .build();
+        folder.prepare();
+
+        try (NDManager manager = NDManager.newBaseManager()) {
+            for (boolean decode : new boolean[] {true, false}) {
+                Utils.deleteQuietly(dir);
+                // every image is larger than 1 KB, so each shard holds a single image
+                ShardedImageFolder.convert(folder, dir, decode, 1024);
+
+                ShardedImageFolder dataset =
+                        ShardedImageFolder.builder()
+                                .setDirectory(dir)
+                                .addTransform(new Resize(64, 64))
+                                .addTransform(new ToTensor())
+                                .setSampling(
+                                        new BatchSampler(new ShardedImageFolder.ShardSampler(), 2))
+                                .build();
+                dataset.prepare();
+                Assert.assertEquals(dataset.size(), 3);
+                Assert.assertEquals(dataset.getShardCount(), 3);
+                Assert.assertEquals(dataset.getClasses(), Arrays.asList("cat", "dog", "misc"));
+
+                // records are shuffled when they are written, match them by label
+                for (long i = 0; i < dataset.size(); ++i) {
+                    Record actual = dataset.get(manager, i);
+                    long label = actual.getLabels().head().toLongArray()[0];
+                    Record expected = folder.get(manager, label);
+                    Assertions.assertAlmostEquals(
+                            actual.getData().head(), expected.getData().head());
+                }
+
+                List<Long> indices = new ArrayList<>();
+                Iterator<Long> it = new ShardedImageFolder.ShardSampler(1).sample(dataset);
+                it.forEachRemaining(indices::add);
+                Collections.sort(indices);
+                Assert.assertEquals(indices, Arrays.asList(0L, 1L, 2L));
+            }
+        } finally {
+            Utils.deleteQuietly(dir);
+        }
+    }
+}
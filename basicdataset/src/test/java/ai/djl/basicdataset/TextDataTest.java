@@ -0,0 +1,93 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.basicdataset;
+
+import ai.djl.basicdataset.utils.TextData;
+import ai.djl.modality.nlp.DefaultVocabulary;
+import ai.djl.modality.nlp.Vocabulary;
+import ai.djl.modality.nlp.embedding.EmbeddingException;
+import ai.djl.ndarray.NDManager;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+public class TextDataTest {
+
+    @Test
+    public void testPreprocess()
+            throws EmbeddingException, ExecutionException, InterruptedException {
+        Random random = new Random(1234);
+        List<String> sentences = new ArrayList<>();
+        List<List<String>> tokens = new ArrayList<>();
+        for (int i = 0; i < 3000; ++i) {
+            StringBuilder sb = new StringBuilder();
+            List<String> words = new ArrayList<>();
+            for (int j = 0; j < 8; ++j) {
+                String word = "Word" + (int) Math.abs(random.nextGaussian() * 100);
+                sb.append(word).append(' ');
+                words.add(word.toLowerCase(Locale.ENGLISH));
+            }
+            sentences.add(sb.toString());
+            tokens.add(words);
+        }
+        Vocabulary expected =
+                DefaultVocabulary.builder()
+                        .optMinFrequency(3)
+                        .optReservedTokens(Arrays.asList("<bos>", "<eos>", "<pad>"))
+                        .optUnknownToken("<unk>")
+                        .addAll(tokens)
+                        .build();
+
+        try (NDManager manager = NDManager.newBaseManager()) {
+            TextData textData = new TextData(TextData.getDefaultConfiguration());
+            textData.preprocess(manager, sentences);
+
+            TextData serial = new TextData(TextData.getDefaultConfiguration());
+            ForkJoinPool pool = new ForkJoinPool(1);
+            try {
+                pool.submit(
+                                () -> {
+                                    serial.preprocess(manager, sentences);
+                                    return null;
+                                })
+                        .get();
+            } finally {
+                pool.shutdown();
+            }
+
+            Assert.assertEquals(textData.getSize(), 3000);
+            Vocabulary vocabulary = textData.getVocabulary();
+            Assert.assertEquals(vocabulary.size(), expected.size());
+            Assert.assertEquals(serial.getVocabulary().size(), expected.size());
+            for (long i = 0; i < expected.size(); ++i) {
+                Assert.assertEquals(vocabulary.getToken(i), expected.getToken(i));
+                Assert.assertEquals(serial.getVocabulary().getToken(i), expected.getToken(i));
+            }
+            for (int i = 0; i < 3000; i += 7) {
+                long[] ids = textData.getEmbedding(manager, i).toLongArray();
+                Assert.assertEquals(serial.getEmbedding(manager, i).toLongArray(), ids);
+                for (int j = 0; j < ids.length; ++j) {
+                    Assert.assertEquals(ids[j], expected.getIndex(tokens.get(i).get(j)));
+                }
+            }
+        }
+    }
+}
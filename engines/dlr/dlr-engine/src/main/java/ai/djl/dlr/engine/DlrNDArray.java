@@ -17,9 +17,9 @@ import ai.djl.ndarray.NDArrayAdapter;
 import ai.djl.ndarray.NDManager;
 import ai.djl.ndarray.types.DataType;
 import ai.djl.ndarray.types.Shape;
+import ai.djl.util.Utils;
 
 import java.nio.ByteBuffer;
-import java.util.UUID;
 
 /** {@code DlrNDArray} is the DLR implementation of {@link NDArray}. */
 public class DlrNDArray extends NDArrayAdapter {
@@ -42,7 +42,7 @@ public class DlrNDArray extends NDArrayAdapter {
             ByteBuffer data,
             Shape shape,
             DataType dataType) {
-        super(manager, alternativeManager, shape, dataType, UUID.randomUUID().toString());
+        super(manager, alternativeManager, shape, dataType, Utils.nextUid());
         this.data = data;
         manager.attachInternal(uid, this);
     }
@@ -30,7 +30,6 @@ import ml.dmlc.xgboost4j.java.JniUtils;
 
 import java.nio.Buffer;
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 import java.nio.FloatBuffer;
 import java.util.Arrays;
 
@@ -58,12 +57,6 @@ public class XgbNDManager extends BaseNDManager {
         this.missingValue = missingValue;
     }
 
-    /** {@inheritDoc} */
-    @Override
-    public ByteBuffer allocateDirect(int capacity) {
-        return ByteBuffer.allocateDirect(capacity).order(ByteOrder.nativeOrder());
-    }
-
     /** {@inheritDoc} */
     @Override
     public XgbNDArray from(NDArray array) {
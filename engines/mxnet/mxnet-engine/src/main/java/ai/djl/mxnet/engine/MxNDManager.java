@@ -29,8 +29,6 @@ import ai.djl.util.PairList;
 import com.sun.jna.Pointer;
 
 import java.nio.Buffer;
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 import java.nio.file.Path;
 
 /** {@code MxNDManager} is the MXNet implementation of {@link NDManager}. */
@@ -58,12 +56,6 @@ public class MxNDManager extends BaseNDManager {
         return SYSTEM_MANAGER;
     }
 
-    /** {@inheritDoc} */
-    @Override
-    public ByteBuffer allocateDirect(int capacity) {
-        return ByteBuffer.allocateDirect(capacity).order(ByteOrder.nativeOrder());
-    }
-
     /** {@inheritDoc} */
     @Override
     public MxNDArray from(NDArray array) {
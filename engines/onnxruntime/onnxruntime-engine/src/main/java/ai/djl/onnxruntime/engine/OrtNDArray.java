@@ -18,13 +18,13 @@ import ai.djl.ndarray.NDArrayAdapter;
 import ai.djl.ndarray.NDManager;
 import ai.djl.ndarray.types.DataType;
 import ai.djl.ndarray.types.Shape;
+import ai.djl.util.Utils;
 import ai.onnxruntime.OnnxTensor;
 import ai.onnxruntime.OrtException;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.charset.Charset;
-import java.util.UUID;
 import java.util.concurrent.atomic.AtomicReference;
 
 /** {@code OrtNDArray} is the ONNX Runtime implementation of {@link NDArray}. */
@@ -41,7 +41,7 @@ public class OrtNDArray extends NDArrayAdapter {
      * @param tensor the {@link OnnxTensor} to the ONNX Runtime
      */
     OrtNDArray(OrtNDManager manager, NDManager alternativeManager, OnnxTensor tensor) {
-        super(manager, alternativeManager, null, null, UUID.randomUUID().toString());
+        super(manager, alternativeManager, null, null, Utils.nextUid());
         this.tensor = new AtomicReference<>(tensor);
         manager.attachInternal(uid, this);
     }
@@ -24,7 +24,6 @@ import ai.djl.paddlepaddle.jni.JniUtils;
 
 import java.nio.Buffer;
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 
 /** {@code PpNDManager} is the PaddlePaddle implementation of {@link NDManager}. */
 public class PpNDManager extends BaseNDManager {
@@ -59,12 +58,6 @@ public class PpNDManager extends BaseNDManager {
         return Engine.getEngine(PpEngine.ENGINE_NAME);
     }
 
-    /** {@inheritDoc} */
-    @Override
-    public ByteBuffer allocateDirect(int capacity) {
-        return ByteBuffer.allocateDirect(capacity).order(ByteOrder.nativeOrder());
-    }
-
     /** {@inheritDoc} */
     @Override
     public PpNDArray from(NDArray array) {
@@ -14,6 +14,7 @@ package ai.djl.pytorch.zoo.nlp.qa;
 
 import ai.djl.modality.nlp.DefaultVocabulary;
 import ai.djl.modality.nlp.Vocabulary;
+import ai.djl.modality.nlp.bert.BertEncoding;
 import ai.djl.modality.nlp.bert.BertFullTokenizer;
 import ai.djl.modality.nlp.bert.BertToken;
 import ai.djl.modality.nlp.bert.BertTokenizer;
@@ -25,6 +26,7 @@ import ai.djl.ndarray.NDManager;
 import ai.djl.translate.TranslatorContext;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -32,6 +34,7 @@ import java.util.Map;
 public class PtBertQATranslator extends QATranslator {
 
     private List<String> tokens;
+    private long[] ids;
     private Vocabulary vocabulary;
     private BertTokenizer tokenizer;
 
@@ -63,6 +66,9 @@ public class PtBertQATranslator extends QATranslator {
             question = question.toLowerCase(locale);
             paragraph = paragraph.toLowerCase(locale);
         }
+        if (tokenizer instanceof BertFullTokenizer) {
+            return processEncoding(ctx.getNDManager(), question, paragraph);
+        }
         BertToken token;
         if (padding) {
             token = tokenizer.encode(question, paragraph, maxLength);
@@ -95,7 +101,32 @@ public class PtBertQATranslator extends QATranslator {
             startIdx = endIdx;
             endIdx = tmp;
         }
-        return tokenizer.buildSentence(tokens.subList(startIdx, endIdx + 1));
+        List<String> answer;
+        if (tokens == null) {
+            answer = new ArrayList<>(endIdx - startIdx + 1);
+            for (int i = startIdx; i <= endIdx; ++i) {
+                answer.add(vocabulary.getToken(ids[i]));
+            }
+        } else {
+            answer = tokens.subList(startIdx, endIdx + 1);
+        }
+        return tokenizer.buildSentence(answer);
+    }
+
+    // maps the text to the token ids directly, the tokens are looked up for the answer only
+    private NDList processEncoding(NDManager manager, String question, String paragraph) {
+        BertFullTokenizer fullTokenizer = (BertFullTokenizer) tokenizer;
+        BertEncoding encoding =
+                fullTokenizer.encode(question, paragraph, padding ? maxLength : 0, null);
+        tokens = null;
+        ids = encoding.getIds();
+        NDList ndList = new NDList(3);
+        ndList.add(manager.create(ids));
+        ndList.add(manager.create(encoding.getAttentionMask()));
+        if (includeTokenTypes) {
+            ndList.add(manager.create(encoding.getTypeIds()));
+        }
+        return ndList;
     }
 
     /**
@@ -18,10 +18,10 @@ import ai.djl.ndarray.NDArrayAdapter;
 import ai.djl.ndarray.NDManager;
 import ai.djl.ndarray.types.DataType;
 import ai.djl.ndarray.types.Shape;
+import ai.djl.util.Utils;
 
 import java.nio.Buffer;
 import java.nio.ByteBuffer;
-import java.util.UUID;
 
 /** {@code TrtNDArray} is the TensorRT implementation of {@link NDArray}. */
 public class TrtNDArray extends NDArrayAdapter {
@@ -35,7 +35,7 @@ public class TrtNDArray extends NDArrayAdapter {
             ByteBuffer data,
             Shape shape,
             DataType dataType) {
-        super(manager, alternativeManager, shape, dataType, UUID.randomUUID().toString());
+        super(manager, alternativeManager, shape, dataType, Utils.nextUid());
         this.data = data;
         manager.attachInternal(uid, this);
     }
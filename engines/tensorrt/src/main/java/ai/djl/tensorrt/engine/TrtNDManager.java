@@ -24,7 +24,6 @@ import ai.djl.util.Float16Utils;
 
 import java.nio.Buffer;
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 
 /** {@code TrtNDManager} is the TensorRT implementation of {@link NDManager}. */
 public class TrtNDManager extends BaseNDManager {
@@ -45,12 +44,6 @@ public class TrtNDManager extends BaseNDManager {
         return Engine.getEngine(TrtEngine.ENGINE_NAME);
     }
 
-    /** {@inheritDoc} */
-    @Override
-    public ByteBuffer allocateDirect(int capacity) {
-        return ByteBuffer.allocateDirect(capacity).order(ByteOrder.nativeOrder());
-    }
-
     /** {@inheritDoc} */
     @Override
     public TrtNDArray from(NDArray array) {
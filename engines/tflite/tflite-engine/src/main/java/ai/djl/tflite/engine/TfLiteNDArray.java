@@ -17,12 +17,12 @@ import ai.djl.ndarray.NDArrayAdapter;
 import ai.djl.ndarray.NDManager;
 import ai.djl.ndarray.types.DataType;
 import ai.djl.ndarray.types.Shape;
+import ai.djl.util.Utils;
 
 import org.tensorflow.lite.Tensor;
 
 import java.nio.ByteBuffer;
 import java.util.Arrays;
-import java.util.UUID;
 
 /** {@code TfLiteNDArray} is the TFLite implementation of {@link NDArray}. */
 public class TfLiteNDArray extends NDArrayAdapter {
@@ -36,7 +36,7 @@ public class TfLiteNDArray extends NDArrayAdapter {
                 alternativeManager,
                 new Shape(Arrays.stream(tensor.shape()).mapToLong(i -> i).toArray()),
                 TfLiteDataType.fromTf(tensor.dataType()),
-                UUID.randomUUID().toString());
+                Utils.nextUid());
         this.tensor = tensor;
         manager.attachInternal(uid, this);
     }
@@ -47,7 +47,7 @@ public class TfLiteNDArray extends NDArrayAdapter {
             ByteBuffer data,
             Shape shape,
             DataType dataType) {
-        super(manager, alternativeManager, shape, dataType, UUID.randomUUID().toString());
+        super(manager, alternativeManager, shape, dataType, Utils.nextUid());
         this.data = data;
         manager.attachInternal(uid, this);
     }
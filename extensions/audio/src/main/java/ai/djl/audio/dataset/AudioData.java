@@ -28,7 +28,6 @@ import org.slf4j.LoggerFactory;
 
 import java.nio.Buffer;
 import java.nio.ShortBuffer;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -90,7 +89,8 @@ public class AudioData {
      * @return A float array.
      */
     private float[] toFloat(String path) {
-        List<Float> list = new ArrayList<>();
+        float[] samples = new float[sampleRate];
+        int size = 0;
         float scale = (float) 1.0 / (float) (1 << (8 * 2) - 1);
         try (FFmpegFrameGrabber audioGrabber = new FFmpegFrameGrabber(path)) {
             audioGrabber.start();
@@ -100,19 +100,18 @@ public class AudioData {
             while ((frame = audioGrabber.grabFrame()) != null) {
                 Buffer[] buffers = frame.samples;
                 ShortBuffer sb = (ShortBuffer) buffers[0];
-                for (int i = 0; i < sb.limit(); i++) {
-                    list.add(sb.get() * scale);
+                int length = sb.remaining();
+                if (size + length > samples.length) {
+                    samples = Arrays.copyOf(samples, Math.max(samples.length * 2, size + length));
+                }
+                for (int i = 0; i < length; i++) {
+                    samples[size++] = sb.get() * scale;
                 }
             }
         } catch (FrameGrabber.Exception e) {
             logger.error(e.getMessage());
         }
-        float[] floatArray = new float[list.size()];
-        int i = 0;
-        for (Float f : list) {
-            floatArray[i++] = (f != null ? f : Float.NaN);
-        }
-        return floatArray;
+        return Arrays.copyOf(samples, size);
     }
 
     /**
@@ -0,0 +1,246 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.audio.processor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A fast Fourier transform of a fixed size on primitive float arrays.
+ *
+ * <p>The size is factored into radices 4, 2, 3 and 5, and any other prime factors are transformed
+ * with a direct DFT, so any size is supported and sizes with small factors, like the 320 samples of
+ * a 20 ms window at 16 kHz, are fast. The twiddle factors are precomputed. A real input of even
+ * size is transformed as a complex input of half the size.
+ *
+ * <p>An {@code Fft} holds work buffers, so it is not thread safe.
+ */
+public final class Fft {
+
+    private int size;
+    private int[] factors;
+    private float[] cos;
+    private float[] sin;
+    private float[] workRe;
+    private float[] workIm;
+    private float[] workOutRe;
+    private float[] workOutIm;
+    private float[] sumRe;
+    private float[] sumIm;
+
+    // the complex transform of half the size for real inputs of even size
+    private Fft half;
+    private float[] halfRe;
+    private float[] halfIm;
+    private float[] halfOutRe;
+    private float[] halfOutIm;
+
+    /**
+     * Constructs a {@code Fft} of the size.
+     *
+     * @param size the number of samples to transform
+     */
+    public Fft(int size) {
+        this(size, true);
+    }
+
+    private Fft(int size, boolean real) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("The FFT size must be positive: " + size);
+        }
+        this.size = size;
+        factors = factorize(size);
+        cos = new float[size];
+        sin = new float[size];
+        for (int i = 0; i < size; ++i) {
+            double angle = -2 * Math.PI * i / size;
+            cos[i] = (float) Math.cos(angle);
+            sin[i] = (float) Math.sin(angle);
+        }
+        int maxFactor = 1;
+        for (int factor : factors) {
+            maxFactor = Math.max(maxFactor, factor);
+        }
+        sumRe = new float[maxFactor];
+        sumIm = new float[maxFactor];
+        if (real && size % 2 == 0) {
+            int n = size / 2;
+            half = new Fft(n, false);
+            halfRe = new float[n];
+            halfIm = new float[n];
+            halfOutRe = new float[n];
+            halfOutIm = new float[n];
+        } else {
+            workRe = new float[size];
+            workIm = new float[size];
+            workOutRe = new float[size];
+            workOutIm = new float[size];
+        }
+    }
+
+    /**
+     * Returns the number of samples to transform.
+     *
+     * @return the number of samples to transform
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Transforms complex input, the output must not be the input arrays.
+     *
+     * @param inRe the real parts of the input
+     * @param inIm the imaginary parts of the input
+     * @param outRe the real parts of the output, of the same size
+     * @param outIm the imaginary parts of the output, of the same size
+     */
+    public void forward(float[] inRe, float[] inIm, float[] outRe, float[] outIm) {
+        transform(inRe, inIm, 0, 1, outRe, outIm, 0, size, 0);
+    }
+
+    /**
+     * Transforms real input, the output is the non-negative frequencies {@code 0} to {@code size /
+     * 2}.
+     *
+     * @param input the real input
+     * @param outRe the real parts of the output, of at least {@code size / 2 + 1}
+     * @param outIm the imaginary parts of the output, of at least {@code size / 2 + 1}
+     */
+    public void realForward(float[] input, float[] outRe, float[] outIm) {
+        if (half == null) {
+            System.arraycopy(input, 0, workRe, 0, size);
+            Arrays.fill(workIm, 0);
+            transform(workRe, workIm, 0, 1, workOutRe, workOutIm, 0, size, 0);
+            int bins = size / 2 + 1;
+            System.arraycopy(workOutRe, 0, outRe, 0, bins);
+            System.arraycopy(workOutIm, 0, outIm, 0, bins);
+            return;
+        }
+
+        // the even samples are the real, the odd samples the imaginary part of a half size input
+        int n = size / 2;
+        for (int i = 0; i < n; ++i) {
+            halfRe[i] = input[2 * i];
+            halfIm[i] = input[2 * i + 1];
+        }
+        half.forward(halfRe, halfIm, halfOutRe, halfOutIm);
+        for (int k = 0; k <= n; ++k) {
+            int a = k % n;
+            int b = (n - k) % n;
+            float zRe = halfOutRe[a];
+            float zIm = halfOutIm[a];
+            float cRe = halfOutRe[b];
+            float cIm = -halfOutIm[b];
+            // split into the transforms of the even and odd samples
+            float evenRe = (zRe + cRe) / 2;
+            float evenIm = (zIm + cIm) / 2;
+            float oddRe = (zIm - cIm) / 2;
+            float oddIm = (cRe - zRe) / 2;
+            outRe[k] = evenRe + cos[k] * oddRe - sin[k] * oddIm;
+            outIm[k] = evenIm + cos[k] * oddIm + sin[k] * oddRe;
+        }
+    }
+
+    private void transform(
+            float[] inRe,
+            float[] inIm,
+            int inOffset,
+            int stride,
+            float[] outRe,
+            float[] outIm,
+            int outOffset,
+            int n,
+            int level) {
+        if (n == 1) {
+            outRe[outOffset] = inRe[inOffset];
+            outIm[outOffset] = inIm[inOffset];
+            return;
+        }
+        int p = factors[level];
+        int m = n / p;
+        for (int q = 0; q < p; ++q) {
+            transform(
+                    inRe,
+                    inIm,
+                    inOffset + q * stride,
+                    stride * p,
+                    outRe,
+                    outIm,
+                    outOffset + q * m,
+                    m,
+                    level + 1);
+        }
+
+        // the twiddle factors of size n are every (size / n)-th factor of the full size
+        int twiddle = size / n;
+        if (p == 2) {
+            for (int k = 0; k < m; ++k) {
+                int i0 = outOffset + k;
+                int i1 = i0 + m;
+                int t = k * twiddle;
+                float re = outRe[i1] * cos[t] - outIm[i1] * sin[t];
+                float im = outRe[i1] * sin[t] + outIm[i1] * cos[t];
+                outRe[i1] = outRe[i0] - re;
+                outIm[i1] = outIm[i0] - im;
+                outRe[i0] += re;
+                outIm[i0] += im;
+            }
+            return;
+        }
+        for (int k = 0; k < m; ++k) {
+            for (int q = 0; q < p; ++q) {
+                int i = outOffset + q * m + k;
+                int t = q * k * twiddle % size;
+                sumRe[q] = outRe[i] * cos[t] - outIm[i] * sin[t];
+                sumIm[q] = outRe[i] * sin[t] + outIm[i] * cos[t];
+            }
+            for (int s = 0; s < p; ++s) {
+                float re = 0;
+                float im = 0;
+                for (int q = 0; q < p; ++q) {
+                    int t = q * s % p * m * twiddle;
+                    re += sumRe[q] * cos[t] - sumIm[q] * sin[t];
+                    im += sumRe[q] * sin[t] + sumIm[q] * cos[t];
+                }
+                outRe[outOffset + s * m + k] = re;
+                outIm[outOffset + s * m + k] = im;
+            }
+        }
+    }
+
+    private static int[] factorize(int n) {
+        List<Integer> list = new ArrayList<>();
+        for (int radix : new int[] {4, 2, 3, 5}) {
+            while (n % radix == 0) {
+                list.add(radix);
+                n /= radix;
+            }
+        }
+        for (int f = 7; f * f <= n; f += 2) {
+            while (n % f == 0) {
+                list.add(f);
+                n /= f;
+            }
+        }
+        if (n > 1) {
+            list.add(n);
+        }
+        int[] result = new int[list.size()];
+        for (int i = 0; i < result.length; ++i) {
+            result[i] = list.get(i);
+        }
+        return result;
+    }
+}
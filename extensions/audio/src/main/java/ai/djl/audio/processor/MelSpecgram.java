@@ -0,0 +1,64 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.audio.processor;
+
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.Shape;
+
+/**
+ * Calculate log mel filterbank spectrogram by short-time fourier transform.
+ *
+ * <p>The power of the linear spectrogram is summed by triangular filters that are equally spaced on
+ * the mel scale, the result has the shape (mel bins, frames).
+ */
+public class MelSpecgram implements AudioProcessor {
+
+    private SpectrogramExtractor extractor;
+
+    /**
+     * Calculate log mel filterbank spectrogram by short-time fourier transform.
+     *
+     * @param strideMs Stride size of window
+     * @param windowsMs Window size
+     * @param sampleRate Sample rate of raw data
+     * @param melBins Number of mel filters
+     */
+    public MelSpecgram(float strideMs, float windowsMs, int sampleRate, int melBins) {
+        this(
+                SpectrogramExtractor.builder()
+                        .setSampleRate(sampleRate)
+                        .optStrideMs(strideMs)
+                        .optWindowMs(windowsMs)
+                        .optMelBins(melBins)
+                        .build());
+    }
+
+    /**
+     * Calculate the spectrogram with a configured {@link SpectrogramExtractor}.
+     *
+     * @param extractor the {@link SpectrogramExtractor} to calculate with
+     */
+    public MelSpecgram(SpectrogramExtractor extractor) {
+        this.extractor = extractor;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray extractFeatures(NDManager manager, NDArray samples) {
+        float[] data = samples.toFloatArray();
+        float[] features = extractor.extract(data);
+        Shape shape = new Shape(extractor.getNumBins(), extractor.getNumFrames(data.length));
+        return manager.create(features, shape);
+    }
+}
@@ -0,0 +1,393 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.audio.processor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * {@code SpectrogramExtractor} computes linear or mel filterbank spectrograms of audio samples on
+ * primitive float arrays.
+ *
+ * <p>The samples are cut into windows of {@code windowMs} every {@code strideMs}, weighted with a
+ * precomputed Hann window and transformed with an {@link Fft}. The power of each frequency bin is
+ * scaled to a power spectral density, and with mel bins it is summed by triangular filters on the
+ * mel scale. All of this is done in one pass over the samples without creating any {@link
+ * ai.djl.ndarray.NDArray}. A trailing part of the samples that does not fill a window is dropped.
+ *
+ * <p>{@link #extract(float[])} computes the spectrogram of a whole signal, and {@link #newStream()}
+ * computes it incrementally from chunks of samples as they arrive. The extractor itself is
+ * immutable and can be shared by threads, a stream is not thread safe.
+ */
+public class SpectrogramExtractor {
+
+    private static final float EPS = 1e-14f;
+
+    private int windowSize;
+    private int strideSize;
+    private int numBins;
+    private boolean log;
+    private float[] window;
+    private float scale;
+    private int[] melStart;
+    private float[][] melWeights;
+
+    SpectrogramExtractor(Builder builder) {
+        windowSize = (int) (0.001 * builder.sampleRate * builder.windowMs);
+        strideSize = (int) (0.001 * builder.sampleRate * builder.strideMs);
+        if (windowSize <= 0 || strideSize <= 0) {
+            throw new IllegalArgumentException("The window and stride must be at least 1 sample");
+        }
+        log = builder.log;
+
+        // a symmetric Hann window
+        window = new float[windowSize];
+        double sum = 0;
+        for (int i = 1; i < windowSize; i++) {
+            window[i] = (float) (0.5 * (1 - Math.cos((2 * Math.PI * i) / (windowSize - 1))));
+            sum += window[i] * window[i];
+        }
+        scale = (float) (sum * builder.sampleRate);
+
+        int fftBins = windowSize / 2 + 1;
+        if (builder.melBins > 0) {
+            float maxFrequency = builder.maxFrequency;
+            if (maxFrequency <= 0) {
+                maxFrequency = builder.sampleRate / 2f;
+            }
+            initMelFilters(builder.melBins, builder.minFrequency, maxFrequency, builder.sampleRate);
+            numBins = builder.melBins;
+        } else {
+            numBins = fftBins;
+        }
+    }
+
+    /**
+     * Creates a builder to build a {@code SpectrogramExtractor}.
+     *
+     * @return a new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the number of frequency or mel bins of each frame.
+     *
+     * @return the number of bins of each frame
+     */
+    public int getNumBins() {
+        return numBins;
+    }
+
+    /**
+     * Returns the number of frames of a signal.
+     *
+     * @param numSamples the number of samples of the signal
+     * @return the number of frames of the signal
+     */
+    public int getNumFrames(int numSamples) {
+        if (numSamples < windowSize) {
+            return 0;
+        }
+        return (numSamples - windowSize) / strideSize + 1;
+    }
+
+    /**
+     * Computes the spectrogram of a signal.
+     *
+     * @param samples the samples of the signal
+     * @return the spectrogram as a row major array of {@link #getNumBins()} rows and {@link
+     *     #getNumFrames(int)} columns
+     */
+    public float[] extract(float[] samples) {
+        int frames = getNumFrames(samples.length);
+        float[] out = new float[numBins * frames];
+        Frame frame = new Frame();
+        for (int f = 0; f < frames; ++f) {
+            frame.compute(samples, f * strideSize);
+            for (int b = 0; b < numBins; ++b) {
+                out[b * frames + f] = frame.bins[b];
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Creates a stream that computes the spectrogram of a signal from chunks of samples.
+     *
+     * @return a new stream
+     */
+    public Stream newStream() {
+        return new Stream();
+    }
+
+    private void initMelFilters(int melBins, float minFrequency, float maxFrequency, int rate) {
+        int fftBins = windowSize / 2 + 1;
+        double minMel = toMel(minFrequency);
+        double maxMel = toMel(maxFrequency);
+        double[] points = new double[melBins + 2];
+        for (int i = 0; i < points.length; ++i) {
+            points[i] = toHertz(minMel + (maxMel - minMel) * i / (melBins + 1));
+        }
+
+        melStart = new int[melBins];
+        melWeights = new float[melBins][];
+        for (int m = 0; m < melBins; ++m) {
+            double lower = points[m];
+            double center = points[m + 1];
+            double upper = points[m + 2];
+            float[] weights = new float[fftBins];
+            int start = -1;
+            int end = 0;
+            for (int k = 0; k < fftBins; ++k) {
+                double frequency = (double) k * rate / windowSize;
+                double weight = 0;
+                if (frequency > lower && frequency < center) {
+                    weight = (frequency - lower) / (center - lower);
+                } else if (frequency >= center && frequency < upper) {
+                    weight = (upper - frequency) / (upper - center);
+                }
+                if (weight > 0) {
+                    if (start < 0) {
+                        start = k;
+                    }
+                    end = k + 1;
+                    weights[k] = (float) weight;
+                }
+            }
+            // only the non-zero weights of the triangle are kept
+            start = Math.max(start, 0);
+            melStart[m] = start;
+            melWeights[m] = Arrays.copyOfRange(weights, start, Math.max(start, end));
+        }
+    }
+
+    private static double toMel(double hertz) {
+        return 2595 * Math.log10(1 + hertz / 700);
+    }
+
+    private static double toHertz(double mel) {
+        return 700 * (Math.pow(10, mel / 2595) - 1);
+    }
+
+    /** The work buffers to compute one frame. */
+    private final class Frame {
+
+        Fft fft = new Fft(windowSize);
+        float[] input = new float[windowSize];
+        float[] re = new float[windowSize / 2 + 1];
+        float[] im = new float[windowSize / 2 + 1];
+        float[] power = new float[windowSize / 2 + 1];
+        float[] bins = new float[numBins];
+
+        void compute(float[] samples, int offset) {
+            for (int i = 0; i < windowSize; ++i) {
+                input[i] = samples[offset + i] * window[i];
+            }
+            fft.realForward(input, re, im);
+            int last = power.length - 1;
+            for (int k = 0; k <= last; ++k) {
+                float p = re[k] * re[k] + im[k] * im[k];
+                // the power of the negative frequencies is added to all but the first and last bin
+                power[k] = k == 0 || k == last ? p / scale : 2 * p / scale;
+            }
+
+            if (melWeights == null) {
+                System.arraycopy(power, 0, bins, 0, numBins);
+            } else {
+                for (int m = 0; m < numBins; ++m) {
+                    float[] weights = melWeights[m];
+                    int start = melStart[m];
+                    float sum = 0;
+                    for (int k = 0; k < weights.length; ++k) {
+                        sum += weights[k] * power[start + k];
+                    }
+                    bins[m] = sum;
+                }
+            }
+            if (log) {
+                for (int b = 0; b < numBins; ++b) {
+                    bins[b] = (float) Math.log(bins[b] + EPS);
+                }
+            }
+        }
+    }
+
+    /**
+     * A {@code Stream} computes the frames of a spectrogram incrementally from chunks of samples,
+     * the frames are the same as the columns of {@link #extract(float[])}.
+     */
+    public final class Stream {
+
+        private Frame frame;
+        private float[] pending;
+        private int count;
+        private int skip;
+
+        Stream() {
+            frame = new Frame();
+            pending = new float[windowSize * 2];
+        }
+
+        /**
+         * Adds a chunk of samples and returns the frames that it completes.
+         *
+         * @param samples the chunk of samples
+         * @return the completed frames of {@link #getNumBins()} values each, may be empty
+         */
+        public List<float[]> accept(float[] samples) {
+            return accept(samples, 0, samples.length);
+        }
+
+        /**
+         * Adds a chunk of samples and returns the frames that it completes.
+         *
+         * @param samples the array that holds the chunk of samples
+         * @param offset the offset of the chunk in the array
+         * @param length the number of samples of the chunk
+         * @return the completed frames of {@link #getNumBins()} values each, may be empty
+         */
+        public List<float[]> accept(float[] samples, int offset, int length) {
+            // drops the samples between two windows when the stride is larger than the window
+            int skipped = Math.min(skip, length);
+            skip -= skipped;
+            int size = length - skipped;
+            if (count + size > pending.length) {
+                pending = Arrays.copyOf(pending, Math.max(pending.length * 2, count + size));
+            }
+            System.arraycopy(samples, offset + skipped, pending, count, size);
+            count += size;
+
+            List<float[]> frames = new ArrayList<>();
+            int position = 0;
+            while (position + windowSize <= count) {
+                frame.compute(pending, position);
+                frames.add(frame.bins.clone());
+                position += strideSize;
+            }
+            // keeps the samples of the next window, which may overlap the last one
+            if (position > count) {
+                skip = position - count;
+                position = count;
+            }
+            System.arraycopy(pending, position, pending, 0, count - position);
+            count -= position;
+            return frames;
+        }
+    }
+
+    /** The Builder to construct a {@link SpectrogramExtractor}. */
+    public static final class Builder {
+
+        int sampleRate;
+        float windowMs = 20;
+        float strideMs = 10;
+        int melBins;
+        float minFrequency;
+        float maxFrequency;
+        boolean log = true;
+
+        Builder() {}
+
+        /**
+         * Sets the sample rate of the samples.
+         *
+         * @param sampleRate the sample rate of the samples
+         * @return this builder
+         */
+        public Builder setSampleRate(int sampleRate) {
+            this.sampleRate = sampleRate;
+            return this;
+        }
+
+        /**
+         * Sets the window size in milliseconds, defaults to 20.
+         *
+         * @param windowMs the window size in milliseconds
+         * @return this builder
+         */
+        public Builder optWindowMs(float windowMs) {
+            this.windowMs = windowMs;
+            return this;
+        }
+
+        /**
+         * Sets the stride between windows in milliseconds, defaults to 10.
+         *
+         * @param strideMs the stride between windows in milliseconds
+         * @return this builder
+         */
+        public Builder optStrideMs(float strideMs) {
+            this.strideMs = strideMs;
+            return this;
+        }
+
+        /**
+         * Sets the number of mel bins, defaults to 0 for a linear spectrogram.
+         *
+         * @param melBins the number of mel bins
+         * @return this builder
+         */
+        public Builder optMelBins(int melBins) {
+            this.melBins = melBins;
+            return this;
+        }
+
+        /**
+         * Sets the lowest frequency of the mel filters, defaults to 0.
+         *
+         * @param minFrequency the lowest frequency of the mel filters in Hz
+         * @return this builder
+         */
+        public Builder optMinFrequency(float minFrequency) {
+            this.minFrequency = minFrequency;
+            return this;
+        }
+
+        /**
+         * Sets the highest frequency of the mel filters, defaults to half the sample rate.
+         *
+         * @param maxFrequency the highest frequency of the mel filters in Hz
+         * @return this builder
+         */
+        public Builder optMaxFrequency(float maxFrequency) {
+            this.maxFrequency = maxFrequency;
+            return this;
+        }
+
+        /**
+         * Sets whether to return the natural logarithm of the power, defaults to true.
+         *
+         * @param log whether to return the natural logarithm of the power
+         * @return this builder
+         */
+        public Builder optLog(boolean log) {
+            this.log = log;
+            return this;
+        }
+
+        /**
+         * Builds the {@link SpectrogramExtractor}.
+         *
+         * @return the {@link SpectrogramExtractor}
+         */
+        public SpectrogramExtractor build() {
+            if (sampleRate <= 0) {
+                throw new IllegalArgumentException("The sampleRate must be set");
+            }
+            return new SpectrogramExtractor(this);
+        }
+    }
+}
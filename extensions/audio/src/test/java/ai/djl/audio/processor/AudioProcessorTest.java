@@ -68,4 +68,20 @@ public class AudioProcessorTest {
         Assert.assertEquals(new Shape(161, 838), samples.getShape());
         Assert.assertEquals(samples.get("0,0").toFloatArray()[0], -15.4571f, 1e-3f);
     }
+
+    @Test
+    public static void testMelSpecgram() {
+        NDManager manager = NDManager.newBaseManager(Device.cpu());
+        AudioData.Configuration configuration =
+                new AudioData.Configuration()
+                        .setSampleRate(16000)
+                        .setProcessorList(
+                                Arrays.asList(
+                                        new AudioNormalizer(-20),
+                                        new MelSpecgram(10, 20, 16000, 80)));
+        AudioData testData = new AudioData(configuration);
+        testData.setAudioPaths(Collections.singletonList("build/test/test_01.wav"));
+        NDArray samples = testData.getPreprocessedData(manager, 0);
+        Assert.assertEquals(new Shape(80, 838), samples.getShape());
+    }
 }
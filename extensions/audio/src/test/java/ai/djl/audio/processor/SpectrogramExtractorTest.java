@@ -0,0 +1,160 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.audio.processor;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class SpectrogramExtractorTest {
+
+    @Test
+    public void testFft() {
+        Random random = new Random(1234);
+        for (int size : new int[] {1, 2, 7, 8, 15, 320, 400, 512}) {
+            float[] re = new float[size];
+            float[] im = new float[size];
+            for (int i = 0; i < size; ++i) {
+                re[i] = random.nextFloat() * 2 - 1;
+                im[i] = random.nextFloat() * 2 - 1;
+            }
+            double[][] expected = dft(re, im);
+            Fft fft = new Fft(size);
+            float[] outRe = new float[size];
+            float[] outIm = new float[size];
+            fft.forward(re, im, outRe, outIm);
+            for (int k = 0; k < size; ++k) {
+                Assert.assertEquals(outRe[k], expected[0][k], 1e-3, "size " + size);
+                Assert.assertEquals(outIm[k], expected[1][k], 1e-3, "size " + size);
+            }
+
+            expected = dft(re, new float[size]);
+            int bins = size / 2 + 1;
+            outRe = new float[bins];
+            outIm = new float[bins];
+            fft.realForward(re, outRe, outIm);
+            for (int k = 0; k < bins; ++k) {
+                Assert.assertEquals(outRe[k], expected[0][k], 1e-3, "size " + size);
+                Assert.assertEquals(outIm[k], expected[1][k], 1e-3, "size " + size);
+            }
+        }
+    }
+
+    @Test
+    public void testExtract() {
+        float[] samples = sine(1600, 1000, 16000);
+        SpectrogramExtractor extractor =
+                SpectrogramExtractor.builder().setSampleRate(16000).optLog(false).build();
+        Assert.assertEquals(extractor.getNumBins(), 161);
+        Assert.assertEquals(extractor.getNumFrames(samples.length), 9);
+        Assert.assertEquals(extractor.getNumFrames(319), 0);
+
+        // the power of a 1000 Hz sine is in the bin of 1000 Hz, 50 Hz per bin
+        float[] features = extractor.extract(samples);
+        Assert.assertEquals(features.length, 161 * 9);
+        for (int f = 0; f < 9; ++f) {
+            Assert.assertEquals(argmax(features, 9, f), 20);
+        }
+
+        SpectrogramExtractor mel =
+                SpectrogramExtractor.builder()
+                        .setSampleRate(16000)
+                        .optMelBins(40)
+                        .optMaxFrequency(4000)
+                        .build();
+        Assert.assertEquals(mel.getNumBins(), 40);
+        features = mel.extract(samples);
+        Assert.assertEquals(features.length, 40 * 9);
+        int peak = argmax(features, 9, 0);
+        // 1000 Hz is about 1000 mels of 2146 mels at 4000 Hz
+        Assert.assertTrue(peak >= 16 && peak <= 20, "peak " + peak);
+    }
+
+    @Test
+    public void testStream() {
+        Random random = new Random(1234);
+        float[] samples = new float[5000];
+        for (int i = 0; i < samples.length; ++i) {
+            samples[i] = random.nextFloat() * 2 - 1;
+        }
+        SpectrogramExtractor extractor =
+                SpectrogramExtractor.builder().setSampleRate(16000).optMelBins(26).build();
+        assertStream(extractor, samples, random);
+
+        // the stream skips the samples between windows
+        extractor =
+                SpectrogramExtractor.builder()
+                        .setSampleRate(16000)
+                        .optWindowMs(10)
+                        .optStrideMs(25)
+                        .optMelBins(26)
+                        .build();
+        assertStream(extractor, samples, random);
+    }
+
+    private static void assertStream(
+            SpectrogramExtractor extractor, float[] samples, Random random) {
+        float[] expected = extractor.extract(samples);
+        int frames = extractor.getNumFrames(samples.length);
+
+        SpectrogramExtractor.Stream stream = extractor.newStream();
+        List<float[]> list = new ArrayList<>();
+        int offset = 0;
+        while (offset < samples.length) {
+            int length = Math.min(1 + random.nextInt(700), samples.length - offset);
+            list.addAll(stream.accept(samples, offset, length));
+            offset += length;
+        }
+        Assert.assertEquals(list.size(), frames);
+        for (int f = 0; f < frames; ++f) {
+            for (int b = 0; b < 26; ++b) {
+                Assert.assertEquals(list.get(f)[b], expected[b * frames + f]);
+            }
+        }
+    }
+
+    private static double[][] dft(float[] re, float[] im) {
+        int n = re.length;
+        double[][] out = new double[2][n];
+        for (int k = 0; k < n; ++k) {
+            for (int t = 0; t < n; ++t) {
+                double angle = -2 * Math.PI * t * k / n;
+                out[0][k] += re[t] * Math.cos(angle) - im[t] * Math.sin(angle);
+                out[1][k] += re[t] * Math.sin(angle) + im[t] * Math.cos(angle);
+            }
+        }
+        return out;
+    }
+
+    private static float[] sine(int size, float frequency, int sampleRate) {
+        float[] samples = new float[size];
+        for (int i = 0; i < size; ++i) {
+            samples[i] = (float) Math.sin(2 * Math.PI * frequency * i / sampleRate);
+        }
+        return samples;
+    }
+
+    private static int argmax(float[] features, int frames, int frame) {
+        int bins = features.length / frames;
+        int max = 0;
+        for (int b = 1; b < bins; ++b) {
+            if (features[b * frames + frame] > features[max * frames + frame]) {
+                max = b;
+            }
+        }
+        return max;
+    }
+}
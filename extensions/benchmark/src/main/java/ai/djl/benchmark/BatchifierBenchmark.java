@@ -0,0 +1,114 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.benchmark;
+
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.Shape;
+import ai.djl.translate.Batchifier;
+import ai.djl.translate.PaddingStackBatchifier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures batching and unbatching 32 records with the {@code StackBatchifier} and with a {@link
+ * PaddingStackBatchifier} for sequences of random lengths.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchifierBenchmark {
+
+    private static final int BATCH_SIZE = 32;
+
+    /** The number of values of each record. */
+    @Param({"128", "150528"})
+    private int size;
+
+    private NDManager manager;
+    private NDList[] records;
+    private NDList[] sequences;
+    private NDList batch;
+    private Batchifier padding;
+
+    @Setup
+    public void setUp() {
+        manager = NDManager.newBaseManager();
+        records = new NDList[BATCH_SIZE];
+        sequences = new NDList[BATCH_SIZE];
+        Random random = new Random(0);
+        int maxLength = Math.max(size / 64, 2);
+        for (int i = 0; i < BATCH_SIZE; ++i) {
+            records[i] = new NDList(manager.randomUniform(0, 1, new Shape(size)));
+            int length = 1 + random.nextInt(maxLength);
+            sequences[i] = new NDList(manager.randomUniform(0, 1, new Shape(length, 64)));
+        }
+        batch = Batchifier.STACK.batchify(records);
+        padding =
+                PaddingStackBatchifier.builder()
+                        .optIncludeValidLengths(true)
+                        .addPad(0, 0, m -> m.zeros(new Shape(1, 64)), -1)
+                        .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        manager.close();
+    }
+
+    @Benchmark
+    public int stack() {
+        try (NDManager sub = manager.newSubManager()) {
+            NDList list = Batchifier.STACK.batchify(records);
+            list.attach(sub);
+            return list.size();
+        }
+    }
+
+    @Benchmark
+    public int unstack() {
+        try (NDManager sub = manager.newSubManager()) {
+            NDList[] list = Batchifier.STACK.unbatchify(batch);
+            for (NDList item : list) {
+                item.attach(sub);
+            }
+            return list.length;
+        }
+    }
+
+    @Benchmark
+    public int padAndStack() {
+        try (NDManager sub = manager.newSubManager()) {
+            NDList list = padding.batchify(sequences);
+            list.attach(sub);
+            return list.size();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.benchmark;
+
+import ai.djl.modality.nlp.Vocabulary;
+import ai.djl.modality.nlp.bert.BertEncoding;
+import ai.djl.modality.nlp.bert.BertFullTokenizer;
+import ai.djl.modality.nlp.bert.BertToken;
+import ai.djl.modality.nlp.bert.BertTokenizer;
+import ai.djl.modality.nlp.bert.WordpieceTokenizer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the BERT tokenizers on a batch of 32 sentences of 100 words, with a vocabulary of 30000
+ * words and word pieces.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BertTokenizerBenchmark {
+
+    private List<String> sentences;
+    private String question;
+    private WordpieceTokenizer wordpiece;
+    private BertTokenizer bertTokenizer;
+    private BertFullTokenizer fullTokenizer;
+    private BertEncoding encoding;
+
+    @Setup
+    public void setUp() {
+        TextGenerator generator = new TextGenerator(20000);
+        sentences = new ArrayList<>();
+        for (int i = 0; i < 32; ++i) {
+            sentences.add(generator.sentence(100));
+        }
+        question = generator.sentence(10);
+        Vocabulary vocabulary = generator.bertVocabulary();
+        wordpiece = new WordpieceTokenizer(vocabulary, "[UNK]", 200);
+        bertTokenizer = new BertTokenizer();
+        fullTokenizer = new BertFullTokenizer(vocabulary, true);
+        encoding = new BertEncoding();
+    }
+
+    @Benchmark
+    public int wordpieceTokenize() {
+        int count = 0;
+        for (String sentence : sentences) {
+            count += wordpiece.tokenize(sentence).size();
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int bertTokenizerEncode() {
+        int count = 0;
+        for (String sentence : sentences) {
+            BertToken token = bertTokenizer.encode(question, sentence, 384);
+            count += token.getTokens().size();
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int fullTokenize() {
+        int count = 0;
+        for (String sentence : sentences) {
+            count += fullTokenizer.tokenize(sentence).size();
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int fullEncodeBatch() {
+        return fullTokenizer.encode(sentences, 128, encoding).getSequenceLength();
+    }
+
+    @Benchmark
+    public int fullEncodePairs() {
+        int count = 0;
+        for (String sentence : sentences) {
+            count += fullTokenizer.encode(question, sentence, 384, encoding).getSequenceLength();
+        }
+        return count;
+    }
+}
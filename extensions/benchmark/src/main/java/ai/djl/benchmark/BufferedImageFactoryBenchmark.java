@@ -0,0 +1,136 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.benchmark;
+
+import ai.djl.modality.cv.Image;
+import ai.djl.modality.cv.ImageFactory;
+import ai.djl.modality.cv.util.NDImageUtils;
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.DataType;
+import ai.djl.ndarray.types.Shape;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.image.BufferedImage;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares converting a 1080p {@code BufferedImage} to an {@link NDArray} through {@link
+ * BufferedImage#getRGB(int, int, int, int, int[], int, int)} with the raster based conversion of
+ * {@code BufferedImageFactory}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BufferedImageFactoryBenchmark {
+
+    private static final float[] MEAN = {0.485f, 0.456f, 0.406f};
+    private static final float[] STD = {0.229f, 0.224f, 0.225f};
+
+    @Param({"TYPE_3BYTE_BGR", "TYPE_INT_RGB", "TYPE_INT_ARGB", "TYPE_BYTE_GRAY"})
+    private String type;
+
+    private NDManager manager;
+    private BufferedImage bufferedImage;
+    private Image image;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        int imageType = BufferedImage.class.getField(type).getInt(null);
+        bufferedImage = new BufferedImage(1920, 1080, imageType);
+        Random random = new Random(0);
+        for (int y = 0; y < bufferedImage.getHeight(); ++y) {
+            for (int x = 0; x < bufferedImage.getWidth(); ++x) {
+                bufferedImage.setRGB(x, y, random.nextInt());
+            }
+        }
+        image = ImageFactory.getInstance().fromImage(bufferedImage);
+        manager = NDManager.newBaseManager();
+    }
+
+    @TearDown
+    public void tearDown() {
+        manager.close();
+    }
+
+    @TearDown(Level.Invocation)
+    public void release() {
+        manager.close();
+        manager = NDManager.newBaseManager();
+    }
+
+    @Benchmark
+    public NDArray getRgb() {
+        return toNDArray(manager, bufferedImage);
+    }
+
+    @Benchmark
+    public NDArray raster() {
+        return image.toNDArray(manager);
+    }
+
+    @Benchmark
+    public NDArray getRgbToTensorNormalize() {
+        NDArray array = NDImageUtils.toTensor(toNDArray(manager, bufferedImage));
+        return NDImageUtils.normalize(array, MEAN, STD);
+    }
+
+    @Benchmark
+    public NDArray rasterToTensorNormalize() {
+        return image.toTensor(manager, Image.Flag.COLOR, true, MEAN, STD);
+    }
+
+    // the conversion used by BufferedImageFactory before it read the raster directly
+    private static NDArray toNDArray(NDManager manager, BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        ByteBuffer bb = manager.allocateDirect(3 * height * width);
+        if (image.getType() == BufferedImage.TYPE_BYTE_GRAY) {
+            int[] data = new int[width * height];
+            image.getData().getPixels(0, 0, width, height, data);
+            for (int gray : data) {
+                byte b = (byte) gray;
+                bb.put(b);
+                bb.put(b);
+                bb.put(b);
+            }
+        } else {
+            int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
+            for (int rgb : pixels) {
+                bb.put((byte) (rgb >> 16));
+                bb.put((byte) (rgb >> 8));
+                bb.put((byte) rgb);
+            }
+        }
+        bb.rewind();
+        return manager.create(bb, new Shape(height, width, 3), DataType.UINT8);
+    }
+}
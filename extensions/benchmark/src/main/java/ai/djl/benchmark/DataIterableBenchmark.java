@@ -0,0 +1,104 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.benchmark;
+
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.Shape;
+import ai.djl.training.dataset.ArrayDataset;
+import ai.djl.training.dataset.Batch;
+import ai.djl.translate.TranslateException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput in batches per second of iterating an {@link ArrayDataset} of 4096
+ * records with 32 records per batch, on the calling thread and with an executor.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DataIterableBenchmark {
+
+    private static final int RECORDS = 4096;
+    private static final int BATCH_SIZE = 32;
+
+    /** The number of float values of each record. */
+    @Param({"64", "3072"})
+    private int size;
+
+    private NDManager manager;
+    private ArrayDataset dataset;
+    private ExecutorService executor;
+
+    @Setup
+    public void setUp() {
+        manager = NDManager.newBaseManager();
+        NDArray data = manager.randomUniform(0, 1, new Shape(RECORDS, size));
+        NDArray labels = manager.arange((float) RECORDS);
+        dataset =
+                new ArrayDataset.Builder()
+                        .setData(data)
+                        .optLabels(labels)
+                        .setSampling(BATCH_SIZE, true)
+                        .build();
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdown();
+        manager.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS / BATCH_SIZE)
+    public long iterate() throws IOException, TranslateException {
+        return count(dataset.getData(manager));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS / BATCH_SIZE)
+    public long iterateWithExecutor() throws IOException, TranslateException {
+        return count(dataset.getData(manager, executor));
+    }
+
+    private static long count(Iterable<Batch> batches) {
+        long count = 0;
+        for (Batch batch : batches) {
+            count += batch.getSize();
+            batch.close();
+        }
+        return count;
+    }
+}
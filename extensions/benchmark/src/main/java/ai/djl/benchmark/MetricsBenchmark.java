@@ -0,0 +1,90 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.benchmark;
+
+import ai.djl.metric.Metric;
+import ai.djl.metric.Metrics;
+import ai.djl.metric.StreamingMetrics;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures recording latencies and computing their percentiles with {@link Metrics} and {@link
+ * StreamingMetrics}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetricsBenchmark {
+
+    /** The number of recorded values. */
+    @Param({"1000", "100000"})
+    private int count;
+
+    private Metrics metrics;
+    private StreamingMetrics streamingMetrics;
+    private Random random;
+
+    @Setup
+    public void setUp() {
+        metrics = new Metrics();
+        streamingMetrics = new StreamingMetrics();
+        random = new Random(0);
+        for (int i = 0; i < count; ++i) {
+            long latency = 1000 + random.nextInt(100000);
+            metrics.addMetric("Latency", latency);
+            streamingMetrics.addMetric("Latency", latency);
+        }
+    }
+
+    @Benchmark
+    public Metric percentile() {
+        return metrics.percentile("Latency", 99);
+    }
+
+    @Benchmark
+    public Metric streamingPercentile() {
+        return streamingMetrics.percentile("Latency", 99);
+    }
+
+    @Benchmark
+    public double mean() {
+        return metrics.mean("Latency");
+    }
+
+    @Benchmark
+    public void addMetric() {
+        metrics.addMetric("Added", random.nextInt(100000));
+    }
+
+    @Benchmark
+    public void addStreamingMetric() {
+        streamingMetrics.addMetric("Added", random.nextInt(100000));
+    }
+}
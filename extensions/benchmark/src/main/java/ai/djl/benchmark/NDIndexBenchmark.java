@@ -0,0 +1,62 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.benchmark;
+
+import ai.djl.ndarray.index.NDIndex;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/** Measures parsing {@link NDIndex} strings and building indices without parsing. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NDIndexBenchmark {
+
+    @Benchmark
+    public NDIndex parseFixed() {
+        return new NDIndex("2");
+    }
+
+    @Benchmark
+    public NDIndex parseSlices() {
+        return new NDIndex(":, 1:10:2, -3:, ...");
+    }
+
+    @Benchmark
+    public NDIndex parseArguments() {
+        return new NDIndex("{}, {}:{}, :", 1, 2, 10);
+    }
+
+    @Benchmark
+    public NDIndex build() {
+        return new NDIndex().addAllDim().addSliceDim(1, 10, 2).addIndices(3);
+    }
+
+    @Benchmark
+    public NDIndex sliceAxis() {
+        return NDIndex.sliceAxis(1, 0, 16);
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.benchmark;
+
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.Shape;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures encoding and decoding an {@link NDList} with {@code NDSerializer}, through streams and
+ * through channels.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NDSerializerBenchmark {
+
+    /** The number of float values of each of the 4 arrays. */
+    @Param({"1024", "1048576"})
+    private int size;
+
+    private NDManager manager;
+    private NDList list;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() {
+        manager = NDManager.newBaseManager();
+        list = new NDList();
+        for (int i = 0; i < 4; ++i) {
+            NDArray array = manager.randomUniform(0, 1, new Shape(size / 256, 256));
+            array.setName("array" + i);
+            list.add(array);
+        }
+        encoded = list.encode();
+    }
+
+    @TearDown
+    public void tearDown() {
+        manager.close();
+    }
+
+    @Benchmark
+    public byte[] encodeStream() {
+        return list.encode();
+    }
+
+    @Benchmark
+    public long encodeChannel() throws IOException {
+        NullChannel channel = new NullChannel();
+        list.encode(channel);
+        return channel.count;
+    }
+
+    @Benchmark
+    public long encodeOutputStream() throws IOException {
+        CountingOutputStream os = new CountingOutputStream();
+        list.encode(os);
+        return os.count;
+    }
+
+    @Benchmark
+    public int decodeStream() {
+        try (NDManager sub = manager.newSubManager()) {
+            return NDList.decode(sub, encoded).size();
+        }
+    }
+
+    @Benchmark
+    public int decodeChannel() {
+        try (NDManager sub = manager.newSubManager()) {
+            ByteArrayInputStream is = new ByteArrayInputStream(encoded);
+            return NDList.decode(sub, Channels.newChannel(is)).size();
+        }
+    }
+
+    private static final class NullChannel implements WritableByteChannel {
+
+        long count;
+
+        /** {@inheritDoc} */
+        @Override
+        public int write(ByteBuffer src) {
+            int remaining = src.remaining();
+            src.position(src.limit());
+            count += remaining;
+            return remaining;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void close() {}
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+
+        long count;
+
+        /** {@inheritDoc} */
+        @Override
+        public void write(int b) {
+            ++count;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.benchmark;
+
+import ai.djl.ndarray.NDManager;
+import ai.djl.util.Utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of attaching resources to, detaching them from and closing {@link
+ * NDManager}s from concurrent threads, the bookkeeping of every array that an inference creates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class ResourceTrackingBenchmark {
+
+    private static final AutoCloseable NOOP = () -> {};
+
+    /** The number of resources per operation. */
+    @Param("16")
+    private int resources;
+
+    private NDManager manager;
+
+    @Setup
+    public void setUp() {
+        manager = NDManager.newBaseManager();
+    }
+
+    @TearDown
+    public void tearDown() {
+        manager.close();
+    }
+
+    @Benchmark
+    public void attachDetach() {
+        for (int i = 0; i < resources; ++i) {
+            String id = Utils.nextUid();
+            manager.attachInternal(id, NOOP);
+            manager.detachInternal(id);
+        }
+    }
+
+    /** A sub-manager per request with its intermediate arrays, as a predictor uses. */
+    @Benchmark
+    public void subManagerClose() {
+        try (NDManager subManager = manager.newSubManager()) {
+            for (int i = 0; i < resources; ++i) {
+                subManager.attachInternal(Utils.nextUid(), NOOP);
+            }
+        }
+    }
+
+    @Benchmark
+    public String nextUid() {
+        return Utils.nextUid();
+    }
+
+    @Benchmark
+    public String randomUuid() {
+        return UUID.randomUUID().toString();
+    }
+}
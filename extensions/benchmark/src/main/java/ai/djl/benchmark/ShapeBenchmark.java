@@ -0,0 +1,97 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.benchmark;
+
+import ai.djl.ndarray.types.Shape;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/** Measures the {@link Shape} operations that are called for every array and every batch. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShapeBenchmark {
+
+    private Shape shape;
+    private Shape other;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() {
+        shape = new Shape(32, 3, 224, 224);
+        other = new Shape(32, 3, 224, 224);
+        encoded = shape.getEncoded();
+    }
+
+    @Benchmark
+    public Shape create() {
+        return new Shape(32, 3, 224, 224);
+    }
+
+    @Benchmark
+    public long size() {
+        return shape.size();
+    }
+
+    @Benchmark
+    public boolean equals() {
+        return shape.equals(other);
+    }
+
+    @Benchmark
+    public int hashCodeOf() {
+        return shape.hashCode();
+    }
+
+    @Benchmark
+    public Shape slice() {
+        return shape.slice(1);
+    }
+
+    @Benchmark
+    public Shape add() {
+        return shape.slice(1).add(1);
+    }
+
+    @Benchmark
+    public String toStringOf() {
+        return shape.toString();
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return shape.getEncoded();
+    }
+
+    @Benchmark
+    public Shape decode() throws IOException {
+        return Shape.decode(new DataInputStream(new ByteArrayInputStream(encoded)));
+    }
+}
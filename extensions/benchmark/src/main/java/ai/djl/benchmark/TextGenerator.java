@@ -0,0 +1,123 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.benchmark;
+
+import ai.djl.modality.nlp.DefaultVocabulary;
+import ai.djl.modality.nlp.Vocabulary;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/** Generates random text and vocabularies with a fixed seed for the text benchmarks. */
+final class TextGenerator {
+
+    private static final String LETTERS = "abcdefghijklmnopqrstuvwxyz";
+
+    private List<String> words;
+    private Random random;
+
+    TextGenerator(int vocabularySize) {
+        random = new Random(0);
+        words = new ArrayList<>(vocabularySize);
+        for (int i = 0; i < vocabularySize; ++i) {
+            words.add(randomWord(3 + random.nextInt(8)));
+        }
+    }
+
+    /**
+     * Returns a sentence of words from the vocabulary with some punctuation and unknown words.
+     *
+     * @param wordCount the number of words
+     * @return a sentence
+     */
+    String sentence(int wordCount) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < wordCount; ++i) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            int r = random.nextInt(20);
+            if (r == 0) {
+                sb.append(randomWord(12));
+            } else {
+                String word = words.get(random.nextInt(words.size()));
+                sb.append(
+                        r == 1 ? Character.toUpperCase(word.charAt(0)) + word.substring(1) : word);
+            }
+            if (r == 2) {
+                sb.append(',');
+            }
+        }
+        return sb.append('.').toString();
+    }
+
+    /**
+     * Returns sentences split into lower case words, the input of a vocabulary.
+     *
+     * @param count the number of sentences
+     * @param wordCount the number of words of a sentence
+     * @return the words of the sentences
+     */
+    List<List<String>> tokenizedSentences(int count, int wordCount) {
+        List<List<String>> sentences = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            List<String> tokens = new ArrayList<>(wordCount);
+            for (int j = 0; j < wordCount; ++j) {
+                tokens.add(words.get(random.nextInt(words.size())));
+            }
+            sentences.add(tokens);
+        }
+        return sentences;
+    }
+
+    /**
+     * Returns a BERT vocabulary of the special tokens, the letters, the words and the word pieces
+     * that split every word in two.
+     *
+     * @return a BERT vocabulary
+     */
+    Vocabulary bertVocabulary() {
+        List<String> tokens = new ArrayList<>();
+        tokens.add("[PAD]");
+        tokens.add("[UNK]");
+        tokens.add("[CLS]");
+        tokens.add("[SEP]");
+        tokens.add("[MASK]");
+        tokens.add(".");
+        tokens.add(",");
+        for (char c : LETTERS.toCharArray()) {
+            tokens.add(String.valueOf(c));
+            tokens.add("##" + c);
+        }
+        for (int i = 0; i < words.size(); ++i) {
+            String word = words.get(i);
+            if (i % 2 == 0) {
+                tokens.add(word);
+            } else {
+                int half = word.length() / 2;
+                tokens.add(word.substring(0, half));
+                tokens.add("##" + word.substring(half));
+            }
+        }
+        return DefaultVocabulary.builder().add(tokens).optUnknownToken("[UNK]").build();
+    }
+
+    private String randomWord(int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; ++i) {
+            chars[i] = LETTERS.charAt(random.nextInt(LETTERS.length()));
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.benchmark;
+
+import ai.djl.modality.nlp.DefaultVocabulary;
+import ai.djl.modality.nlp.Vocabulary;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Measures building a {@link DefaultVocabulary} and looking up its tokens and indices. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VocabularyBenchmark {
+
+    private List<List<String>> sentences;
+    private Vocabulary vocabulary;
+
+    @Setup
+    public void setUp() {
+        sentences = new TextGenerator(20000).tokenizedSentences(10000, 20);
+        vocabulary = build();
+    }
+
+    @Benchmark
+    public Vocabulary build() {
+        return DefaultVocabulary.builder()
+                .addAll(sentences)
+                .optMinFrequency(3)
+                .optUnknownToken()
+                .build();
+    }
+
+    @Benchmark
+    public long getIndex() {
+        long sum = 0;
+        for (List<String> sentence : sentences.subList(0, 1000)) {
+            for (String token : sentence) {
+                sum += vocabulary.getIndex(token);
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int getToken() {
+        int length = 0;
+        long size = vocabulary.size();
+        for (long i = 0; i < 20000; ++i) {
+            length += vocabulary.getToken(i % size).length();
+        }
+        return length;
+    }
+}
@@ -0,0 +1,581 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.endpoint;
+
+import ai.djl.ModelException;
+import ai.djl.inference.streaming.ChunkedBytesSupplier;
+import ai.djl.modality.Input;
+import ai.djl.modality.Output;
+import ai.djl.ndarray.BytesSupplier;
+import ai.djl.repository.zoo.Criteria;
+import ai.djl.repository.zoo.ZooModel;
+import ai.djl.translate.TranslateException;
+import ai.djl.util.JsonUtils;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An {@code InferenceEndpoint} serves {@link ZooModel}s over HTTP with the HTTP server of the JDK.
+ *
+ * <p>The endpoint has the following routes:
+ *
+ * <ul>
+ *   <li>{@code POST /predictions/{model}} runs the request body through the model. The body and the
+ *       request headers are passed as the {@code data} content and the properties of an {@link
+ *       Input}, the body is streamed and not read into memory before the translator reads it. The
+ *       {@link Output} is returned with its code and properties, an output with a {@link
+ *       ChunkedBytesSupplier} is sent with chunked transfer encoding as the chunks are appended.
+ *   <li>{@code GET /ping} returns 200 while the server is running.
+ *   <li>{@code GET /ready} returns 200 once the endpoint is started and 503 while it is closing, or
+ *       while a model that was warmed up with {@link ai.djl.inference.Warmup} is not stable.
+ *   <li>{@code GET /metrics} returns a {@link LatencyHistogram} of every model and the load of the
+ *       server as JSON.
+ * </ul>
+ *
+ * <p>The requests are handled by a bounded pool of threads. When its queue is full, the requests
+ * are handled by a small overload pool that answers predictions with 503 and still serves the
+ * health checks, the thread that accepts the connections never runs a handler. Each model has a
+ * pool of {@link ai.djl.inference.Predictor}s, and may batch the concurrent requests with {@link
+ * ai.djl.inference.DynamicBatchPredictor}. A model rejects requests with 503 right away when too
+ * many of its requests are running or waiting.
+ *
+ * <p>The HTTP server of the JDK writes the headers and the body of a response separately, so small
+ * responses wait for the delayed ACK of the client unless the system property {@code
+ * sun.net.httpserver.nodelay} is {@code true}. The property is read once when the server classes
+ * are loaded, it must be set at the start of the JVM, {@link #main(String[])} sets it.
+ *
+ * <pre>
+ * try (InferenceEndpoint endpoint =
+ *         InferenceEndpoint.builder()
+ *                 .addModel("resnet", model)
+ *                 .optPort(8080)
+ *                 .optMaxBatchSize(16)
+ *                 .build()) {
+ *     endpoint.start();
+ *     ...
+ * }
+ * </pre>
+ *
+ * <p>The models are not closed by the endpoint.
+ */
+public class InferenceEndpoint implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(InferenceEndpoint.class);
+
+    private static final String PREDICTIONS = "/predictions/";
+    private static final ThreadLocal<Boolean> OVERLOADED = new ThreadLocal<>();
+
+    private String host;
+    private int port;
+    private int threads;
+    private int maxPendingRequests;
+    private long chunkTimeout;
+    private Map<String, ModelWorker> workers;
+    private HttpServer server;
+    private ThreadPoolExecutor executor;
+    private ThreadPoolExecutor overload;
+    private volatile boolean ready;
+
+    InferenceEndpoint(Builder builder) {
+        host = builder.host;
+        port = builder.port;
+        threads = builder.threads;
+        maxPendingRequests = builder.maxPendingRequests;
+        chunkTimeout = builder.timeout;
+        workers = new LinkedHashMap<>();
+        for (Map.Entry<String, ZooModel<Input, Output>> entry : builder.models.entrySet()) {
+            workers.put(
+                    entry.getKey(),
+                    new ModelWorker(
+                            entry.getKey(),
+                            entry.getValue(),
+                            builder.predictors,
+                            builder.maxBatchSize,
+                            builder.maxBatchDelay,
+                            builder.maxQueueSize));
+        }
+    }
+
+    /**
+     * Creates a builder to build an {@code InferenceEndpoint}.
+     *
+     * @return a new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Starts the HTTP server.
+     *
+     * @throws IOException if failed to bind the address
+     */
+    public synchronized void start() throws IOException {
+        if (server != null) {
+            throw new IllegalStateException("The endpoint is already started");
+        }
+        // if the overload pool is full too, the server closes the connection
+        overload =
+                new ThreadPoolExecutor(
+                        1,
+                        1,
+                        60,
+                        TimeUnit.SECONDS,
+                        new ArrayBlockingQueue<>(maxPendingRequests),
+                        threadFactory("endpoint-overload-"),
+                        new ThreadPoolExecutor.AbortPolicy());
+        executor =
+                new ThreadPoolExecutor(
+                        threads,
+                        threads,
+                        60,
+                        TimeUnit.SECONDS,
+                        new ArrayBlockingQueue<>(maxPendingRequests),
+                        threadFactory("endpoint-"),
+                        (r, e) ->
+                                overload.execute(
+                                        () -> {
+                                            OVERLOADED.set(Boolean.TRUE);
+                                            try {
+                                                r.run();
+                                            } finally {
+                                                OVERLOADED.remove();
+                                            }
+                                        }));
+        server = HttpServer.create(new InetSocketAddress(host, port), maxPendingRequests);
+        server.createContext("/ping", this::ping);
+        server.createContext("/ready", this::ready);
+        server.createContext("/metrics", this::metrics);
+        server.createContext(PREDICTIONS, this::predict);
+        server.setExecutor(executor);
+        server.start();
+        ready = true;
+        logger.info("Inference endpoint listening on {}", server.getAddress());
+    }
+
+    /**
+     * Returns the port the server listens on, which is assigned by the system if the port is 0.
+     *
+     * @return the port the server listens on
+     */
+    public int getPort() {
+        if (server == null) {
+            return port;
+        }
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Returns whether the endpoint accepts predictions.
+     *
+     * @return whether the endpoint accepts predictions
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Returns the latencies of the predictions of a model, which include reading the request and
+     * writing the response.
+     *
+     * @param model the name of the model
+     * @return the latencies of the predictions of the model, or {@code null} if there is no model
+     *     with the name
+     */
+    public LatencyHistogram getLatency(String model) {
+        ModelWorker worker = workers.get(model);
+        return worker == null ? null : worker.getLatency();
+    }
+
+    /** Stops the HTTP server, waiting up to the timeout for the running requests to complete. */
+    @Override
+    public synchronized void close() {
+        ready = false;
+        if (server != null) {
+            server.stop(1);
+            overload.shutdown();
+            executor.shutdown();
+            try {
+                executor.awaitTermination(chunkTimeout, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            port = server.getAddress().getPort();
+            server = null;
+        }
+        for (ModelWorker worker : workers.values()) {
+            worker.close();
+        }
+    }
+
+    /**
+     * Serves a model from the command line.
+     *
+     * <p>The arguments are the url of the model and optionally the port, which defaults to 8080.
+     * The model is served with the name {@code model} and the default settings.
+     *
+     * @param args the command line arguments
+     * @throws IOException if failed to load the model or start the server
+     * @throws ModelException if failed to load the model
+     */
+    public static void main(String[] args) throws IOException, ModelException {
+        if (args.length < 1) {
+            logger.error("Usage: InferenceEndpoint <model-url> [port]");
+            return;
+        }
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        Criteria<Input, Output> criteria =
+                Criteria.builder()
+                        .setTypes(Input.class, Output.class)
+                        .optModelUrls(args[0])
+                        .build();
+        int serverPort = args.length > 1 ? Integer.parseInt(args[1]) : 8080;
+        ZooModel<Input, Output> model = criteria.loadModel();
+        InferenceEndpoint endpoint =
+                InferenceEndpoint.builder().addModel("model", model).optPort(serverPort).build();
+        Runtime.getRuntime()
+                .addShutdownHook(
+                        new Thread(
+                                () -> {
+                                    endpoint.close();
+                                    model.close();
+                                }));
+        endpoint.start();
+    }
+
+    private void ping(HttpExchange exchange) throws IOException {
+        Map<String, String> status = new LinkedHashMap<>();
+        status.put("status", "Healthy");
+        sendJson(exchange, 200, status);
+    }
+
+    private void ready(HttpExchange exchange) throws IOException {
+        boolean modelsReady = true;
+        Map<String, Boolean> models = new LinkedHashMap<>();
+        for (ModelWorker worker : workers.values()) {
+            models.put(worker.getName(), worker.isReady());
+            modelsReady &= worker.isReady();
+        }
+        boolean isReady = ready && modelsReady;
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("status", isReady ? "Ready" : "Unavailable");
+        status.put("models", models);
+        sendJson(exchange, isReady ? 200 : 503, status);
+    }
+
+    private void metrics(HttpExchange exchange) throws IOException {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("activeThreads", executor.getActiveCount());
+        metrics.put("queuedRequests", executor.getQueue().size());
+        Map<String, Object> models = new LinkedHashMap<>();
+        for (ModelWorker worker : workers.values()) {
+            Map<String, Object> model = new LinkedHashMap<>();
+            model.put("inFlight", worker.getInFlight());
+            model.put("latency", worker.getLatency().toMap());
+            models.put(worker.getName(), model);
+        }
+        metrics.put("models", models);
+        sendJson(exchange, 200, metrics);
+    }
+
+    private void predict(HttpExchange exchange) throws IOException {
+        long begin = System.nanoTime();
+        String name = exchange.getRequestURI().getPath().substring(PREDICTIONS.length());
+        ModelWorker worker = workers.get(name);
+        if (worker == null) {
+            sendError(exchange, 404, "Model not found: " + name);
+            return;
+        }
+        if (!"POST".equalsIgnoreCase(exchange.getRequestMethod())) {
+            sendError(exchange, 405, "Predictions must be POST requests");
+            return;
+        }
+        if (!ready) {
+            sendError(exchange, 503, "The endpoint is not ready");
+            return;
+        }
+        if (OVERLOADED.get() != null) {
+            sendError(exchange, 503, "Too many requests");
+            return;
+        }
+
+        Input input = new Input();
+        for (Map.Entry<String, List<String>> header : exchange.getRequestHeaders().entrySet()) {
+            if (!header.getValue().isEmpty()) {
+                input.addProperty(header.getKey(), header.getValue().get(0));
+            }
+        }
+        // the translator reads the body as a stream
+        input.add("data", exchange.getRequestBody());
+
+        try {
+            Output output = worker.predict(input);
+            sendOutput(exchange, output);
+        } catch (RejectedExecutionException e) {
+            sendError(exchange, 503, e.getMessage());
+        } catch (TranslateException | RuntimeException e) {
+            logger.warn("Prediction failed for model " + name, e);
+            sendError(exchange, 500, String.valueOf(e.getMessage()));
+        } finally {
+            worker.getLatency().record((System.nanoTime() - begin) / 1000);
+        }
+    }
+
+    private void sendOutput(HttpExchange exchange, Output output) throws IOException {
+        Headers headers = exchange.getResponseHeaders();
+        for (Map.Entry<String, String> property : output.getProperties().entrySet()) {
+            headers.set(property.getKey(), property.getValue());
+        }
+        BytesSupplier data = output.getData();
+        if (data instanceof ChunkedBytesSupplier) {
+            ChunkedBytesSupplier chunks = (ChunkedBytesSupplier) data;
+            exchange.getRequestBody().close();
+            // a length of 0 sends the body with chunked transfer encoding
+            exchange.sendResponseHeaders(output.getCode(), 0);
+            // the stream is only closed once all chunks are written, closing it writes the final
+            // chunk, a failure aborts the connection so the client sees a truncated response
+            OutputStream os = exchange.getResponseBody();
+            try {
+                while (chunks.hasNext()) {
+                    BytesSupplier chunk = chunks.nextChunk(chunkTimeout, TimeUnit.MILLISECONDS);
+                    if (chunk == null) {
+                        if (chunks.hasNext()) {
+                            throw new IOException("Timed out waiting for the next chunk");
+                        }
+                        continue;
+                    }
+                    os.write(chunk.getAsBytes());
+                    os.flush();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                chunks.cancel();
+                throw new InterruptedIOException("Interrupted while waiting for the next chunk");
+            } catch (IOException e) {
+                chunks.cancel();
+                throw e;
+            }
+            os.close();
+            return;
+        }
+        byte[] body = data == null ? new byte[0] : data.getAsBytes();
+        send(exchange, output.getCode(), body);
+    }
+
+    private static ThreadFactory threadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    private static void sendError(HttpExchange exchange, int code, String message)
+            throws IOException {
+        Map<String, Object> error = new LinkedHashMap<>();
+        error.put("code", code);
+        error.put("message", message);
+        sendJson(exchange, code, error);
+    }
+
+    private static void sendJson(HttpExchange exchange, int code, Object json) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        byte[] body = (JsonUtils.GSON.toJson(json) + '\n').getBytes(StandardCharsets.UTF_8);
+        send(exchange, code, body);
+    }
+
+    private static void send(HttpExchange exchange, int code, byte[] body) throws IOException {
+        // drains the unread request body, so the connection can be reused
+        exchange.getRequestBody().close();
+        exchange.sendResponseHeaders(code, body.length == 0 ? -1 : body.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(body);
+        }
+    }
+
+    /** The Builder to construct an {@link InferenceEndpoint}. */
+    public static final class Builder {
+
+        Map<String, ZooModel<Input, Output>> models = new LinkedHashMap<>();
+        String host = "0.0.0.0";
+        int port = 8080;
+        int threads = Runtime.getRuntime().availableProcessors() * 2;
+        int maxPendingRequests = 100;
+        int predictors = 1;
+        int maxBatchSize = 1;
+        long maxBatchDelay = 10;
+        int maxQueueSize = 100;
+        long timeout = 60_000;
+
+        Builder() {}
+
+        /**
+         * Adds a model to serve at {@code /predictions/{name}}.
+         *
+         * @param name the name of the model
+         * @param model the model to serve
+         * @return this builder
+         */
+        public Builder addModel(String name, ZooModel<Input, Output> model) {
+            models.put(name, model);
+            return this;
+        }
+
+        /**
+         * Sets the host to listen on, defaults to all interfaces.
+         *
+         * @param host the host to listen on
+         * @return this builder
+         */
+        public Builder optHost(String host) {
+            this.host = host;
+            return this;
+        }
+
+        /**
+         * Sets the port to listen on, defaults to 8080. With 0 a free port is assigned by the
+         * system, see {@link InferenceEndpoint#getPort()}.
+         *
+         * @param port the port to listen on
+         * @return this builder
+         */
+        public Builder optPort(int port) {
+            this.port = port;
+            return this;
+        }
+
+        /**
+         * Sets the number of threads that handle the requests, defaults to twice the number of
+         * processors.
+         *
+         * @param threads the number of threads that handle the requests
+         * @return this builder
+         */
+        public Builder optThreads(int threads) {
+            this.threads = threads;
+            return this;
+        }
+
+        /**
+         * Sets the number of accepted requests that wait for a thread, defaults to 100.
+         *
+         * @param maxPendingRequests the number of accepted requests that wait for a thread
+         * @return this builder
+         */
+        public Builder optMaxPendingRequests(int maxPendingRequests) {
+            this.maxPendingRequests = maxPendingRequests;
+            return this;
+        }
+
+        /**
+         * Sets the number of {@link ai.djl.inference.Predictor}s of each model, defaults to 1.
+         *
+         * @param predictors the number of predictors of each model
+         * @return this builder
+         */
+        public Builder optPredictors(int predictors) {
+            this.predictors = predictors;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of requests that are batched together, defaults to 1 for no
+         * batching.
+         *
+         * <p>The translator of the model must have a {@link ai.djl.translate.Batchifier} to run the
+         * requests as one batch, otherwise they are run one by one by the same predictor.
+         *
+         * @param maxBatchSize the maximum number of requests in a batch
+         * @return this builder
+         */
+        public Builder optMaxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        /**
+         * Sets the maximum time in milliseconds to wait for a batch to fill up, defaults to 10.
+         *
+         * @param maxBatchDelay the maximum batching delay in milliseconds
+         * @return this builder
+         */
+        public Builder optMaxBatchDelay(long maxBatchDelay) {
+            this.maxBatchDelay = maxBatchDelay;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of requests of a model that run or wait at a time, defaults to
+         * 100.
+         *
+         * @param maxQueueSize the maximum number of requests of a model
+         * @return this builder
+         */
+        public Builder optMaxQueueSize(int maxQueueSize) {
+            this.maxQueueSize = maxQueueSize;
+            return this;
+        }
+
+        /**
+         * Sets the timeout in milliseconds to wait for a chunk of a streamed output and for the
+         * running requests when the endpoint is closed, defaults to 60 seconds.
+         *
+         * @param timeout the timeout in milliseconds
+         * @return this builder
+         */
+        public Builder optTimeout(long timeout) {
+            this.timeout = timeout;
+            return this;
+        }
+
+        /**
+         * Builds the {@link InferenceEndpoint}, it serves the models once it is started.
+         *
+         * @return the {@link InferenceEndpoint}
+         */
+        public InferenceEndpoint build() {
+            if (models.isEmpty()) {
+                throw new IllegalArgumentException("At least one model must be added");
+            }
+            if (threads < 1 || maxPendingRequests < 1 || predictors < 1 || maxQueueSize < 1) {
+                throw new IllegalArgumentException(
+                        "The threads, pending requests, predictors and queue size must be"
+                                + " positive");
+            }
+            return new InferenceEndpoint(this);
+        }
+    }
+}
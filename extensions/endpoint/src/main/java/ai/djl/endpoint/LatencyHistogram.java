@@ -0,0 +1,170 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.endpoint;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@code LatencyHistogram} records latencies in microseconds into exponentially growing buckets.
+ *
+ * <p>Each bucket is 10% wider than the previous one, so a percentile is accurate to 10% of its
+ * value with a fixed amount of memory, from one microsecond up to several minutes. Recording is
+ * lock free and can be done from many threads.
+ */
+public class LatencyHistogram {
+
+    private static final double GROWTH = 1.1;
+    private static final int BUCKETS = 220;
+
+    private AtomicLongArray counts;
+    private LongAdder count;
+    private LongAdder sum;
+    private LongAccumulator max;
+
+    /** Constructs an empty {@code LatencyHistogram}. */
+    public LatencyHistogram() {
+        counts = new AtomicLongArray(BUCKETS);
+        count = new LongAdder();
+        sum = new LongAdder();
+        max = new LongAccumulator(Math::max, 0);
+    }
+
+    /**
+     * Records a latency.
+     *
+     * @param micros the latency in microseconds
+     */
+    public void record(long micros) {
+        counts.incrementAndGet(bucketOf(micros));
+        count.increment();
+        sum.add(micros);
+        max.accumulate(micros);
+    }
+
+    /**
+     * Returns the number of recorded latencies.
+     *
+     * @return the number of recorded latencies
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Returns the mean latency in microseconds.
+     *
+     * @return the mean latency in microseconds, 0 if nothing is recorded
+     */
+    public double getMean() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    /**
+     * Returns the maximum latency in microseconds.
+     *
+     * @return the maximum latency in microseconds
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Returns the latency in microseconds that the given percentage of the latencies do not exceed,
+     * which is the upper bound of its bucket.
+     *
+     * @param percentile the percentile between 0 and 100
+     * @return the latency of the percentile in microseconds, 0 if nothing is recorded
+     */
+    public long getPercentile(double percentile) {
+        long total = 0;
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; ++i) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; ++i) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(upperBound(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Returns a summary of the histogram with the count, mean, max and common percentiles, and the
+     * non-empty buckets by their upper bound.
+     *
+     * @return a summary of the histogram
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("count", getCount());
+        map.put("mean", getMean());
+        map.put("p50", getPercentile(50));
+        map.put("p90", getPercentile(90));
+        map.put("p99", getPercentile(99));
+        map.put("p999", getPercentile(99.9));
+        map.put("max", getMax());
+        List<long[]> buckets = new ArrayList<>();
+        for (int i = 0; i < BUCKETS; ++i) {
+            long c = counts.get(i);
+            if (c > 0) {
+                buckets.add(new long[] {upperBound(i), c});
+            }
+        }
+        map.put("buckets", buckets);
+        return map;
+    }
+
+    /** Clears the recorded latencies. */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; ++i) {
+            counts.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    private static int bucketOf(long micros) {
+        if (micros <= 1) {
+            return 0;
+        }
+        int bucket = (int) Math.ceil(Math.log(micros) / Math.log(GROWTH));
+        // the rounding of the logarithm may put an exact bound into the next bucket
+        if (bucket > 0 && upperBound(bucket - 1) >= micros) {
+            bucket--;
+        }
+        return Math.min(bucket, BUCKETS - 1);
+    }
+
+    private static long upperBound(int bucket) {
+        if (bucket == BUCKETS - 1) {
+            return Long.MAX_VALUE;
+        }
+        return (long) Math.floor(Math.pow(GROWTH, bucket));
+    }
+}
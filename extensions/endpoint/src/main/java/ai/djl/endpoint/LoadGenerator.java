@@ -0,0 +1,349 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.endpoint;
+
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.Shape;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@code LoadGenerator} sends requests to an HTTP endpoint from a number of concurrent clients
+ * and measures the latency and throughput.
+ *
+ * <p>Each client sends its next request as soon as the previous one completes, so the concurrency
+ * is the number of requests in flight. The first {@code warmup} requests are not measured.
+ *
+ * <pre>
+ * LoadGenerator.Result result =
+ *         LoadGenerator.builder()
+ *                 .setUrl("http://localhost:8080/predictions/model")
+ *                 .setPayload(list.encode())
+ *                 .optConcurrency(16)
+ *                 .optRequests(10000)
+ *                 .build()
+ *                 .run();
+ * System.out.println(result);
+ * </pre>
+ */
+public final class LoadGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadGenerator.class);
+
+    private URL url;
+    private byte[] payload;
+    private String contentType;
+    private int concurrency;
+    private int requests;
+    private int warmup;
+
+    LoadGenerator(Builder builder) {
+        url = builder.url;
+        payload = builder.payload;
+        contentType = builder.contentType;
+        concurrency = builder.concurrency;
+        requests = builder.requests;
+        warmup = builder.warmup;
+    }
+
+    /**
+     * Creates a builder to build a {@code LoadGenerator}.
+     *
+     * @return a new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Sends the requests and waits for them to complete.
+     *
+     * @return the measured result
+     * @throws InterruptedException if interrupted while waiting for the requests
+     */
+    public Result run() throws InterruptedException {
+        LatencyHistogram latency = new LatencyHistogram();
+        AtomicInteger next = new AtomicInteger();
+        AtomicLong errors = new AtomicLong();
+        AtomicLong measureStart = new AtomicLong(warmup == 0 ? System.nanoTime() : 0);
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        try {
+            List<Future<?>> futures = new ArrayList<>(concurrency);
+            for (int i = 0; i < concurrency; ++i) {
+                futures.add(
+                        executor.submit(
+                                () -> {
+                                    int index;
+                                    while ((index = next.getAndIncrement()) < warmup + requests) {
+                                        if (index == warmup) {
+                                            measureStart.set(System.nanoTime());
+                                        }
+                                        long begin = System.nanoTime();
+                                        boolean success = send();
+                                        if (index >= warmup) {
+                                            latency.record((System.nanoTime() - begin) / 1000);
+                                            if (!success) {
+                                                errors.incrementAndGet();
+                                            }
+                                        }
+                                    }
+                                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Load generator failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        long elapsed = System.nanoTime() - measureStart.get();
+        return new Result(latency, errors.get(), elapsed);
+    }
+
+    /**
+     * Runs the load generator from the command line.
+     *
+     * <p>The arguments are the url, and optionally the concurrency, the number of requests and a
+     * file with the payload. Without a payload file, an NDList of a float32 array of shape (1, 3,
+     * 224, 224) is sent.
+     *
+     * @param args the command line arguments
+     * @throws IOException if failed to read the payload
+     * @throws InterruptedException if interrupted while waiting for the requests
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 1) {
+            logger.error("Usage: LoadGenerator <url> [concurrency] [requests] [payload-file]");
+            return;
+        }
+        Builder builder = builder().setUrl(args[0]);
+        if (args.length > 1) {
+            builder.optConcurrency(Integer.parseInt(args[1]));
+        }
+        if (args.length > 2) {
+            builder.optRequests(Integer.parseInt(args[2]));
+        }
+        if (args.length > 3) {
+            builder.setPayload(Files.readAllBytes(Paths.get(args[3])));
+        } else {
+            try (NDManager manager = NDManager.newBaseManager()) {
+                builder.setPayload(new NDList(manager.ones(new Shape(1, 3, 224, 224))).encode());
+            }
+        }
+        Result result = builder.optWarmup(builder.concurrency * 2).build().run();
+        logger.info("{}", result);
+    }
+
+    private boolean send() {
+        HttpURLConnection conn = null;
+        try {
+            conn = (HttpURLConnection) url.openConnection();
+            conn.setRequestMethod("POST");
+            conn.setDoOutput(true);
+            conn.setRequestProperty("Content-Type", contentType);
+            conn.setFixedLengthStreamingMode(payload.length);
+            try (OutputStream os = conn.getOutputStream()) {
+                os.write(payload);
+            }
+            int code = conn.getResponseCode();
+            InputStream is = code < 400 ? conn.getInputStream() : conn.getErrorStream();
+            if (is != null) {
+                // reads the whole response, so the connection is kept alive
+                try (InputStream in = is) {
+                    byte[] buf = new byte[8192];
+                    while (in.read(buf) >= 0) {
+                        // discards the response
+                    }
+                }
+            }
+            return code < 400;
+        } catch (IOException e) {
+            logger.debug("Request failed", e);
+            if (conn != null) {
+                conn.disconnect();
+            }
+            return false;
+        }
+    }
+
+    /** The measured result of a {@link LoadGenerator} run. */
+    public static final class Result {
+
+        private LatencyHistogram latency;
+        private long errors;
+        private long elapsed;
+
+        Result(LatencyHistogram latency, long errors, long elapsed) {
+            this.latency = latency;
+            this.errors = errors;
+            this.elapsed = elapsed;
+        }
+
+        /**
+         * Returns the latencies of the measured requests.
+         *
+         * @return the latencies of the measured requests
+         */
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+
+        /**
+         * Returns the number of failed requests.
+         *
+         * @return the number of failed requests
+         */
+        public long getErrors() {
+            return errors;
+        }
+
+        /**
+         * Returns the number of measured requests per second.
+         *
+         * @return the number of measured requests per second
+         */
+        public double getThroughput() {
+            return elapsed <= 0 ? 0 : latency.getCount() * 1e9 / elapsed;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public String toString() {
+            return String.format(
+                    "requests: %d, errors: %d, throughput: %.1f/s, latency mean: %.0fus, p50:"
+                            + " %dus, p90: %dus, p99: %dus, max: %dus",
+                    latency.getCount(),
+                    errors,
+                    getThroughput(),
+                    latency.getMean(),
+                    latency.getPercentile(50),
+                    latency.getPercentile(90),
+                    latency.getPercentile(99),
+                    latency.getMax());
+        }
+    }
+
+    /** The Builder to construct a {@link LoadGenerator}. */
+    public static final class Builder {
+
+        URL url;
+        byte[] payload = new byte[0];
+        String contentType = "tensor/ndlist";
+        int concurrency = 8;
+        int requests = 1000;
+        int warmup;
+
+        Builder() {}
+
+        /**
+         * Sets the url to send the requests to.
+         *
+         * @param url the url to send the requests to
+         * @return this builder
+         * @throws IOException if the url is malformed
+         */
+        public Builder setUrl(String url) throws IOException {
+            this.url = new URL(url);
+            return this;
+        }
+
+        /**
+         * Sets the body of the requests.
+         *
+         * @param payload the body of the requests
+         * @return this builder
+         */
+        public Builder setPayload(byte[] payload) {
+            this.payload = payload;
+            return this;
+        }
+
+        /**
+         * Sets the content type of the requests, defaults to {@code tensor/ndlist}.
+         *
+         * @param contentType the content type of the requests
+         * @return this builder
+         */
+        public Builder optContentType(String contentType) {
+            this.contentType = contentType;
+            return this;
+        }
+
+        /**
+         * Sets the number of concurrent clients, defaults to 8.
+         *
+         * @param concurrency the number of concurrent clients
+         * @return this builder
+         */
+        public Builder optConcurrency(int concurrency) {
+            this.concurrency = concurrency;
+            return this;
+        }
+
+        /**
+         * Sets the number of measured requests, defaults to 1000.
+         *
+         * @param requests the number of measured requests
+         * @return this builder
+         */
+        public Builder optRequests(int requests) {
+            this.requests = requests;
+            return this;
+        }
+
+        /**
+         * Sets the number of requests that are sent before measuring, defaults to 0.
+         *
+         * @param warmup the number of requests that are sent before measuring
+         * @return this builder
+         */
+        public Builder optWarmup(int warmup) {
+            this.warmup = warmup;
+            return this;
+        }
+
+        /**
+         * Builds the {@link LoadGenerator}.
+         *
+         * @return the {@link LoadGenerator}
+         */
+        public LoadGenerator build() {
+            if (url == null) {
+                throw new IllegalArgumentException("The url must be set");
+            }
+            if (concurrency < 1) {
+                throw new IllegalArgumentException("The concurrency must be positive");
+            }
+            return new LoadGenerator(this);
+        }
+    }
+}
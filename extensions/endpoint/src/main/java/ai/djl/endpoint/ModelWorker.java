@@ -0,0 +1,140 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.endpoint;
+
+import ai.djl.inference.DynamicBatchPredictor;
+import ai.djl.inference.Predictor;
+import ai.djl.inference.Warmup;
+import ai.djl.modality.Input;
+import ai.djl.modality.Output;
+import ai.djl.repository.zoo.ZooModel;
+import ai.djl.translate.TranslateException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * A {@code ModelWorker} runs the requests of one model on a pool of {@link Predictor}s.
+ *
+ * <p>Without batching, each request borrows a predictor of the pool. With batching, the requests
+ * are spread over one {@link DynamicBatchPredictor} per predictor, which runs them in batches
+ * through {@link Predictor#batchPredict(List)}. At most {@code maxQueueSize} requests are admitted
+ * at a time, other requests are rejected right away so they do not hold a thread of the server.
+ */
+final class ModelWorker implements AutoCloseable {
+
+    private String name;
+    private ZooModel<Input, Output> model;
+    private BlockingQueue<Predictor<Input, Output>> pool;
+    private List<DynamicBatchPredictor<Input, Output>> batchers;
+    private int maxQueueSize;
+    private Semaphore permits;
+    private LatencyHistogram latency;
+
+    ModelWorker(
+            String name,
+            ZooModel<Input, Output> model,
+            int predictors,
+            int maxBatchSize,
+            long maxBatchDelay,
+            int maxQueueSize) {
+        this.name = name;
+        this.model = model;
+        this.maxQueueSize = maxQueueSize;
+        permits = new Semaphore(maxQueueSize);
+        latency = new LatencyHistogram();
+        if (maxBatchSize > 1) {
+            batchers = new ArrayList<>(predictors);
+            for (int i = 0; i < predictors; ++i) {
+                batchers.add(
+                        DynamicBatchPredictor.builder(model.newPredictor())
+                                .optMaxBatchSize(maxBatchSize)
+                                .optMaxBatchDelay(maxBatchDelay)
+                                .optMaxQueueSize(maxQueueSize)
+                                .build());
+            }
+        } else {
+            pool = new ArrayBlockingQueue<>(predictors);
+            for (int i = 0; i < predictors; ++i) {
+                pool.add(model.newPredictor());
+            }
+        }
+    }
+
+    String getName() {
+        return name;
+    }
+
+    boolean isReady() {
+        // a model that was warmed up is ready once its latency has stabilized
+        return !"false".equals(model.getProperty(Warmup.READY_PROPERTY));
+    }
+
+    LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    int getInFlight() {
+        return maxQueueSize - permits.availablePermits();
+    }
+
+    Output predict(Input input) throws TranslateException {
+        if (!permits.tryAcquire()) {
+            throw new RejectedExecutionException("Too many requests for model " + name);
+        }
+        try {
+            if (batchers != null) {
+                return leastLoaded().predict(input);
+            }
+            Predictor<Input, Output> predictor = pool.take();
+            try {
+                return predictor.predict(input);
+            } finally {
+                pool.add(predictor);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TranslateException("Interrupted while waiting for a predictor", e);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close() {
+        if (batchers != null) {
+            for (DynamicBatchPredictor<Input, Output> batcher : batchers) {
+                batcher.close();
+            }
+        } else {
+            for (Predictor<Input, Output> predictor : pool) {
+                predictor.close();
+            }
+        }
+    }
+
+    private DynamicBatchPredictor<Input, Output> leastLoaded() {
+        DynamicBatchPredictor<Input, Output> ret = batchers.get(0);
+        for (int i = 1; i < batchers.size(); ++i) {
+            if (batchers.get(i).getQueueLength() < ret.getQueueLength()) {
+                ret = batchers.get(i);
+            }
+        }
+        return ret;
+    }
+}
@@ -0,0 +1,337 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.endpoint;
+
+import ai.djl.Model;
+import ai.djl.ModelException;
+import ai.djl.inference.streaming.ChunkedBytesSupplier;
+import ai.djl.modality.Input;
+import ai.djl.modality.Output;
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.DataType;
+import ai.djl.ndarray.types.Shape;
+import ai.djl.nn.Block;
+import ai.djl.nn.Blocks;
+import ai.djl.repository.zoo.Criteria;
+import ai.djl.repository.zoo.ZooModel;
+import ai.djl.translate.NoBatchifyTranslator;
+import ai.djl.translate.TranslatorContext;
+import ai.djl.util.Utils;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class InferenceEndpointTest {
+
+    @AfterClass
+    public void tierDown() {
+        Utils.deleteQuietly(Paths.get("build/model"));
+    }
+
+    @Test
+    public void testEndpoint() throws IOException, ModelException, InterruptedException {
+        Path path = saveModel();
+        Criteria<Input, Output> criteria =
+                Criteria.builder()
+                        .setTypes(Input.class, Output.class)
+                        .optModelPath(path)
+                        .optModelName("identity")
+                        .optBlock(Blocks.identityBlock())
+                        .optArgument("batchifier", "stack")
+                        .build();
+        Criteria<Input, Output> streaming =
+                Criteria.builder()
+                        .setTypes(Input.class, Output.class)
+                        .optModelPath(path)
+                        .optModelName("identity")
+                        .optBlock(Blocks.identityBlock())
+                        .optTranslator(new StreamingTranslator(10))
+                        .build();
+
+        try (ZooModel<Input, Output> model = criteria.loadModel();
+                ZooModel<Input, Output> stream = streaming.loadModel();
+                NDManager manager = NDManager.newBaseManager()) {
+            InferenceEndpoint endpoint =
+                    InferenceEndpoint.builder()
+                            .addModel("identity", model)
+                            .addModel("stream", stream)
+                            .optHost("127.0.0.1")
+                            .optPort(0)
+                            .optThreads(4)
+                            .optPredictors(2)
+                            .optMaxBatchSize(4)
+                            .optMaxBatchDelay(2)
+                            .build();
+            try {
+                checkEndpoint(endpoint, manager);
+            } finally {
+                endpoint.close();
+            }
+            Assert.assertFalse(endpoint.isReady());
+        }
+    }
+
+    private void checkEndpoint(InferenceEndpoint endpoint, NDManager manager)
+            throws IOException, InterruptedException {
+        Assert.assertFalse(endpoint.isReady());
+        endpoint.start();
+        Assert.assertTrue(endpoint.isReady());
+        String base = "http://127.0.0.1:" + endpoint.getPort();
+
+        NDList list = new NDList(manager.create(new float[] {1f, 2f, 3f}));
+        HttpURLConnection conn = post(base + "/predictions/identity", list.encode());
+        Assert.assertEquals(conn.getResponseCode(), 200);
+        Assert.assertEquals(conn.getHeaderField("Content-Type"), "tensor/ndlist");
+        try (InputStream is = conn.getInputStream()) {
+            NDList result = NDList.decode(manager, is);
+            Assert.assertEquals(result.singletonOrThrow(), list.singletonOrThrow());
+        }
+
+        Assert.assertEquals(get(base + "/ping"), 200);
+        Assert.assertEquals(get(base + "/ready"), 200);
+        Assert.assertEquals(get(base + "/metrics"), 200);
+        Assert.assertEquals(get(base + "/predictions/identity"), 405);
+        Assert.assertEquals(get(base + "/predictions/unknown"), 404);
+        Assert.assertEquals(
+                post(base + "/predictions/identity", new byte[4]).getResponseCode(), 500);
+
+        LoadGenerator.Result result =
+                LoadGenerator.builder()
+                        .setUrl(base + "/predictions/identity")
+                        .setPayload(list.encode())
+                        .optConcurrency(8)
+                        .optRequests(200)
+                        .optWarmup(8)
+                        .build()
+                        .run();
+        Assert.assertEquals(result.getErrors(), 0);
+        Assert.assertEquals(result.getLatency().getCount(), 200);
+        Assert.assertTrue(result.getThroughput() > 0);
+        Assert.assertEquals(endpoint.getLatency("identity").getCount(), 210);
+
+        conn = post(base + "/predictions/stream", new byte[0]);
+        Assert.assertEquals(conn.getResponseCode(), 200);
+        Assert.assertEquals(conn.getHeaderField("Transfer-Encoding"), "chunked");
+        try (InputStream is = conn.getInputStream()) {
+            String text = Utils.toString(is);
+            Assert.assertEquals(text, "0123456789");
+        }
+    }
+
+    @Test
+    public void testOverload()
+            throws IOException, ModelException, InterruptedException, ExecutionException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Criteria<Input, Output> criteria =
+                Criteria.builder()
+                        .setTypes(Input.class, Output.class)
+                        .optModelPath(saveModel())
+                        .optModelName("identity")
+                        .optBlock(Blocks.identityBlock())
+                        .optTranslator(new BlockingTranslator(started, release))
+                        .build();
+        ExecutorService clients = Executors.newCachedThreadPool();
+        try (ZooModel<Input, Output> model = criteria.loadModel();
+                InferenceEndpoint endpoint =
+                        InferenceEndpoint.builder()
+                                .addModel("blocking", model)
+                                .optHost("127.0.0.1")
+                                .optPort(0)
+                                .optThreads(1)
+                                .optMaxPendingRequests(1)
+                                .build()) {
+            endpoint.start();
+            String url = "http://127.0.0.1:" + endpoint.getPort() + "/predictions/blocking";
+
+            // the first request blocks the only thread, the second one waits in the queue
+            Future<Integer> first = clients.submit(() -> post(url, new byte[0]).getResponseCode());
+            Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+            Future<Integer> second = clients.submit(() -> post(url, new byte[0]).getResponseCode());
+            Thread.sleep(200);
+
+            // the server still answers, and rejects predictions right away
+            Assert.assertEquals(post(url, new byte[0]).getResponseCode(), 503);
+            Assert.assertEquals(get("http://127.0.0.1:" + endpoint.getPort() + "/ping"), 200);
+
+            release.countDown();
+            Assert.assertEquals(first.get().intValue(), 200);
+            Assert.assertEquals(second.get().intValue(), 200);
+        } finally {
+            release.countDown();
+            clients.shutdown();
+        }
+    }
+
+    @Test
+    public void testChunkTimeout() throws IOException, ModelException {
+        StreamingTranslator translator = new StreamingTranslator(1);
+        Criteria<Input, Output> criteria =
+                Criteria.builder()
+                        .setTypes(Input.class, Output.class)
+                        .optModelPath(saveModel())
+                        .optModelName("identity")
+                        .optBlock(Blocks.identityBlock())
+                        .optTranslator(translator)
+                        .build();
+        try (ZooModel<Input, Output> model = criteria.loadModel();
+                InferenceEndpoint endpoint =
+                        InferenceEndpoint.builder()
+                                .addModel("stream", model)
+                                .optHost("127.0.0.1")
+                                .optPort(0)
+                                .optTimeout(200)
+                                .build()) {
+            endpoint.start();
+            String url = "http://127.0.0.1:" + endpoint.getPort() + "/predictions/stream";
+            HttpURLConnection conn = post(url, new byte[0]);
+            Assert.assertEquals(conn.getResponseCode(), 200);
+            // the last chunk never comes, the response is aborted instead of completed
+            try (InputStream is = conn.getInputStream()) {
+                Assert.assertThrows(IOException.class, () -> Utils.toString(is));
+            }
+            Assert.assertTrue(translator.chunks.isCancelled());
+        }
+    }
+
+    @Test
+    public void testLatencyHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Assert.assertEquals(histogram.getPercentile(50), 0);
+        for (int i = 1; i <= 1000; ++i) {
+            histogram.record(i);
+        }
+        Assert.assertEquals(histogram.getCount(), 1000);
+        Assert.assertEquals(histogram.getMean(), 500.5, 1e-6);
+        Assert.assertEquals(histogram.getMax(), 1000);
+        // a percentile is the upper bound of its bucket, which is at most 10% larger
+        long p50 = histogram.getPercentile(50);
+        Assert.assertTrue(p50 >= 500 && p50 <= 550, "p50 " + p50);
+        long p99 = histogram.getPercentile(99);
+        Assert.assertTrue(p99 >= 990 && p99 <= 1000, "p99 " + p99);
+        Assert.assertEquals(histogram.getPercentile(100), 1000);
+        histogram.reset();
+        Assert.assertEquals(histogram.getCount(), 0);
+    }
+
+    private static Path saveModel() throws IOException {
+        Path path = Paths.get("build/model");
+        Files.createDirectories(path);
+        try (NDManager manager = NDManager.newBaseManager();
+                Model model = Model.newInstance("identity")) {
+            Block block = Blocks.identityBlock();
+            block.initialize(manager, DataType.FLOAT32, new Shape(1));
+            model.setBlock(block);
+            model.save(path, null);
+        }
+        return path;
+    }
+
+    private static HttpURLConnection post(String url, byte[] body) throws IOException {
+        HttpURLConnection conn = (HttpURLConnection) new URL(url).openConnection();
+        conn.setRequestMethod("POST");
+        conn.setDoOutput(true);
+        conn.setRequestProperty("Content-Type", "tensor/ndlist");
+        try (OutputStream os = conn.getOutputStream()) {
+            os.write(body);
+        }
+        return conn;
+    }
+
+    private static int get(String url) throws IOException {
+        HttpURLConnection conn = (HttpURLConnection) new URL(url).openConnection();
+        int code = conn.getResponseCode();
+        conn.disconnect();
+        return code;
+    }
+
+    private static final class StreamingTranslator implements NoBatchifyTranslator<Input, Output> {
+
+        private int count;
+        volatile ChunkedBytesSupplier chunks;
+
+        StreamingTranslator(int count) {
+            this.count = count;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public NDList processInput(TranslatorContext ctx, Input input) {
+            return new NDList(ctx.getNDManager().zeros(new Shape(1)));
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public Output processOutput(TranslatorContext ctx, NDList list) {
+            ChunkedBytesSupplier cs = new ChunkedBytesSupplier();
+            chunks = cs;
+            Output output = new Output();
+            output.add(cs);
+            // with a count of 1, the last chunk is never appended
+            Thread thread =
+                    new Thread(
+                            () -> {
+                                for (int i = 0; i < count; ++i) {
+                                    cs.appendContent(
+                                            String.valueOf(i).getBytes(StandardCharsets.UTF_8),
+                                            i == 9);
+                                }
+                            });
+            thread.start();
+            return output;
+        }
+    }
+
+    private static final class BlockingTranslator implements NoBatchifyTranslator<Input, Output> {
+
+        private CountDownLatch started;
+        private CountDownLatch release;
+
+        BlockingTranslator(CountDownLatch started, CountDownLatch release) {
+            this.started = started;
+            this.release = release;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public NDList processInput(TranslatorContext ctx, Input input) throws InterruptedException {
+            started.countDown();
+            release.await();
+            return new NDList(ctx.getNDManager().zeros(new Shape(1)));
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public Output processOutput(TranslatorContext ctx, NDList list) {
+            return new Output();
+        }
+    }
+}
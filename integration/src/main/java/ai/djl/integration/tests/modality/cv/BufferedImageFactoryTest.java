@@ -12,18 +12,31 @@
  */
 package ai.djl.integration.tests.modality.cv;
 
+import ai.djl.Model;
+import ai.djl.inference.Predictor;
 import ai.djl.modality.cv.Image;
 import ai.djl.modality.cv.ImageFactory;
+import ai.djl.modality.cv.transform.Normalize;
+import ai.djl.modality.cv.transform.ToTensor;
+import ai.djl.modality.cv.translator.ImageClassificationTranslator;
+import ai.djl.modality.cv.util.NDImageUtils;
 import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDList;
 import ai.djl.ndarray.NDManager;
 import ai.djl.ndarray.types.DataType;
 import ai.djl.ndarray.types.Shape;
+import ai.djl.nn.Blocks;
 import ai.djl.testing.Assertions;
+import ai.djl.translate.TranslateException;
+import ai.djl.translate.Translator;
+import ai.djl.translate.TranslatorContext;
 
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.util.Collections;
 
 public class BufferedImageFactoryTest {
     @Test
@@ -54,4 +67,141 @@ public class BufferedImageFactoryTest {
             Assertions.assertAlmostEquals(array, converted);
         }
     }
+
+    @Test
+    public void testImageTypes() {
+        int[] types = {
+            BufferedImage.TYPE_3BYTE_BGR,
+            BufferedImage.TYPE_INT_RGB,
+            BufferedImage.TYPE_INT_ARGB,
+            BufferedImage.TYPE_BYTE_GRAY,
+            BufferedImage.TYPE_INT_BGR
+        };
+        try (NDManager manager = NDManager.newBaseManager()) {
+            ImageFactory factory = ImageFactory.getInstance();
+            for (int type : types) {
+                BufferedImage bi = new BufferedImage(7, 5, type);
+                for (int y = 0; y < 5; ++y) {
+                    for (int x = 0; x < 7; ++x) {
+                        bi.setRGB(x, y, 0xFF000000 | (x * 36) << 16 | (y * 60) << 8 | (x + y) * 20);
+                    }
+                }
+                // sub-images share the raster of the original image
+                BufferedImage sub = bi.getSubimage(2, 1, 4, 3);
+                Image image = factory.fromImage(sub);
+                NDArray array = image.toNDArray(manager);
+                Assert.assertEquals(array.getShape(), new Shape(3, 4, 3));
+                int[] actual = array.toUint8Array();
+                for (int y = 0; y < 3; ++y) {
+                    for (int x = 0; x < 4; ++x) {
+                        int rgb = sub.getRGB(x, y);
+                        int pos = (y * 4 + x) * 3;
+                        if (type == BufferedImage.TYPE_BYTE_GRAY) {
+                            int gray = sub.getRaster().getSample(x, y, 0);
+                            Assert.assertEquals(actual[pos], gray);
+                        } else {
+                            Assert.assertEquals(actual[pos], (rgb >> 16) & 0xFF);
+                            Assert.assertEquals(actual[pos + 1], (rgb >> 8) & 0xFF);
+                            Assert.assertEquals(actual[pos + 2], rgb & 0xFF);
+                        }
+                    }
+                }
+
+                NDArray gray = image.toNDArray(manager, Image.Flag.GRAYSCALE);
+                Assert.assertEquals(gray.getShape(), new Shape(3, 4, 1));
+            }
+        }
+    }
+
+    @Test
+    public void testToTensor() {
+        try (NDManager manager = NDManager.newBaseManager()) {
+            ImageFactory factory = ImageFactory.getInstance();
+            NDArray array = manager.randomInteger(0, 256, new Shape(6, 5, 3), DataType.INT32);
+            Image image = factory.fromNDArray(array);
+            float[] mean = {0.485f, 0.456f, 0.406f};
+            float[] std = {0.229f, 0.224f, 0.225f};
+
+            NDArray expected = NDImageUtils.toTensor(image.toNDArray(manager));
+            NDArray tensor = image.toTensor(manager, Image.Flag.COLOR, true, null, null);
+            Assert.assertEquals(tensor.getShape(), new Shape(3, 6, 5));
+            Assertions.assertAlmostEquals(tensor, expected);
+
+            tensor = image.toTensor(manager, Image.Flag.COLOR, true, mean, std);
+            Assertions.assertAlmostEquals(tensor, NDImageUtils.normalize(expected, mean, std));
+
+            tensor = image.toTensor(manager, Image.Flag.COLOR, false, mean, std);
+            Assert.assertEquals(tensor.getShape(), new Shape(6, 5, 3));
+            Assertions.assertAlmostEquals(
+                    tensor, NDImageUtils.normalize(expected, mean, std).transpose(1, 2, 0));
+
+            Assert.assertThrows(
+                    IllegalArgumentException.class,
+                    () -> image.toTensor(manager, Image.Flag.GRAYSCALE, true, mean, std));
+        }
+    }
+
+    @Test
+    public void testTranslatorToTensor() throws TranslateException {
+        float[] mean = {0.485f, 0.456f, 0.406f};
+        float[] std = {0.229f, 0.224f, 0.225f};
+        try (NDManager manager = NDManager.newBaseManager();
+                Model model = Model.newInstance("identity")) {
+            model.setBlock(Blocks.identityBlock());
+            NDArray array = manager.randomInteger(0, 256, new Shape(6, 5, 3), DataType.INT32);
+            Image image = ImageFactory.getInstance().fromNDArray(array);
+            NDArray expected = NDImageUtils.toTensor(image.toNDArray(manager));
+
+            // ToTensor and Normalize in front of the pipeline take the fused path
+            ImageClassificationTranslator translator =
+                    ImageClassificationTranslator.builder()
+                            .addTransform(new ToTensor())
+                            .addTransform(new Normalize(mean, std))
+                            .optSynset(Collections.singletonList("a"))
+                            .build();
+            try (Predictor<Image, NDArray> predictor =
+                    model.newPredictor(new InputTranslator(translator, manager))) {
+                NDArray tensor = predictor.predict(image);
+                Assertions.assertAlmostEquals(tensor, NDImageUtils.normalize(expected, mean, std));
+            }
+
+            translator =
+                    ImageClassificationTranslator.builder()
+                            .addTransform(new ToTensor())
+                            .addTransform(a -> a.mul(2))
+                            .optSynset(Collections.singletonList("a"))
+                            .build();
+            try (Predictor<Image, NDArray> predictor =
+                    model.newPredictor(new InputTranslator(translator, manager))) {
+                NDArray tensor = predictor.predict(image);
+                Assertions.assertAlmostEquals(tensor, expected.mul(2));
+            }
+        }
+    }
+
+    /** Returns the pre-processed input of an image translator. */
+    private static final class InputTranslator implements Translator<Image, NDArray> {
+
+        private Translator<Image, ?> translator;
+        private NDManager manager;
+
+        InputTranslator(Translator<Image, ?> translator, NDManager manager) {
+            this.translator = translator;
+            this.manager = manager;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public NDList processInput(TranslatorContext ctx, Image input) throws Exception {
+            return translator.processInput(ctx, input);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public NDArray processOutput(TranslatorContext ctx, NDList list) {
+            NDArray array = list.singletonOrThrow();
+            array.attach(manager);
+            return array;
+        }
+    }
 }
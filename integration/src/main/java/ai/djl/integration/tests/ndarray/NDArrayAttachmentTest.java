@@ -16,10 +16,20 @@ import ai.djl.ndarray.NDArray;
 import ai.djl.ndarray.NDManager;
 import ai.djl.ndarray.index.NDIndex;
 import ai.djl.ndarray.types.Shape;
+import ai.djl.util.Utils;
 
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
 public class NDArrayAttachmentTest {
 
     @Test
@@ -82,4 +92,45 @@ public class NDArrayAttachmentTest {
             }
         }
     }
+
+    @Test
+    public void testConcurrentAttach() throws InterruptedException, ExecutionException {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        AtomicInteger closed = new AtomicInteger();
+        List<NDArray> arrays = new CopyOnWriteArrayList<>();
+        try {
+            NDManager manager = NDManager.newBaseManager();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; ++t) {
+                futures.add(
+                        executor.submit(
+                                () -> {
+                                    for (int i = 0; i < 100; ++i) {
+                                        NDManager subManager = manager.newSubManager();
+                                        arrays.add(subManager.zeros(new Shape(2)));
+                                        manager.attachInternal(
+                                                Utils.nextUid(), closed::incrementAndGet);
+                                        String id = Utils.nextUid();
+                                        manager.attachInternal(id, closed::incrementAndGet);
+                                        manager.detachInternal(id);
+                                        if (i % 2 == 0) {
+                                            subManager.close();
+                                        }
+                                    }
+                                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            manager.close();
+        } finally {
+            executor.shutdown();
+        }
+        // every attached resource is closed exactly once, detached ones are not closed
+        Assert.assertEquals(closed.get(), 400);
+        Assert.assertEquals(arrays.size(), 400);
+        for (NDArray array : arrays) {
+            Assert.assertFalse(array.getManager().isOpen());
+        }
+    }
 }
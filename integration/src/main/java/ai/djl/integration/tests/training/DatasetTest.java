@@ -14,6 +14,7 @@ package ai.djl.integration.tests.training;
 
 import ai.djl.Model;
 import ai.djl.basicdataset.cv.classification.Cifar10;
+import ai.djl.metric.Metrics;
 import ai.djl.ndarray.NDArray;
 import ai.djl.ndarray.NDManager;
 import ai.djl.ndarray.types.DataType;
@@ -27,6 +28,7 @@ import ai.djl.training.dataset.ArrayDataset;
 import ai.djl.training.dataset.Batch;
 import ai.djl.training.dataset.BatchSampler;
 import ai.djl.training.dataset.Dataset;
+import ai.djl.training.dataset.ParallelDataIterable;
 import ai.djl.training.dataset.RandomAccessDataset;
 import ai.djl.training.dataset.RandomSampler;
 import ai.djl.training.dataset.SequenceSampler;
@@ -44,6 +46,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.LongStream;
@@ -298,6 +301,41 @@ public class DatasetTest {
         }
     }
 
+    @Test
+    public void testParallelRecordLoading() throws IOException, TranslateException {
+        try (Model model = Model.newInstance("model")) {
+            model.setBlock(Blocks.identityBlock());
+            NDManager manager = model.getNDManager();
+
+            ForkJoinPool pool = new ForkJoinPool(4);
+            RandomAccessDataset dataset =
+                    new ArrayDataset.Builder()
+                            .setData(manager.arange(0, 100, 1, DataType.INT64))
+                            .setSampling(new BatchSampler(new SequenceSampler(), 8, false))
+                            .optPrefetchBytes(256)
+                            .build();
+
+            Metrics metrics = new Metrics();
+            TrainingConfig threadedConfig = config().optExecutorService(pool);
+            try (Trainer trainer = model.newTrainer(threadedConfig)) {
+                trainer.setMetrics(metrics);
+                Iterable<Batch> data = trainer.iterateDataset(dataset);
+                Assert.assertTrue(data instanceof ParallelDataIterable);
+                long expected = 0;
+                for (Batch batch : data) {
+                    for (long value : batch.getData().head().toLongArray()) {
+                        Assert.assertEquals(value, expected++);
+                    }
+                    batch.close();
+                }
+                Assert.assertEquals(expected, 100);
+                Assert.assertEquals(metrics.getMetric("loader-stall").size(), 13);
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
     @Test
     public void testDatasetToArray() throws IOException, TranslateException {
         try (NDManager manager = NDManager.newBaseManager()) {
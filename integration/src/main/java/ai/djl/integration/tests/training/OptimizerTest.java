@@ -19,13 +19,17 @@ import ai.djl.ndarray.NDArray;
 import ai.djl.ndarray.NDArrays;
 import ai.djl.ndarray.NDList;
 import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.DataType;
 import ai.djl.ndarray.types.Shape;
 import ai.djl.nn.Block;
 import ai.djl.nn.Parameter;
 import ai.djl.nn.core.Linear;
 import ai.djl.testing.Assertions;
+import ai.djl.training.BucketedParameterServer;
 import ai.djl.training.DefaultTrainingConfig;
 import ai.djl.training.EasyTrain;
+import ai.djl.training.LocalParameterServer;
+import ai.djl.training.ParameterServer;
 import ai.djl.training.Trainer;
 import ai.djl.training.TrainingConfig;
 import ai.djl.training.dataset.Batch;
@@ -35,8 +39,12 @@ import ai.djl.training.optimizer.Optimizer;
 import ai.djl.training.tracker.Tracker;
 import ai.djl.translate.Batchifier;
 
+import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
 public class OptimizerTest {
 
     private static final int BATCH_SIZE = 10;
@@ -70,6 +78,82 @@ public class OptimizerTest {
         }
     }
 
+    @Test
+    public void testBucketedParameterServer() {
+        Optimizer sgd = Optimizer.sgd().setLearningRateTracker(Tracker.fixed(0.1f)).build();
+
+        Device[] devices = Engine.getInstance().getDevices(1);
+        TrainingConfig config =
+                new DefaultTrainingConfig(Loss.l2Loss())
+                        .optInitializer(Initializer.ONES, Parameter.Type.WEIGHT)
+                        .optOptimizer(sgd)
+                        .optDevices(devices);
+        Block block = Linear.builder().setUnits(CHANNELS).build();
+        try (Model model = Model.newInstance("model", devices[0])) {
+            model.setBlock(block);
+
+            try (Trainer trainer = model.newTrainer(config)) {
+                // small buckets, so each parameter is reduced in its own task
+                trainer.setParameterServer(
+                        new BucketedParameterServer(sgd, ForkJoinPool.commonPool(), 16));
+                int batchSize = config.getDevices().length * BATCH_SIZE;
+                trainer.initialize(new Shape(batchSize, CHANNELS));
+
+                NDManager manager = trainer.getManager();
+                NDArray result = runOptimizer(manager, trainer, block, batchSize);
+                NDArray result2 = runOptimizer(manager, trainer, block, batchSize);
+                Assertions.assertAlmostEquals(result, manager.create(new float[] {0.68f, -0.16f}));
+                Assertions.assertAlmostEquals(
+                        result2, manager.create(new float[] {0.4912f, -0.2544f}));
+            }
+        }
+    }
+
+    @Test
+    public void testBucketedReduction() {
+        // two replicas of each parameter, as if training on two devices
+        Shape[] shapes = {new Shape(4, 3), new Shape(3), new Shape(5), new Shape(2, 2)};
+        DataType[] types = {DataType.FLOAT32, DataType.FLOAT32, DataType.FLOAT64, DataType.FLOAT32};
+        int numReplicas = 2;
+        try (NDManager manager = NDManager.newBaseManager()) {
+            NDArray[][] expected = new NDArray[shapes.length][numReplicas];
+            NDArray[][] actual = new NDArray[shapes.length][numReplicas];
+            NDArray[][] grads = new NDArray[shapes.length][numReplicas];
+            for (int i = 0; i < shapes.length; ++i) {
+                for (int j = 0; j < numReplicas; ++j) {
+                    NDArray param = manager.randomUniform(0, 1, shapes[i]).toType(types[i], false);
+                    expected[i][j] = param.duplicate();
+                    actual[i][j] = param.duplicate();
+                    grads[i][j] = manager.randomUniform(-1, 1, shapes[i]).toType(types[i], false);
+                }
+            }
+
+            Optimizer sgd = Optimizer.sgd().setLearningRateTracker(Tracker.fixed(0.1f)).build();
+            ParameterServer local = new LocalParameterServer(sgd);
+            for (int i = 0; i < shapes.length; ++i) {
+                NDArray[] copies =
+                        Arrays.stream(grads[i]).map(NDArray::duplicate).toArray(NDArray[]::new);
+                local.update("p" + i, copies, expected[i]);
+            }
+
+            Optimizer sgd2 = Optimizer.sgd().setLearningRateTracker(Tracker.fixed(0.1f)).build();
+            // p0 and p1 share a bucket, the float64 p2 and p3 get buckets of their own
+            try (ParameterServer bucketed = new BucketedParameterServer(sgd2, 64)) {
+                for (int i = 0; i < shapes.length; ++i) {
+                    bucketed.update("p" + i, grads[i], actual[i]);
+                }
+                bucketed.flush();
+            }
+
+            for (int i = 0; i < shapes.length; ++i) {
+                for (int j = 0; j < numReplicas; ++j) {
+                    Assert.assertEquals(actual[i][j].getDataType(), types[i]);
+                    Assertions.assertAlmostEquals(actual[i][j], expected[i][j]);
+                }
+            }
+        }
+    }
+
     @Test
     public void testSgdWithMomentum() {
         Optimizer optim =
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2022 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.integration.tests.training;
+
+import ai.djl.MalformedModelException;
+import ai.djl.Model;
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.Shape;
+import ai.djl.nn.Block;
+import ai.djl.nn.core.Linear;
+import ai.djl.training.DefaultTrainingConfig;
+import ai.djl.training.EasyTrain;
+import ai.djl.training.Trainer;
+import ai.djl.training.dataset.ArrayDataset;
+import ai.djl.training.listener.SaveModelTrainingListener;
+import ai.djl.training.loss.Loss;
+import ai.djl.translate.TranslateException;
+import ai.djl.util.Utils;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class SaveModelTrainingListenerTest {
+
+    @Test
+    public void testAsyncCheckpoints()
+            throws IOException, TranslateException, MalformedModelException {
+        Path dir = Paths.get("build/tmp/checkpoints");
+        Utils.deleteQuietly(dir);
+        try (NDManager manager = NDManager.newBaseManager()) {
+            NDArray data = manager.randomUniform(0, 1, new Shape(64, 4));
+            NDArray labels = data.sum(new int[] {1}, true);
+            ArrayDataset dataset =
+                    new ArrayDataset.Builder()
+                            .setData(data)
+                            .optLabels(labels)
+                            .setSampling(8, false)
+                            .build();
+
+            SaveModelTrainingListener listener =
+                    new SaveModelTrainingListener(dir.toString(), null, 1);
+            listener.setAsync(true);
+            listener.setStepCheckpoint(5);
+            listener.setMaxCheckpoints(2);
+            DefaultTrainingConfig config =
+                    new DefaultTrainingConfig(Loss.l2Loss()).addTrainingListeners(listener);
+
+            Block block = Linear.builder().setUnits(1).build();
+            NDArray weight;
+            try (Model model = Model.newInstance("linear")) {
+                model.setBlock(block);
+                try (Trainer trainer = model.newTrainer(config)) {
+                    trainer.initialize(new Shape(1, 4));
+                    EasyTrain.fit(trainer, 3, dataset, null);
+                }
+                weight = block.getParameters().get("weight").getArray().duplicate();
+                weight.attach(manager);
+            }
+
+            // 3 epochs and 23 completed steps, the last 2 of each are kept
+            Assert.assertEquals(
+                    list(dir),
+                    Arrays.asList(
+                            "linear-0002.params",
+                            "linear-0003.params",
+                            "linear-step-0015.params",
+                            "linear-step-0020.params"));
+
+            try (Model model = Model.newInstance("linear")) {
+                model.setBlock(Linear.builder().setUnits(1).build());
+                model.load(dir);
+                Assert.assertEquals(model.getProperty("Epoch"), "3");
+                NDArray loaded = model.getBlock().getParameters().get("weight").getArray();
+                Assert.assertEquals(loaded, weight);
+            }
+            try (Model model = Model.newInstance("linear-step")) {
+                model.setBlock(Linear.builder().setUnits(1).build());
+                model.load(dir, "linear-step", Collections.singletonMap("epoch", 20));
+                Assert.assertEquals(model.getProperty("Step"), "20");
+                Assert.assertEquals(model.getProperty("Epoch"), "2");
+            }
+        } finally {
+            Utils.deleteQuietly(dir);
+        }
+    }
+
+    private static List<String> list(Path dir) throws IOException {
+        try (Stream<Path> stream = Files.list(dir)) {
+            return stream.map(p -> p.getFileName().toString())
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+}